@@ -66,6 +66,24 @@ public class GlobalExceptionHandler {
         return e.getMessage();
     }
 
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(StockConflictException.class)
+    public String handleStockConflictException(StockConflictException e) {
+        return e.getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(IdempotencyException.class)
+    public String handleIdempotencyException(IdempotencyException e) {
+        return e.getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    @ExceptionHandler(OrderIntakeOverloadedException.class)
+    public String handleOrderIntakeOverloadedException(OrderIntakeOverloadedException e) {
+        return e.getMessage();
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(OrderStatusException.class)
     public String handleChangeOrderStatusException(OrderStatusException e) {
@@ -0,0 +1,50 @@
+package com.ifellow.bookstore.configuration;
+
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
+import com.ifellow.bookstore.util.CursorUtils;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+public class CursorPageRequestArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final int DEFAULT_SIZE = 10;
+    private static final int MAX_SIZE = 2000;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CursorPageRequest.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public CursorPageRequest resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                             NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        int size = resolveSize(webRequest.getParameter("size"));
+
+        String cursor = webRequest.getParameter("cursor");
+        if (StringUtils.hasText(cursor)) return CursorUtils.decode(cursor, size);
+
+        String sort = webRequest.getParameter("sort");
+        if (!StringUtils.hasText(sort)) return new CursorPageRequest(size, "id", Sort.Direction.ASC, null, null);
+
+        String[] parts = sort.split(",");
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElse(Sort.Direction.ASC)
+                : Sort.Direction.ASC;
+        return new CursorPageRequest(size, parts[0].trim(), direction, null, null);
+    }
+
+    private int resolveSize(String size) {
+        if (!StringUtils.hasText(size)) return DEFAULT_SIZE;
+
+        try {
+            return Math.min(Math.max(Integer.parseInt(size), 1), MAX_SIZE);
+        } catch (NumberFormatException e) {
+            return DEFAULT_SIZE;
+        }
+    }
+}
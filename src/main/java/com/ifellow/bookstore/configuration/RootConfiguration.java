@@ -3,6 +3,7 @@ package com.ifellow.bookstore.configuration;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -56,6 +57,11 @@ public class RootConfiguration {
         return entityManagerFactory;
     }
 
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
     @Bean
     public TransactionManager transactionManager(LocalContainerEntityManagerFactoryBean entityManagerFactory) {
         JpaTransactionManager transactionManager = new JpaTransactionManager();
@@ -69,6 +75,12 @@ public class RootConfiguration {
     private String hibernateShowSql;
     @Value("${hibernate.dialect}")
     private String hibernateDialect;
+    @Value("${hibernate.jdbc.batch_size}")
+    private String hibernateBatchSize;
+    @Value("${hibernate.order_inserts}")
+    private String hibernateOrderInserts;
+    @Value("${hibernate.order_updates}")
+    private String hibernateOrderUpdates;
 
     @Bean
     public Properties properties() {
@@ -76,6 +88,9 @@ public class RootConfiguration {
         properties.put("hibernate.hbm2ddl.auto", hibernate2ddl);
         properties.put("hibernate.show_sql", hibernateShowSql);
         properties.put("hibernate.dialect", hibernateDialect);
+        properties.put("hibernate.jdbc.batch_size", hibernateBatchSize);
+        properties.put("hibernate.order_inserts", hibernateOrderInserts);
+        properties.put("hibernate.order_updates", hibernateOrderUpdates);
         return properties;
     }
 
@@ -63,19 +63,26 @@ public class SecurityConfiguration {
                         .requestMatchers(HttpMethod.POST, "/api/authors/**").hasAuthority(RoleName.ROLE_MANAGER.name())
 
                         .requestMatchers(HttpMethod.POST, "/api/stores/{storeId}/sales").hasAuthority(RoleName.ROLE_CLIENT.name())
+                        .requestMatchers(HttpMethod.POST, "/api/stores/{storeId}/sales/upload").hasAuthority(RoleName.ROLE_CLIENT.name())
                         .requestMatchers(HttpMethod.GET, "/api/sales/**").hasAnyAuthority(RoleName.ROLE_MANAGER.name(), RoleName.ROLE_ADMIN.name())
 
                         .requestMatchers(HttpMethod.POST, "/api/warehouses/{warehouseId}/orders").hasAuthority(RoleName.ROLE_CLIENT.name())
+                        .requestMatchers(HttpMethod.POST, "/api/warehouses/{warehouseId}/orders/async").hasAuthority(RoleName.ROLE_CLIENT.name())
+                        .requestMatchers(HttpMethod.GET, "/api/orders/tickets/{ticketId}").hasAuthority(RoleName.ROLE_CLIENT.name())
                         .requestMatchers(HttpMethod.POST, "/api/orders/{orderId}/cancel").hasAnyAuthority(RoleName.ROLE_CLIENT.name(), RoleName.ROLE_MANAGER.name())
                         .requestMatchers(HttpMethod.POST, "/api/orders/{orderId}/complete").hasAuthority(RoleName.ROLE_MANAGER.name())
+                        .requestMatchers(HttpMethod.POST, "/api/orders/complete", "/api/orders/cancel").hasAuthority(RoleName.ROLE_MANAGER.name())
                         .requestMatchers(HttpMethod.GET, "/api/orders/**").hasAnyAuthority(RoleName.ROLE_MANAGER.name(), RoleName.ROLE_ADMIN.name())
 
                         .requestMatchers(HttpMethod.POST, "/api/stores").hasAuthority(RoleName.ROLE_ADMIN.name())
                         .requestMatchers(HttpMethod.POST, "/api/stores/{storeId}/stock/**").hasAuthority(RoleName.ROLE_MANAGER.name())
+                        .requestMatchers(HttpMethod.GET, "/api/stores/{storeId}/stock/history").hasAnyAuthority(RoleName.ROLE_MANAGER.name(), RoleName.ROLE_ADMIN.name())
+                        .requestMatchers(HttpMethod.GET, "/api/stores/{storeId}/stock/alerts").hasAnyAuthority(RoleName.ROLE_MANAGER.name(), RoleName.ROLE_ADMIN.name())
                         .requestMatchers(HttpMethod.GET, "/api/stores/**").permitAll()
 
                         .requestMatchers(HttpMethod.POST, "/api/transfer/**").hasAuthority(RoleName.ROLE_MANAGER.name())
 
+                        .requestMatchers(HttpMethod.GET, "/api/warehouses/{warehouseId}/stock/history").hasAnyAuthority(RoleName.ROLE_MANAGER.name(), RoleName.ROLE_ADMIN.name())
                         .requestMatchers(HttpMethod.GET, "/api/warehouses/**").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/warehouses/{warehouseId}/stock**").hasAuthority(RoleName.ROLE_MANAGER.name())
                         .requestMatchers(HttpMethod.POST, "/api/warehouses").hasAuthority(RoleName.ROLE_ADMIN.name())
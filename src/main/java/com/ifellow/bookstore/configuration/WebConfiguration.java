@@ -41,5 +41,6 @@ public class WebConfiguration implements WebMvcConfigurer {
         pageableResolver.setFallbackPageable(PageRequest.of(0, 10));
 
         argumentResolvers.add(pageableResolver);
+        argumentResolvers.add(new CursorPageRequestArgumentResolver());
     }
 }
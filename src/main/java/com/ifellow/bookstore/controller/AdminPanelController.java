@@ -1,6 +1,8 @@
 package com.ifellow.bookstore.controller;
 
 import com.ifellow.bookstore.dto.request.RoleDto;
+import com.ifellow.bookstore.dto.response.BookCacheMetricsResponseDto;
+import com.ifellow.bookstore.dto.response.StockLockingMetricsResponseDto;
 import com.ifellow.bookstore.service.api.AdminPanelService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -25,4 +27,28 @@ public class AdminPanelController {
     public void deleteTheRole(@PathVariable Long userId, @Valid @RequestBody RoleDto roleDto) {
         adminPanelService.deleteTheRole(userId, roleDto);
     }
+
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/stock/locking-metrics")
+    public StockLockingMetricsResponseDto getStockLockingMetrics() {
+        return adminPanelService.getStockLockingMetrics();
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/books/cache-metrics")
+    public BookCacheMetricsResponseDto getBookCacheMetrics() {
+        return adminPanelService.getBookCacheMetrics();
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping("/stock/stores/{storeId}/books/{bookId}/split")
+    public void splitStoreStock(@PathVariable Long storeId, @PathVariable Long bookId, @RequestParam int slots) {
+        adminPanelService.splitStoreStock(storeId, bookId, slots);
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @DeleteMapping("/stock/stores/{storeId}/books/{bookId}/split")
+    public void mergeStoreStock(@PathVariable Long storeId, @PathVariable Long bookId) {
+        adminPanelService.mergeStoreStock(storeId, bookId);
+    }
 }
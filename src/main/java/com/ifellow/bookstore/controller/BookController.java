@@ -2,21 +2,29 @@ package com.ifellow.bookstore.controller;
 
 import com.ifellow.bookstore.dto.filter.BookFilter;
 import com.ifellow.bookstore.dto.request.BookRequestDto;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
+import com.ifellow.bookstore.dto.response.BookAvailabilityResponseDto;
 import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
+import com.ifellow.bookstore.service.api.BookAvailabilityService;
 import com.ifellow.bookstore.service.api.BookService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("api/books")
 public class BookController {
 
     private final BookService bookService;
+    private final BookAvailabilityService bookAvailabilityService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -35,4 +43,23 @@ public class BookController {
     public ResponseEntity<?> findAll(@ModelAttribute BookFilter filter, Pageable pageable) {
         return ResponseEntity.ok(bookService.findAll(filter, pageable));
     }
+
+    @GetMapping(params = {"slice=true", "!cursor"})
+    @ResponseStatus(HttpStatus.OK)
+    public Slice<BookResponseDto> findSlice(@ModelAttribute BookFilter filter, Pageable pageable) {
+        return bookService.findSlice(filter, pageable);
+    }
+
+    @GetMapping(params = "cursor")
+    @ResponseStatus(HttpStatus.OK)
+    public CursorPageResponseDto<BookResponseDto> findAllByCursor(@ModelAttribute BookFilter filter,
+                                                                 CursorPageRequest cursorPageRequest) {
+        return bookService.findAll(filter, cursorPageRequest);
+    }
+
+    @GetMapping("/{id}/availability")
+    @ResponseStatus(HttpStatus.OK)
+    public List<BookAvailabilityResponseDto> getAvailability(@PathVariable Long id) {
+        return bookAvailabilityService.getAvailability(id);
+    }
 }
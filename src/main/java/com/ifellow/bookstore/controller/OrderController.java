@@ -1,17 +1,28 @@
 package com.ifellow.bookstore.controller;
 
 import com.ifellow.bookstore.dto.request.BookOrderDto;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
+import com.ifellow.bookstore.dto.request.OrderBulkRequestDto;
 import com.ifellow.bookstore.dto.filter.OrderFilter;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
+import com.ifellow.bookstore.dto.response.OrderBulkResponseDto;
+import com.ifellow.bookstore.dto.response.OrderItemResponseDto;
 import com.ifellow.bookstore.dto.response.OrderResponseDto;
+import com.ifellow.bookstore.dto.response.OrderTicketResponseDto;
+import com.ifellow.bookstore.enumeration.IdempotencyScope;
+import com.ifellow.bookstore.service.api.IdempotencyService;
+import com.ifellow.bookstore.service.api.OrderIntakeService;
 import com.ifellow.bookstore.service.api.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,11 +30,27 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderIntakeService orderIntakeService;
 
     @PostMapping("/warehouses/{warehouseId}/orders")
     @ResponseStatus(HttpStatus.CREATED)
-    public OrderResponseDto create(@PathVariable Long warehouseId, @Valid @RequestBody List<BookOrderDto> bookOrderDtoList) {
-        return orderService.create(warehouseId, bookOrderDtoList);
+    public OrderResponseDto create(@PathVariable Long warehouseId, @Valid @RequestBody List<BookOrderDto> bookOrderDtoList,
+                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(IdempotencyScope.ORDER, idempotencyKey, List.of(warehouseId, bookOrderDtoList),
+                () -> orderService.create(warehouseId, bookOrderDtoList), OrderResponseDto::id, orderService::findById);
+    }
+
+    @PostMapping("/warehouses/{warehouseId}/orders/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public OrderTicketResponseDto submit(@PathVariable Long warehouseId, @Valid @RequestBody List<BookOrderDto> bookOrderDtoList) {
+        return orderIntakeService.submit(warehouseId, bookOrderDtoList);
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/orders/tickets/{ticketId}")
+    public OrderTicketResponseDto getTicket(@PathVariable UUID ticketId) {
+        return orderIntakeService.getTicket(ticketId);
     }
 
     @ResponseStatus(HttpStatus.OK)
@@ -38,15 +65,46 @@ public class OrderController {
         return orderService.cancelById(orderId);
     }
 
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping("/orders/complete")
+    public OrderBulkResponseDto completeAll(@RequestBody OrderBulkRequestDto orderBulkRequestDto) {
+        return orderService.completeAll(orderBulkRequestDto);
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping("/orders/cancel")
+    public OrderBulkResponseDto cancelAll(@RequestBody OrderBulkRequestDto orderBulkRequestDto) {
+        return orderService.cancelAll(orderBulkRequestDto);
+    }
+
     @ResponseStatus(HttpStatus.OK)
     @GetMapping("/orders/{orderId}")
     public OrderResponseDto findById(@PathVariable Long orderId) {
         return orderService.findById(orderId);
     }
 
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/orders/{orderId}/items")
+    public List<OrderItemResponseDto> findItemsById(@PathVariable Long orderId) {
+        return orderService.findItemsById(orderId);
+    }
+
     @GetMapping("/orders")
     @ResponseStatus(HttpStatus.OK)
     public Page<OrderResponseDto> findAll(@ModelAttribute OrderFilter filter, Pageable pageable) {
         return orderService.findAll(filter, pageable);
     }
+
+    @GetMapping(value = "/orders", params = {"slice=true", "!cursor"})
+    @ResponseStatus(HttpStatus.OK)
+    public Slice<OrderResponseDto> findSlice(@ModelAttribute OrderFilter filter, Pageable pageable) {
+        return orderService.findSlice(filter, pageable);
+    }
+
+    @GetMapping(value = "/orders", params = "cursor")
+    @ResponseStatus(HttpStatus.OK)
+    public CursorPageResponseDto<OrderResponseDto> findAllByCursor(@ModelAttribute OrderFilter filter,
+                                                                  CursorPageRequest cursorPageRequest) {
+        return orderService.findAll(filter, cursorPageRequest);
+    }
 }
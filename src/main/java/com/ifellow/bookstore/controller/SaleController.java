@@ -1,16 +1,38 @@
 package com.ifellow.bookstore.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
 import com.ifellow.bookstore.dto.filter.SaleFilter;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
+import com.ifellow.bookstore.dto.response.SaleItemResponseDto;
 import com.ifellow.bookstore.dto.response.SaleResponseDto;
+import com.ifellow.bookstore.dto.response.SaleUploadResultDto;
+import com.ifellow.bookstore.enumeration.IdempotencyScope;
+import com.ifellow.bookstore.service.api.IdempotencyService;
+import com.ifellow.bookstore.service.api.SaleGroupCommitService;
 import com.ifellow.bookstore.service.api.SaleService;
+import com.ifellow.bookstore.service.api.SaleUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -19,11 +41,41 @@ import java.util.List;
 public class SaleController {
 
     private final SaleService saleService;
+    private final SaleGroupCommitService saleGroupCommitService;
+    private final IdempotencyService idempotencyService;
+    private final SaleUploadService saleUploadService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/stores/{storeId}/sales")
     @ResponseStatus(HttpStatus.OK)
-    public SaleResponseDto processSale(@PathVariable Long storeId, @Valid @RequestBody List<BookSaleDto> bookSaleDtoList) {
-        return saleService.processSale(storeId, bookSaleDtoList);
+    public SaleResponseDto processSale(@PathVariable Long storeId, @Valid @RequestBody List<BookSaleDto> bookSaleDtoList,
+                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null) return saleGroupCommitService.processSale(storeId, bookSaleDtoList);
+
+        return idempotencyService.execute(IdempotencyScope.SALE, idempotencyKey, List.of(storeId, bookSaleDtoList),
+                () -> saleService.processSale(storeId, bookSaleDtoList), SaleResponseDto::id, saleService::findById);
+    }
+
+    @PostMapping(value = "/stores/{storeId}/sales/upload",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void uploadSales(@PathVariable Long storeId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        PrintWriter out = response.getWriter();
+        saleUploadService.upload(storeId, reader, results -> {
+            for (SaleUploadResultDto result : results) {
+                try {
+                    out.write(writer.writeValueAsString(result));
+                    out.write('\n');
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            out.flush();
+        });
     }
 
     @GetMapping("/sales/{id}")
@@ -32,9 +84,28 @@ public class SaleController {
         return saleService.findById(id);
     }
 
+    @GetMapping("/sales/{id}/items")
+    @ResponseStatus(HttpStatus.OK)
+    public List<SaleItemResponseDto> findItemsById(@PathVariable Long id) {
+        return saleService.findItemsById(id);
+    }
+
     @GetMapping("/sales")
     @ResponseStatus(HttpStatus.OK)
     public Page<SaleResponseDto> findAll(@ModelAttribute SaleFilter filter, Pageable pageable) {
         return saleService.findAll(filter, pageable);
     }
+
+    @GetMapping(value = "/sales", params = {"slice=true", "!cursor"})
+    @ResponseStatus(HttpStatus.OK)
+    public Slice<SaleResponseDto> findSlice(@ModelAttribute SaleFilter filter, Pageable pageable) {
+        return saleService.findSlice(filter, pageable);
+    }
+
+    @GetMapping(value = "/sales", params = "cursor")
+    @ResponseStatus(HttpStatus.OK)
+    public CursorPageResponseDto<SaleResponseDto> findAllByCursor(@ModelAttribute SaleFilter filter,
+                                                                 CursorPageRequest cursorPageRequest) {
+        return saleService.findAll(filter, cursorPageRequest);
+    }
 }
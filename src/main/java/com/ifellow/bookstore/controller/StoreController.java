@@ -1,17 +1,24 @@
 package com.ifellow.bookstore.controller;
 
 import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.dto.request.StockThresholdRequestDto;
 import com.ifellow.bookstore.dto.request.StoreRequestDto;
+import com.ifellow.bookstore.dto.response.StockAlertResponseDto;
+import com.ifellow.bookstore.dto.response.StockAsOfResponseDto;
+import com.ifellow.bookstore.dto.response.StockThresholdResponseDto;
 import com.ifellow.bookstore.dto.response.StoreBookResponseDto;
 import com.ifellow.bookstore.dto.response.StoreResponseDto;
+import com.ifellow.bookstore.service.api.StockAlertService;
 import com.ifellow.bookstore.service.api.StoreService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -20,6 +27,7 @@ import java.util.List;
 public class StoreController {
 
     private final StoreService storeService;
+    private final StockAlertService stockAlertService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -62,4 +70,24 @@ public class StoreController {
     public void removeBooksFromStore(@PathVariable Long id, @Valid @RequestBody List<BookBulkDto> bookBulkDtos) {
         storeService.removeBooksFromStore(id, bookBulkDtos);
     }
+
+    @GetMapping("/{id}/stock/history")
+    @ResponseStatus(HttpStatus.OK)
+    public List<StockAsOfResponseDto> getStoreStockAsOf(@PathVariable Long id,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return storeService.getStoreStockAsOf(id, asOf);
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping("/{id}/stock/thresholds")
+    public StockThresholdResponseDto setStockThreshold(@PathVariable Long id,
+                                                       @Valid @RequestBody StockThresholdRequestDto stockThresholdRequestDto) {
+        return stockAlertService.setThreshold(id, stockThresholdRequestDto);
+    }
+
+    @GetMapping("/{id}/stock/alerts")
+    @ResponseStatus(HttpStatus.OK)
+    public List<StockAlertResponseDto> getStockAlerts(@PathVariable Long id) {
+        return stockAlertService.getAlerts(id);
+    }
 }
@@ -2,6 +2,7 @@ package com.ifellow.bookstore.controller;
 
 import com.ifellow.bookstore.dto.request.BookBulkDto;
 import com.ifellow.bookstore.dto.request.WarehouseRequestDto;
+import com.ifellow.bookstore.dto.response.StockAsOfResponseDto;
 import com.ifellow.bookstore.dto.response.WarehouseBookResponseDto;
 import com.ifellow.bookstore.dto.response.WarehouseResponseDto;
 import com.ifellow.bookstore.service.api.WarehouseService;
@@ -9,9 +10,11 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -62,4 +65,11 @@ public class WarehouseController {
     public void removeBooksFromWarehouse(@PathVariable Long id, @Valid @RequestBody List<BookBulkDto> bookBulkDtos) {
         warehouseService.removeBooksFromWarehouse(id, bookBulkDtos);
     }
+
+    @GetMapping("/{id}/stock/history")
+    @ResponseStatus(HttpStatus.OK)
+    public List<StockAsOfResponseDto> getWarehouseStockAsOf(@PathVariable Long id,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return warehouseService.getWarehouseStockAsOf(id, asOf);
+    }
 }
@@ -19,4 +19,5 @@ public class BookFilter {
     private BigDecimal minPrice;
     private BigDecimal maxPrice;
     private boolean groupByGenre;
+    private Integer booksPerGenre;
 }
@@ -0,0 +1,8 @@
+package com.ifellow.bookstore.dto.projection;
+
+public record BookSearchEntry(
+        Long bookId,
+        String title,
+        String authorFullName
+) {
+}
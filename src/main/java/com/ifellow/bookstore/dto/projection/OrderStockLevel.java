@@ -0,0 +1,9 @@
+package com.ifellow.bookstore.dto.projection;
+
+public record OrderStockLevel(
+        Long orderId,
+        Long warehouseId,
+        Long bookId,
+        Integer amount
+) {
+}
@@ -0,0 +1,8 @@
+package com.ifellow.bookstore.dto.projection;
+
+public record StockLevel(
+        Long locationId,
+        Long bookId,
+        Integer amount
+) {
+}
@@ -0,0 +1,11 @@
+package com.ifellow.bookstore.dto.projection;
+
+import com.ifellow.bookstore.enumeration.StockLocationType;
+
+public record StockMovementTotal(
+        StockLocationType locationType,
+        Long locationId,
+        Long bookId,
+        Long total
+) {
+}
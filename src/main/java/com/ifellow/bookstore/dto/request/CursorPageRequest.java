@@ -0,0 +1,22 @@
+package com.ifellow.bookstore.dto.request;
+
+import org.springframework.data.domain.Sort;
+
+public record CursorPageRequest(
+        int size,
+        String property,
+        Sort.Direction direction,
+        String lastValue,
+        Long lastId
+) {
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    public Sort sort() {
+        return "id".equals(property)
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, property, "id");
+    }
+}
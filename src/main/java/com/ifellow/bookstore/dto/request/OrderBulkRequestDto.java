@@ -0,0 +1,11 @@
+package com.ifellow.bookstore.dto.request;
+
+import com.ifellow.bookstore.dto.filter.OrderFilter;
+
+import java.util.List;
+
+public record OrderBulkRequestDto(
+        List<Long> ids,
+        OrderFilter filter
+) {
+}
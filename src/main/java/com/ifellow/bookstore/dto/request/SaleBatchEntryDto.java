@@ -0,0 +1,9 @@
+package com.ifellow.bookstore.dto.request;
+
+import java.util.List;
+
+public record SaleBatchEntryDto(
+        String username,
+        List<BookSaleDto> bookSaleDtoList
+) {
+}
@@ -0,0 +1,11 @@
+package com.ifellow.bookstore.dto.request;
+
+import jakarta.validation.Valid;
+
+import java.util.List;
+
+public record SaleUploadLineDto(
+        String reference,
+        List<@Valid BookSaleDto> bookSaleDtoList
+) {
+}
@@ -0,0 +1,16 @@
+package com.ifellow.bookstore.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+public record StockThresholdRequestDto(
+
+        @Min(value = 1, message = "bookId must be at least 1")
+        Long bookId,
+
+        @Min(value = 0, message = "The threshold must not be negative")
+        @Max(value = 1_000_000, message = "The threshold should not be more than 1,000,000")
+        int threshold
+) {
+
+}
@@ -0,0 +1,10 @@
+package com.ifellow.bookstore.dto.response;
+
+import com.ifellow.bookstore.enumeration.StockLocationType;
+
+public record BookAvailabilityResponseDto(
+        StockLocationType locationType,
+        Long locationId,
+        int quantity
+) {
+}
@@ -0,0 +1,10 @@
+package com.ifellow.bookstore.dto.response;
+
+public record BookCacheMetricsResponseDto(
+        long hits,
+        long misses,
+        long evictions,
+        int size,
+        int capacity
+) {
+}
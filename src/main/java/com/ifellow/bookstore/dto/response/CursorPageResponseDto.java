@@ -0,0 +1,10 @@
+package com.ifellow.bookstore.dto.response;
+
+import java.util.List;
+
+public record CursorPageResponseDto<T>(
+        List<T> content,
+        int size,
+        String nextCursor
+) {
+}
@@ -14,6 +14,7 @@ import java.util.Map;
 @AllArgsConstructor
 public class GroupedBookResponse {
     private Map<String, List<BookResponseDto>> booksByGenre;
+    private Map<String, Boolean> hasMoreBooksByGenre;
     private int currentPage;
     private int totalPages;
     private long totalElements;
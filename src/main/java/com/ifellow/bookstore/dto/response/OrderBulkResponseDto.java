@@ -0,0 +1,14 @@
+package com.ifellow.bookstore.dto.response;
+
+import com.ifellow.bookstore.enumeration.OrderBulkOutcome;
+import com.ifellow.bookstore.enumeration.OrderStatus;
+
+import java.util.Map;
+
+public record OrderBulkResponseDto(
+        OrderStatus orderStatus,
+        int applied,
+        int skipped,
+        Map<Long, OrderBulkOutcome> outcomes
+) {
+}
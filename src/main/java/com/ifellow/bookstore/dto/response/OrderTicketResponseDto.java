@@ -0,0 +1,16 @@
+package com.ifellow.bookstore.dto.response;
+
+import com.ifellow.bookstore.enumeration.OrderTicketStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record OrderTicketResponseDto(
+        UUID id,
+        Long warehouseId,
+        OrderTicketStatus status,
+        OrderResponseDto order,
+        String error,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,14 @@
+package com.ifellow.bookstore.dto.response;
+
+import java.math.BigDecimal;
+
+public record SaleItemResponseDto(
+        Long id,
+        Long bookId,
+        String title,
+        String authorFullName,
+        String genreName,
+        Integer quantity,
+        BigDecimal price
+) {
+}
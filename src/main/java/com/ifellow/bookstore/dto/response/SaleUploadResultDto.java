@@ -0,0 +1,12 @@
+package com.ifellow.bookstore.dto.response;
+
+import com.ifellow.bookstore.enumeration.SaleUploadStatus;
+
+public record SaleUploadResultDto(
+        int line,
+        String reference,
+        SaleUploadStatus status,
+        SaleResponseDto sale,
+        String error
+) {
+}
@@ -0,0 +1,14 @@
+package com.ifellow.bookstore.dto.response;
+
+import com.ifellow.bookstore.enumeration.StockAlertType;
+
+import java.time.LocalDateTime;
+
+public record StockAlertResponseDto(
+        Long bookId,
+        StockAlertType type,
+        int quantity,
+        int threshold,
+        LocalDateTime occurredAt
+) {
+}
@@ -0,0 +1,7 @@
+package com.ifellow.bookstore.dto.response;
+
+public record StockAsOfResponseDto(
+        Long bookId,
+        int quantity
+) {
+}
@@ -0,0 +1,12 @@
+package com.ifellow.bookstore.dto.response;
+
+import com.ifellow.bookstore.enumeration.StockLockingMode;
+
+public record StockLockingMetricsResponseDto(
+        StockLockingMode mode,
+        long retries,
+        long conflicts,
+        long lockWaits,
+        long lockWaitMillis
+) {
+}
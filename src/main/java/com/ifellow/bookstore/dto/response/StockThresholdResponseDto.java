@@ -0,0 +1,8 @@
+package com.ifellow.bookstore.dto.response;
+
+public record StockThresholdResponseDto(
+        Long storeId,
+        Long bookId,
+        int threshold
+) {
+}
@@ -0,0 +1,7 @@
+package com.ifellow.bookstore.enumeration;
+
+public enum IdempotencyScope {
+    SALE,
+    ORDER,
+    SALE_UPLOAD
+}
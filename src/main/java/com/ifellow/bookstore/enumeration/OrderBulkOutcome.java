@@ -0,0 +1,8 @@
+package com.ifellow.bookstore.enumeration;
+
+public enum OrderBulkOutcome {
+    APPLIED,
+    NOT_FOUND,
+    NOT_CREATED,
+    INSUFFICIENT_STOCK
+}
@@ -0,0 +1,6 @@
+package com.ifellow.bookstore.enumeration;
+
+public enum StockAlertType {
+    LOW_STOCK,
+    RESTOCKED
+}
@@ -0,0 +1,6 @@
+package com.ifellow.bookstore.enumeration;
+
+public enum StockLocationType {
+    WAREHOUSE,
+    STORE
+}
@@ -0,0 +1,9 @@
+package com.ifellow.bookstore.enumeration;
+
+public enum StockMovementType {
+    ADD,
+    REMOVE,
+    TRANSFER,
+    ORDER,
+    SALE
+}
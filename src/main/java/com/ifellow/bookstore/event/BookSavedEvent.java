@@ -0,0 +1,4 @@
+package com.ifellow.bookstore.event;
+
+public record BookSavedEvent(Long bookId, String title, String authorFullName) {
+}
@@ -0,0 +1,4 @@
+package com.ifellow.bookstore.event;
+
+public record EntityChangedEvent(Class<?> entityType) {
+}
@@ -0,0 +1,9 @@
+package com.ifellow.bookstore.event;
+
+import com.ifellow.bookstore.enumeration.StockAlertType;
+
+import java.time.LocalDateTime;
+
+public record StockAlertEvent(Long storeId, Long bookId, StockAlertType type,
+                              int quantity, int threshold, LocalDateTime occurredAt) {
+}
@@ -0,0 +1,8 @@
+package com.ifellow.bookstore.event;
+
+import com.ifellow.bookstore.enumeration.StockLocationType;
+
+import java.util.Map;
+
+public record StockChangedEvent(StockLocationType locationType, Long locationId, Map<Long, Integer> deltasByBookId) {
+}
@@ -0,0 +1,8 @@
+package com.ifellow.bookstore.exception;
+
+public class IdempotencyException extends RuntimeException {
+
+    public IdempotencyException(String message) {
+        super(message);
+    }
+}
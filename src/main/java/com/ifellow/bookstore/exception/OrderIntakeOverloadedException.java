@@ -0,0 +1,8 @@
+package com.ifellow.bookstore.exception;
+
+public class OrderIntakeOverloadedException extends RuntimeException {
+
+    public OrderIntakeOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ifellow.bookstore.exception;
+
+public class StockConflictException extends RuntimeException {
+
+    public StockConflictException(String message) {
+        super(message);
+    }
+}
@@ -11,7 +11,14 @@ import java.math.BigDecimal;
 @ToString
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "books")
+@Table(
+        name = "books",
+        indexes = {
+                @Index(columnList = "title, id"),
+                @Index(columnList = "price, id"),
+                @Index(columnList = "genre_id, id")
+        }
+)
 public class Book {
 
     @Id
@@ -22,11 +29,15 @@ public class Book {
     @Column(nullable = false)
     private String title;
 
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private Author author;
 
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "genre_id")
     private Genre genre;
 
@@ -0,0 +1,44 @@
+package com.ifellow.bookstore.model;
+
+import com.ifellow.bookstore.enumeration.IdempotencyScope;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "idempotency_keys",
+        uniqueConstraints = {@UniqueConstraint(columnNames = {"scope", "username", "idempotency_key"})},
+        indexes = {@Index(columnList = "created_at"), @Index(columnList = "scope, idempotency_key")}
+)
+public class IdempotencyKey {
+
+    @Id
+    @EqualsAndHashCode.Exclude
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IdempotencyScope scope;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "result_id")
+    private Long resultId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,20 @@
+package com.ifellow.bookstore.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stock_ledger_checkpoints")
+public class StockLedgerCheckpoint {
+
+    @Id
+    @EqualsAndHashCode.Exclude
+    private Long id;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+}
@@ -0,0 +1,52 @@
+package com.ifellow.bookstore.model;
+
+import com.ifellow.bookstore.enumeration.StockLocationType;
+import com.ifellow.bookstore.enumeration.StockMovementType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "stock_movements",
+        indexes = {
+                @Index(columnList = "location_type, location_id, created_at"),
+                @Index(columnList = "created_at"),
+                @Index(columnList = "compacted_at")
+        }
+)
+public class StockMovement {
+
+    @Id
+    @EqualsAndHashCode.Exclude
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "location_type", nullable = false)
+    private StockLocationType locationType;
+
+    @Column(name = "location_id", nullable = false)
+    private Long locationId;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false)
+    private StockMovementType movementType;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "compacted_at")
+    private LocalDateTime compactedAt;
+}
@@ -0,0 +1,44 @@
+package com.ifellow.bookstore.model;
+
+import com.ifellow.bookstore.enumeration.StockLocationType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "stock_snapshots",
+        indexes = {
+                @Index(columnList = "taken_at"),
+                @Index(columnList = "location_type, location_id, book_id, taken_at")
+        }
+)
+public class StockSnapshot {
+
+    @Id
+    @EqualsAndHashCode.Exclude
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_snapshots_seq")
+    @SequenceGenerator(name = "stock_snapshots_seq", sequenceName = "stock_snapshots_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "location_type", nullable = false)
+    private StockLocationType locationType;
+
+    @Column(name = "location_id", nullable = false)
+    private Long locationId;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false)
+    private Integer amount;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
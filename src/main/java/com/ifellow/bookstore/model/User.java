@@ -28,6 +28,8 @@ public class User {
     private String password;
 
     @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToMany
     @JoinTable(
             name = "user_roles",
@@ -37,10 +39,14 @@ public class User {
     private Set<Role> roles = new HashSet<>();
 
     @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "user")
     private List<Order> orders = new ArrayList<>();
 
     @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "user")
     private List<Sale> sales = new ArrayList<>();
 }
@@ -0,0 +1,19 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.model.Book;
+import com.ifellow.bookstore.model.Genre;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookGroupingRepository {
+
+    List<Genre> findGenresWithBooks(Specification<Book> spec, Pageable pageable);
+
+    long countGenresWithBooks(Specification<Book> spec);
+
+    List<Long> findTopBookIdsByGenre(Specification<Book> spec, Collection<Long> genreIds, Sort sort, int limit);
+}
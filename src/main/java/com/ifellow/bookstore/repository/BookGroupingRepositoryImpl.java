@@ -0,0 +1,123 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.model.Book;
+import com.ifellow.bookstore.model.Genre;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaDerivedRoot;
+import org.hibernate.query.criteria.JpaRoot;
+import org.hibernate.query.criteria.JpaSubQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class BookGroupingRepositoryImpl implements BookGroupingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Genre> findGenresWithBooks(Specification<Book> spec, Pageable pageable) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        JpaCriteriaQuery<Genre> query = cb.createQuery(Genre.class);
+        JpaRoot<Genre> genre = query.from(Genre.class);
+
+        query.select(genre)
+                .where(hasBooks(spec, genre, query, cb))
+                .orderBy(cb.asc(genre.get("name")), cb.asc(genre.get("id")));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public long countGenresWithBooks(Specification<Book> spec) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        JpaCriteriaQuery<Long> query = cb.createQuery(Long.class);
+        JpaRoot<Genre> genre = query.from(Genre.class);
+
+        query.select(cb.count(genre)).where(hasBooks(spec, genre, query, cb));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public List<Long> findTopBookIdsByGenre(Specification<Book> spec, Collection<Long> genreIds, Sort sort, int limit) {
+        if (genreIds.isEmpty()) return List.of();
+
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        JpaCriteriaQuery<Long> query = cb.createQuery(Long.class);
+
+        List<JpaSubQuery<Tuple>> branches = new ArrayList<>(genreIds.size());
+        for (Long genreId : genreIds) {
+            JpaSubQuery<Tuple> branch = query.subquery(Tuple.class);
+            JpaRoot<Book> book = branch.from(Book.class);
+
+            List<Selection<?>> selections = new ArrayList<>();
+            List<Order> orders = new ArrayList<>();
+            selections.add(book.get("id").alias("id"));
+            selections.add(book.get("genre").get("id").alias("genreId"));
+            int key = 0;
+            for (Sort.Order order : sort) {
+                selections.add(book.get(order.getProperty()).alias("key" + key++));
+                orders.add(order.isAscending() ? cb.asc(book.get(order.getProperty())) : cb.desc(book.get(order.getProperty())));
+            }
+            orders.add(cb.asc(book.get("id")));
+
+            branch.multiselect(selections)
+                    .where(cb.and(toPredicate(spec, book, query, cb), cb.equal(book.get("genre").get("id"), genreId)))
+                    .orderBy(orders)
+                    .fetch(limit);
+            branches.add(branch);
+        }
+
+        JpaSubQuery<Tuple> union = branches.size() == 1
+                ? branches.getFirst()
+                : cb.unionAll(branches.getFirst(), branches.subList(1, branches.size()).toArray(JpaSubQuery[]::new));
+        JpaDerivedRoot<Tuple> row = query.from(union);
+
+        List<Order> orders = new ArrayList<>();
+        orders.add(cb.asc(row.get("genreId")));
+        int key = 0;
+        for (Sort.Order order : sort) {
+            orders.add(order.isAscending() ? cb.asc(row.get("key" + key)) : cb.desc(row.get("key" + key)));
+            key++;
+        }
+        orders.add(cb.asc(row.get("id")));
+
+        query.select(row.get("id")).orderBy(orders);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private HibernateCriteriaBuilder criteriaBuilder() {
+        return (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+    }
+
+    private Predicate hasBooks(Specification<Book> spec, Root<Genre> genre, CriteriaQuery<?> query, HibernateCriteriaBuilder cb) {
+        JpaSubQuery<Integer> books = (JpaSubQuery<Integer>) query.subquery(Integer.class);
+        JpaRoot<Book> book = books.from(Book.class);
+        books.select(cb.literal(1))
+                .where(cb.and(cb.equal(book.get("genre"), genre), toPredicate(spec, book, query, cb)));
+        return cb.exists(books);
+    }
+
+    private Predicate toPredicate(Specification<Book> spec, Root<Book> book, CriteriaQuery<?> query, HibernateCriteriaBuilder cb) {
+        Predicate predicate = spec == null ? null : spec.toPredicate(book, query, cb);
+        return predicate == null ? cb.conjunction() : predicate;
+    }
+}
@@ -1,11 +1,27 @@
 package com.ifellow.bookstore.repository;
 
+import com.ifellow.bookstore.dto.projection.BookSearchEntry;
 import com.ifellow.bookstore.model.Book;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookGroupingRepository {
+
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author LEFT JOIN FETCH b.genre WHERE b.id IN :ids")
+    List<Book> findAllWithAuthorAndGenreByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.author LEFT JOIN FETCH b.genre WHERE b.id = :id")
+    Optional<Book> findWithAuthorAndGenreById(@Param("id") Long id);
+
+    @Query("SELECT new com.ifellow.bookstore.dto.projection.BookSearchEntry(b.id, b.title, a.fullName) " +
+            "FROM Book b LEFT JOIN b.author a ORDER BY b.id")
+    List<BookSearchEntry> findAllSearchEntries();
 }
@@ -0,0 +1,25 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.enumeration.IdempotencyScope;
+import com.ifellow.bookstore.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    Optional<IdempotencyKey> findByScopeAndUsernameAndIdempotencyKey(IdempotencyScope scope, String username,
+                                                                     String idempotencyKey);
+
+    List<IdempotencyKey> findByScopeAndIdempotencyKeyIn(IdempotencyScope scope, Collection<String> idempotencyKeys);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt <= :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+}
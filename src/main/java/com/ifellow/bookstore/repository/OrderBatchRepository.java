@@ -0,0 +1,11 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.model.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface OrderBatchRepository {
+
+    List<Long> findIds(Specification<Order> spec, int limit);
+}
@@ -1,12 +1,32 @@
 package com.ifellow.bookstore.repository;
 
+import com.ifellow.bookstore.dto.projection.OrderStockLevel;
+import com.ifellow.bookstore.dto.response.OrderItemResponseDto;
 import com.ifellow.bookstore.model.OrderItem;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
+    @EntityGraph(attributePaths = {"book", "book.author", "book.genre"})
     List<OrderItem> findByOrderId(Long orderId);
+
+    @Query("SELECT new com.ifellow.bookstore.dto.response.OrderItemResponseDto(" +
+            "oi.id, b.id, b.title, a.fullName, g.name, oi.quantity, oi.price) " +
+            "FROM OrderItem oi JOIN oi.book b LEFT JOIN b.author a LEFT JOIN b.genre g " +
+            "WHERE oi.order.id = :orderId ORDER BY oi.id")
+    List<OrderItemResponseDto> findItemDtosByOrderId(@Param("orderId") Long orderId);
+
+    @Query("SELECT new com.ifellow.bookstore.dto.projection.OrderStockLevel(oi.order.id, oi.order.warehouse.id, oi.book.id, CAST(SUM(oi.quantity) AS Integer)) " +
+            "FROM OrderItem oi " +
+            "WHERE oi.order.id IN :orderIds " +
+            "GROUP BY oi.order.id, oi.order.warehouse.id, oi.book.id " +
+            "ORDER BY oi.order.id, oi.book.id")
+    List<OrderStockLevel> sumByOrderAndBook(@Param("orderIds") Collection<Long> orderIds);
 }
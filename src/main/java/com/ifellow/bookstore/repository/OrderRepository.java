@@ -2,13 +2,39 @@ package com.ifellow.bookstore.repository;
 
 import com.ifellow.bookstore.enumeration.OrderStatus;
 import com.ifellow.bookstore.model.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderBatchRepository {
     Page<Order> findByUserId(Long userId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o " +
+            "WHERE o.orderStatus = :status AND o.orderDateTime < :createdBefore AND o.id > :afterId " +
+            "ORDER BY o.id")
+    List<Long> findIdsCreatedBefore(@Param("status") OrderStatus status,
+                                    @Param("createdBefore") LocalDateTime createdBefore,
+                                    @Param("afterId") Long afterId,
+                                    Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.orderStatus = :newStatus WHERE o.id IN :ids AND o.orderStatus = :currentStatus")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("currentStatus") OrderStatus currentStatus,
+                     @Param("newStatus") OrderStatus newStatus);
 }
@@ -2,6 +2,7 @@ package com.ifellow.bookstore.repository;
 
 import com.ifellow.bookstore.model.RefreshToken;
 import com.ifellow.bookstore.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -11,6 +12,7 @@ import java.time.Instant;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    @EntityGraph(attributePaths = "user")
     Optional<RefreshToken> findByToken(String token);
     Optional<RefreshToken> findByUser(User user);
     void deleteByUser(User User);
@@ -1,12 +1,27 @@
 package com.ifellow.bookstore.repository;
 
+import com.ifellow.bookstore.dto.response.SaleItemResponseDto;
 import com.ifellow.bookstore.model.SaleItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface SaleItemRepository extends JpaRepository<SaleItem, Long> {
 
+    @EntityGraph(attributePaths = {"book", "book.author", "book.genre"})
     Page<SaleItem> findBySaleId(Long orderId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"book", "book.author", "book.genre"})
     Page<SaleItem> findBySaleIdAndBookId(Long orderId, Long bookId, Pageable pageable);
+
+    @Query("SELECT new com.ifellow.bookstore.dto.response.SaleItemResponseDto(" +
+            "si.id, b.id, b.title, a.fullName, g.name, si.quantity, si.price) " +
+            "FROM SaleItem si JOIN si.book b LEFT JOIN b.author a LEFT JOIN b.genre g " +
+            "WHERE si.sale.id = :saleId ORDER BY si.id")
+    List<SaleItemResponseDto> findItemDtosBySaleId(@Param("saleId") Long saleId);
 }
@@ -0,0 +1,159 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.exception.StockConflictException;
+import com.ifellow.bookstore.util.StockConcurrencyControl;
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+class StockBatchOperations {
+
+    private record StockRow(long id, int amount, long version) {
+    }
+
+    private static final RowMapper<StockRow> STOCK_ROW_MAPPER = (rs, _) ->
+            new StockRow(rs.getLong("id"), rs.getInt("amount"), rs.getLong("version"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final StockConcurrencyControl concurrencyControl;
+    private final int batchSize;
+
+    private final String incrementSql;
+    private final String decrementSql;
+    private final String insertSql;
+    private final String selectSql;
+    private final String selectForUpdateSql;
+    private final String updateSql;
+    private final String versionedUpdateSql;
+
+    StockBatchOperations(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                         StockConcurrencyControl concurrencyControl, int batchSize,
+                         String table, String locationColumn) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.concurrencyControl = concurrencyControl;
+        this.batchSize = batchSize;
+
+        this.incrementSql = "UPDATE " + table + " SET amount = amount + ?, version = version + 1 WHERE " + locationColumn + " = ? AND book_id = ?";
+        this.decrementSql = "UPDATE " + table + " SET amount = amount - ?, version = version + 1 WHERE " + locationColumn + " = ? AND book_id = ? AND amount >= ?";
+        this.insertSql = "INSERT INTO " + table + " (" + locationColumn + ", book_id, amount, version) VALUES (?, ?, ?, 0)";
+        this.selectSql = "SELECT id, amount, version FROM " + table + " WHERE " + locationColumn + " = ? AND book_id = ?";
+        this.selectForUpdateSql = selectSql + " FOR UPDATE";
+        this.updateSql = "UPDATE " + table + " SET amount = ?, version = version + 1 WHERE id = ?";
+        this.versionedUpdateSql = "UPDATE " + table + " SET amount = ?, version = version + 1 WHERE id = ? AND version = ?";
+    }
+
+    int increment(Long locationId, Long bookId, int quantity) {
+        return change(locationId, bookId, quantity);
+    }
+
+    int decrement(Long locationId, Long bookId, int quantity) {
+        return change(locationId, bookId, -quantity);
+    }
+
+    void upsert(Long locationId, Map<Long, Integer> quantitiesByBookId) {
+        entityManager.flush();
+
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(quantitiesByBookId.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(incrementSql, entries, batchSize, (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setLong(2, locationId);
+            ps.setLong(3, entry.getKey());
+        });
+
+        Map<Long, Integer> missing = new LinkedHashMap<>();
+        forEachUnaffected(entries, updated, entry -> missing.put(entry.getKey(), entry.getValue()));
+
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(insertSql, new ArrayList<>(missing.entrySet()), batchSize, (ps, entry) -> {
+                ps.setLong(1, locationId);
+                ps.setLong(2, entry.getKey());
+                ps.setInt(3, entry.getValue());
+            });
+        }
+
+        entityManager.clear();
+    }
+
+    List<Long> decrement(Long locationId, Map<Long, Integer> quantitiesByBookId) {
+        entityManager.flush();
+
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(quantitiesByBookId.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(decrementSql, entries, batchSize, (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setLong(2, locationId);
+            ps.setLong(3, entry.getKey());
+            ps.setInt(4, entry.getValue());
+        });
+
+        List<Long> failedBookIds = new ArrayList<>();
+        forEachUnaffected(entries, updated, entry -> failedBookIds.add(entry.getKey()));
+
+        entityManager.clear();
+        return failedBookIds;
+    }
+
+    private int change(Long locationId, Long bookId, int delta) {
+        entityManager.flush();
+
+        int updated = switch (concurrencyControl.getMode()) {
+            case ATOMIC -> delta >= 0
+                    ? jdbcTemplate.update(incrementSql, delta, locationId, bookId)
+                    : jdbcTemplate.update(decrementSql, -delta, locationId, bookId, -delta);
+            case PESSIMISTIC -> changeLocked(locationId, bookId, delta);
+            case OPTIMISTIC -> changeVersioned(locationId, bookId, delta);
+        };
+
+        entityManager.clear();
+        return updated;
+    }
+
+    private int changeLocked(Long locationId, Long bookId, int delta) {
+        long start = System.nanoTime();
+        List<StockRow> rows = jdbcTemplate.query(selectForUpdateSql, STOCK_ROW_MAPPER, locationId, bookId);
+        concurrencyControl.recordLockWait(System.nanoTime() - start);
+
+        if (rows.isEmpty()) return 0;
+
+        StockRow row = rows.getFirst();
+        if (row.amount() + delta < 0) return 0;
+
+        return jdbcTemplate.update(updateSql, row.amount() + delta, row.id());
+    }
+
+    private int changeVersioned(Long locationId, Long bookId, int delta) {
+        for (int attempt = 1; ; attempt++) {
+            List<StockRow> rows = jdbcTemplate.query(selectSql, STOCK_ROW_MAPPER, locationId, bookId);
+            if (rows.isEmpty()) return 0;
+
+            StockRow row = rows.getFirst();
+            if (row.amount() + delta < 0) return 0;
+
+            if (jdbcTemplate.update(versionedUpdateSql, row.amount() + delta, row.id(), row.version()) > 0) return 1;
+
+            concurrencyControl.recordConflict();
+            if (attempt >= concurrencyControl.getMaxAttempts())
+                throw new StockConflictException("Stock of book with id: " + bookId + " is modified concurrently, gave up after " + attempt + " attempts");
+
+            concurrencyControl.backoff(attempt);
+        }
+    }
+
+    private void forEachUnaffected(List<Map.Entry<Long, Integer>> entries, int[][] updated,
+                                   Consumer<Map.Entry<Long, Integer>> action) {
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count == 0) action.accept(entries.get(index));
+                index++;
+            }
+        }
+    }
+}
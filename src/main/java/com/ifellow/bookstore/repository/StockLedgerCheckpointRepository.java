@@ -0,0 +1,7 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.model.StockLedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StockLedgerCheckpointRepository extends JpaRepository<StockLedgerCheckpoint, Long> {
+}
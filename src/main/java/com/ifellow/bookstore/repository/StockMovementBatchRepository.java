@@ -0,0 +1,10 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.model.StockMovement;
+
+import java.util.List;
+
+public interface StockMovementBatchRepository {
+
+    void insertAll(List<StockMovement> movements);
+}
@@ -0,0 +1,35 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.model.StockMovement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public class StockMovementBatchRepositoryImpl implements StockMovementBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO stock_movements " +
+            "(location_type, location_id, book_id, delta, movement_type, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public StockMovementBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                            @Value("${stock.batch.size}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void insertAll(List<StockMovement> movements) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, movements, batchSize, (ps, movement) -> {
+            ps.setString(1, movement.getLocationType().name());
+            ps.setLong(2, movement.getLocationId());
+            ps.setLong(3, movement.getBookId());
+            ps.setInt(4, movement.getDelta());
+            ps.setString(5, movement.getMovementType().name());
+            ps.setTimestamp(6, Timestamp.valueOf(movement.getCreatedAt()));
+        });
+    }
+}
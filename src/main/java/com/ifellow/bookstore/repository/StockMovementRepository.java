@@ -0,0 +1,38 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.dto.projection.StockMovementTotal;
+import com.ifellow.bookstore.enumeration.StockLocationType;
+import com.ifellow.bookstore.model.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long>, StockMovementBatchRepository {
+
+    @Modifying
+    @Query("UPDATE StockMovement m SET m.compactedAt = :compactedAt WHERE m.compactedAt IS NULL")
+    int markCompacted(@Param("compactedAt") LocalDateTime compactedAt);
+
+    @Query("SELECT new com.ifellow.bookstore.dto.projection.StockMovementTotal(m.locationType, m.locationId, m.bookId, SUM(m.delta)) " +
+            "FROM StockMovement m WHERE m.compactedAt = :compactedAt " +
+            "GROUP BY m.locationType, m.locationId, m.bookId")
+    List<StockMovementTotal> sumCompactedAt(@Param("compactedAt") LocalDateTime compactedAt);
+
+    @Query("SELECT new com.ifellow.bookstore.dto.projection.StockMovementTotal(m.locationType, m.locationId, m.bookId, SUM(m.delta)) " +
+            "FROM StockMovement m " +
+            "WHERE m.locationType = :locationType AND m.locationId = :locationId " +
+            "AND (m.compactedAt IS NULL OR m.compactedAt > :snapshotTakenAt) AND m.createdAt <= :asOf " +
+            "GROUP BY m.locationType, m.locationId, m.bookId")
+    List<StockMovementTotal> sumNotCompactedForLocation(@Param("locationType") StockLocationType locationType,
+                                                        @Param("locationId") Long locationId,
+                                                        @Param("snapshotTakenAt") LocalDateTime snapshotTakenAt,
+                                                        @Param("asOf") LocalDateTime asOf);
+
+    @Modifying
+    @Query("DELETE FROM StockMovement m WHERE m.compactedAt <= :compactedAt")
+    int deleteCompactedNotAfter(@Param("compactedAt") LocalDateTime compactedAt);
+}
@@ -0,0 +1,43 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.dto.projection.OrderStockLevel;
+import com.ifellow.bookstore.dto.projection.StockLevel;
+import com.ifellow.bookstore.model.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    @Query("SELECT new com.ifellow.bookstore.dto.projection.StockLevel(r.warehouse.id, r.book.id, CAST(SUM(r.quantity) AS Integer)) " +
+            "FROM StockReservation r " +
+            "WHERE r.warehouse.id = :warehouseId AND r.book.id IN :bookIds AND r.expiresAt > :now " +
+            "GROUP BY r.warehouse.id, r.book.id")
+    List<StockLevel> sumActiveByWarehouseIdAndBookIds(@Param("warehouseId") Long warehouseId,
+                                                      @Param("bookIds") Collection<Long> bookIds,
+                                                      @Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.ifellow.bookstore.dto.projection.OrderStockLevel(r.order.id, r.warehouse.id, r.book.id, CAST(SUM(r.quantity) AS Integer)) " +
+            "FROM StockReservation r " +
+            "WHERE r.order.id IN :orderIds AND r.expiresAt > :now " +
+            "GROUP BY r.order.id, r.warehouse.id, r.book.id")
+    List<OrderStockLevel> sumActiveByOrderIds(@Param("orderIds") Collection<Long> orderIds,
+                                              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.order.id = :orderId")
+    int deleteByOrderId(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.order.id IN :orderIds")
+    int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
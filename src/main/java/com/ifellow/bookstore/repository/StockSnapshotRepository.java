@@ -0,0 +1,44 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.enumeration.StockLocationType;
+import com.ifellow.bookstore.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    @Query("SELECT MAX(s.takenAt) FROM StockSnapshot s")
+    Optional<LocalDateTime> findLatestTakenAt();
+
+    @Query("SELECT MAX(s.takenAt) FROM StockSnapshot s WHERE s.takenAt <= :asOf")
+    Optional<LocalDateTime> findLatestTakenAtNotAfter(@Param("asOf") LocalDateTime asOf);
+
+    @Modifying
+    @Query("DELETE FROM StockSnapshot s WHERE s.takenAt < :takenAt AND EXISTS (" +
+            "SELECT 1 FROM StockSnapshot n WHERE n.locationType = s.locationType AND n.locationId = s.locationId " +
+            "AND n.bookId = s.bookId AND n.takenAt > s.takenAt AND n.takenAt <= :takenAt)")
+    int deleteSupersededBefore(@Param("takenAt") LocalDateTime takenAt);
+
+    @Query("SELECT s FROM StockSnapshot s " +
+            "WHERE s.locationType = :locationType AND s.locationId = :locationId " +
+            "AND s.takenAt = (SELECT MAX(p.takenAt) FROM StockSnapshot p WHERE p.locationType = s.locationType " +
+            "AND p.locationId = s.locationId AND p.bookId = s.bookId AND p.takenAt <= :asOf)")
+    List<StockSnapshot> findLatestForLocation(@Param("locationType") StockLocationType locationType,
+                                              @Param("locationId") Long locationId,
+                                              @Param("asOf") LocalDateTime asOf);
+
+    @Query("SELECT s FROM StockSnapshot s " +
+            "WHERE s.locationType = :locationType AND s.locationId = :locationId AND s.bookId IN :bookIds " +
+            "AND s.takenAt = (SELECT MAX(p.takenAt) FROM StockSnapshot p WHERE p.locationType = s.locationType " +
+            "AND p.locationId = s.locationId AND p.bookId = s.bookId)")
+    List<StockSnapshot> findLatestForBooks(@Param("locationType") StockLocationType locationType,
+                                           @Param("locationId") Long locationId,
+                                           @Param("bookIds") Collection<Long> bookIds);
+}
@@ -0,0 +1,12 @@
+package com.ifellow.bookstore.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface StoreBookAmountBatchRepository {
+
+    int incrementAmount(Long storeId, Long bookId, int quantity);
+    int decrementAmount(Long storeId, Long bookId, int quantity);
+    void upsertAmounts(Long storeId, Map<Long, Integer> quantitiesByBookId);
+    List<Long> decrementAmounts(Long storeId, Map<Long, Integer> quantitiesByBookId);
+}
@@ -0,0 +1,42 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.util.StockConcurrencyControl;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+public class StoreBookAmountBatchRepositoryImpl implements StoreBookAmountBatchRepository {
+
+    private final StockBatchOperations operations;
+
+    public StoreBookAmountBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                              EntityManager entityManager,
+                                              StockConcurrencyControl concurrencyControl,
+                                              @Value("${stock.batch.size}") int batchSize) {
+        this.operations = new StockBatchOperations(jdbcTemplate, entityManager, concurrencyControl, batchSize,
+                "store_books_amount", "store_id");
+    }
+
+    @Override
+    public int incrementAmount(Long storeId, Long bookId, int quantity) {
+        return operations.increment(storeId, bookId, quantity);
+    }
+
+    @Override
+    public int decrementAmount(Long storeId, Long bookId, int quantity) {
+        return operations.decrement(storeId, bookId, quantity);
+    }
+
+    @Override
+    public void upsertAmounts(Long storeId, Map<Long, Integer> quantitiesByBookId) {
+        operations.upsert(storeId, quantitiesByBookId);
+    }
+
+    @Override
+    public List<Long> decrementAmounts(Long storeId, Map<Long, Integer> quantitiesByBookId) {
+        return operations.decrement(storeId, quantitiesByBookId);
+    }
+}
@@ -1,15 +1,32 @@
 package com.ifellow.bookstore.repository;
 
+import com.ifellow.bookstore.dto.projection.StockLevel;
 import com.ifellow.bookstore.model.StoreBookAmount;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface StoreBookAmountRepository extends JpaRepository<StoreBookAmount, Long> {
+public interface StoreBookAmountRepository extends JpaRepository<StoreBookAmount, Long>, StoreBookAmountBatchRepository {
 
     Page<StoreBookAmount> findByStoreId(Long storeId, Pageable pageable);
     Optional<StoreBookAmount> findByStoreIdAndBookId(Long storeId, Long bookId);
     boolean existsByStoreIdAndBookId(Long storeId, Long bookId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT sba FROM StoreBookAmount sba " +
+            "WHERE sba.store.id = :storeId AND sba.book.id IN :bookIds ORDER BY sba.book.id")
+    List<StoreBookAmount> findAllForUpdate(@Param("storeId") Long storeId,
+                                           @Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT new com.ifellow.bookstore.dto.projection.StockLevel(sba.store.id, sba.book.id, sba.amount) " +
+            "FROM StoreBookAmount sba")
+    List<StockLevel> findAllStockLevels();
 }
@@ -0,0 +1,15 @@
+package com.ifellow.bookstore.repository;
+
+public interface StoreBookAmountSlotBatchRepository {
+
+    enum SlotDrainResult {
+        DRAINED, NOT_ENOUGH, CONTENDED
+    }
+
+    void createSlots(Long storeId, Long bookId, int slots, int amount);
+    int deleteSlots(Long storeId, Long bookId);
+    void incrementRandomSlot(Long storeId, Long bookId, int quantity);
+    boolean decrementRandomSlot(Long storeId, Long bookId, int quantity, boolean wait);
+    SlotDrainResult decrementAvailableSlots(Long storeId, Long bookId, int quantity);
+    boolean rebalanceSlots(Long storeId, Long bookId);
+}
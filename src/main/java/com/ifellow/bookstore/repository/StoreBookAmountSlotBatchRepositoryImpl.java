@@ -0,0 +1,176 @@
+package com.ifellow.bookstore.repository;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class StoreBookAmountSlotBatchRepositoryImpl implements StoreBookAmountSlotBatchRepository {
+
+    private record SlotRow(long id, int amount) {
+    }
+
+    private static final RowMapper<SlotRow> SLOT_ROW_MAPPER = (rs, _) ->
+            new SlotRow(rs.getLong("id"), rs.getInt("amount"));
+
+    private static final String INSERT_SQL =
+            "INSERT INTO store_books_amount_slots (store_id, book_id, slot, amount, version) VALUES (?, ?, ?, ?, 0)";
+    private static final String SELECT_FOR_UPDATE_SQL =
+            "SELECT id, amount FROM store_books_amount_slots WHERE store_id = ? AND book_id = ? ORDER BY slot FOR UPDATE";
+    private static final String SELECT_UNLOCKED_SQL =
+            "SELECT id, amount FROM store_books_amount_slots WHERE store_id = ? AND book_id = ? ORDER BY slot FOR UPDATE SKIP LOCKED";
+    private static final String SELECT_UNLOCKED_BY_ID_SQL =
+            "SELECT id, amount FROM store_books_amount_slots WHERE id = ? FOR UPDATE SKIP LOCKED";
+    private static final String SELECT_BY_ID_FOR_UPDATE_SQL =
+            "SELECT id, amount FROM store_books_amount_slots WHERE id = ? FOR UPDATE";
+    private static final String COUNT_SQL =
+            "SELECT COUNT(*) FROM store_books_amount_slots WHERE store_id = ? AND book_id = ?";
+    private static final String DELETE_SQL =
+            "DELETE FROM store_books_amount_slots WHERE store_id = ? AND book_id = ?";
+    private static final String UPDATE_SQL =
+            "UPDATE store_books_amount_slots SET amount = ?, version = version + 1 WHERE id = ?";
+    private static final String SELECT_IDS_SQL =
+            "SELECT id FROM store_books_amount_slots WHERE store_id = ? AND book_id = ? AND amount >= ?";
+    private static final String INCREMENT_SQL =
+            "UPDATE store_books_amount_slots SET amount = amount + ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public StoreBookAmountSlotBatchRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void createSlots(Long storeId, Long bookId, int slots, int amount) {
+        entityManager.flush();
+
+        List<Object[]> rows = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            rows.add(new Object[]{storeId, bookId, slot, share(amount, slots, slot)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        entityManager.clear();
+    }
+
+    @Override
+    public int deleteSlots(Long storeId, Long bookId) {
+        entityManager.flush();
+
+        int total = lockSlots(storeId, bookId).stream().mapToInt(SlotRow::amount).sum();
+        jdbcTemplate.update(DELETE_SQL, storeId, bookId);
+
+        entityManager.clear();
+        return total;
+    }
+
+    @Override
+    public void incrementRandomSlot(Long storeId, Long bookId, int quantity) {
+        entityManager.flush();
+
+        Long slotId = randomSlotId(storeId, bookId, 0);
+        if (slotId != null) jdbcTemplate.update(INCREMENT_SQL, quantity, slotId);
+
+        entityManager.clear();
+    }
+
+    @Override
+    public boolean decrementRandomSlot(Long storeId, Long bookId, int quantity, boolean wait) {
+        entityManager.flush();
+
+        List<Long> slotIds = new ArrayList<>(jdbcTemplate.queryForList(SELECT_IDS_SQL, Long.class, storeId, bookId, quantity));
+        Collections.shuffle(slotIds, ThreadLocalRandom.current());
+
+        boolean updated = false;
+        for (Long slotId : slotIds) {
+            if (decrementSlot(SELECT_UNLOCKED_BY_ID_SQL, slotId, quantity)) {
+                updated = true;
+                break;
+            }
+        }
+        if (!updated && wait && !slotIds.isEmpty()) {
+            updated = decrementSlot(SELECT_BY_ID_FOR_UPDATE_SQL, slotIds.getFirst(), quantity);
+        }
+
+        entityManager.clear();
+        return updated;
+    }
+
+    @Override
+    public SlotDrainResult decrementAvailableSlots(Long storeId, Long bookId, int quantity) {
+        entityManager.flush();
+
+        List<SlotRow> rows = jdbcTemplate.query(SELECT_UNLOCKED_SQL, SLOT_ROW_MAPPER, storeId, bookId);
+        if (rows.stream().mapToInt(SlotRow::amount).sum() < quantity) {
+            Integer slots = jdbcTemplate.queryForObject(COUNT_SQL, Integer.class, storeId, bookId);
+            return slots != null && rows.size() < slots ? SlotDrainResult.CONTENDED : SlotDrainResult.NOT_ENOUGH;
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        int remaining = quantity;
+        for (SlotRow row : rows) {
+            if (remaining == 0) break;
+            int taken = Math.min(row.amount(), remaining);
+            if (taken == 0) continue;
+
+            updates.add(new Object[]{row.amount() - taken, row.id()});
+            remaining -= taken;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+
+        entityManager.clear();
+        return SlotDrainResult.DRAINED;
+    }
+
+    @Override
+    public boolean rebalanceSlots(Long storeId, Long bookId) {
+        entityManager.flush();
+
+        List<SlotRow> rows = jdbcTemplate.query(SELECT_UNLOCKED_SQL, SLOT_ROW_MAPPER, storeId, bookId);
+        Integer slots = jdbcTemplate.queryForObject(COUNT_SQL, Integer.class, storeId, bookId);
+        if (rows.isEmpty() || slots == null || rows.size() < slots) return false;
+
+        IntSummaryStatistics amounts = rows.stream().mapToInt(SlotRow::amount).summaryStatistics();
+        if (amounts.getMax() - amounts.getMin() <= 1) return true;
+
+        int total = (int) amounts.getSum();
+        List<Object[]> updates = new ArrayList<>();
+        for (int slot = 0; slot < rows.size(); slot++) {
+            SlotRow row = rows.get(slot);
+            int amount = share(total, rows.size(), slot);
+            if (row.amount() != amount) updates.add(new Object[]{amount, row.id()});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+
+        entityManager.clear();
+        return true;
+    }
+
+    private boolean decrementSlot(String lockSql, Long slotId, int quantity) {
+        List<SlotRow> rows = jdbcTemplate.query(lockSql, SLOT_ROW_MAPPER, slotId);
+        if (rows.isEmpty() || rows.getFirst().amount() < quantity) return false;
+
+        jdbcTemplate.update(UPDATE_SQL, rows.getFirst().amount() - quantity, slotId);
+        return true;
+    }
+
+    private Long randomSlotId(Long storeId, Long bookId, int minAmount) {
+        List<Long> slotIds = jdbcTemplate.queryForList(SELECT_IDS_SQL, Long.class, storeId, bookId, minAmount);
+        return slotIds.isEmpty() ? null : slotIds.get(ThreadLocalRandom.current().nextInt(slotIds.size()));
+    }
+
+    private List<SlotRow> lockSlots(Long storeId, Long bookId) {
+        return jdbcTemplate.query(SELECT_FOR_UPDATE_SQL, SLOT_ROW_MAPPER, storeId, bookId);
+    }
+
+    private int share(int total, int slots, int slot) {
+        return total / slots + (slot < total % slots ? 1 : 0);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.dto.projection.StockLevel;
+import com.ifellow.bookstore.model.StoreBookAmountSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StoreBookAmountSlotRepository extends JpaRepository<StoreBookAmountSlot, Long>, StoreBookAmountSlotBatchRepository {
+
+    boolean existsByStoreIdAndBookId(Long storeId, Long bookId);
+
+    @Query("SELECT DISTINCT s.book.id FROM StoreBookAmountSlot s WHERE s.store.id = :storeId AND s.book.id IN :bookIds")
+    List<Long> findSplitBookIds(@Param("storeId") Long storeId, @Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT new com.ifellow.bookstore.dto.projection.StockLevel(s.store.id, s.book.id, CAST(SUM(s.amount) AS Integer)) " +
+            "FROM StoreBookAmountSlot s WHERE s.store.id = :storeId AND s.book.id IN :bookIds " +
+            "GROUP BY s.store.id, s.book.id")
+    List<StockLevel> sumByStoreIdAndBookIds(@Param("storeId") Long storeId, @Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT new com.ifellow.bookstore.dto.projection.StockLevel(s.store.id, s.book.id, CAST(SUM(s.amount) AS Integer)) " +
+            "FROM StoreBookAmountSlot s GROUP BY s.store.id, s.book.id ORDER BY s.store.id, s.book.id")
+    List<StockLevel> findAllSplitStockLevels();
+
+    @Query("SELECT new com.ifellow.bookstore.dto.projection.StockLevel(s.store.id, s.book.id, CAST(SUM(s.amount) AS Integer)) " +
+            "FROM StoreBookAmountSlot s GROUP BY s.store.id, s.book.id HAVING MAX(s.amount) - MIN(s.amount) > 1 " +
+            "ORDER BY s.store.id, s.book.id")
+    List<StockLevel> findUnbalancedSplitStockLevels();
+}
@@ -0,0 +1,12 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.model.StoreStockThreshold;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface StoreStockThresholdRepository extends JpaRepository<StoreStockThreshold, Long> {
+
+    Optional<StoreStockThreshold> findByStoreIdAndBookId(Long storeId, Long bookId);
+    Optional<StoreStockThreshold> findByStoreIdAndBookIsNull(Long storeId);
+}
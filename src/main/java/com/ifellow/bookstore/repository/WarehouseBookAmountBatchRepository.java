@@ -0,0 +1,12 @@
+package com.ifellow.bookstore.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface WarehouseBookAmountBatchRepository {
+
+    int incrementAmount(Long warehouseId, Long bookId, int quantity);
+    int decrementAmount(Long warehouseId, Long bookId, int quantity);
+    void upsertAmounts(Long warehouseId, Map<Long, Integer> quantitiesByBookId);
+    List<Long> decrementAmounts(Long warehouseId, Map<Long, Integer> quantitiesByBookId);
+}
@@ -0,0 +1,42 @@
+package com.ifellow.bookstore.repository;
+
+import com.ifellow.bookstore.util.StockConcurrencyControl;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+public class WarehouseBookAmountBatchRepositoryImpl implements WarehouseBookAmountBatchRepository {
+
+    private final StockBatchOperations operations;
+
+    public WarehouseBookAmountBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                                  EntityManager entityManager,
+                                                  StockConcurrencyControl concurrencyControl,
+                                                  @Value("${stock.batch.size}") int batchSize) {
+        this.operations = new StockBatchOperations(jdbcTemplate, entityManager, concurrencyControl, batchSize,
+                "warehouse_books_amount", "warehouse_id");
+    }
+
+    @Override
+    public int incrementAmount(Long warehouseId, Long bookId, int quantity) {
+        return operations.increment(warehouseId, bookId, quantity);
+    }
+
+    @Override
+    public int decrementAmount(Long warehouseId, Long bookId, int quantity) {
+        return operations.decrement(warehouseId, bookId, quantity);
+    }
+
+    @Override
+    public void upsertAmounts(Long warehouseId, Map<Long, Integer> quantitiesByBookId) {
+        operations.upsert(warehouseId, quantitiesByBookId);
+    }
+
+    @Override
+    public List<Long> decrementAmounts(Long warehouseId, Map<Long, Integer> quantitiesByBookId) {
+        return operations.decrement(warehouseId, quantitiesByBookId);
+    }
+}
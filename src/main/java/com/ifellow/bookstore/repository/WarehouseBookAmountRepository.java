@@ -1,15 +1,32 @@
 package com.ifellow.bookstore.repository;
 
+import com.ifellow.bookstore.dto.projection.StockLevel;
 import com.ifellow.bookstore.model.WarehouseBookAmount;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface WarehouseBookAmountRepository extends JpaRepository<WarehouseBookAmount, Long> {
+public interface WarehouseBookAmountRepository extends JpaRepository<WarehouseBookAmount, Long>, WarehouseBookAmountBatchRepository {
 
     Page<WarehouseBookAmount> findByWarehouseId(Long warehouseId, Pageable pageable);
     Optional<WarehouseBookAmount> findByWarehouseIdAndBookId(Long warehouseId, Long bookId);
     boolean existsByWarehouseIdAndBookId(Long warehouseId, Long bookId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT wba FROM WarehouseBookAmount wba " +
+            "WHERE wba.warehouse.id = :warehouseId AND wba.book.id IN :bookIds ORDER BY wba.book.id")
+    List<WarehouseBookAmount> findAllForUpdate(@Param("warehouseId") Long warehouseId,
+                                               @Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT new com.ifellow.bookstore.dto.projection.StockLevel(wba.warehouse.id, wba.book.id, wba.amount) " +
+            "FROM WarehouseBookAmount wba")
+    List<StockLevel> findAllStockLevels();
 }
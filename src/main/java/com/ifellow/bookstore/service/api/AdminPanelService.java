@@ -1,8 +1,14 @@
 package com.ifellow.bookstore.service.api;
 
 import com.ifellow.bookstore.dto.request.RoleDto;
+import com.ifellow.bookstore.dto.response.BookCacheMetricsResponseDto;
+import com.ifellow.bookstore.dto.response.StockLockingMetricsResponseDto;
 
 public interface AdminPanelService {
     void setTheRole(Long userId, RoleDto roleDto);
     void deleteTheRole(Long userId, RoleDto roleDto);
+    StockLockingMetricsResponseDto getStockLockingMetrics();
+    BookCacheMetricsResponseDto getBookCacheMetrics();
+    void splitStoreStock(Long storeId, Long bookId, int slots);
+    void mergeStoreStock(Long storeId, Long bookId);
 }
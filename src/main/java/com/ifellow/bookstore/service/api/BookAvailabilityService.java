@@ -0,0 +1,13 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.dto.response.BookAvailabilityResponseDto;
+import com.ifellow.bookstore.enumeration.StockLocationType;
+import com.ifellow.bookstore.event.StockChangedEvent;
+
+import java.util.List;
+
+public interface BookAvailabilityService {
+    List<BookAvailabilityResponseDto> getAvailability(Long bookId);
+    int getQuantity(StockLocationType locationType, Long locationId, Long bookId);
+    void onStockChanged(StockChangedEvent event);
+}
@@ -0,0 +1,17 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.dto.response.BookCacheMetricsResponseDto;
+import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.event.BookSavedEvent;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+public interface BookCacheService {
+    Optional<BookResponseDto> findDto(Long id);
+    Map<Long, BookResponseDto> findDtos(Collection<Long> ids);
+    void onBookSaved(BookSavedEvent event);
+    void afterBookSaved(BookSavedEvent event);
+    BookCacheMetricsResponseDto getMetrics();
+}
@@ -0,0 +1,12 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.event.BookSavedEvent;
+
+import java.util.Optional;
+import java.util.Set;
+
+public interface BookSearchService {
+    boolean isEnabled();
+    Optional<Set<Long>> findBookIds(String title, String authorFullName);
+    void onBookSaved(BookSavedEvent event);
+}
@@ -2,16 +2,27 @@ package com.ifellow.bookstore.service.api;
 
 import com.ifellow.bookstore.dto.filter.BookFilter;
 import com.ifellow.bookstore.dto.request.BookRequestDto;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
 import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
 import com.ifellow.bookstore.model.Book;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Map;
 
 public interface BookService {
 
     BookResponseDto save(BookRequestDto bookRequestDto);
     BookResponseDto findById(Long id);
     Object findAll(BookFilter filter, Pageable pageable);
+    Slice<BookResponseDto> findSlice(BookFilter filter, Pageable pageable);
+    CursorPageResponseDto<BookResponseDto> findAll(BookFilter filter, CursorPageRequest cursorPageRequest);
     void checkBookExistence(Long id);
+    void checkBooksExistence(Collection<Long> ids);
     Book findBookById(Long id);
+    Book getBookReference(Long id);
+    Map<Long, BookResponseDto> findBooksByIds(Collection<Long> ids);
 
 }
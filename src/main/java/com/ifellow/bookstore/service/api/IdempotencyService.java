@@ -0,0 +1,13 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.enumeration.IdempotencyScope;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    <T> T execute(IdempotencyScope scope, String idempotencyKey, Object request, Supplier<T> action,
+                  Function<T, Long> resultId, Function<Long, T> resultLoader);
+    String fingerprint(Object request);
+    void purgeExpired();
+}
@@ -0,0 +1,6 @@
+package com.ifellow.bookstore.service.api;
+
+public interface OrderExpiryService {
+
+    int expireStaleOrders();
+}
@@ -0,0 +1,13 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.dto.request.BookOrderDto;
+import com.ifellow.bookstore.dto.response.OrderTicketResponseDto;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface OrderIntakeService {
+    OrderTicketResponseDto submit(Long warehouseId, List<BookOrderDto> bookOrderDtoList);
+    OrderTicketResponseDto getTicket(UUID ticketId);
+    void purgeFinishedTickets();
+}
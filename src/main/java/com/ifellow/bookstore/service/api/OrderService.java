@@ -1,10 +1,16 @@
 package com.ifellow.bookstore.service.api;
 
 import com.ifellow.bookstore.dto.request.BookOrderDto;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
+import com.ifellow.bookstore.dto.request.OrderBulkRequestDto;
 import com.ifellow.bookstore.dto.filter.OrderFilter;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
+import com.ifellow.bookstore.dto.response.OrderBulkResponseDto;
+import com.ifellow.bookstore.dto.response.OrderItemResponseDto;
 import com.ifellow.bookstore.dto.response.OrderResponseDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -14,7 +20,12 @@ public interface OrderService {
     Page<OrderResponseDto> findByUserId(Long userId, Pageable pageable);
     OrderResponseDto completeById(Long orderId);
     OrderResponseDto cancelById(Long orderId);
+    OrderBulkResponseDto completeAll(OrderBulkRequestDto orderBulkRequestDto);
+    OrderBulkResponseDto cancelAll(OrderBulkRequestDto orderBulkRequestDto);
     OrderResponseDto findById(Long orderId);
+    List<OrderItemResponseDto> findItemsById(Long orderId);
     Page<OrderResponseDto> findAll(OrderFilter filter, Pageable pageable);
+    Slice<OrderResponseDto> findSlice(OrderFilter filter, Pageable pageable);
+    CursorPageResponseDto<OrderResponseDto> findAll(OrderFilter filter, CursorPageRequest cursorPageRequest);
 }
 ;
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.event.EntityChangedEvent;
+
+import java.util.function.LongSupplier;
+
+public interface PageCountService {
+    long count(Class<?> entityType, Object filter, LongSupplier counter);
+    void onEntityChanged(EntityChangedEvent event);
+    void afterEntityChanged(EntityChangedEvent event);
+}
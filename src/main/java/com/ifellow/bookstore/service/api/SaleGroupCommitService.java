@@ -0,0 +1,10 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.dto.response.SaleResponseDto;
+
+import java.util.List;
+
+public interface SaleGroupCommitService {
+    SaleResponseDto processSale(Long storeId, List<BookSaleDto> bookSaleDtoList);
+}
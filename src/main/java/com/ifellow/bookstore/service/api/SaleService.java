@@ -1,17 +1,26 @@
 package com.ifellow.bookstore.service.api;
 
 import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
+import com.ifellow.bookstore.dto.request.SaleBatchEntryDto;
 import com.ifellow.bookstore.dto.filter.SaleFilter;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
+import com.ifellow.bookstore.dto.response.SaleItemResponseDto;
 import com.ifellow.bookstore.dto.response.SaleResponseDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 public interface SaleService {
 
     SaleResponseDto processSale(Long storeId, List<BookSaleDto> bookSaleDtoList);
+    List<SaleResponseDto> processSales(Long storeId, List<SaleBatchEntryDto> saleBatchEntryDtoList);
     SaleResponseDto findById(Long id);
+    List<SaleItemResponseDto> findItemsById(Long id);
     Page<SaleResponseDto> findAll(SaleFilter filter, Pageable pageable);
+    Slice<SaleResponseDto> findSlice(SaleFilter filter, Pageable pageable);
+    CursorPageResponseDto<SaleResponseDto> findAll(SaleFilter filter, CursorPageRequest cursorPageRequest);
     Page<SaleResponseDto> findByUserId(Long userId, Pageable pageable);
 }
@@ -0,0 +1,13 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.dto.response.SaleUploadResultDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface SaleUploadService {
+
+    void upload(Long storeId, BufferedReader reader, Consumer<List<SaleUploadResultDto>> resultSink) throws IOException;
+}
@@ -0,0 +1,14 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.dto.request.StockThresholdRequestDto;
+import com.ifellow.bookstore.dto.response.StockAlertResponseDto;
+import com.ifellow.bookstore.dto.response.StockThresholdResponseDto;
+import com.ifellow.bookstore.event.StockChangedEvent;
+
+import java.util.List;
+
+public interface StockAlertService {
+    StockThresholdResponseDto setThreshold(Long storeId, StockThresholdRequestDto stockThresholdRequestDto);
+    List<StockAlertResponseDto> getAlerts(Long storeId);
+    void onStockChanged(StockChangedEvent event);
+}
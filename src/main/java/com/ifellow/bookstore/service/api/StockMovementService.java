@@ -0,0 +1,16 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.dto.response.StockAsOfResponseDto;
+import com.ifellow.bookstore.enumeration.StockLocationType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface StockMovementService {
+
+    void recordAdded(StockLocationType locationType, Long locationId, Map<Long, Integer> quantitiesByBookId);
+    void recordRemoved(StockLocationType locationType, Long locationId, Map<Long, Integer> quantitiesByBookId);
+    void compact();
+    List<StockAsOfResponseDto> getStockAsOf(StockLocationType locationType, Long locationId, LocalDateTime asOf);
+}
@@ -0,0 +1,16 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.model.Order;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StockReservationService {
+
+    void reserve(Order order);
+    void commit(Order order);
+    void release(Order order);
+    List<Long> commitAll(Collection<Long> orderIds);
+    void releaseAll(Collection<Long> orderIds);
+    void releaseExpired();
+}
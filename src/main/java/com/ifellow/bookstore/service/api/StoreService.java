@@ -2,22 +2,28 @@ package com.ifellow.bookstore.service.api;
 
 import com.ifellow.bookstore.dto.request.BookBulkDto;
 import com.ifellow.bookstore.dto.request.StoreRequestDto;
+import com.ifellow.bookstore.dto.response.StockAsOfResponseDto;
 import com.ifellow.bookstore.dto.response.StoreBookResponseDto;
 import com.ifellow.bookstore.dto.response.StoreResponseDto;
 import com.ifellow.bookstore.model.Store;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface StoreService {
 
     StoreResponseDto save(StoreRequestDto storeRequestDto);
     StoreResponseDto findById(Long id);
     Store findStoreById(Long id);
+    Store lockStoreById(Long id);
     void addBookToStore(Long id, BookBulkDto bookBulkDto);
     void removeBookFromStore(Long id, BookBulkDto bookBulkDto);
     void addBooksToStore(Long id, List<BookBulkDto> bookBulkDtos);
     void removeBooksFromStore(Long id, List<BookBulkDto> bookBulkDtos);
+    void removeBooksFromStore(Store store, Map<Long, Integer> quantitiesByBookId);
     Page<StoreBookResponseDto> getStoreStock(Long id, Pageable pageable);
+    List<StockAsOfResponseDto> getStoreStockAsOf(Long id, LocalDateTime asOf);
 }
@@ -0,0 +1,18 @@
+package com.ifellow.bookstore.service.api;
+
+import com.ifellow.bookstore.dto.projection.StockLevel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface StoreStockLedgerService {
+
+    boolean isEnabled();
+    boolean contains(Long storeId, Long bookId);
+    Optional<Integer> getAmount(Long storeId, Long bookId);
+    List<StockLevel> getStockLevels();
+    void add(Long storeId, Map<Long, Integer> quantitiesByBookId);
+    List<Long> remove(Long storeId, Map<Long, Integer> quantitiesByBookId);
+    void flush();
+}
@@ -0,0 +1,16 @@
+package com.ifellow.bookstore.service.api;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface StoreStockSplitService {
+    boolean isEnabled();
+    void split(Long storeId, Long bookId, int slots);
+    void merge(Long storeId, Long bookId);
+    Map<Long, Integer> findSplitQuantities(Long storeId, Map<Long, Integer> quantitiesByBookId);
+    void add(Long storeId, Map<Long, Integer> quantitiesByBookId);
+    List<Long> remove(Long storeId, Map<Long, Integer> quantitiesByBookId);
+    Map<Long, Integer> getAmounts(Long storeId, Collection<Long> bookIds);
+    int rebalance();
+}
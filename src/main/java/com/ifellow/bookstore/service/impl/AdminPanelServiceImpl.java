@@ -1,12 +1,17 @@
 package com.ifellow.bookstore.service.impl;
 
 import com.ifellow.bookstore.dto.request.RoleDto;
+import com.ifellow.bookstore.dto.response.BookCacheMetricsResponseDto;
+import com.ifellow.bookstore.dto.response.StockLockingMetricsResponseDto;
 import com.ifellow.bookstore.enumeration.RoleName;
 import com.ifellow.bookstore.model.Role;
 import com.ifellow.bookstore.model.User;
 import com.ifellow.bookstore.service.api.AdminPanelService;
+import com.ifellow.bookstore.service.api.BookCacheService;
 import com.ifellow.bookstore.service.api.RoleService;
+import com.ifellow.bookstore.service.api.StoreStockSplitService;
 import com.ifellow.bookstore.service.api.UserService;
+import com.ifellow.bookstore.util.StockConcurrencyControl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +22,9 @@ public class AdminPanelServiceImpl implements AdminPanelService {
 
     private final UserService userService;
     private final RoleService roleService;
+    private final StockConcurrencyControl stockConcurrencyControl;
+    private final StoreStockSplitService storeStockSplitService;
+    private final BookCacheService bookCacheService;
 
     @Override
     @Transactional
@@ -35,4 +43,24 @@ public class AdminPanelServiceImpl implements AdminPanelService {
 
         user.getRoles().remove(role);
     }
+
+    @Override
+    public StockLockingMetricsResponseDto getStockLockingMetrics() {
+        return stockConcurrencyControl.getMetrics();
+    }
+
+    @Override
+    public BookCacheMetricsResponseDto getBookCacheMetrics() {
+        return bookCacheService.getMetrics();
+    }
+
+    @Override
+    public void splitStoreStock(Long storeId, Long bookId, int slots) {
+        storeStockSplitService.split(storeId, bookId, slots);
+    }
+
+    @Override
+    public void mergeStoreStock(Long storeId, Long bookId) {
+        storeStockSplitService.merge(storeId, bookId);
+    }
 }
@@ -0,0 +1,95 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.dto.projection.StockLevel;
+import com.ifellow.bookstore.dto.response.BookAvailabilityResponseDto;
+import com.ifellow.bookstore.enumeration.StockLocationType;
+import com.ifellow.bookstore.event.StockChangedEvent;
+import com.ifellow.bookstore.repository.StoreBookAmountRepository;
+import com.ifellow.bookstore.repository.StoreBookAmountSlotRepository;
+import com.ifellow.bookstore.repository.WarehouseBookAmountRepository;
+import com.ifellow.bookstore.service.api.BookAvailabilityService;
+import com.ifellow.bookstore.service.api.BookService;
+import com.ifellow.bookstore.service.api.StoreStockLedgerService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class BookAvailabilityServiceImpl implements BookAvailabilityService {
+
+    private record StockLocation(StockLocationType type, Long id) {
+    }
+
+    private static final Comparator<BookAvailabilityResponseDto> LOCATION_ORDER = Comparator
+            .comparing(BookAvailabilityResponseDto::locationType)
+            .thenComparing(BookAvailabilityResponseDto::locationId);
+
+    private final BookService bookService;
+    private final StoreBookAmountRepository storeBookAmountRepository;
+    private final StoreBookAmountSlotRepository storeBookAmountSlotRepository;
+    private final WarehouseBookAmountRepository warehouseBookAmountRepository;
+    private final StoreStockLedgerService storeStockLedgerService;
+
+    private final Map<Long, Map<StockLocation, Integer>> locationsByBookId = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        warehouseBookAmountRepository.findAllStockLevels().forEach(level -> apply(StockLocationType.WAREHOUSE, level));
+
+        if (storeStockLedgerService.isEnabled()) {
+            storeStockLedgerService.getStockLevels().forEach(level -> apply(StockLocationType.STORE, level));
+            return;
+        }
+
+        storeBookAmountRepository.findAllStockLevels().forEach(level -> apply(StockLocationType.STORE, level));
+        storeBookAmountSlotRepository.findAllSplitStockLevels().forEach(level -> apply(StockLocationType.STORE, level));
+    }
+
+    @Override
+    public List<BookAvailabilityResponseDto> getAvailability(Long bookId) {
+        bookService.checkBookExistence(bookId);
+
+        return locationsByBookId.getOrDefault(bookId, Map.of()).entrySet().stream()
+                .map(entry -> new BookAvailabilityResponseDto(entry.getKey().type(), entry.getKey().id(), entry.getValue()))
+                .sorted(LOCATION_ORDER)
+                .toList();
+    }
+
+    @Override
+    public int getQuantity(StockLocationType locationType, Long locationId, Long bookId) {
+        return locationsByBookId.getOrDefault(bookId, Map.of())
+                .getOrDefault(new StockLocation(locationType, locationId), 0);
+    }
+
+    @Override
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        StockLocation location = new StockLocation(event.locationType(), event.locationId());
+        event.deltasByBookId().forEach((bookId, delta) -> apply(bookId, location, delta));
+    }
+
+    private void apply(StockLocationType locationType, StockLevel level) {
+        apply(level.bookId(), new StockLocation(locationType, level.locationId()), level.amount());
+    }
+
+    private void apply(Long bookId, StockLocation location, int delta) {
+        locationsByBookId.compute(bookId, (_, locations) -> {
+            Map<StockLocation, Integer> updated = locations != null ? locations : new ConcurrentHashMap<>();
+            updated.compute(location, (_, amount) -> {
+                int total = (amount != null ? amount : 0) + delta;
+                return total > 0 ? total : null;
+            });
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.dto.response.BookCacheMetricsResponseDto;
+import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.event.BookSavedEvent;
+import com.ifellow.bookstore.mapper.BookMapper;
+import com.ifellow.bookstore.model.Book;
+import com.ifellow.bookstore.repository.BookRepository;
+import com.ifellow.bookstore.service.api.BookCacheService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@RequiredArgsConstructor
+public class BookCacheServiceImpl implements BookCacheService {
+
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private List<Map<Long, BookResponseDto>> segments;
+
+    @Value("${book.cache.enabled}")
+    private boolean enabled;
+
+    @Value("${book.cache.capacity}")
+    private int capacity;
+
+    @Value("${book.cache.segments}")
+    private int segmentCount;
+
+    @PostConstruct
+    public void init() {
+        int segmentCapacity = Math.max(capacity / segmentCount, 1);
+        segments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            segments.add(Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, BookResponseDto> eldest) {
+                    if (size() <= segmentCapacity) return false;
+                    evictions.increment();
+                    return true;
+                }
+            }));
+        }
+    }
+
+    @Override
+    public Optional<BookResponseDto> findDto(Long id) {
+        BookResponseDto cached = cached(id);
+        if (cached != null) return Optional.of(cached);
+
+        return bookRepository.findWithAuthorAndGenreById(id).map(this::cache);
+    }
+
+    @Override
+    public Map<Long, BookResponseDto> findDtos(Collection<Long> ids) {
+        Map<Long, BookResponseDto> booksById = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            BookResponseDto cached = cached(id);
+            if (cached != null) booksById.put(id, cached);
+            else missingIds.add(id);
+        }
+        if (missingIds.isEmpty()) return booksById;
+
+        for (Book book : bookRepository.findAllWithAuthorAndGenreByIdIn(missingIds)) {
+            booksById.put(book.getId(), cache(book));
+        }
+        return booksById;
+    }
+
+    @Override
+    @EventListener
+    public void onBookSaved(BookSavedEvent event) {
+        evict(event.bookId());
+    }
+
+    @Override
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void afterBookSaved(BookSavedEvent event) {
+        evict(event.bookId());
+    }
+
+    @Override
+    public BookCacheMetricsResponseDto getMetrics() {
+        return new BookCacheMetricsResponseDto(hits.sum(),
+                misses.sum(),
+                evictions.sum(),
+                segments.stream().mapToInt(Map::size).sum(),
+                capacity);
+    }
+
+    private BookResponseDto cached(Long id) {
+        if (!enabled) return null;
+
+        BookResponseDto cached = segment(id).get(id);
+        if (cached != null) hits.increment();
+        else misses.increment();
+        return cached;
+    }
+
+    private BookResponseDto cache(Book book) {
+        BookResponseDto cached = bookMapper.toDto(book);
+        if (enabled) segment(book.getId()).put(book.getId(), cached);
+        return cached;
+    }
+
+    private void evict(Long id) {
+        if (id != null) segment(id).remove(id);
+    }
+
+    private Map<Long, BookResponseDto> segment(Long id) {
+        return segments.get(Math.floorMod(id.hashCode(), segmentCount));
+    }
+}
@@ -0,0 +1,78 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.dto.projection.BookSearchEntry;
+import com.ifellow.bookstore.event.BookSavedEvent;
+import com.ifellow.bookstore.repository.BookRepository;
+import com.ifellow.bookstore.service.api.BookSearchService;
+import com.ifellow.bookstore.util.NGramIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BookSearchServiceImpl implements BookSearchService {
+
+    private final BookRepository bookRepository;
+
+    private final NGramIndex titleIndex = new NGramIndex();
+    private final NGramIndex authorIndex = new NGramIndex();
+
+    @Value("${book.search.index.enabled}")
+    private boolean enabled;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) return;
+
+        bookRepository.findAllSearchEntries().forEach(this::index);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Optional<Set<Long>> findBookIds(String title, String authorFullName) {
+        if (!StringUtils.hasText(title) && !StringUtils.hasText(authorFullName))
+            throw new IllegalArgumentException("Either title or author full name must be specified");
+        if (StringUtils.hasText(title) && !titleIndex.supports(title)) return Optional.empty();
+        if (StringUtils.hasText(authorFullName) && !authorIndex.supports(authorFullName)) return Optional.empty();
+
+        Set<Long> bookIds = null;
+        if (StringUtils.hasText(title)) bookIds = search(titleIndex, title);
+        if (StringUtils.hasText(authorFullName)) {
+            Set<Long> byAuthor = search(authorIndex, authorFullName);
+            if (bookIds == null) bookIds = byAuthor;
+            else bookIds.retainAll(byAuthor);
+        }
+        return Optional.of(bookIds);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookSaved(BookSavedEvent event) {
+        if (!enabled) return;
+
+        index(new BookSearchEntry(event.bookId(), event.title(), event.authorFullName()));
+    }
+
+    private void index(BookSearchEntry entry) {
+        titleIndex.add(entry.bookId(), entry.title());
+        if (entry.authorFullName() != null) authorIndex.add(entry.bookId(), entry.authorFullName());
+    }
+
+    private Set<Long> search(NGramIndex index, String query) {
+        return Arrays.stream(index.search(query)).boxed().collect(Collectors.toCollection(TreeSet::new));
+    }
+}
@@ -2,8 +2,12 @@ package com.ifellow.bookstore.service.impl;
 
 import com.ifellow.bookstore.dto.filter.BookFilter;
 import com.ifellow.bookstore.dto.request.BookRequestDto;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
 import com.ifellow.bookstore.dto.response.GroupedBookResponse;
 import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
+import com.ifellow.bookstore.event.BookSavedEvent;
+import com.ifellow.bookstore.event.EntityChangedEvent;
 import com.ifellow.bookstore.exception.BookException;
 import com.ifellow.bookstore.mapper.BookMapper;
 import com.ifellow.bookstore.model.Author;
@@ -11,18 +15,36 @@ import com.ifellow.bookstore.model.Book;
 import com.ifellow.bookstore.model.Genre;
 import com.ifellow.bookstore.repository.BookRepository;
 import com.ifellow.bookstore.service.api.AuthorService;
+import com.ifellow.bookstore.service.api.BookCacheService;
+import com.ifellow.bookstore.service.api.BookSearchService;
 import com.ifellow.bookstore.service.api.BookService;
 import com.ifellow.bookstore.service.api.GenreService;
+import com.ifellow.bookstore.service.api.PageCountService;
 import com.ifellow.bookstore.specification.BookSpecification;
+import com.ifellow.bookstore.util.CursorUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,7 +54,20 @@ public class BookServiceImpl implements BookService {
     private final BookRepository bookRepository;
     private final AuthorService authorService;
     private final GenreService genreService;
+    private final BookSearchService bookSearchService;
+    private final BookCacheService bookCacheService;
+    private final PageCountService pageCountService;
     private final BookMapper bookMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Value("${book.search.id.chunk.size}")
+    private int idChunkSize;
+
+    @Value("${book.group.books.per.genre}")
+    private int defaultBooksPerGenre;
+
+    @Value("${book.group.max.books.per.genre}")
+    private int maxBooksPerGenre;
 
     @Override
     @Transactional
@@ -45,26 +80,38 @@ public class BookServiceImpl implements BookService {
         book.setGenre(genre);
 
         bookRepository.save(book);
+        applicationEventPublisher.publishEvent(new BookSavedEvent(book.getId(), book.getTitle(), author.getFullName()));
+        applicationEventPublisher.publishEvent(new EntityChangedEvent(Book.class));
         return bookMapper.toDto(book);
     }
 
     @Override
     @Transactional(readOnly = true)
     public BookResponseDto findById(Long id) throws BookException {
-        Book book = bookRepository.findById(id)
+        return bookCacheService.findDto(id)
                 .orElseThrow(() -> new BookException("Book not found with id: " + id));
-
-        return bookMapper.toDto(book);
    }
 
    @Override
    @Transactional(readOnly = true)
    public void checkBookExistence(Long id) throws BookException {
-        if (!bookRepository.existsById(id)) {
+        if (bookCacheService.findDto(id).isEmpty()) {
             throw new BookException("Book not found with id: " + id);
         }
    }
 
+   @Override
+   @Transactional(readOnly = true)
+   public void checkBooksExistence(Collection<Long> ids) throws BookException {
+        Set<Long> existingIds = bookCacheService.findDtos(ids).keySet();
+
+        for (Long id : ids) {
+            if (!existingIds.contains(id)) {
+                throw new BookException("Book not found with id: " + id);
+            }
+        }
+   }
+
    @Override
    @Transactional(readOnly = true)
    public Object findAll(BookFilter filter, Pageable pageable) {
@@ -75,35 +122,123 @@ public class BookServiceImpl implements BookService {
         }
    }
 
+   @Override
+   @Transactional(readOnly = true)
+   public Slice<BookResponseDto> findSlice(BookFilter filter, Pageable pageable) {
+        if (filter.isGroupByGenre())
+            throw new IllegalArgumentException("Grouping by genre is not supported with slice pagination");
+
+        Window<Book> books = bookRepository.findBy(toSpecification(filter), query -> scroll(query, pageable));
+        return new SliceImpl<>(books.map(bookMapper::toDto).getContent(), pageable, books.hasNext());
+   }
+
+   @Override
+   @Transactional(readOnly = true)
+   public CursorPageResponseDto<BookResponseDto> findAll(BookFilter filter, CursorPageRequest cursorPageRequest) {
+        if (filter.isGroupByGenre())
+            throw new IllegalArgumentException("Grouping by genre is not supported with cursor pagination");
+
+        Specification<Book> spec = toSpecification(filter).and(BookSpecification.after(cursorPageRequest));
+        List<Book> books = bookRepository.findBy(spec, query -> query
+                .sortBy(cursorPageRequest.sort())
+                .limit(cursorPageRequest.size() + 1)
+                .all());
+
+        return CursorUtils.toPage(books, cursorPageRequest, bookMapper::toDto);
+   }
+
    private Page<BookResponseDto> findAllFiltered(BookFilter filter, Pageable pageable) {
-       Specification<Book> spec = BookSpecification.withFilter(filter);
-       return bookRepository.findAll(spec, pageable)
-               .map(bookMapper::toDto);
+       Specification<Book> spec = toSpecification(filter);
+       List<BookResponseDto> content = bookRepository.findBy(spec, query -> scroll(query, pageable))
+               .map(bookMapper::toDto)
+               .getContent();
+
+       return PageableExecutionUtils.getPage(content, pageable, () -> count(filter, spec));
    }
 
    private GroupedBookResponse findAllGroupedByGenre(BookFilter filter, Pageable pageable) {
-        Specification<Book> spec = BookSpecification.withFilter(filter);
-
-        Page<Book> bookPage = bookRepository.findAll(spec, pageable);
+        Specification<Book> spec = toSpecification(filter);
+
+        List<Genre> genres = bookRepository.findGenresWithBooks(spec, pageable);
+        Page<Genre> genrePage = PageableExecutionUtils.getPage(genres, pageable,
+                () -> pageCountService.count(Book.class, filter, () -> bookRepository.countGenresWithBooks(spec)));
+
+        int booksPerGenre = booksPerGenre(filter);
+        List<Long> genreIds = genres.stream().map(Genre::getId).toList();
+        List<Long> bookIds = bookRepository.findTopBookIdsByGenre(spec, genreIds, pageable.getSort(), booksPerGenre + 1);
+        Map<Long, Book> booksById = bookIds.isEmpty() ? Map.of() : bookRepository.findAllById(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        Map<Long, List<BookResponseDto>> booksByGenreId = new HashMap<>();
+        for (Long bookId : bookIds) {
+            Book book = booksById.get(bookId);
+            booksByGenreId.computeIfAbsent(book.getGenre().getId(), _ -> new ArrayList<>()).add(bookMapper.toDto(book));
+        }
 
-        Map<String, List<BookResponseDto>> groupedBooks = bookPage.getContent().stream()
-                .collect(Collectors.groupingBy(
-                        book -> book.getGenre().getName(),
-                        Collectors.mapping(bookMapper::toDto, Collectors.toList())
-                ));
+        Map<String, List<BookResponseDto>> groupedBooks = new LinkedHashMap<>();
+        Map<String, Boolean> hasMoreBooksByGenre = new LinkedHashMap<>();
+        for (Genre genre : genres) {
+            List<BookResponseDto> books = booksByGenreId.getOrDefault(genre.getId(), List.of());
+            boolean hasMore = books.size() > booksPerGenre;
+            groupedBooks.put(genre.getName(), hasMore ? books.subList(0, booksPerGenre) : books);
+            hasMoreBooksByGenre.put(genre.getName(), hasMore);
+        }
 
         return GroupedBookResponse.builder()
                 .booksByGenre(groupedBooks)
-                .currentPage(bookPage.getNumber())
-                .totalPages(bookPage.getTotalPages())
-                .totalElements(bookPage.getTotalElements())
+                .hasMoreBooksByGenre(hasMoreBooksByGenre)
+                .currentPage(genrePage.getNumber())
+                .totalPages(genrePage.getTotalPages())
+                .totalElements(genrePage.getTotalElements())
                 .build();
    }
 
+   private int booksPerGenre(BookFilter filter) {
+        if (filter.getBooksPerGenre() == null) return defaultBooksPerGenre;
+        return Math.min(Math.max(filter.getBooksPerGenre(), 1), maxBooksPerGenre);
+   }
+
+   private Window<Book> scroll(FluentQuery.FetchableFluentQuery<Book> query, Pageable pageable) {
+        return query.sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(pageable.toScrollPosition());
+   }
+
+   private long count(BookFilter filter, Specification<Book> spec) {
+        return pageCountService.count(Book.class, filter, () -> bookRepository.count(spec));
+   }
+
+   private Specification<Book> toSpecification(BookFilter filter) {
+        boolean textSearch = StringUtils.hasText(filter.getTitle()) || StringUtils.hasText(filter.getAuthorFullName());
+        if (!textSearch || !bookSearchService.isEnabled()) return BookSpecification.withFilter(filter);
+
+        return bookSearchService.findBookIds(filter.getTitle(), filter.getAuthorFullName())
+                .map(bookIds -> BookSpecification.withFilter(filter, bookIds, idChunkSize))
+                .orElseGet(() -> BookSpecification.withFilter(filter));
+   }
+
    @Override
    @Transactional(readOnly = true)
    public Book findBookById(Long id) throws BookException {
-        return bookRepository.findById(id)
-                .orElseThrow(() -> new BookException("Book not found with id: " + id));
+        checkBookExistence(id);
+        return getBookReference(id);
+   }
+
+   @Override
+   public Book getBookReference(Long id) {
+        return bookRepository.getReferenceById(id);
+   }
+
+   @Override
+   @Transactional(readOnly = true)
+   public Map<Long, BookResponseDto> findBooksByIds(Collection<Long> ids) throws BookException {
+        Map<Long, BookResponseDto> booksById = bookCacheService.findDtos(ids);
+
+        for (Long id : ids) {
+            if (!booksById.containsKey(id)) {
+                throw new BookException("Book not found with id: " + id);
+            }
+        }
+        return booksById;
    }
 }
@@ -0,0 +1,60 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.enumeration.IdempotencyScope;
+import com.ifellow.bookstore.model.IdempotencyKey;
+import com.ifellow.bookstore.repository.IdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyWriter {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Transactional
+    public <T> T runAndRecord(IdempotencyScope scope, String username, String key, String requestHash,
+                              Supplier<T> action, Function<T, Long> resultId) {
+        IdempotencyKey idempotencyKey = idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                .scope(scope)
+                .username(username)
+                .idempotencyKey(key)
+                .requestHash(requestHash)
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        T response = action.get();
+        idempotencyKey.setResultId(resultId.apply(response));
+        return response;
+    }
+
+    @Transactional
+    public <T> List<T> runAndRecordAll(IdempotencyScope scope, String username, List<String> keys,
+                                       List<String> requestHashes, Supplier<List<T>> action, Function<T, Long> resultId) {
+        List<IdempotencyKey> idempotencyKeys = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            idempotencyKeys.add(keys.get(i) == null ? null : IdempotencyKey.builder()
+                    .scope(scope)
+                    .username(username)
+                    .idempotencyKey(keys.get(i))
+                    .requestHash(requestHashes.get(i))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        idempotencyKeyRepository.saveAllAndFlush(idempotencyKeys.stream().filter(Objects::nonNull).toList());
+
+        List<T> responses = action.get();
+        for (int i = 0; i < idempotencyKeys.size(); i++) {
+            if (idempotencyKeys.get(i) != null) idempotencyKeys.get(i).setResultId(resultId.apply(responses.get(i)));
+        }
+        return responses;
+    }
+}
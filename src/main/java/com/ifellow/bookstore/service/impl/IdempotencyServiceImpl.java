@@ -0,0 +1,178 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ifellow.bookstore.enumeration.IdempotencyScope;
+import com.ifellow.bookstore.exception.IdempotencyException;
+import com.ifellow.bookstore.model.IdempotencyKey;
+import com.ifellow.bookstore.repository.IdempotencyKeyRepository;
+import com.ifellow.bookstore.service.api.AuthenticationService;
+import com.ifellow.bookstore.service.api.IdempotencyService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private record KeyId(IdempotencyScope scope, String username, String key) {
+    }
+
+    private record CachedResponse(String requestHash, Object response, LocalDateTime createdAt) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<Object> response) {
+    }
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyKeyWriter idempotencyKeyWriter;
+    private final AuthenticationService authenticationService;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentMap<KeyId, InFlight> inFlight = new ConcurrentHashMap<>();
+    private Map<KeyId, CachedResponse> recent;
+
+    @Value("${idempotency.cache.size}")
+    private int cacheSize;
+
+    @Value("${idempotency.key.ttl.hours}")
+    private long ttlHours;
+
+    @Value("${idempotency.in.flight.timeout.ms}")
+    private long inFlightTimeoutMillis;
+
+    @PostConstruct
+    public void init() {
+        recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<KeyId, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(IdempotencyScope scope, String idempotencyKey, Object request, Supplier<T> action,
+                         Function<T, Long> resultId, Function<Long, T> resultLoader) {
+        if (idempotencyKey == null) return action.get();
+
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH)
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+
+        KeyId keyId = new KeyId(scope, authenticationService.getCurrentPrincipal().getUsername(), idempotencyKey);
+        String requestHash = fingerprint(request);
+
+        InFlight flight = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(keyId, flight);
+        if (running != null) {
+            checkRequestHash(keyId, running.requestHash(), requestHash);
+            return (T) await(keyId, running.response());
+        }
+
+        try {
+            T response = resolve(keyId, requestHash, action, resultId, resultLoader);
+            flight.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            flight.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(keyId, flight);
+        }
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${idempotency.purge.interval.ms}")
+    public void purgeExpired() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minusHours(ttlHours);
+        idempotencyKeyRepository.deleteCreatedBefore(expiredBefore);
+        recent.values().removeIf(cached -> !cached.createdAt().isAfter(expiredBefore));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T resolve(KeyId keyId, String requestHash, Supplier<T> action,
+                          Function<T, Long> resultId, Function<Long, T> resultLoader) {
+        CachedResponse cached = recent.get(keyId);
+        if (cached != null && cached.createdAt().isAfter(LocalDateTime.now().minusHours(ttlHours))) {
+            checkRequestHash(keyId, cached.requestHash(), requestHash);
+            return (T) cached.response();
+        }
+
+        IdempotencyKey stored = idempotencyKeyRepository
+                .findByScopeAndUsernameAndIdempotencyKey(keyId.scope(), keyId.username(), keyId.key())
+                .orElse(null);
+
+        if (stored == null) {
+            try {
+                T response = idempotencyKeyWriter.runAndRecord(keyId.scope(), keyId.username(), keyId.key(),
+                        requestHash, action, resultId);
+                recent.put(keyId, new CachedResponse(requestHash, response, LocalDateTime.now()));
+                return response;
+            } catch (DataIntegrityViolationException e) {
+                stored = idempotencyKeyRepository
+                        .findByScopeAndUsernameAndIdempotencyKey(keyId.scope(), keyId.username(), keyId.key())
+                        .orElseThrow(() -> e);
+            }
+        }
+
+        checkRequestHash(keyId, stored.getRequestHash(), requestHash);
+        T response = resultLoader.apply(stored.getResultId());
+        recent.put(keyId, new CachedResponse(requestHash, response, stored.getCreatedAt()));
+        return response;
+    }
+
+    @Override
+    public String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .without(SerializationFeature.INDENT_OUTPUT)
+                    .writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request body cannot be fingerprinted for Idempotency-Key", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void checkRequestHash(KeyId keyId, String expected, String actual) {
+        if (!expected.equals(actual))
+            throw new IdempotencyException("Idempotency-Key " + keyId.key() + " was already used for a different request");
+    }
+
+    private Object await(KeyId keyId, CompletableFuture<Object> response) {
+        try {
+            return response.get(inFlightTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyException("Request with Idempotency-Key " + keyId.key() + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyException("Request with Idempotency-Key " + keyId.key() + " is still in progress");
+        }
+    }
+}
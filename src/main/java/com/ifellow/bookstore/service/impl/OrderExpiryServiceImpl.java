@@ -0,0 +1,48 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.dto.request.OrderBulkRequestDto;
+import com.ifellow.bookstore.enumeration.OrderStatus;
+import com.ifellow.bookstore.repository.OrderRepository;
+import com.ifellow.bookstore.service.api.OrderExpiryService;
+import com.ifellow.bookstore.service.api.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class OrderExpiryServiceImpl implements OrderExpiryService {
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+
+    @Value("${stock.reservation.ttl.minutes}")
+    private long ttlMinutes;
+
+    @Value("${order.expiry.chunk.size}")
+    private int chunkSize;
+
+    @Override
+    @Scheduled(fixedDelayString = "${order.expiry.interval.ms}")
+    public int expireStaleOrders() {
+        LocalDateTime createdBefore = LocalDateTime.now().minusMinutes(ttlMinutes);
+
+        int expired = 0;
+        Long afterId = 0L;
+        List<Long> orderIds;
+        do {
+            orderIds = orderRepository.findIdsCreatedBefore(OrderStatus.CREATED, createdBefore, afterId, Limit.of(chunkSize));
+            if (orderIds.isEmpty()) break;
+
+            expired += orderService.cancelAll(new OrderBulkRequestDto(orderIds, null)).applied();
+            afterId = orderIds.getLast();
+        } while (orderIds.size() == chunkSize);
+
+        return expired;
+    }
+}
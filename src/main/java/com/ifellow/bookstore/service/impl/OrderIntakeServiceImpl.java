@@ -0,0 +1,217 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.dto.request.BookOrderDto;
+import com.ifellow.bookstore.dto.response.OrderResponseDto;
+import com.ifellow.bookstore.dto.response.OrderTicketResponseDto;
+import com.ifellow.bookstore.enumeration.OrderTicketStatus;
+import com.ifellow.bookstore.exception.*;
+import com.ifellow.bookstore.service.api.BookService;
+import com.ifellow.bookstore.service.api.OrderIntakeService;
+import com.ifellow.bookstore.service.api.OrderService;
+import com.ifellow.bookstore.service.api.WarehouseService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class OrderIntakeServiceImpl implements OrderIntakeService {
+
+    private static final String FAILURE_MESSAGE = "Order could not be processed";
+    private static final List<Class<? extends RuntimeException>> EXPOSED_EXCEPTIONS = List.of(
+            IllegalArgumentException.class, NotEnoughStockException.class, StockConflictException.class,
+            BookException.class, WarehouseException.class, OrderException.class, OrderStatusException.class,
+            UserException.class);
+
+    private static final class Lane {
+        private final BlockingQueue<Ticket> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    private static final class Ticket {
+        private final UUID id = UUID.randomUUID();
+        private final Long warehouseId;
+        private final List<BookOrderDto> bookOrderDtoList;
+        private final Authentication authentication;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile OrderTicketStatus status = OrderTicketStatus.QUEUED;
+        private volatile OrderResponseDto order;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private Ticket(Long warehouseId, List<BookOrderDto> bookOrderDtoList, Authentication authentication) {
+            this.warehouseId = warehouseId;
+            this.bookOrderDtoList = bookOrderDtoList;
+            this.authentication = authentication;
+        }
+    }
+
+    private final OrderService orderService;
+    private final WarehouseService warehouseService;
+    private final BookService bookService;
+
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+    private final Map<UUID, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Queue<Ticket> finishedTickets = new ConcurrentLinkedQueue<>();
+    private final BlockingQueue<Lane> readyLanes = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+
+    @Value("${order.intake.queue.capacity}")
+    private int queueCapacity;
+
+    @Value("${order.intake.workers}")
+    private int workerCount;
+
+    @Value("${order.intake.batch.size}")
+    private int batchSize;
+
+    @Value("${order.intake.ticket.ttl.minutes}")
+    private long ticketTtlMinutes;
+
+    @Value("${order.intake.ticket.capacity}")
+    private int ticketCapacity;
+
+    @Value("${order.intake.shutdown.timeout.ms}")
+    private long shutdownTimeoutMillis;
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofPlatform().name("order-intake-" + i).daemon().start(this::work));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis);
+        try {
+            for (Thread worker : workers) {
+                worker.join(Duration.ofNanos(Math.max(deadline - System.nanoTime(), 1)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public OrderTicketResponseDto submit(Long warehouseId, List<BookOrderDto> bookOrderDtoList) {
+        warehouseService.findWarehouseById(warehouseId);
+        bookService.checkBooksExistence(bookOrderDtoList.stream()
+                .map(BookOrderDto::bookId)
+                .collect(Collectors.toSet()));
+
+        Ticket ticket = new Ticket(warehouseId, List.copyOf(bookOrderDtoList),
+                SecurityContextHolder.getContext().getAuthentication());
+        Lane lane = lanes.computeIfAbsent(warehouseId, _ -> new Lane(queueCapacity));
+
+        if (tickets.size() >= ticketCapacity) evictFinishedTickets();
+        if (tickets.size() >= ticketCapacity)
+            throw new OrderIntakeOverloadedException("Order intake has too many tickets in progress");
+
+        tickets.put(ticket.id, ticket);
+        OrderTicketResponseDto accepted = toDto(ticket);
+        if (!lane.queue.offer(ticket)) {
+            tickets.remove(ticket.id);
+            throw new OrderIntakeOverloadedException("Order intake queue for warehouse with id: " + warehouseId + " is full");
+        }
+        schedule(lane);
+
+        return accepted;
+    }
+
+    @Override
+    public OrderTicketResponseDto getTicket(UUID ticketId) throws OrderException {
+        Ticket ticket = tickets.get(ticketId);
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (ticket == null || !ticket.authentication.getName().equals(username))
+            throw new OrderException("Order ticket not found with id: " + ticketId);
+
+        return toDto(ticket);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${order.intake.ticket.purge.interval.ms}")
+    public void purgeFinishedTickets() {
+        LocalDateTime finishedBefore = LocalDateTime.now().minusMinutes(ticketTtlMinutes);
+        for (Ticket ticket = finishedTickets.peek();
+             ticket != null && !ticket.finishedAt.isAfter(finishedBefore);
+             ticket = finishedTickets.peek()) {
+            if (finishedTickets.remove(ticket)) tickets.remove(ticket.id);
+        }
+    }
+
+    private void evictFinishedTickets() {
+        while (tickets.size() >= ticketCapacity) {
+            Ticket ticket = finishedTickets.poll();
+            if (ticket == null) return;
+            tickets.remove(ticket.id);
+        }
+    }
+
+    private void schedule(Lane lane) {
+        if (!lane.queue.isEmpty() && lane.scheduled.compareAndSet(false, true)) {
+            readyLanes.add(lane);
+        }
+    }
+
+    private void work() {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            Lane lane;
+            try {
+                lane = readyLanes.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (Thread.currentThread().isInterrupted()) return;
+
+            try {
+                lane.queue.drainTo(batch, batchSize);
+                batch.forEach(this::process);
+            } finally {
+                batch.clear();
+                lane.scheduled.set(false);
+                schedule(lane);
+            }
+        }
+    }
+
+    private void process(Ticket ticket) {
+        SecurityContextHolder.getContext().setAuthentication(ticket.authentication);
+        try {
+            ticket.order = orderService.create(ticket.warehouseId, ticket.bookOrderDtoList);
+            ticket.status = OrderTicketStatus.COMPLETED;
+        } catch (Throwable e) {
+            boolean exposed = EXPOSED_EXCEPTIONS.stream().anyMatch(type -> type.isInstance(e));
+            ticket.error = exposed ? e.getMessage() : FAILURE_MESSAGE;
+            ticket.status = OrderTicketStatus.FAILED;
+            if (!exposed) Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+        } finally {
+            ticket.finishedAt = LocalDateTime.now();
+            finishedTickets.add(ticket);
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private OrderTicketResponseDto toDto(Ticket ticket) {
+        return new OrderTicketResponseDto(ticket.id, ticket.warehouseId, ticket.status,
+                ticket.order, ticket.error, ticket.createdAt);
+    }
+}
@@ -1,46 +1,72 @@
 package com.ifellow.bookstore.service.impl;
 
-import com.ifellow.bookstore.dto.request.BookBulkDto;
 import com.ifellow.bookstore.dto.request.BookOrderDto;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
+import com.ifellow.bookstore.dto.request.OrderBulkRequestDto;
 import com.ifellow.bookstore.dto.filter.OrderFilter;
+import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
+import com.ifellow.bookstore.dto.response.OrderBulkResponseDto;
+import com.ifellow.bookstore.dto.response.OrderItemResponseDto;
 import com.ifellow.bookstore.dto.response.OrderResponseDto;
+import com.ifellow.bookstore.enumeration.OrderBulkOutcome;
 import com.ifellow.bookstore.enumeration.OrderStatus;
+import com.ifellow.bookstore.event.EntityChangedEvent;
 import com.ifellow.bookstore.exception.OrderStatusException;
 import com.ifellow.bookstore.exception.OrderException;
 import com.ifellow.bookstore.mapper.OrderMapper;
-import com.ifellow.bookstore.model.Book;
 import com.ifellow.bookstore.model.Order;
 import com.ifellow.bookstore.model.OrderItem;
 import com.ifellow.bookstore.model.Warehouse;
+import com.ifellow.bookstore.repository.OrderItemRepository;
 import com.ifellow.bookstore.repository.OrderRepository;
 import com.ifellow.bookstore.service.api.*;
 import com.ifellow.bookstore.specification.OrderSpecification;
+import com.ifellow.bookstore.util.CursorUtils;
 import com.ifellow.bookstore.util.OrderUtils;
+import com.ifellow.bookstore.util.StockUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
 
     private final WarehouseService warehouseService;
     private final BookService bookService;
     private final AuthenticationService authenticationService;
+    private final StockReservationService stockReservationService;
+    private final PageCountService pageCountService;
 
     private final OrderMapper orderMapper;
 
     private final OrderUtils orderUtils;
 
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Value("${order.bulk.chunk.size}")
+    private int chunkSize;
+
+    @Value("${order.bulk.max.orders}")
+    private int maxOrders;
+
     @Override
     @Transactional
     public OrderResponseDto create(Long warehouseId, List<BookOrderDto> bookOrderDtoList) {
@@ -51,16 +77,16 @@ public class OrderServiceImpl implements OrderService {
         order.setOrderDateTime(LocalDateTime.now());
         order.setOrderStatus(OrderStatus.CREATED);
 
-        for (BookOrderDto bookOrderDto : bookOrderDtoList) {
-            warehouseService.removeBookFromWarehouse(warehouseId, new BookBulkDto(bookOrderDto.bookId(), bookOrderDto.quantity()));
-
-            Book book = bookService.findBookById(bookOrderDto.bookId());
+        Map<Long, Integer> quantitiesByBookId = StockUtils.mergeQuantities(
+                bookOrderDtoList, BookOrderDto::bookId, BookOrderDto::quantity);
+        Map<Long, BookResponseDto> booksById = bookService.findBooksByIds(quantitiesByBookId.keySet());
 
+        for (Map.Entry<Long, Integer> entry : quantitiesByBookId.entrySet()) {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
-            orderItem.setBook(book);
-            orderItem.setQuantity(bookOrderDto.quantity());
-            orderItem.setPrice(book.getPrice());
+            orderItem.setBook(bookService.getBookReference(entry.getKey()));
+            orderItem.setQuantity(entry.getValue());
+            orderItem.setPrice(booksById.get(entry.getKey()).price());
 
             order.getOrderItemList().add(orderItem);
         }
@@ -68,6 +94,8 @@ public class OrderServiceImpl implements OrderService {
         order.setTotalPrice(orderUtils.calculateTotalPrice(order.getOrderItemList()));
         order.setUser(authenticationService.getUserInCurrentContext());
         orderRepository.save(order);
+        stockReservationService.reserve(order);
+        applicationEventPublisher.publishEvent(new EntityChangedEvent(Order.class));
 
         return orderMapper.toDto(order);
     }
@@ -81,8 +109,11 @@ public class OrderServiceImpl implements OrderService {
         if (order.getOrderStatus() != OrderStatus.CREATED)
             throw new OrderStatusException("Order can't be completed because it isn't CREATED");
 
+        stockReservationService.commit(order);
+        if (orderRepository.updateStatus(List.of(orderId), OrderStatus.CREATED, OrderStatus.COMPLETED) == 0)
+            throw new OrderStatusException("Order can't be completed because it isn't CREATED");
         order.setOrderStatus(OrderStatus.COMPLETED);
-        orderRepository.save(order);
+        applicationEventPublisher.publishEvent(new EntityChangedEvent(Order.class));
 
         return orderMapper.toDto(order);
     }
@@ -96,17 +127,27 @@ public class OrderServiceImpl implements OrderService {
         if (order.getOrderStatus() != OrderStatus.CREATED)
             throw new OrderStatusException("Order can't be canceled because it isn't CREATED");
 
-        List<OrderItem> orderItems = order.getOrderItemList();
-        for (OrderItem orderItem : orderItems) {
-            warehouseService.addBookToWarehouse(order.getWarehouse().getId(), new BookBulkDto(orderItem.getBook().getId(), orderItem.getQuantity()));
-        }
-
+        stockReservationService.release(order);
+        if (orderRepository.updateStatus(List.of(orderId), OrderStatus.CREATED, OrderStatus.CANCELLED) == 0)
+            throw new OrderStatusException("Order can't be canceled because it isn't CREATED");
         order.setOrderStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order);
+        applicationEventPublisher.publishEvent(new EntityChangedEvent(Order.class));
 
         return orderMapper.toDto(order);
     }
 
+    @Override
+    @Transactional
+    public OrderBulkResponseDto completeAll(OrderBulkRequestDto orderBulkRequestDto) {
+        return transitionAll(orderBulkRequestDto, OrderStatus.COMPLETED);
+    }
+
+    @Override
+    @Transactional
+    public OrderBulkResponseDto cancelAll(OrderBulkRequestDto orderBulkRequestDto) {
+        return transitionAll(orderBulkRequestDto, OrderStatus.CANCELLED);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public OrderResponseDto findById(Long orderId) throws OrderException {
@@ -116,12 +157,44 @@ public class OrderServiceImpl implements OrderService {
         return orderMapper.toDto(order);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderItemResponseDto> findItemsById(Long orderId) throws OrderException {
+        List<OrderItemResponseDto> items = orderItemRepository.findItemDtosByOrderId(orderId);
+        if (items.isEmpty() && !orderRepository.existsById(orderId))
+            throw new OrderException("Order not found with id: " + orderId);
+
+        return items;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<OrderResponseDto> findAll(OrderFilter filter, Pageable pageable) {
         Specification<Order> spec = OrderSpecification.withFilter(filter);
-        return orderRepository.findAll(spec, pageable)
-                .map(orderMapper::toDto);
+        List<OrderResponseDto> content = scroll(spec, pageable).map(orderMapper::toDto).getContent();
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> pageCountService.count(Order.class, filter, () -> orderRepository.count(spec)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<OrderResponseDto> findSlice(OrderFilter filter, Pageable pageable) {
+        Window<Order> orders = scroll(OrderSpecification.withFilter(filter), pageable);
+
+        return new SliceImpl<>(orders.map(orderMapper::toDto).getContent(), pageable, orders.hasNext());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<OrderResponseDto> findAll(OrderFilter filter, CursorPageRequest cursorPageRequest) {
+        Specification<Order> spec = OrderSpecification.withFilter(filter).and(OrderSpecification.after(cursorPageRequest));
+        List<Order> orders = orderRepository.findBy(spec, query -> query
+                .sortBy(cursorPageRequest.sort())
+                .limit(cursorPageRequest.size() + 1)
+                .all());
+
+        return CursorUtils.toPage(orders, cursorPageRequest, orderMapper::toDto);
     }
 
     @Override
@@ -129,4 +202,73 @@ public class OrderServiceImpl implements OrderService {
     public Page<OrderResponseDto> findByUserId(Long userId, Pageable pageable) {
         return orderRepository.findByUserId(userId, pageable).map(orderMapper::toDto);
     }
+
+    private Window<Order> scroll(Specification<Order> spec, Pageable pageable) {
+        return orderRepository.findBy(spec, query -> query
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(pageable.toScrollPosition()));
+    }
+
+    private OrderBulkResponseDto transitionAll(OrderBulkRequestDto orderBulkRequestDto, OrderStatus newStatus) {
+        List<Long> orderIds = resolveOrderIds(orderBulkRequestDto);
+
+        Map<Long, OrderBulkOutcome> outcomes = new LinkedHashMap<>();
+        int applied = 0;
+        for (int from = 0; from < orderIds.size(); from += chunkSize) {
+            applied += transitionChunk(orderIds.subList(from, Math.min(from + chunkSize, orderIds.size())), newStatus, outcomes);
+        }
+
+        if (applied > 0) applicationEventPublisher.publishEvent(new EntityChangedEvent(Order.class));
+
+        return new OrderBulkResponseDto(newStatus, applied, outcomes.size() - applied, outcomes);
+    }
+
+    private int transitionChunk(List<Long> orderIds, OrderStatus newStatus, Map<Long, OrderBulkOutcome> outcomes) {
+        orderIds.forEach(orderId -> outcomes.put(orderId, OrderBulkOutcome.NOT_FOUND));
+
+        List<Long> createdIds = new ArrayList<>();
+        for (Order order : orderRepository.findAllForUpdate(orderIds)) {
+            if (order.getOrderStatus() == OrderStatus.CREATED) {
+                outcomes.put(order.getId(), OrderBulkOutcome.APPLIED);
+                createdIds.add(order.getId());
+            } else {
+                outcomes.put(order.getId(), OrderBulkOutcome.NOT_CREATED);
+            }
+        }
+
+        if (newStatus == OrderStatus.COMPLETED) {
+            List<Long> failedIds = stockReservationService.commitAll(createdIds);
+            failedIds.forEach(orderId -> outcomes.put(orderId, OrderBulkOutcome.INSUFFICIENT_STOCK));
+            createdIds.removeAll(failedIds);
+        } else {
+            stockReservationService.releaseAll(createdIds);
+        }
+
+        if (!createdIds.isEmpty()) orderRepository.updateStatus(createdIds, OrderStatus.CREATED, newStatus);
+
+        return createdIds.size();
+    }
+
+    private List<Long> resolveOrderIds(OrderBulkRequestDto orderBulkRequestDto) {
+        if ((orderBulkRequestDto.ids() == null) == (orderBulkRequestDto.filter() == null))
+            throw new IllegalArgumentException("Either ids or filter must be specified");
+
+        List<Long> orderIds;
+        if (orderBulkRequestDto.ids() != null) {
+            orderIds = List.copyOf(new LinkedHashSet<>(orderBulkRequestDto.ids()));
+        } else {
+            OrderFilter filter = orderBulkRequestDto.filter();
+            if (filter.getBeginTime() == null && filter.getEndTime() == null
+                    && filter.getStatus() == null && filter.getWarehouseId() == null)
+                throw new IllegalArgumentException("Filter must specify at least one criterion");
+
+            orderIds = orderRepository.findIds(OrderSpecification.withFilter(filter), maxOrders + 1);
+        }
+
+        if (orderIds.size() > maxOrders)
+            throw new IllegalArgumentException("Bulk request must not match more than " + maxOrders + " orders");
+
+        return orderIds;
+    }
 }
@@ -0,0 +1,82 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.event.EntityChangedEvent;
+import com.ifellow.bookstore.service.api.PageCountService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+@Service
+public class PageCountServiceImpl implements PageCountService {
+
+    private record CountKey(Class<?> entityType, Object filter) {
+    }
+
+    private record CachedCount(long total, long generation, LocalDateTime cachedAt) {
+    }
+
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+    private Map<CountKey, CachedCount> counts;
+
+    @Value("${page.count.cache.enabled}")
+    private boolean enabled;
+
+    @Value("${page.count.cache.size}")
+    private int cacheSize;
+
+    @Value("${page.count.cache.ttl.seconds}")
+    private long ttlSeconds;
+
+    @PostConstruct
+    public void init() {
+        counts = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CountKey, CachedCount> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public long count(Class<?> entityType, Object filter, LongSupplier counter) {
+        if (!enabled) return counter.getAsLong();
+
+        CountKey key = new CountKey(entityType, filter);
+        long generation = generation(entityType).get();
+        CachedCount cached = counts.get(key);
+        if (cached != null && cached.generation() == generation
+                && cached.cachedAt().isAfter(LocalDateTime.now().minusSeconds(ttlSeconds)))
+            return cached.total();
+
+        long total = counter.getAsLong();
+        counts.put(key, new CachedCount(total, generation, LocalDateTime.now()));
+        return total;
+    }
+
+    @Override
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        generation(event.entityType()).incrementAndGet();
+    }
+
+    @Override
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void afterEntityChanged(EntityChangedEvent event) {
+        generation(event.entityType()).incrementAndGet();
+    }
+
+    private AtomicLong generation(Class<?> entityType) {
+        return generations.computeIfAbsent(entityType, _ -> new AtomicLong());
+    }
+}
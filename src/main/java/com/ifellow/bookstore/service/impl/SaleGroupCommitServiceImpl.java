@@ -0,0 +1,126 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.dto.request.SaleBatchEntryDto;
+import com.ifellow.bookstore.dto.response.SaleResponseDto;
+import com.ifellow.bookstore.service.api.AuthenticationService;
+import com.ifellow.bookstore.service.api.SaleGroupCommitService;
+import com.ifellow.bookstore.service.api.SaleService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+@Service
+@RequiredArgsConstructor
+public class SaleGroupCommitServiceImpl implements SaleGroupCommitService {
+
+    private record PendingSale(SaleBatchEntryDto entry, CompletableFuture<SaleResponseDto> result) {
+    }
+
+    private static final class Batch {
+        private final List<PendingSale> sales = new ArrayList<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+
+    private final SaleService saleService;
+    private final AuthenticationService authenticationService;
+
+    private final Map<Long, Batch> openBatches = new ConcurrentHashMap<>();
+
+    @Value("${sale.group.commit.enabled}")
+    private boolean enabled;
+
+    @Value("${sale.group.commit.window.ms}")
+    private long windowMillis;
+
+    @Value("${sale.group.commit.max.batch}")
+    private int maxBatch;
+
+    @Value("${sale.group.commit.await.timeout.ms}")
+    private long awaitTimeoutMillis;
+
+    @Override
+    public SaleResponseDto processSale(Long storeId, List<BookSaleDto> bookSaleDtoList) {
+        if (!enabled) return saleService.processSale(storeId, bookSaleDtoList);
+
+        PendingSale sale = new PendingSale(
+                new SaleBatchEntryDto(authenticationService.getCurrentPrincipal().getUsername(), bookSaleDtoList),
+                new CompletableFuture<>());
+
+        Batch[] leading = new Batch[1];
+        openBatches.compute(storeId, (_, open) -> {
+            Batch batch = open;
+            if (batch == null) {
+                batch = new Batch();
+                leading[0] = batch;
+            }
+
+            batch.sales.add(sale);
+            if (batch.sales.size() < maxBatch) return batch;
+
+            batch.full.countDown();
+            return null;
+        });
+
+        if (leading[0] != null) {
+            lead(storeId, leading[0]);
+        }
+        return await(sale.result());
+    }
+
+    private void lead(Long storeId, Batch batch) {
+        try {
+            batch.full.await(windowMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        openBatches.remove(storeId, batch);
+        List<PendingSale> sales = List.copyOf(batch.sales);
+        try {
+            commit(storeId, sales);
+        } catch (Throwable e) {
+            sales.forEach(sale -> sale.result().completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    private void commit(Long storeId, List<PendingSale> sales) {
+        try {
+            List<SaleResponseDto> results = saleService.processSales(storeId, sales.stream()
+                    .map(PendingSale::entry)
+                    .toList());
+
+            for (int i = 0; i < sales.size(); i++) {
+                sales.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (sales.size() == 1) {
+                sales.getFirst().result().completeExceptionally(e);
+                return;
+            }
+
+            sales.forEach(sale -> commit(storeId, List.of(sale)));
+        }
+    }
+
+    private SaleResponseDto await(CompletableFuture<SaleResponseDto> result) {
+        try {
+            return result.get(awaitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Sale group commit did not finish within " + awaitTimeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for sale group commit");
+        }
+    }
+}
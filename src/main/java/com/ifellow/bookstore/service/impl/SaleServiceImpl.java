@@ -1,47 +1,68 @@
 package com.ifellow.bookstore.service.impl;
 
-import com.ifellow.bookstore.dto.request.BookBulkDto;
 import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
+import com.ifellow.bookstore.dto.request.SaleBatchEntryDto;
 import com.ifellow.bookstore.dto.filter.SaleFilter;
+import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
+import com.ifellow.bookstore.dto.response.SaleItemResponseDto;
 import com.ifellow.bookstore.dto.response.SaleResponseDto;
+import com.ifellow.bookstore.enumeration.StockMovementType;
+import com.ifellow.bookstore.event.EntityChangedEvent;
 import com.ifellow.bookstore.exception.BookException;
 import com.ifellow.bookstore.exception.NotEnoughStockException;
 import com.ifellow.bookstore.exception.SaleException;
 import com.ifellow.bookstore.exception.StoreException;
 import com.ifellow.bookstore.mapper.SaleMapper;
-import com.ifellow.bookstore.model.Book;
 import com.ifellow.bookstore.model.Sale;
 import com.ifellow.bookstore.model.SaleItem;
 import com.ifellow.bookstore.model.Store;
+import com.ifellow.bookstore.model.User;
+import com.ifellow.bookstore.repository.SaleItemRepository;
 import com.ifellow.bookstore.repository.SaleRepository;
 import com.ifellow.bookstore.service.api.*;
 import com.ifellow.bookstore.specification.SaleSpecification;
+import com.ifellow.bookstore.util.CursorUtils;
 import com.ifellow.bookstore.util.SaleUtils;
+import com.ifellow.bookstore.util.StockMovementContext;
+import com.ifellow.bookstore.util.StockUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class SaleServiceImpl implements SaleService {
 
     private final SaleRepository saleRepository;
+    private final SaleItemRepository saleItemRepository;
 
     private final StoreService storeService;
     private final BookService bookService;
     private final AuthenticationService authenticationService;
+    private final UserService userService;
+    private final PageCountService pageCountService;
 
     private final SaleMapper saleMapper;
 
     private final SaleUtils saleUtils;
 
+    private final ApplicationEventPublisher applicationEventPublisher;
+
     @Override
     @Transactional
     public SaleResponseDto processSale(Long storeId, List<BookSaleDto> bookSaleDtoList)
@@ -49,29 +70,69 @@ public class SaleServiceImpl implements SaleService {
 
         Store store = storeService.findStoreById(storeId);
 
+        Map<Long, Integer> quantitiesByBookId = StockUtils.mergeQuantities(
+                bookSaleDtoList, BookSaleDto::bookId, BookSaleDto::quantity);
+        Map<Long, BookResponseDto> booksById = bookService.findBooksByIds(quantitiesByBookId.keySet());
+        try (StockMovementContext _ = StockMovementContext.of(StockMovementType.SALE)) {
+            storeService.removeBooksFromStore(store, quantitiesByBookId);
+        }
+
+        Sale sale = createSale(store, quantitiesByBookId, booksById, authenticationService.getUserInCurrentContext());
+        saleRepository.save(sale);
+        applicationEventPublisher.publishEvent(new EntityChangedEvent(Sale.class));
+
+        return saleMapper.toDto(sale);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<SaleResponseDto> processSales(Long storeId, List<SaleBatchEntryDto> saleBatchEntryDtoList)
+            throws StoreException, BookException, NotEnoughStockException {
+
+        Store store = storeService.findStoreById(storeId);
+
+        List<Map<Long, Integer>> quantitiesBySale = saleBatchEntryDtoList.stream()
+                .map(entry -> StockUtils.mergeQuantities(entry.bookSaleDtoList(), BookSaleDto::bookId, BookSaleDto::quantity))
+                .toList();
+        Map<Long, Integer> totalQuantitiesByBookId = new TreeMap<>();
+        quantitiesBySale.forEach(quantities -> quantities.forEach(
+                (bookId, quantity) -> totalQuantitiesByBookId.merge(bookId, quantity, StockUtils::addQuantities)));
+
+        Map<Long, BookResponseDto> booksById = bookService.findBooksByIds(totalQuantitiesByBookId.keySet());
+        try (StockMovementContext _ = StockMovementContext.of(StockMovementType.SALE)) {
+            storeService.removeBooksFromStore(store, totalQuantitiesByBookId);
+        }
+
+        Map<String, User> usersByUsername = new HashMap<>();
+        List<Sale> sales = new ArrayList<>(saleBatchEntryDtoList.size());
+        for (int i = 0; i < saleBatchEntryDtoList.size(); i++) {
+            User user = usersByUsername.computeIfAbsent(saleBatchEntryDtoList.get(i).username(), userService::findUserByUsername);
+            sales.add(createSale(store, quantitiesBySale.get(i), booksById, user));
+        }
+        saleRepository.saveAll(sales);
+        applicationEventPublisher.publishEvent(new EntityChangedEvent(Sale.class));
+
+        return sales.stream().map(saleMapper::toDto).toList();
+    }
+
+    private Sale createSale(Store store, Map<Long, Integer> quantitiesByBookId, Map<Long, BookResponseDto> booksById, User user) {
         Sale sale = new Sale();
         sale.setStore(store);
         sale.setSaleDateTime(LocalDateTime.now());
 
-        for (BookSaleDto bookSaleDto : bookSaleDtoList) {
-            storeService.removeBookFromStore(storeId, new BookBulkDto(bookSaleDto.bookId(), bookSaleDto.quantity()));
-
-            Book book = bookService.findBookById(bookSaleDto.bookId());
-
+        for (Map.Entry<Long, Integer> entry : quantitiesByBookId.entrySet()) {
             SaleItem saleItem = new SaleItem();
-            saleItem.setBook(book);
-            saleItem.setQuantity(bookSaleDto.quantity());
-            saleItem.setPrice(book.getPrice());
+            saleItem.setBook(bookService.getBookReference(entry.getKey()));
+            saleItem.setQuantity(entry.getValue());
+            saleItem.setPrice(booksById.get(entry.getKey()).price());
             saleItem.setSale(sale);
 
             sale.getSaleItemList().add(saleItem);
         }
 
         sale.setTotalPrice(saleUtils.calculateTotalPrice(sale.getSaleItemList()));
-        sale.setUser(authenticationService.getUserInCurrentContext());
-        saleRepository.save(sale);
-
-        return saleMapper.toDto(sale);
+        sale.setUser(user);
+        return sale;
     }
 
     @Override
@@ -82,11 +143,44 @@ public class SaleServiceImpl implements SaleService {
         return saleMapper.toDto(sale);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<SaleItemResponseDto> findItemsById(Long id) {
+        List<SaleItemResponseDto> items = saleItemRepository.findItemDtosBySaleId(id);
+        if (items.isEmpty() && !saleRepository.existsById(id))
+            throw new SaleException("Sale not found with id: " + id);
+
+        return items;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<SaleResponseDto> findAll(SaleFilter filter, Pageable pageable) {
         Specification<Sale> spec = SaleSpecification.withFilter(filter);
-        return saleRepository.findAll(spec, pageable).map(saleMapper::toDto);
+        List<SaleResponseDto> content = scroll(spec, pageable).map(saleMapper::toDto).getContent();
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> pageCountService.count(Sale.class, filter, () -> saleRepository.count(spec)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<SaleResponseDto> findSlice(SaleFilter filter, Pageable pageable) {
+        Window<Sale> sales = scroll(SaleSpecification.withFilter(filter), pageable);
+
+        return new SliceImpl<>(sales.map(saleMapper::toDto).getContent(), pageable, sales.hasNext());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<SaleResponseDto> findAll(SaleFilter filter, CursorPageRequest cursorPageRequest) {
+        Specification<Sale> spec = SaleSpecification.withFilter(filter).and(SaleSpecification.after(cursorPageRequest));
+        List<Sale> sales = saleRepository.findBy(spec, query -> query
+                .sortBy(cursorPageRequest.sort())
+                .limit(cursorPageRequest.size() + 1)
+                .all());
+
+        return CursorUtils.toPage(sales, cursorPageRequest, saleMapper::toDto);
     }
 
     @Override
@@ -94,4 +188,11 @@ public class SaleServiceImpl implements SaleService {
     public Page<SaleResponseDto> findByUserId(Long userId, Pageable pageable) {
         return saleRepository.findByUserId(userId, pageable).map(saleMapper::toDto);
     }
+
+    private Window<Sale> scroll(Specification<Sale> spec, Pageable pageable) {
+        return saleRepository.findBy(spec, query -> query
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(pageable.toScrollPosition()));
+    }
 }
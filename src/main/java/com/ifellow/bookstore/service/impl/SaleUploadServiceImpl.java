@@ -0,0 +1,207 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifellow.bookstore.dto.request.SaleBatchEntryDto;
+import com.ifellow.bookstore.dto.request.SaleUploadLineDto;
+import com.ifellow.bookstore.dto.response.SaleResponseDto;
+import com.ifellow.bookstore.dto.response.SaleUploadResultDto;
+import com.ifellow.bookstore.enumeration.IdempotencyScope;
+import com.ifellow.bookstore.enumeration.SaleUploadStatus;
+import com.ifellow.bookstore.model.IdempotencyKey;
+import com.ifellow.bookstore.repository.IdempotencyKeyRepository;
+import com.ifellow.bookstore.service.api.AuthenticationService;
+import com.ifellow.bookstore.service.api.IdempotencyService;
+import com.ifellow.bookstore.service.api.SaleService;
+import com.ifellow.bookstore.service.api.SaleUploadService;
+import com.ifellow.bookstore.service.api.StoreService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class SaleUploadServiceImpl implements SaleUploadService {
+
+    private static final int MAX_REFERENCE_LENGTH = 200;
+
+    private record UploadLine(int line, SaleUploadLineDto sale, String error) {
+    }
+
+    private final SaleService saleService;
+    private final StoreService storeService;
+    private final AuthenticationService authenticationService;
+    private final IdempotencyService idempotencyService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyKeyWriter idempotencyKeyWriter;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${sale.upload.chunk.size}")
+    private int chunkSize;
+
+    @Value("${sale.upload.max.line.length}")
+    private int maxLineLength;
+
+    @Override
+    public void upload(Long storeId, BufferedReader reader, Consumer<List<SaleUploadResultDto>> resultSink) throws IOException {
+        storeService.findStoreById(storeId);
+        String username = authenticationService.getCurrentPrincipal().getUsername();
+
+        List<UploadLine> chunk = new ArrayList<>(chunkSize);
+        StringBuilder line = new StringBuilder();
+        int lineNumber = 0;
+        int length;
+        while ((length = readLine(reader, line)) >= 0) {
+            lineNumber++;
+            if (length > maxLineLength) {
+                chunk.add(new UploadLine(lineNumber, null, "Sale line must not be longer than " + maxLineLength + " characters"));
+            } else if (!line.toString().isBlank()) {
+                chunk.add(parse(lineNumber, line.toString()));
+            }
+
+            if (chunk.size() == chunkSize) {
+                resultSink.accept(process(storeId, username, chunk));
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            resultSink.accept(process(storeId, username, chunk));
+        }
+    }
+
+    private int readLine(BufferedReader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int length = 0;
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (++length <= maxLineLength) line.append((char) c);
+        }
+        if (c == -1 && length == 0) return -1;
+
+        if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+            length--;
+        }
+        return length;
+    }
+
+    private UploadLine parse(int lineNumber, String line) {
+        try {
+            SaleUploadLineDto sale = objectMapper.readValue(line, SaleUploadLineDto.class);
+            if (sale.bookSaleDtoList() == null || sale.bookSaleDtoList().isEmpty())
+                return new UploadLine(lineNumber, sale, "Sale must contain at least one book");
+            if (sale.reference() != null && sale.reference().length() > MAX_REFERENCE_LENGTH)
+                return new UploadLine(lineNumber, sale, "Sale reference must not be longer than " + MAX_REFERENCE_LENGTH + " characters");
+
+            Set<ConstraintViolation<SaleUploadLineDto>> violations = validator.validate(sale);
+            if (!violations.isEmpty())
+                return new UploadLine(lineNumber, sale, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+
+            return new UploadLine(lineNumber, sale, null);
+        } catch (JsonProcessingException e) {
+            return new UploadLine(lineNumber, null, "Malformed sale: " + e.getOriginalMessage());
+        }
+    }
+
+    private List<SaleUploadResultDto> process(Long storeId, String username, List<UploadLine> chunk) {
+        List<UploadLine> valid = chunk.stream().filter(line -> line.error() == null).toList();
+        Map<String, IdempotencyKey> recorded = findRecorded(storeId, valid);
+        List<SaleUploadResultDto> processed = commit(storeId, username, valid.stream()
+                .filter(line -> !recorded.containsKey(key(storeId, line)))
+                .toList());
+
+        List<SaleUploadResultDto> results = new ArrayList<>(chunk.size());
+        int next = 0;
+        for (UploadLine line : chunk) {
+            if (line.error() != null) results.add(failed(line, line.error()));
+            else if (recorded.containsKey(key(storeId, line))) results.add(duplicate(line, recorded.get(key(storeId, line))));
+            else results.add(processed.get(next++));
+        }
+        return results;
+    }
+
+    private Map<String, IdempotencyKey> findRecorded(Long storeId, List<UploadLine> lines) {
+        List<String> keys = lines.stream().map(line -> key(storeId, line)).filter(Objects::nonNull).toList();
+        if (keys.isEmpty()) return Collections.emptyMap();
+
+        return idempotencyKeyRepository.findByScopeAndIdempotencyKeyIn(IdempotencyScope.SALE_UPLOAD, keys).stream()
+                .collect(Collectors.toMap(IdempotencyKey::getIdempotencyKey, Function.identity(), (first, _) -> first));
+    }
+
+    private List<SaleUploadResultDto> commit(Long storeId, String username, List<UploadLine> lines) {
+        if (lines.isEmpty()) return List.of();
+
+        try {
+            List<SaleBatchEntryDto> entries = lines.stream()
+                    .map(line -> new SaleBatchEntryDto(username, line.sale().bookSaleDtoList()))
+                    .toList();
+            List<SaleResponseDto> sales = idempotencyKeyWriter.runAndRecordAll(IdempotencyScope.SALE_UPLOAD, username,
+                    lines.stream().map(line -> key(storeId, line)).toList(),
+                    lines.stream().map(this::fingerprint).toList(),
+                    () -> saleService.processSales(storeId, entries), SaleResponseDto::id);
+
+            List<SaleUploadResultDto> results = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                UploadLine line = lines.get(i);
+                results.add(new SaleUploadResultDto(line.line(), line.sale().reference(),
+                        SaleUploadStatus.PROCESSED, sales.get(i), null));
+            }
+            return results;
+        } catch (RuntimeException e) {
+            if (lines.size() == 1) return List.of(failedOrDuplicate(storeId, lines.getFirst(), e));
+
+            return lines.stream()
+                    .flatMap(line -> commit(storeId, username, List.of(line)).stream())
+                    .toList();
+        }
+    }
+
+    private SaleUploadResultDto failedOrDuplicate(Long storeId, UploadLine line, RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            IdempotencyKey recorded = findRecorded(storeId, List.of(line)).get(key(storeId, line));
+            if (recorded != null) return duplicate(line, recorded);
+        }
+        return failed(line, e.getMessage());
+    }
+
+    private SaleUploadResultDto duplicate(UploadLine line, IdempotencyKey recorded) {
+        if (!recorded.getRequestHash().equals(fingerprint(line)))
+            return failed(line, "Sale reference " + line.sale().reference() + " was already used for a different sale");
+
+        return new SaleUploadResultDto(line.line(), line.sale().reference(), SaleUploadStatus.DUPLICATE,
+                saleService.findById(recorded.getResultId()), null);
+    }
+
+    private String key(Long storeId, UploadLine line) {
+        return line.sale().reference() == null ? null : storeId + ":" + line.sale().reference();
+    }
+
+    private String fingerprint(UploadLine line) {
+        return idempotencyService.fingerprint(line.sale().bookSaleDtoList());
+    }
+
+    private SaleUploadResultDto failed(UploadLine line, String error) {
+        String reference = line.sale() == null ? null : line.sale().reference();
+        return new SaleUploadResultDto(line.line(), reference, SaleUploadStatus.FAILED, null, error);
+    }
+}
@@ -0,0 +1,196 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.dto.request.StockThresholdRequestDto;
+import com.ifellow.bookstore.dto.response.StockAlertResponseDto;
+import com.ifellow.bookstore.dto.response.StockThresholdResponseDto;
+import com.ifellow.bookstore.enumeration.StockAlertType;
+import com.ifellow.bookstore.enumeration.StockLocationType;
+import com.ifellow.bookstore.event.StockAlertEvent;
+import com.ifellow.bookstore.event.StockChangedEvent;
+import com.ifellow.bookstore.model.Store;
+import com.ifellow.bookstore.model.StoreStockThreshold;
+import com.ifellow.bookstore.repository.StoreStockThresholdRepository;
+import com.ifellow.bookstore.service.api.BookAvailabilityService;
+import com.ifellow.bookstore.service.api.BookService;
+import com.ifellow.bookstore.service.api.StockAlertService;
+import com.ifellow.bookstore.service.api.StoreService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class StockAlertServiceImpl implements StockAlertService {
+
+    private record StockKey(long storeId, long bookId) {
+    }
+
+    private final StoreStockThresholdRepository storeStockThresholdRepository;
+    private final StoreService storeService;
+    private final BookService bookService;
+    private final BookAvailabilityService bookAvailabilityService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final Map<Long, Integer> storeThresholds = new ConcurrentHashMap<>();
+    private final Map<StockKey, Integer> bookThresholds = new ConcurrentHashMap<>();
+    private final Map<Long, Deque<StockAlertEvent>> feeds = new ConcurrentHashMap<>();
+    private final Set<StockKey> lowStockKeys = new HashSet<>();
+    private BlockingQueue<StockChangedEvent> queue;
+    private Thread watcher;
+
+    @Value("${stock.alert.queue.capacity}")
+    private int queueCapacity;
+
+    @Value("${stock.alert.feed.size}")
+    private int feedSize;
+
+    @PostConstruct
+    public void init() {
+        storeStockThresholdRepository.findAll().forEach(this::cache);
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        watcher = Thread.ofPlatform().name("stock-alert-watcher").daemon().start(this::watch);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watcher.interrupt();
+    }
+
+    @Override
+    @Transactional
+    public StockThresholdResponseDto setThreshold(Long storeId, StockThresholdRequestDto stockThresholdRequestDto) {
+        Store store = storeService.lockStoreById(storeId);
+        Long bookId = stockThresholdRequestDto.bookId();
+
+        Optional<StoreStockThreshold> existing;
+        StoreStockThreshold.StoreStockThresholdBuilder builder = StoreStockThreshold.builder().store(store);
+        if (bookId == null) {
+            existing = storeStockThresholdRepository.findByStoreIdAndBookIsNull(storeId);
+        } else {
+            existing = storeStockThresholdRepository.findByStoreIdAndBookId(storeId, bookId);
+            builder.book(bookService.findBookById(bookId));
+        }
+
+        StoreStockThreshold threshold = existing.orElseGet(builder::build);
+        threshold.setThreshold(stockThresholdRequestDto.threshold());
+        storeStockThresholdRepository.save(threshold);
+        cacheAfterCommit(storeId, bookId, threshold.getThreshold());
+
+        return new StockThresholdResponseDto(storeId, bookId, threshold.getThreshold());
+    }
+
+    @Override
+    public List<StockAlertResponseDto> getAlerts(Long storeId) {
+        storeService.findStoreById(storeId);
+
+        Deque<StockAlertEvent> feed = feeds.get(storeId);
+        if (feed == null) return List.of();
+
+        synchronized (feed) {
+            return feed.stream()
+                    .map(alert -> new StockAlertResponseDto(alert.bookId(), alert.type(),
+                            alert.quantity(), alert.threshold(), alert.occurredAt()))
+                    .toList();
+        }
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (event.locationType() != StockLocationType.STORE) return;
+        queue.offer(event);
+    }
+
+    private void watch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            StockChangedEvent event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            try {
+                evaluate(event);
+            } catch (RuntimeException e) {
+                Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+            }
+        }
+    }
+
+    private void evaluate(StockChangedEvent event) {
+        Long storeId = event.locationId();
+
+        for (Long bookId : event.deltasByBookId().keySet()) {
+            StockKey key = key(storeId, bookId);
+            Integer threshold = bookThresholds.getOrDefault(key, storeThresholds.get(storeId));
+            if (threshold == null) {
+                lowStockKeys.remove(key);
+                continue;
+            }
+
+            int quantity = bookAvailabilityService.getQuantity(StockLocationType.STORE, storeId, bookId);
+            boolean low = quantity <= threshold;
+            boolean crossed = low ? lowStockKeys.add(key) : lowStockKeys.remove(key);
+            if (crossed) {
+                publish(new StockAlertEvent(storeId, bookId, low ? StockAlertType.LOW_STOCK : StockAlertType.RESTOCKED,
+                        quantity, threshold, LocalDateTime.now()));
+            }
+        }
+    }
+
+    private void publish(StockAlertEvent alert) {
+        Deque<StockAlertEvent> feed = feeds.computeIfAbsent(alert.storeId(), _ -> new ArrayDeque<>(feedSize));
+        synchronized (feed) {
+            if (feed.size() == feedSize) feed.removeLast();
+            feed.addFirst(alert);
+        }
+
+        applicationEventPublisher.publishEvent(alert);
+    }
+
+    private void cache(StoreStockThreshold threshold) {
+        cache(threshold.getStore().getId(), threshold.getBook() == null ? null : threshold.getBook().getId(),
+                threshold.getThreshold());
+    }
+
+    private void cacheAfterCommit(Long storeId, Long bookId, int threshold) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache(storeId, bookId, threshold);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache(storeId, bookId, threshold);
+            }
+        });
+    }
+
+    private void cache(Long storeId, Long bookId, int threshold) {
+        if (bookId == null) {
+            storeThresholds.put(storeId, threshold);
+        } else {
+            bookThresholds.put(key(storeId, bookId), threshold);
+        }
+    }
+
+    private StockKey key(Long storeId, Long bookId) {
+        return new StockKey(storeId, bookId);
+    }
+}
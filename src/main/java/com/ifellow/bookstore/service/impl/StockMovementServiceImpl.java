@@ -0,0 +1,161 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.dto.projection.StockMovementTotal;
+import com.ifellow.bookstore.dto.response.StockAsOfResponseDto;
+import com.ifellow.bookstore.enumeration.StockLocationType;
+import com.ifellow.bookstore.event.StockChangedEvent;
+import com.ifellow.bookstore.model.StockMovement;
+import com.ifellow.bookstore.model.StockSnapshot;
+import com.ifellow.bookstore.repository.StockMovementRepository;
+import com.ifellow.bookstore.repository.StockSnapshotRepository;
+import com.ifellow.bookstore.service.api.StockMovementService;
+import com.ifellow.bookstore.util.StockMovementContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class StockMovementServiceImpl implements StockMovementService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private record SnapshotLocation(StockLocationType locationType, Long locationId) {
+    }
+
+    private final StockMovementRepository stockMovementRepository;
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Value("${stock.movement.retention.hours}")
+    private long retentionHours;
+
+    @Override
+    public void recordAdded(StockLocationType locationType, Long locationId, Map<Long, Integer> quantitiesByBookId) {
+        record(locationType, locationId, quantitiesByBookId, 1);
+    }
+
+    @Override
+    public void recordRemoved(StockLocationType locationType, Long locationId, Map<Long, Integer> quantitiesByBookId) {
+        record(locationType, locationId, quantitiesByBookId, -1);
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${stock.movement.snapshot.cron}")
+    public void compact() {
+        LocalDateTime takenAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (stockMovementRepository.markCompacted(takenAt) > 0) snapshot(takenAt);
+
+        stockSnapshotRepository.findLatestTakenAtNotAfter(takenAt.minusHours(retentionHours)).ifPresent(baseTakenAt -> {
+            stockSnapshotRepository.deleteSupersededBefore(baseTakenAt);
+            stockMovementRepository.deleteCompactedNotAfter(baseTakenAt);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StockAsOfResponseDto> getStockAsOf(StockLocationType locationType, Long locationId, LocalDateTime asOf) {
+        if (asOf.isBefore(LocalDateTime.now().minusHours(retentionHours)))
+            throw new IllegalArgumentException("Stock history is only retained for the last " + retentionHours + " hours");
+
+        Optional<LocalDateTime> snapshotTakenAt = stockSnapshotRepository.findLatestTakenAtNotAfter(asOf);
+
+        Map<Long, Integer> amountsByBookId = new TreeMap<>();
+        snapshotTakenAt.ifPresent(takenAt -> stockSnapshotRepository
+                .findLatestForLocation(locationType, locationId, takenAt)
+                .forEach(snapshot -> amountsByBookId.put(snapshot.getBookId(), snapshot.getAmount())));
+
+        stockMovementRepository.sumNotCompactedForLocation(locationType, locationId, snapshotTakenAt.orElse(EPOCH), asOf)
+                .forEach(total -> amountsByBookId.merge(total.bookId(), Math.toIntExact(total.total()), Integer::sum));
+
+        return amountsByBookId.entrySet().stream()
+                .map(entry -> new StockAsOfResponseDto(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private void snapshot(LocalDateTime takenAt) {
+        Map<SnapshotLocation, Map<Long, Long>> totalsByLocation = new LinkedHashMap<>();
+        stockMovementRepository.sumCompactedAt(takenAt).forEach(total -> totalsByLocation
+                .computeIfAbsent(new SnapshotLocation(total.locationType(), total.locationId()), _ -> new TreeMap<>())
+                .put(total.bookId(), total.total()));
+
+        List<StockSnapshot> snapshots = new ArrayList<>();
+        totalsByLocation.forEach((location, totalsByBookId) -> {
+            Map<Long, Integer> previousAmounts = stockSnapshotRepository
+                    .findLatestForBooks(location.locationType(), location.locationId(), totalsByBookId.keySet()).stream()
+                    .collect(Collectors.toMap(StockSnapshot::getBookId, StockSnapshot::getAmount));
+
+            totalsByBookId.forEach((bookId, total) -> snapshots.add(snapshot(location.locationType(), location.locationId(),
+                    bookId, Math.toIntExact(previousAmounts.getOrDefault(bookId, 0) + total), takenAt)));
+        });
+
+        stockSnapshotRepository.saveAll(snapshots);
+    }
+
+    private StockSnapshot snapshot(StockLocationType locationType, Long locationId, Long bookId,
+                                   int amount, LocalDateTime takenAt) {
+        return StockSnapshot.builder()
+                .locationType(locationType)
+                .locationId(locationId)
+                .bookId(bookId)
+                .amount(amount)
+                .takenAt(takenAt)
+                .build();
+    }
+
+    private void record(StockLocationType locationType, Long locationId, Map<Long, Integer> quantitiesByBookId, int sign) {
+        LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<StockMovement> movements = quantitiesByBookId.entrySet().stream()
+                .map(entry -> StockMovement.builder()
+                        .locationType(locationType)
+                        .locationId(locationId)
+                        .bookId(entry.getKey())
+                        .delta(sign * entry.getValue())
+                        .movementType(StockMovementContext.resolve(sign))
+                        .createdAt(createdAt)
+                        .build())
+                .toList();
+
+        applicationEventPublisher.publishEvent(new StockChangedEvent(locationType, locationId,
+                movements.stream().collect(Collectors.toMap(StockMovement::getBookId, StockMovement::getDelta))));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stockMovementRepository.insertAll(movements);
+            return;
+        }
+
+        pendingMovements().addAll(movements);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<StockMovement> pendingMovements() {
+        List<StockMovement> pending = (List<StockMovement>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) return pending;
+
+        List<StockMovement> movements = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, movements);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!movements.isEmpty()) stockMovementRepository.insertAll(movements);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(StockMovementServiceImpl.this);
+            }
+        });
+        return movements;
+    }
+}
@@ -0,0 +1,188 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.dto.projection.OrderStockLevel;
+import com.ifellow.bookstore.dto.projection.StockLevel;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.enumeration.StockMovementType;
+import com.ifellow.bookstore.exception.BookException;
+import com.ifellow.bookstore.exception.NotEnoughStockException;
+import com.ifellow.bookstore.model.Book;
+import com.ifellow.bookstore.model.Order;
+import com.ifellow.bookstore.model.OrderItem;
+import com.ifellow.bookstore.model.StockReservation;
+import com.ifellow.bookstore.model.WarehouseBookAmount;
+import com.ifellow.bookstore.repository.OrderItemRepository;
+import com.ifellow.bookstore.repository.StockReservationRepository;
+import com.ifellow.bookstore.repository.WarehouseBookAmountRepository;
+import com.ifellow.bookstore.service.api.StockReservationService;
+import com.ifellow.bookstore.service.api.WarehouseService;
+import com.ifellow.bookstore.util.StockMovementContext;
+import com.ifellow.bookstore.util.StockUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private final StockReservationRepository stockReservationRepository;
+    private final WarehouseBookAmountRepository warehouseBookAmountRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final WarehouseService warehouseService;
+
+    @Value("${stock.reservation.ttl.minutes}")
+    private long ttlMinutes;
+
+    @Override
+    @Transactional
+    public void reserve(Order order) throws BookException, NotEnoughStockException {
+        Long warehouseId = order.getWarehouse().getId();
+        Map<Long, Integer> quantitiesByBookId = StockUtils.mergeQuantities(
+                order.getOrderItemList(), orderItem -> orderItem.getBook().getId(), OrderItem::getQuantity);
+        if (quantitiesByBookId.isEmpty()) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Integer> onHandByBookId = warehouseBookAmountRepository
+                .findAllForUpdate(warehouseId, quantitiesByBookId.keySet()).stream()
+                .collect(Collectors.toMap(wba -> wba.getBook().getId(), WarehouseBookAmount::getAmount));
+        Map<Long, Integer> heldByBookId = stockReservationRepository
+                .sumActiveByWarehouseIdAndBookIds(warehouseId, quantitiesByBookId.keySet(), now).stream()
+                .collect(Collectors.toMap(StockLevel::bookId, StockLevel::amount));
+
+        quantitiesByBookId.forEach((bookId, quantity) -> {
+            Integer onHand = onHandByBookId.get(bookId);
+            if (onHand == null)
+                throw new BookException("Book not found with id: " + bookId + " in warehouse with id: " + warehouseId);
+
+            if (onHand - heldByBookId.getOrDefault(bookId, 0) < quantity)
+                throw new NotEnoughStockException("Not enough stock of book with id: " + bookId + " for reserving it in warehouse with id:" + warehouseId);
+        });
+
+        Map<Long, Book> booksById = order.getOrderItemList().stream()
+                .collect(Collectors.toMap(orderItem -> orderItem.getBook().getId(), OrderItem::getBook, (book, _) -> book));
+        LocalDateTime expiresAt = now.plusMinutes(ttlMinutes);
+
+        List<StockReservation> reservations = quantitiesByBookId.entrySet().stream()
+                .map(entry -> StockReservation.builder()
+                        .order(order)
+                        .warehouse(order.getWarehouse())
+                        .book(booksById.get(entry.getKey()))
+                        .quantity(entry.getValue())
+                        .expiresAt(expiresAt)
+                        .build())
+                .toList();
+        stockReservationRepository.saveAll(reservations);
+    }
+
+    @Override
+    @Transactional
+    public void commit(Order order) throws NotEnoughStockException {
+        List<BookBulkDto> bookBulkDtos = order.getOrderItemList().stream()
+                .map(orderItem -> new BookBulkDto(orderItem.getBook().getId(), orderItem.getQuantity()))
+                .toList();
+
+        stockReservationRepository.deleteByOrderId(order.getId());
+        try (StockMovementContext _ = StockMovementContext.of(StockMovementType.ORDER)) {
+            warehouseService.removeBooksFromWarehouse(order.getWarehouse().getId(), bookBulkDtos);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void release(Order order) {
+        stockReservationRepository.deleteByOrderId(order.getId());
+    }
+
+    @Override
+    @Transactional
+    public List<Long> commitAll(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) return List.of();
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, List<OrderStockLevel>> itemsByOrderId = orderItemRepository.sumByOrderAndBook(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderStockLevel::orderId, TreeMap::new, Collectors.toList()));
+        Map<Long, Map<Long, Integer>> heldByOrderId = stockReservationRepository.sumActiveByOrderIds(orderIds, now).stream()
+                .collect(Collectors.groupingBy(OrderStockLevel::orderId,
+                        Collectors.toMap(OrderStockLevel::bookId, OrderStockLevel::amount)));
+        Map<Long, Map<Long, Integer>> freeByWarehouseId = lockFreeStock(itemsByOrderId.values(), now);
+
+        List<Long> committedIds = new ArrayList<>();
+        List<Long> failedIds = new ArrayList<>();
+        itemsByOrderId.forEach((orderId, items) -> {
+            Map<Long, Integer> held = heldByOrderId.getOrDefault(orderId, Map.of());
+            boolean fits = items.stream().allMatch(item -> {
+                Integer free = freeByWarehouseId.get(item.warehouseId()).get(item.bookId());
+                return free != null && item.amount() <= free + held.getOrDefault(item.bookId(), 0);
+            });
+            if (!fits) {
+                failedIds.add(orderId);
+                return;
+            }
+
+            items.forEach(item -> freeByWarehouseId.get(item.warehouseId())
+                    .merge(item.bookId(), held.getOrDefault(item.bookId(), 0) - item.amount(), Integer::sum));
+            committedIds.add(orderId);
+        });
+        if (committedIds.isEmpty()) return failedIds;
+
+        Map<Long, List<BookBulkDto>> booksByWarehouseId = committedIds.stream()
+                .flatMap(orderId -> itemsByOrderId.get(orderId).stream())
+                .collect(Collectors.groupingBy(OrderStockLevel::warehouseId, TreeMap::new, Collectors.collectingAndThen(
+                        Collectors.toMap(OrderStockLevel::bookId, OrderStockLevel::amount, Integer::sum, TreeMap::new),
+                        quantities -> quantities.entrySet().stream()
+                                .map(entry -> new BookBulkDto(entry.getKey(), entry.getValue()))
+                                .toList())));
+
+        stockReservationRepository.deleteByOrderIdIn(committedIds);
+        try (StockMovementContext _ = StockMovementContext.of(StockMovementType.ORDER)) {
+            booksByWarehouseId.forEach(warehouseService::removeBooksFromWarehouse);
+        }
+        return failedIds;
+    }
+
+    @Override
+    @Transactional
+    public void releaseAll(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) return;
+
+        stockReservationRepository.deleteByOrderIdIn(orderIds);
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${stock.reservation.release.interval.ms}")
+    public void releaseExpired() {
+        stockReservationRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private Map<Long, Map<Long, Integer>> lockFreeStock(Collection<List<OrderStockLevel>> items, LocalDateTime now) {
+        Map<Long, Set<Long>> bookIdsByWarehouseId = items.stream()
+                .flatMap(List::stream)
+                .collect(Collectors.groupingBy(OrderStockLevel::warehouseId, TreeMap::new,
+                        Collectors.mapping(OrderStockLevel::bookId, Collectors.toCollection(TreeSet::new))));
+
+        Map<Long, Map<Long, Integer>> freeByWarehouseId = new HashMap<>();
+        bookIdsByWarehouseId.forEach((warehouseId, bookIds) -> {
+            Map<Long, Integer> free = warehouseBookAmountRepository.findAllForUpdate(warehouseId, bookIds).stream()
+                    .collect(Collectors.toMap(wba -> wba.getBook().getId(), WarehouseBookAmount::getAmount));
+            stockReservationRepository.sumActiveByWarehouseIdAndBookIds(warehouseId, bookIds, now)
+                    .forEach(level -> free.computeIfPresent(level.bookId(), (_, amount) -> amount - level.amount()));
+            freeByWarehouseId.put(warehouseId, free);
+        });
+        return freeByWarehouseId;
+    }
+}
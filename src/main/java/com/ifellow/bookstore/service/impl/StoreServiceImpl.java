@@ -2,8 +2,10 @@ package com.ifellow.bookstore.service.impl;
 
 import com.ifellow.bookstore.dto.request.BookBulkDto;
 import com.ifellow.bookstore.dto.request.StoreRequestDto;
+import com.ifellow.bookstore.dto.response.StockAsOfResponseDto;
 import com.ifellow.bookstore.dto.response.StoreBookResponseDto;
 import com.ifellow.bookstore.dto.response.StoreResponseDto;
+import com.ifellow.bookstore.enumeration.StockLocationType;
 import com.ifellow.bookstore.exception.BookException;
 import com.ifellow.bookstore.exception.NotEnoughStockException;
 import com.ifellow.bookstore.exception.StoreException;
@@ -15,14 +17,23 @@ import com.ifellow.bookstore.model.StoreBookAmount;
 import com.ifellow.bookstore.repository.StoreBookAmountRepository;
 import com.ifellow.bookstore.repository.StoreRepository;
 import com.ifellow.bookstore.service.api.BookService;
+import com.ifellow.bookstore.service.api.StockMovementService;
 import com.ifellow.bookstore.service.api.StoreService;
+import com.ifellow.bookstore.service.api.StoreStockLedgerService;
+import com.ifellow.bookstore.service.api.StoreStockSplitService;
+import com.ifellow.bookstore.util.StockUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,6 +44,9 @@ public class StoreServiceImpl implements StoreService {
     private final BookService bookService;
     private final StoreBookAmountRepository storeBookAmountRepository;
     private final StoreBookAmountMapper storeBookAmountMapper;
+    private final StoreStockLedgerService storeStockLedgerService;
+    private final StockMovementService stockMovementService;
+    private final StoreStockSplitService storeStockSplitService;
     private final Integer EMPTY_STOCK = 0;
 
     @Override
@@ -59,6 +73,13 @@ public class StoreServiceImpl implements StoreService {
                 .orElseThrow(() -> new StoreException("Store not found with id: " + id));
     }
 
+    @Override
+    @Transactional
+    public Store lockStoreById(Long id) throws StoreException {
+        return storeRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new StoreException("Store not found with id: " + id));
+    }
+
 
     public void checkStoreExistence(Long id) throws StoreException {
         findStoreById(id);
@@ -71,22 +92,26 @@ public class StoreServiceImpl implements StoreService {
         int quantity = bookBulkDto.quantity();
         Long bookId = bookBulkDto.bookId();
 
-        Store store = findStoreById(id);
-        Book book = bookService.findBookById(bookId);
+        if (storeStockLedgerService.isEnabled()) {
+            addToLedger(id, StockUtils.mergeQuantities(List.of(bookBulkDto)));
+            return;
+        }
+
+        Map<Long, Integer> splitQuantities = storeStockSplitService.findSplitQuantities(id, Map.of(bookId, quantity));
+        if (!splitQuantities.isEmpty()) {
+            storeStockSplitService.add(id, splitQuantities);
+        } else if (storeBookAmountRepository.incrementAmount(id, bookId, quantity) == 0) {
+            Store store = findStoreById(id);
+            Book book = bookService.findBookById(bookId);
 
-        StoreBookAmount storeBookAmount = storeBookAmountRepository.findByStoreIdAndBookId(id, bookId)
-                        .map(sba -> {
-                            sba.setAmount(sba.getAmount() + quantity);
-                            return sba;
-                        }).orElseGet(() -> {
-                            StoreBookAmount newSba = new StoreBookAmount();
-                            newSba.setAmount(quantity);
-                            newSba.setBook(book);
-                            newSba.setStore(store);
-                            return newSba;
-                });
+            StoreBookAmount storeBookAmount = new StoreBookAmount();
+            storeBookAmount.setAmount(quantity);
+            storeBookAmount.setBook(book);
+            storeBookAmount.setStore(store);
+            storeBookAmountRepository.save(storeBookAmount);
+        }
 
-        storeBookAmountRepository.save(storeBookAmount);
+        stockMovementService.recordAdded(StockLocationType.STORE, id, Map.of(bookId, quantity));
     }
 
     @Override
@@ -96,41 +121,164 @@ public class StoreServiceImpl implements StoreService {
         int quantity = bookBulkDto.quantity();
         Long bookId = bookBulkDto.bookId();
 
+        if (storeStockLedgerService.isEnabled()) {
+            removeFromLedger(id, StockUtils.mergeQuantities(List.of(bookBulkDto)));
+            return;
+        }
+
+        Map<Long, Integer> splitQuantities = storeStockSplitService.findSplitQuantities(id, Map.of(bookId, quantity));
+        boolean removed = splitQuantities.isEmpty()
+                ? storeBookAmountRepository.decrementAmount(id, bookId, quantity) > 0
+                : storeStockSplitService.remove(id, splitQuantities).isEmpty();
+        if (!removed) {
+            throwRemovalFailure(id, bookId);
+        }
+
+        stockMovementService.recordRemoved(StockLocationType.STORE, id, Map.of(bookId, quantity));
+    }
+
+    private void throwRemovalFailure(Long id, Long bookId)
+            throws StoreException, BookException, NotEnoughStockException {
         checkStoreExistence(id);
         bookService.checkBookExistence(bookId);
 
-        storeBookAmountRepository.findByStoreIdAndBookId(id, bookId)
-                .ifPresentOrElse(sba -> {
-                    if (sba.getAmount() < quantity)
-                        throw new NotEnoughStockException("Not enough stock of book with id: " + bookId + " for removing it in store with id:" + id);
+        boolean stocked = storeStockLedgerService.isEnabled()
+                ? storeStockLedgerService.contains(id, bookId)
+                : storeBookAmountRepository.existsByStoreIdAndBookId(id, bookId);
+
+        if (stocked)
+            throw new NotEnoughStockException("Not enough stock of book with id: " + bookId + " for removing it in store with id:" + id);
 
-                    sba.setAmount(sba.getAmount() - quantity);
-                    storeBookAmountRepository.save(sba);
-                }, () -> {
-                    throw new BookException("Book not found with id: " + bookId + " in store with id: " + id);
-                });
+        throw new BookException("Book not found with id: " + bookId + " in store with id: " + id);
+    }
+
+    private void addToLedger(Long id, Map<Long, Integer> quantitiesByBookId) {
+        Set<Long> unknownBookIds = quantitiesByBookId.keySet().stream()
+                .filter(bookId -> !storeStockLedgerService.contains(id, bookId))
+                .collect(Collectors.toSet());
+
+        if (!unknownBookIds.isEmpty()) {
+            checkStoreExistence(id);
+            bookService.checkBooksExistence(unknownBookIds);
+        }
+
+        storeStockLedgerService.add(id, quantitiesByBookId);
+        stockMovementService.recordAdded(StockLocationType.STORE, id, quantitiesByBookId);
+    }
+
+    private void removeFromLedger(Long id, Map<Long, Integer> quantitiesByBookId) {
+        List<Long> failedBookIds = storeStockLedgerService.remove(id, quantitiesByBookId);
+        if (!failedBookIds.isEmpty()) {
+            throwRemovalFailure(id, failedBookIds.getFirst());
+        }
+
+        stockMovementService.recordRemoved(StockLocationType.STORE, id, quantitiesByBookId);
     }
 
     @Override
     @Transactional
     public void addBooksToStore(Long id, List<BookBulkDto> bookBulkDtos) {
-        for (BookBulkDto bookBulkDto : bookBulkDtos) {
-            addBookToStore(id, bookBulkDto);
+        Map<Long, Integer> quantitiesByBookId = StockUtils.mergeQuantities(bookBulkDtos);
+        if (quantitiesByBookId.isEmpty()) return;
+
+        if (storeStockLedgerService.isEnabled()) {
+            addToLedger(id, quantitiesByBookId);
+            return;
         }
+
+        checkStoreExistence(id);
+        bookService.checkBooksExistence(quantitiesByBookId.keySet());
+
+        Map<Long, Integer> splitQuantities = storeStockSplitService.findSplitQuantities(id, quantitiesByBookId);
+        Map<Long, Integer> regularQuantities = withoutSplit(quantitiesByBookId, splitQuantities);
+
+        if (!regularQuantities.isEmpty()) storeBookAmountRepository.upsertAmounts(id, regularQuantities);
+        if (!splitQuantities.isEmpty()) storeStockSplitService.add(id, splitQuantities);
+        stockMovementService.recordAdded(StockLocationType.STORE, id, quantitiesByBookId);
     }
 
     @Override
     @Transactional
     public void removeBooksFromStore(Long id, List<BookBulkDto> bookBulkDtos) {
-        for (BookBulkDto bookBulkDto : bookBulkDtos) {
-            removeBookFromStore(id, bookBulkDto);
+        Map<Long, Integer> quantitiesByBookId = StockUtils.mergeQuantities(bookBulkDtos);
+        if (quantitiesByBookId.isEmpty()) return;
+
+        if (storeStockLedgerService.isEnabled()) {
+            removeFromLedger(id, quantitiesByBookId);
+            return;
         }
+
+        checkStoreExistence(id);
+        bookService.checkBooksExistence(quantitiesByBookId.keySet());
+        removeFromStock(id, quantitiesByBookId);
+    }
+
+    @Override
+    @Transactional
+    public void removeBooksFromStore(Store store, Map<Long, Integer> quantitiesByBookId) {
+        if (quantitiesByBookId.isEmpty()) return;
+
+        if (storeStockLedgerService.isEnabled()) {
+            removeFromLedger(store.getId(), quantitiesByBookId);
+            return;
+        }
+
+        removeFromStock(store.getId(), quantitiesByBookId);
+    }
+
+    private void removeFromStock(Long id, Map<Long, Integer> quantitiesByBookId) {
+        Map<Long, Integer> splitQuantities = storeStockSplitService.findSplitQuantities(id, quantitiesByBookId);
+        Map<Long, Integer> regularQuantities = withoutSplit(quantitiesByBookId, splitQuantities);
+
+        if (!regularQuantities.isEmpty()) {
+            storeBookAmountRepository.findAllForUpdate(id, regularQuantities.keySet());
+            List<Long> failedBookIds = storeBookAmountRepository.decrementAmounts(id, regularQuantities);
+            if (!failedBookIds.isEmpty()) {
+                throwRemovalFailure(id, failedBookIds.getFirst());
+            }
+        }
+
+        if (!splitQuantities.isEmpty()) {
+            List<Long> failedBookIds = storeStockSplitService.remove(id, splitQuantities);
+            if (!failedBookIds.isEmpty()) {
+                throwRemovalFailure(id, failedBookIds.getFirst());
+            }
+        }
+
+        stockMovementService.recordRemoved(StockLocationType.STORE, id, quantitiesByBookId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<StoreBookResponseDto> getStoreStock(Long id, Pageable pageable) {
-       return storeBookAmountRepository.findByStoreId(id, pageable)
-               .map(storeBookAmountMapper::toDto);
+        Page<StoreBookResponseDto> stock = storeBookAmountRepository.findByStoreId(id, pageable)
+                .map(storeBookAmountMapper::toDto);
+
+        if (storeStockLedgerService.isEnabled()) {
+            return stock.map(dto -> new StoreBookResponseDto(dto.id(), dto.storeId(), dto.bookId(),
+                    storeStockLedgerService.getAmount(id, dto.bookId()).orElse(dto.quantity())));
+        }
+
+        Map<Long, Integer> splitAmounts = storeStockSplitService.getAmounts(id,
+                stock.map(StoreBookResponseDto::bookId).getContent());
+        if (splitAmounts.isEmpty()) return stock;
+
+        return stock.map(dto -> new StoreBookResponseDto(dto.id(), dto.storeId(), dto.bookId(),
+                dto.quantity() + splitAmounts.getOrDefault(dto.bookId(), EMPTY_STOCK)));
+    }
+
+    private Map<Long, Integer> withoutSplit(Map<Long, Integer> quantitiesByBookId, Map<Long, Integer> splitQuantities) {
+        if (splitQuantities.isEmpty()) return quantitiesByBookId;
+
+        Map<Long, Integer> regularQuantities = new TreeMap<>(quantitiesByBookId);
+        regularQuantities.keySet().removeAll(splitQuantities.keySet());
+        return regularQuantities;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StockAsOfResponseDto> getStoreStockAsOf(Long id, LocalDateTime asOf) {
+        checkStoreExistence(id);
+        return stockMovementService.getStockAsOf(StockLocationType.STORE, id, asOf);
     }
 }
@@ -0,0 +1,253 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.dto.projection.StockLevel;
+import com.ifellow.bookstore.model.StockLedgerCheckpoint;
+import com.ifellow.bookstore.repository.StockLedgerCheckpointRepository;
+import com.ifellow.bookstore.repository.StoreBookAmountRepository;
+import com.ifellow.bookstore.service.api.StoreStockLedgerService;
+import com.ifellow.bookstore.util.StockLedgerJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@RequiredArgsConstructor
+public class StoreStockLedgerServiceImpl implements StoreStockLedgerService {
+
+    private record StockKey(long storeId, long bookId) {
+    }
+
+    private final StoreBookAmountRepository storeBookAmountRepository;
+    private final StockLedgerCheckpointRepository stockLedgerCheckpointRepository;
+    private final StoreStockLedgerWriter storeStockLedgerWriter;
+
+    private final Map<StockKey, AtomicInteger> amounts = new ConcurrentHashMap<>();
+    private final Object journalLock = new Object();
+    private Map<StockKey, Integer> pendingDeltas = new HashMap<>();
+    private StockLedgerJournal journal;
+
+    @Value("${stock.ledger.enabled}")
+    private boolean enabled;
+
+    @Value("${stock.ledger.journal.path}")
+    private String journalPath;
+
+    @Value("${stock.ledger.journal.fsync}")
+    private boolean fsync;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) return;
+        if (!StringUtils.hasText(journalPath))
+            throw new IllegalStateException("stock.ledger.journal.path must point to a durable directory when the stock ledger is enabled");
+
+        journal = new StockLedgerJournal(Path.of(journalPath), fsync);
+        storeStockLedgerWriter.mergeSlots();
+        storeBookAmountRepository.findAllStockLevels().forEach(level ->
+                amounts.put(key(level.locationId(), level.bookId()), new AtomicInteger(level.amount())));
+
+        Optional<StockLedgerCheckpoint> checkpoint = stockLedgerCheckpointRepository.findById(StoreStockLedgerWriter.CHECKPOINT_ID);
+        if (checkpoint.isEmpty()) {
+            journal.discard();
+            stockLedgerCheckpointRepository.save(new StockLedgerCheckpoint(StoreStockLedgerWriter.CHECKPOINT_ID, 0L));
+        }
+
+        long checkpointSequence = checkpoint.map(StockLedgerCheckpoint::getLastSequence).orElse(0L);
+        for (StockLedgerJournal.Entry entry : journal.open(checkpointSequence)) {
+            StockKey key = new StockKey(entry.locationId(), entry.bookId());
+            amounts.computeIfAbsent(key, _ -> new AtomicInteger()).addAndGet(entry.delta());
+            pendingDeltas.merge(key, entry.delta(), Integer::sum);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (!enabled) return;
+
+        flush();
+        journal.close();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean contains(Long storeId, Long bookId) {
+        return amounts.containsKey(key(storeId, bookId));
+    }
+
+    @Override
+    public Optional<Integer> getAmount(Long storeId, Long bookId) {
+        return Optional.ofNullable(amounts.get(key(storeId, bookId))).map(AtomicInteger::get);
+    }
+
+    @Override
+    public List<StockLevel> getStockLevels() {
+        return amounts.entrySet().stream()
+                .map(entry -> new StockLevel(entry.getKey().storeId(), entry.getKey().bookId(), entry.getValue().get()))
+                .toList();
+    }
+
+    @Override
+    public void add(Long storeId, Map<Long, Integer> quantitiesByBookId) {
+        StockKey[] keys = keys(storeId, quantitiesByBookId);
+        int[] deltas = quantitiesByBookId.values().stream().mapToInt(Integer::intValue).toArray();
+
+        record(keys, deltas);
+    }
+
+    @Override
+    public List<Long> remove(Long storeId, Map<Long, Integer> quantitiesByBookId) {
+        StockKey[] keys = keys(storeId, quantitiesByBookId);
+        int[] deltas = new int[keys.length];
+
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : quantitiesByBookId.entrySet()) {
+            if (!tryDecrement(keys[i], entry.getValue())) {
+                restore(keys, deltas);
+                return List.of(entry.getKey());
+            }
+            deltas[i++] = -entry.getValue();
+        }
+
+        record(keys, deltas);
+        return List.of();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${stock.ledger.flush.interval.ms}")
+    public void flush() {
+        if (!enabled) return;
+
+        Map<StockKey, Integer> snapshot;
+        long sequence;
+        List<Path> sealedSegments;
+        synchronized (journalLock) {
+            if (pendingDeltas.isEmpty()) return;
+
+            snapshot = pendingDeltas;
+            pendingDeltas = new HashMap<>();
+            sequence = journal.lastSequence();
+            try {
+                sealedSegments = journal.rotate();
+            } catch (IOException e) {
+                pendingDeltas = snapshot;
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Map<Long, Map<Long, Integer>> deltasByStoreId = new TreeMap<>();
+        snapshot.forEach((key, delta) -> deltasByStoreId
+                .computeIfAbsent(key.storeId(), _ -> new TreeMap<>())
+                .put(key.bookId(), delta));
+
+        try {
+            storeStockLedgerWriter.write(deltasByStoreId, sequence);
+        } catch (RuntimeException e) {
+            synchronized (journalLock) {
+                snapshot.forEach((key, delta) -> pendingDeltas.merge(key, delta, Integer::sum));
+            }
+            throw e;
+        }
+
+        try {
+            journal.delete(sealedSegments);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean tryDecrement(StockKey key, int quantity) {
+        AtomicInteger amount = amounts.get(key);
+        if (amount == null) return false;
+
+        while (true) {
+            int current = amount.get();
+            if (current < quantity) return false;
+            if (amount.compareAndSet(current, current - quantity)) return true;
+        }
+    }
+
+    private void restore(StockKey[] keys, int[] deltas) {
+        for (int i = 0; i < keys.length; i++) {
+            if (deltas[i] < 0) amounts.get(keys[i]).addAndGet(-deltas[i]);
+        }
+    }
+
+    private void apply(StockKey[] keys, int[] deltas) {
+        for (int i = 0; i < keys.length; i++) {
+            if (deltas[i] > 0) amounts.computeIfAbsent(keys[i], _ -> new AtomicInteger()).addAndGet(deltas[i]);
+        }
+    }
+
+    private void record(StockKey[] keys, int[] deltas) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                journal(keys, deltas);
+            } catch (RuntimeException e) {
+                restore(keys, deltas);
+                throw e;
+            }
+            apply(keys, deltas);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                journal(keys, deltas);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    apply(keys, deltas);
+                    return;
+                }
+
+                restore(keys, deltas);
+            }
+        });
+    }
+
+    private void journal(StockKey[] keys, int[] deltas) {
+        long[] storeIds = Arrays.stream(keys).mapToLong(StockKey::storeId).toArray();
+        long[] bookIds = Arrays.stream(keys).mapToLong(StockKey::bookId).toArray();
+
+        synchronized (journalLock) {
+            try {
+                journal.append(storeIds, bookIds, deltas);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                pendingDeltas.merge(keys[i], deltas[i], Integer::sum);
+            }
+        }
+    }
+
+    private StockKey[] keys(Long storeId, Map<Long, Integer> quantitiesByBookId) {
+        return quantitiesByBookId.keySet().stream()
+                .map(bookId -> key(storeId, bookId))
+                .toArray(StockKey[]::new);
+    }
+
+    private StockKey key(Long storeId, Long bookId) {
+        return new StockKey(storeId, bookId);
+    }
+}
@@ -0,0 +1,36 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.model.StockLedgerCheckpoint;
+import com.ifellow.bookstore.repository.StockLedgerCheckpointRepository;
+import com.ifellow.bookstore.repository.StoreBookAmountRepository;
+import com.ifellow.bookstore.repository.StoreBookAmountSlotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class StoreStockLedgerWriter {
+
+    public static final Long CHECKPOINT_ID = 1L;
+
+    private final StoreBookAmountRepository storeBookAmountRepository;
+    private final StockLedgerCheckpointRepository stockLedgerCheckpointRepository;
+    private final StoreBookAmountSlotRepository storeBookAmountSlotRepository;
+
+    @Transactional
+    public void write(Map<Long, Map<Long, Integer>> deltasByStoreId, long sequence) {
+        deltasByStoreId.forEach(storeBookAmountRepository::upsertAmounts);
+        stockLedgerCheckpointRepository.save(new StockLedgerCheckpoint(CHECKPOINT_ID, sequence));
+    }
+
+    @Transactional
+    public void mergeSlots() {
+        storeBookAmountSlotRepository.findAllSplitStockLevels().forEach(level -> {
+            int amount = storeBookAmountSlotRepository.deleteSlots(level.locationId(), level.bookId());
+            if (amount > 0) storeBookAmountRepository.incrementAmount(level.locationId(), level.bookId(), amount);
+        });
+    }
+}
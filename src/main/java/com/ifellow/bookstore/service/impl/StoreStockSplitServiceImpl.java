@@ -0,0 +1,145 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.dto.projection.StockLevel;
+import com.ifellow.bookstore.exception.BookException;
+import com.ifellow.bookstore.exception.StockConflictException;
+import com.ifellow.bookstore.model.StoreBookAmount;
+import com.ifellow.bookstore.repository.StoreBookAmountRepository;
+import com.ifellow.bookstore.repository.StoreBookAmountSlotRepository;
+import com.ifellow.bookstore.service.api.StoreStockLedgerService;
+import com.ifellow.bookstore.service.api.StoreStockSplitService;
+import com.ifellow.bookstore.util.StockConcurrencyControl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class StoreStockSplitServiceImpl implements StoreStockSplitService {
+
+    private static final int MIN_SLOTS = 2;
+
+    private final StoreBookAmountRepository storeBookAmountRepository;
+    private final StoreBookAmountSlotRepository storeBookAmountSlotRepository;
+    private final StoreStockLedgerService storeStockLedgerService;
+    private final StockConcurrencyControl stockConcurrencyControl;
+    private final StoreStockSplitWriter storeStockSplitWriter;
+
+    @Value("${stock.split.enabled}")
+    private boolean enabled;
+
+    @Value("${stock.split.max.slots}")
+    private int maxSlots;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled && !storeStockLedgerService.isEnabled();
+    }
+
+    @Override
+    @Transactional
+    public void split(Long storeId, Long bookId, int slots) {
+        if (!isEnabled()) throw new IllegalArgumentException("Split stock counters are disabled");
+        if (slots < MIN_SLOTS || slots > maxSlots)
+            throw new IllegalArgumentException("slots must be between " + MIN_SLOTS + " and " + maxSlots);
+
+        StoreBookAmount storeBookAmount = lockStoreBookAmount(storeId, bookId);
+        int amount = storeBookAmount.getAmount() + storeBookAmountSlotRepository.deleteSlots(storeId, bookId);
+
+        if (storeBookAmount.getAmount() > 0) {
+            storeBookAmountRepository.decrementAmount(storeId, bookId, storeBookAmount.getAmount());
+        }
+        storeBookAmountSlotRepository.createSlots(storeId, bookId, slots, amount);
+    }
+
+    @Override
+    @Transactional
+    public void merge(Long storeId, Long bookId) {
+        lockStoreBookAmount(storeId, bookId);
+
+        int amount = storeBookAmountSlotRepository.deleteSlots(storeId, bookId);
+        if (amount > 0) {
+            storeBookAmountRepository.incrementAmount(storeId, bookId, amount);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> findSplitQuantities(Long storeId, Map<Long, Integer> quantitiesByBookId) {
+        if (quantitiesByBookId.isEmpty()) return Map.of();
+
+        Map<Long, Integer> splitQuantities = new TreeMap<>();
+        storeBookAmountSlotRepository.findSplitBookIds(storeId, quantitiesByBookId.keySet())
+                .forEach(bookId -> splitQuantities.put(bookId, quantitiesByBookId.get(bookId)));
+        return splitQuantities;
+    }
+
+    @Override
+    @Transactional
+    public void add(Long storeId, Map<Long, Integer> quantitiesByBookId) {
+        quantitiesByBookId.forEach((bookId, quantity) ->
+                storeBookAmountSlotRepository.incrementRandomSlot(storeId, bookId, quantity));
+    }
+
+    @Override
+    @Transactional
+    public List<Long> remove(Long storeId, Map<Long, Integer> quantitiesByBookId) {
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantitiesByBookId).entrySet()) {
+            if (!removeFromSlots(storeId, entry.getKey(), entry.getValue())) return List.of(entry.getKey());
+        }
+        return List.of();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getAmounts(Long storeId, Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) return Map.of();
+
+        return storeBookAmountSlotRepository.sumByStoreIdAndBookIds(storeId, bookIds).stream()
+                .collect(Collectors.toMap(StockLevel::bookId, StockLevel::amount));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${stock.split.rebalance.interval.ms}")
+    public int rebalance() {
+        if (!isEnabled()) return 0;
+
+        int skipped = 0;
+        for (StockLevel level : storeBookAmountSlotRepository.findUnbalancedSplitStockLevels()) {
+            if (!storeStockSplitWriter.rebalanceSlots(level.locationId(), level.bookId())) skipped++;
+        }
+        return skipped;
+    }
+
+    private boolean removeFromSlots(Long storeId, Long bookId, int quantity) {
+        for (int attempt = 1; ; attempt++) {
+            if (storeBookAmountSlotRepository.decrementRandomSlot(storeId, bookId, quantity, attempt == 1)) return true;
+
+            switch (storeBookAmountSlotRepository.decrementAvailableSlots(storeId, bookId, quantity)) {
+                case DRAINED -> {
+                    return true;
+                }
+                case NOT_ENOUGH -> {
+                    return false;
+                }
+                case CONTENDED -> {
+                    stockConcurrencyControl.recordConflict();
+                    if (attempt >= stockConcurrencyControl.getMaxAttempts())
+                        throw new StockConflictException("Split stock of book with id: " + bookId + " is locked concurrently, gave up after " + attempt + " attempts");
+                    stockConcurrencyControl.backoff(attempt);
+                }
+            }
+        }
+    }
+
+    private StoreBookAmount lockStoreBookAmount(Long storeId, Long bookId) {
+        return storeBookAmountRepository.findAllForUpdate(storeId, List.of(bookId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new BookException("Book not found with id: " + bookId + " in store with id: " + storeId));
+    }
+}
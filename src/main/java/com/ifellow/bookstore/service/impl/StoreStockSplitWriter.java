@@ -0,0 +1,18 @@
+package com.ifellow.bookstore.service.impl;
+
+import com.ifellow.bookstore.repository.StoreBookAmountSlotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@RequiredArgsConstructor
+public class StoreStockSplitWriter {
+
+    private final StoreBookAmountSlotRepository storeBookAmountSlotRepository;
+
+    @Transactional
+    public boolean rebalanceSlots(Long storeId, Long bookId) {
+        return storeBookAmountSlotRepository.rebalanceSlots(storeId, bookId);
+    }
+}
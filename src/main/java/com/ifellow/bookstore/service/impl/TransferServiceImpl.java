@@ -1,12 +1,14 @@
 package com.ifellow.bookstore.service.impl;
 
 import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.enumeration.StockMovementType;
 import com.ifellow.bookstore.exception.NotEnoughStockException;
 import com.ifellow.bookstore.exception.StoreException;
 import com.ifellow.bookstore.exception.WarehouseException;
 import com.ifellow.bookstore.service.api.StoreService;
 import com.ifellow.bookstore.service.api.TransferService;
 import com.ifellow.bookstore.service.api.WarehouseService;
+import com.ifellow.bookstore.util.StockMovementContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,8 +25,10 @@ public class TransferServiceImpl implements TransferService {
     public void transferBookFromWarehouseToStore(Long warehouseId, Long storeId, BookBulkDto bookBulkDto)
             throws WarehouseException, StoreException, NotEnoughStockException {
 
-        warehouseService.removeBookFromWarehouse(warehouseId, bookBulkDto);
-        storeService.addBookToStore(storeId, bookBulkDto);
+        try (StockMovementContext _ = StockMovementContext.of(StockMovementType.TRANSFER)) {
+            warehouseService.removeBookFromWarehouse(warehouseId, bookBulkDto);
+            storeService.addBookToStore(storeId, bookBulkDto);
+        }
     }
 
     @Override
@@ -32,7 +36,9 @@ public class TransferServiceImpl implements TransferService {
     public void transferBookFromStoreToStore(Long storeIdFrom, Long storeIdTo, BookBulkDto bookBulkDto)
             throws WarehouseException, StoreException, NotEnoughStockException {
 
-        storeService.removeBookFromStore(storeIdFrom, bookBulkDto);
-        storeService.addBookToStore(storeIdTo, bookBulkDto);
+        try (StockMovementContext _ = StockMovementContext.of(StockMovementType.TRANSFER)) {
+            storeService.removeBookFromStore(storeIdFrom, bookBulkDto);
+            storeService.addBookToStore(storeIdTo, bookBulkDto);
+        }
     }
 }
@@ -1,9 +1,12 @@
 package com.ifellow.bookstore.service.impl;
 
+import com.ifellow.bookstore.dto.projection.StockLevel;
 import com.ifellow.bookstore.dto.request.BookBulkDto;
 import com.ifellow.bookstore.dto.request.WarehouseRequestDto;
+import com.ifellow.bookstore.dto.response.StockAsOfResponseDto;
 import com.ifellow.bookstore.dto.response.WarehouseBookResponseDto;
 import com.ifellow.bookstore.dto.response.WarehouseResponseDto;
+import com.ifellow.bookstore.enumeration.StockLocationType;
 import com.ifellow.bookstore.exception.BookException;
 import com.ifellow.bookstore.exception.NotEnoughStockException;
 import com.ifellow.bookstore.exception.WarehouseException;
@@ -12,18 +15,23 @@ import com.ifellow.bookstore.mapper.WarehouseMapper;
 import com.ifellow.bookstore.model.Book;
 import com.ifellow.bookstore.model.Warehouse;
 import com.ifellow.bookstore.model.WarehouseBookAmount;
+import com.ifellow.bookstore.repository.StockReservationRepository;
 import com.ifellow.bookstore.repository.WarehouseBookAmountRepository;
 import com.ifellow.bookstore.repository.WarehouseRepository;
 import com.ifellow.bookstore.service.api.BookService;
+import com.ifellow.bookstore.service.api.StockMovementService;
 import com.ifellow.bookstore.service.api.WarehouseService;
+import com.ifellow.bookstore.util.StockUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -34,6 +42,8 @@ public class WarehouseServiceImpl implements WarehouseService {
     private final WarehouseMapper warehouseMapper;
     private final BookService bookService;
     private final WarehouseBookAmountMapper warehouseBookAmountMapper;
+    private final StockMovementService stockMovementService;
+    private final StockReservationRepository stockReservationRepository;
     private final Integer EMPTY_STOCK = 0;
 
     @Override
@@ -75,23 +85,18 @@ public class WarehouseServiceImpl implements WarehouseService {
 
         if (quantity <= EMPTY_STOCK) throw new IllegalArgumentException("quantity must be greater than zero");
 
-        Warehouse warehouse = findWarehouseById(id);
-        Book book = bookService.findBookById(bookId);
+        if (warehouseBookAmountRepository.incrementAmount(id, bookId, quantity) == 0) {
+            Warehouse warehouse = findWarehouseById(id);
+            Book book = bookService.findBookById(bookId);
 
-        Optional<WarehouseBookAmount> optionalWba = warehouseBookAmountRepository.findByWarehouseIdAndBookId(id, bookId);
-        WarehouseBookAmount warehouseBookAmount;
-        if (optionalWba.isPresent()) {
-            warehouseBookAmount = optionalWba.get();
-            warehouseBookAmount.setAmount(warehouseBookAmount.getAmount() + quantity);
-        } else {
-            warehouseBookAmount = new WarehouseBookAmount();
+            WarehouseBookAmount warehouseBookAmount = new WarehouseBookAmount();
             warehouseBookAmount.setAmount(quantity);
             warehouseBookAmount.setBook(book);
             warehouseBookAmount.setWarehouse(warehouse);
-
+            warehouseBookAmountRepository.save(warehouseBookAmount);
         }
-        warehouseBookAmountRepository.save(warehouseBookAmount);
 
+        stockMovementService.recordAdded(StockLocationType.WAREHOUSE, id, Map.of(bookId, quantity));
     }
 
     @Override
@@ -102,22 +107,37 @@ public class WarehouseServiceImpl implements WarehouseService {
 
         if (quantity <= EMPTY_STOCK) throw new IllegalArgumentException("quantity must be greater than zero");
 
-        checkWarehouseExistence(id);
-        bookService.checkBookExistence(bookId);
+        checkUnreservedStock(id, Map.of(bookId, quantity));
+        if (warehouseBookAmountRepository.decrementAmount(id, bookId, quantity) == 0) {
+            throwRemovalFailure(id, bookId);
+        }
 
-        Optional<WarehouseBookAmount> optionalWba = warehouseBookAmountRepository.findByWarehouseIdAndBookId(id, bookId);
+        stockMovementService.recordRemoved(StockLocationType.WAREHOUSE, id, Map.of(bookId, quantity));
+    }
 
-        if (optionalWba.isPresent()) {
-            WarehouseBookAmount warehouseBookAmount = optionalWba.get();
+    private void checkUnreservedStock(Long id, Map<Long, Integer> quantitiesByBookId) throws NotEnoughStockException {
+        Map<Long, Integer> onHandByBookId = warehouseBookAmountRepository.findAllForUpdate(id, quantitiesByBookId.keySet()).stream()
+                .collect(Collectors.toMap(wba -> wba.getBook().getId(), WarehouseBookAmount::getAmount));
+        Map<Long, Integer> heldByBookId = stockReservationRepository
+                .sumActiveByWarehouseIdAndBookIds(id, quantitiesByBookId.keySet(), LocalDateTime.now()).stream()
+                .collect(Collectors.toMap(StockLevel::bookId, StockLevel::amount));
+
+        quantitiesByBookId.forEach((bookId, quantity) -> {
+            Integer onHand = onHandByBookId.get(bookId);
+            if (onHand != null && onHand - heldByBookId.getOrDefault(bookId, 0) < quantity)
+                throw new NotEnoughStockException("Not enough unreserved stock of book with id: " + bookId + " for removing it in warehouse with id:" + id);
+        });
+    }
 
-            if (warehouseBookAmount.getAmount() < quantity)
-                throw new NotEnoughStockException("Not enough stock of book with id: " + bookId + " for removing it in warehouse with id:" + id);
+    private void throwRemovalFailure(Long id, Long bookId)
+            throws WarehouseException, BookException, NotEnoughStockException {
+        checkWarehouseExistence(id);
+        bookService.checkBookExistence(bookId);
 
-            warehouseBookAmount.setAmount(warehouseBookAmount.getAmount() - quantity);
-            warehouseBookAmountRepository.save(warehouseBookAmount);
-        } else {
-            throw new BookException("Book not found with id: " + bookId + " in warehouse with id: " + id);
-        }
+        if (warehouseBookAmountRepository.existsByWarehouseIdAndBookId(id, bookId))
+            throw new NotEnoughStockException("Not enough stock of book with id: " + bookId + " for removing it in warehouse with id:" + id);
+
+        throw new BookException("Book not found with id: " + bookId + " in warehouse with id: " + id);
     }
 
     @Override
@@ -127,19 +147,41 @@ public class WarehouseServiceImpl implements WarehouseService {
                 .map(warehouseBookAmountMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<StockAsOfResponseDto> getWarehouseStockAsOf(Long id, LocalDateTime asOf) {
+        checkWarehouseExistence(id);
+        return stockMovementService.getStockAsOf(StockLocationType.WAREHOUSE, id, asOf);
+    }
+
     @Override
     @Transactional
     public void addBooksToWarehouse(Long id, List<BookBulkDto> bookBulkDtos) {
-        for (BookBulkDto bookBulkDto : bookBulkDtos) {
-            addBookToWarehouse(id, bookBulkDto);
-        }
+        Map<Long, Integer> quantitiesByBookId = StockUtils.mergeQuantities(bookBulkDtos);
+        if (quantitiesByBookId.isEmpty()) return;
+
+        checkWarehouseExistence(id);
+        bookService.checkBooksExistence(quantitiesByBookId.keySet());
+
+        warehouseBookAmountRepository.upsertAmounts(id, quantitiesByBookId);
+        stockMovementService.recordAdded(StockLocationType.WAREHOUSE, id, quantitiesByBookId);
     }
 
     @Override
     @Transactional
     public void removeBooksFromWarehouse(Long id, List<BookBulkDto> bookBulkDtos) {
-        for (BookBulkDto bookBulkDto : bookBulkDtos) {
-            removeBookFromWarehouse(id, bookBulkDto);
+        Map<Long, Integer> quantitiesByBookId = StockUtils.mergeQuantities(bookBulkDtos);
+        if (quantitiesByBookId.isEmpty()) return;
+
+        checkWarehouseExistence(id);
+        bookService.checkBooksExistence(quantitiesByBookId.keySet());
+
+        checkUnreservedStock(id, quantitiesByBookId);
+        List<Long> failedBookIds = warehouseBookAmountRepository.decrementAmounts(id, quantitiesByBookId);
+        if (!failedBookIds.isEmpty()) {
+            throwRemovalFailure(id, failedBookIds.getFirst());
         }
+
+        stockMovementService.recordRemoved(StockLocationType.WAREHOUSE, id, quantitiesByBookId);
     }
 }
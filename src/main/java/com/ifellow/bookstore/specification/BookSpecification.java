@@ -1,14 +1,24 @@
 package com.ifellow.bookstore.specification;
 
 import com.ifellow.bookstore.dto.filter.BookFilter;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
 import com.ifellow.bookstore.model.Book;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public class BookSpecification {
 
+    private static final Set<String> CURSOR_SORT_PROPERTIES = Set.of("id", "title", "price");
+    private static final int MIN_ID_RANGE_LENGTH = 3;
+
     public static Specification<Book> withFilter(BookFilter filter) {
         return Specification.where(byAuthorId(filter.getAuthorId()))
                 .and(byGenreId(filter.getGenreId()))
@@ -17,6 +27,44 @@ public class BookSpecification {
                 .and(byPriceBetween(filter.getMinPrice(), filter.getMaxPrice()));
     }
 
+    public static Specification<Book> withFilter(BookFilter filter, Collection<Long> bookIds, int idChunkSize) {
+        return Specification.where(byIds(bookIds, idChunkSize))
+                .and(byAuthorId(filter.getAuthorId()))
+                .and(byGenreId(filter.getGenreId()))
+                .and(byPriceBetween(filter.getMinPrice(), filter.getMaxPrice()));
+    }
+
+    public static Specification<Book> after(CursorPageRequest cursor) {
+        return KeysetSpecification.after(cursor, CURSOR_SORT_PROPERTIES);
+    }
+
+    private static Specification<Book> byIds(Collection<Long> bookIds, int idChunkSize) {
+        if (bookIds.isEmpty()) return (root, query, cb) -> cb.disjunction();
+
+        long[] ids = bookIds.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("id");
+            List<Predicate> predicates = new ArrayList<>();
+            List<Long> singleIds = new ArrayList<>();
+
+            int rangeStart = 0;
+            for (int i = 1; i <= ids.length; i++) {
+                if (i < ids.length && ids[i] == ids[i - 1] + 1) continue;
+
+                if (i - rangeStart >= MIN_ID_RANGE_LENGTH) {
+                    predicates.add(cb.between(id, ids[rangeStart], ids[i - 1]));
+                } else {
+                    for (int j = rangeStart; j < i; j++) singleIds.add(ids[j]);
+                }
+                rangeStart = i;
+            }
+            for (int from = 0; from < singleIds.size(); from += idChunkSize) {
+                predicates.add(id.in(singleIds.subList(from, Math.min(from + idChunkSize, singleIds.size()))));
+            }
+            return predicates.size() == 1 ? predicates.getFirst() : cb.or(predicates.toArray(Predicate[]::new));
+        };
+    }
+
     private static Specification<Book> byAuthorId(Long authorId) {
         if (authorId == null) return null;
         return (root, query, cb) -> cb.equal(root.get("author").get("id"), authorId);
@@ -0,0 +1,48 @@
+package com.ifellow.bookstore.specification;
+
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+public class KeysetSpecification {
+
+    public static <T> Specification<T> after(CursorPageRequest cursor, Set<String> sortableProperties) {
+        if (!sortableProperties.contains(cursor.property()))
+            throw new IllegalArgumentException("Cursor pagination is not supported for sort property: " + cursor.property());
+        if (cursor.isFirst()) return null;
+
+        boolean ascending = cursor.direction() == Sort.Direction.ASC;
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("id");
+            Predicate idBeyond = ascending ? cb.greaterThan(id, cursor.lastId()) : cb.lessThan(id, cursor.lastId());
+            if ("id".equals(cursor.property())) return idBeyond;
+
+            Path<Comparable<Object>> key = root.get(cursor.property());
+            Comparable<Object> value = parse(cursor.lastValue(), key.getJavaType());
+            Predicate keyReached = ascending ? cb.greaterThanOrEqualTo(key, value) : cb.lessThanOrEqualTo(key, value);
+            Predicate keyBeyond = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+            return cb.and(keyReached, cb.or(keyBeyond, idBeyond));
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> parse(String value, Class<?> type) {
+        try {
+            Object parsed;
+            if (type == String.class) parsed = value;
+            else if (type == BigDecimal.class) parsed = new BigDecimal(value);
+            else if (type == LocalDateTime.class) parsed = LocalDateTime.parse(value);
+            else if (type == Long.class) parsed = Long.valueOf(value);
+            else throw new IllegalArgumentException("Unsupported cursor sort key type: " + type.getSimpleName());
+            return (Comparable<Object>) parsed;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
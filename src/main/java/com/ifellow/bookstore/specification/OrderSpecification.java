@@ -1,20 +1,28 @@
 package com.ifellow.bookstore.specification;
 
 import com.ifellow.bookstore.dto.filter.OrderFilter;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
 import com.ifellow.bookstore.enumeration.OrderStatus;
 import com.ifellow.bookstore.model.Order;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 public class OrderSpecification {
 
+    private static final Set<String> CURSOR_SORT_PROPERTIES = Set.of("id", "orderDateTime");
+
     public static Specification<Order> withFilter(OrderFilter filter) {
         return Specification.where(byDateTimeBetween(filter.getBeginTime(), filter.getEndTime()))
                 .and(byStatus(filter.getStatus()))
                 .and(byWarehouseId(filter.getWarehouseId()));
     }
 
+    public static Specification<Order> after(CursorPageRequest cursor) {
+        return KeysetSpecification.after(cursor, CURSOR_SORT_PROPERTIES);
+    }
+
     private static Specification<Order> byDateTimeBetween(LocalDateTime beginTime, LocalDateTime endTime) {
         if (beginTime == null && endTime == null) return null;
         return (root, query, cb) -> {
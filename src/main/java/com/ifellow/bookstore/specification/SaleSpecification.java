@@ -1,18 +1,26 @@
 package com.ifellow.bookstore.specification;
 
 import com.ifellow.bookstore.dto.filter.SaleFilter;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
 import com.ifellow.bookstore.model.Sale;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 public class SaleSpecification {
 
+    private static final Set<String> CURSOR_SORT_PROPERTIES = Set.of("id", "saleDateTime");
+
     public static Specification<Sale> withFilter(SaleFilter filter) {
         return Specification.where(byDateTimeBetween(filter.getStartTime(), filter.getEndTime()))
                 .and(byStoreId(filter.getStoreId()));
     }
 
+    public static Specification<Sale> after(CursorPageRequest cursor) {
+        return KeysetSpecification.after(cursor, CURSOR_SORT_PROPERTIES);
+    }
+
     private static Specification<Sale> byDateTimeBetween(LocalDateTime start, LocalDateTime end) {
         if (start == null && end == null) return null;
         return (root, query, cb) -> {
@@ -0,0 +1,48 @@
+package com.ifellow.bookstore.util;
+
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorUtils {
+
+    private static final String SEPARATOR = "\n";
+
+    public static <T, R> CursorPageResponseDto<R> toPage(List<T> rows, CursorPageRequest request, Function<T, R> mapper) {
+        boolean hasNext = rows.size() > request.size();
+        List<T> content = hasNext ? rows.subList(0, request.size()) : rows;
+
+        String nextCursor = hasNext ? encode(request, content.getLast()) : null;
+        return new CursorPageResponseDto<>(content.stream().map(mapper).toList(), request.size(), nextCursor);
+    }
+
+    public static String encode(CursorPageRequest request, Object lastRow) {
+        BeanWrapper row = PropertyAccessorFactory.forBeanPropertyAccess(lastRow);
+        Object lastValue = row.getPropertyValue(request.property());
+        Object lastId = row.getPropertyValue("id");
+        if (lastValue == null || lastId == null)
+            throw new IllegalStateException("Cursor sort key must not be null: " + request.property());
+
+        String token = String.join(SEPARATOR, request.property(), request.direction().name(), lastId.toString(), lastValue.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorPageRequest decode(String cursor, int size) {
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = token.split(SEPARATOR, 4);
+            if (parts.length != 4) throw new IllegalArgumentException("Invalid cursor");
+
+            return new CursorPageRequest(size, parts[0], Sort.Direction.valueOf(parts[1]), parts[3], Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.ifellow.bookstore.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class NGramIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final char PADDING = '\u0000';
+
+    private static final class Postings {
+        private byte[] data = new byte[4];
+        private int length;
+        private int count;
+        private int lastDocument = -1;
+
+        void add(int document) {
+            if (document == lastDocument) return;
+
+            int delta = document - lastDocument;
+            if (length + 5 > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            lastDocument = document;
+            count++;
+        }
+
+        int[] decode() {
+            int[] documents = new int[count];
+            Cursor cursor = new Cursor(this);
+            for (int i = 0; i < count; i++) {
+                documents[i] = cursor.next();
+            }
+            return documents;
+        }
+    }
+
+    private static final class Cursor {
+        private final Postings postings;
+        private int position;
+        private int remaining;
+        private int document = -1;
+
+        Cursor(Postings postings) {
+            this.postings = postings;
+            this.remaining = postings.count;
+        }
+
+        int next() {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = postings.data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            remaining--;
+            return document += delta;
+        }
+
+        boolean advanceTo(int target) {
+            while (document < target) {
+                if (remaining == 0) return false;
+                next();
+            }
+            return document == target;
+        }
+    }
+
+    private final NavigableMap<Long, Postings> postingsByGram = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[16];
+    private String[] texts = new String[16];
+    private int size;
+
+    public void add(long id, String text) {
+        String normalized = normalize(text);
+
+        lock.writeLock().lock();
+        try {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                texts = Arrays.copyOf(texts, size * 2);
+            }
+            int document = size++;
+            ids[document] = id;
+            texts[document] = normalized;
+
+            String padded = normalized + String.valueOf(PADDING).repeat(GRAM_LENGTH - 1);
+            for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++) {
+                postingsByGram.computeIfAbsent(encode(padded, i), _ -> new Postings()).add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long[] search(String query) {
+        String normalized = normalize(query);
+        if (normalized.length() < GRAM_LENGTH)
+            throw new IllegalArgumentException("Search query must be at least " + GRAM_LENGTH + " characters long");
+
+        lock.readLock().lock();
+        try {
+            BitSet documents = searchGrams(normalized);
+            return documents.stream().mapToLong(document -> ids[document]).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean supports(String query) {
+        return normalize(query).length() >= GRAM_LENGTH;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet searchGrams(String query) {
+        Postings[] postings = new Postings[query.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = postingsByGram.get(encode(query, i));
+            if (postings[i] == null) return new BitSet();
+        }
+        Arrays.sort(postings, Comparator.comparingInt(p -> p.count));
+
+        int[] candidates = postings[0].decode();
+        int candidateCount = candidates.length;
+        for (int i = 1; i < postings.length && candidateCount > 0; i++) {
+            candidateCount = retainAll(candidates, candidateCount, new Cursor(postings[i]));
+        }
+
+        BitSet documents = new BitSet(size);
+        for (int i = 0; i < candidateCount; i++) {
+            if (texts[candidates[i]].contains(query)) documents.set(candidates[i]);
+        }
+        return documents;
+    }
+
+    private static int retainAll(int[] candidates, int candidateCount, Cursor cursor) {
+        int retained = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            if (cursor.advanceTo(candidates[i])) candidates[retained++] = candidates[i];
+        }
+        return retained;
+    }
+
+    private static long encode(String text, int offset) {
+        long gram = 0;
+        for (int i = 0; i < GRAM_LENGTH; i++) {
+            gram = (gram << Character.SIZE) | text.charAt(offset + i);
+        }
+        return gram;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
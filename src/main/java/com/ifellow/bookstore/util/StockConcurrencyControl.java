@@ -0,0 +1,72 @@
+package com.ifellow.bookstore.util;
+
+import com.ifellow.bookstore.dto.response.StockLockingMetricsResponseDto;
+import com.ifellow.bookstore.enumeration.StockLockingMode;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class StockConcurrencyControl {
+
+    private static final int MAX_BACKOFF_SHIFT = 6;
+
+    @Getter
+    @Setter
+    @Value("${stock.locking.mode}")
+    private StockLockingMode mode;
+
+    @Getter
+    @Value("${stock.locking.optimistic.max.attempts}")
+    private int maxAttempts;
+
+    @Value("${stock.locking.optimistic.backoff.ms}")
+    private long backoffMillis;
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder lockWaits = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+
+    public void recordConflict() {
+        conflicts.increment();
+    }
+
+    public void recordLockWait(long nanos) {
+        lockWaits.increment();
+        lockWaitNanos.add(nanos);
+    }
+
+    public void backoff(int attempt) {
+        retries.increment();
+
+        long bound = backoffMillis << Math.min(attempt - 1, MAX_BACKOFF_SHIFT);
+        if (bound <= 0) return;
+
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public StockLockingMetricsResponseDto getMetrics() {
+        return new StockLockingMetricsResponseDto(mode,
+                retries.sum(),
+                conflicts.sum(),
+                lockWaits.sum(),
+                TimeUnit.NANOSECONDS.toMillis(lockWaitNanos.sum()));
+    }
+
+    public void resetMetrics() {
+        retries.reset();
+        conflicts.reset();
+        lockWaits.reset();
+        lockWaitNanos.reset();
+    }
+}
@@ -0,0 +1,153 @@
+package com.ifellow.bookstore.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+public class StockLedgerJournal implements Closeable {
+
+    public record Entry(long sequence, long transactionId, long locationId, long bookId, int delta) {
+    }
+
+    private record JournalRecord(byte type, Entry entry) {
+    }
+
+    private static final byte DELTA = 'D';
+    private static final byte COMMIT = 'C';
+    private static final int ENTRY_SIZE = Byte.BYTES + Long.BYTES * 4 + Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean fsync;
+
+    private FileChannel currentChannel;
+    private Path currentSegment;
+    private long lastSequence;
+
+    public StockLedgerJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    public List<Entry> open(long checkpointSequence) throws IOException {
+        Files.createDirectories(directory);
+
+        List<Entry> entries = new ArrayList<>();
+        Map<Long, List<Entry>> uncommitted = new HashMap<>();
+        lastSequence = checkpointSequence;
+        for (Path segment : listSegments()) {
+            for (JournalRecord record : readSegment(segment)) {
+                Entry entry = record.entry();
+                lastSequence = Math.max(lastSequence, entry.sequence());
+                if (record.type() == DELTA) {
+                    uncommitted.computeIfAbsent(entry.transactionId(), _ -> new ArrayList<>()).add(entry);
+                    continue;
+                }
+
+                uncommitted.getOrDefault(entry.transactionId(), List.of()).stream()
+                        .filter(committed -> committed.sequence() > checkpointSequence)
+                        .forEach(entries::add);
+                uncommitted.remove(entry.transactionId());
+            }
+        }
+
+        openNewSegment();
+        return entries;
+    }
+
+    public void discard() throws IOException {
+        Files.createDirectories(directory);
+        for (Path segment : listSegments()) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    public synchronized List<Entry> append(long[] locationIds, long[] bookIds, int[] deltas) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE * (deltas.length + 1));
+        List<Entry> entries = new ArrayList<>(deltas.length);
+        long transactionId = lastSequence + 1;
+
+        for (int i = 0; i < deltas.length; i++) {
+            Entry entry = new Entry(++lastSequence, transactionId, locationIds[i], bookIds[i], deltas[i]);
+            put(buffer, DELTA, entry);
+            entries.add(entry);
+        }
+        put(buffer, COMMIT, new Entry(++lastSequence, transactionId, 0L, 0L, 0));
+
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            currentChannel.write(buffer);
+        }
+        if (fsync) currentChannel.force(false);
+
+        return entries;
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized List<Path> rotate() throws IOException {
+        List<Path> sealed = listSegments();
+        currentChannel.close();
+        openNewSegment();
+        return sealed;
+    }
+
+    public void delete(List<Path> segments) throws IOException {
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (currentChannel != null) currentChannel.close();
+    }
+
+    private void put(ByteBuffer buffer, byte type, Entry entry) {
+        buffer.put(type)
+                .putLong(entry.sequence())
+                .putLong(entry.transactionId())
+                .putLong(entry.locationId())
+                .putLong(entry.bookId())
+                .putInt(entry.delta());
+    }
+
+    private void openNewSegment() throws IOException {
+        currentSegment = directory.resolve(SEGMENT_PREFIX + String.format("%020d", lastSequence + 1) + SEGMENT_SUFFIX);
+        currentChannel = FileChannel.open(currentSegment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> !path.equals(currentSegment))
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .toList();
+        }
+    }
+
+    private List<JournalRecord> readSegment(Path segment) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            while (true) {
+                try {
+                    records.add(new JournalRecord(in.readByte(),
+                            new Entry(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readInt())));
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ifellow.bookstore.util;
+
+import com.ifellow.bookstore.enumeration.StockMovementType;
+
+public final class StockMovementContext implements AutoCloseable {
+
+    private static final ThreadLocal<StockMovementType> CURRENT = new ThreadLocal<>();
+
+    private final StockMovementType previous;
+
+    private StockMovementContext(StockMovementType movementType) {
+        this.previous = CURRENT.get();
+        CURRENT.set(movementType);
+    }
+
+    public static StockMovementContext of(StockMovementType movementType) {
+        return new StockMovementContext(movementType);
+    }
+
+    public static StockMovementType resolve(int delta) {
+        StockMovementType current = CURRENT.get();
+        if (current != null) return current;
+
+        return delta >= 0 ? StockMovementType.ADD : StockMovementType.REMOVE;
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) CURRENT.remove();
+        else CURRENT.set(previous);
+    }
+}
@@ -0,0 +1,42 @@
+package com.ifellow.bookstore.util;
+
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+public class StockUtils {
+
+    public static Map<Long, Integer> mergeQuantities(Collection<BookBulkDto> bookBulkDtos) {
+        return mergeQuantities(bookBulkDtos, BookBulkDto::bookId, BookBulkDto::quantity);
+    }
+
+    public static <T> Map<Long, Integer> mergeQuantities(Collection<T> items,
+                                                         Function<T, Long> bookIdExtractor,
+                                                         ToIntFunction<T> quantityExtractor) {
+        Map<Long, Integer> quantitiesByBookId = new TreeMap<>();
+
+        for (T item : items) {
+            Long bookId = bookIdExtractor.apply(item);
+            int quantity = quantityExtractor.applyAsInt(item);
+
+            if (bookId == null) throw new IllegalArgumentException("bookId must not be null");
+            if (quantity <= 0) throw new IllegalArgumentException("quantity must be greater than zero");
+
+            quantitiesByBookId.merge(bookId, quantity, StockUtils::addQuantities);
+        }
+
+        return quantitiesByBookId;
+    }
+
+    public static int addQuantities(int quantity, int otherQuantity) {
+        try {
+            return Math.addExact(quantity, otherQuantity);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Total quantity of a book must not exceed " + Integer.MAX_VALUE);
+        }
+    }
+}
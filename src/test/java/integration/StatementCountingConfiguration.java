@@ -0,0 +1,60 @@
+package integration;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@TestConfiguration
+public class StatementCountingConfiguration {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    private static volatile Thread countingThread;
+
+    public static void start() {
+        STATEMENTS.clear();
+        countingThread = Thread.currentThread();
+    }
+
+    public static void stop() {
+        countingThread = null;
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+
+    @Bean
+    static BeanPostProcessor statementCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+            }
+        };
+    }
+
+    private static <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (_, method, args) -> {
+            if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String sql
+                    && Thread.currentThread() == countingThread) {
+                STATEMENTS.add(sql);
+            }
+
+            try {
+                Object result = method.invoke(target, args);
+                return result instanceof Connection connection && type == DataSource.class
+                        ? proxy(Connection.class, connection)
+                        : result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+}
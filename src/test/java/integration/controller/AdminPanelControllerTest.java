@@ -164,4 +164,32 @@ public class AdminPanelControllerTest {
                         .header("Authorization", "Bearer " + adminToken))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Метрики блокировок остатков доступны пользователю с ролью ADMIN")
+    public void getStockLockingMetrics_AdminRole_ReturnsMetrics() throws Exception {
+        mockMvc.perform(get("/api/adminpanel/stock/locking-metrics")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("ATOMIC"))
+                .andExpect(jsonPath("$.retries").isNumber());
+    }
+
+    @Test
+    @DisplayName("Метрики блокировок остатков недоступны пользователю с ролью CLIENT")
+    public void getStockLockingMetrics_ClientRole_Forbidden() throws Exception {
+        mockMvc.perform(get("/api/adminpanel/stock/locking-metrics")
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Метрики кеша книг доступны пользователю с ролью ADMIN")
+    public void getBookCacheMetrics_AdminRole_ReturnsMetrics() throws Exception {
+        mockMvc.perform(get("/api/adminpanel/books/cache-metrics")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").isNumber())
+                .andExpect(jsonPath("$.capacity").value(10000));
+    }
+}
@@ -2,13 +2,12 @@ package integration.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
 import com.ifellow.bookstore.dto.request.BookRequestDto;
-import com.ifellow.bookstore.model.Author;
-import com.ifellow.bookstore.model.Book;
-import com.ifellow.bookstore.model.Genre;
-import com.ifellow.bookstore.repository.AuthorRepository;
-import com.ifellow.bookstore.repository.BookRepository;
-import com.ifellow.bookstore.repository.GenreRepository;
+import com.ifellow.bookstore.model.*;
+import com.ifellow.bookstore.repository.*;
+import com.ifellow.bookstore.service.api.StoreService;
+import com.ifellow.bookstore.service.api.WarehouseService;
 import com.ifellow.bookstore.util.JwtUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +38,18 @@ public class BookControllerTest {
     private BookRepository bookRepository;
     @Autowired
     private JwtUtils jwtUtils;
+    @Autowired
+    private WarehouseService warehouseService;
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private WarehouseBookAmountRepository warehouseBookAmountRepository;
+    @Autowired
+    private StoreBookAmountRepository storeBookAmountRepository;
 
     private String managerToken;
     private String clientToken;
@@ -51,6 +62,10 @@ public class BookControllerTest {
 
     @AfterEach
     public void tearDown() {
+        warehouseBookAmountRepository.deleteAll();
+        storeBookAmountRepository.deleteAll();
+        warehouseRepository.deleteAll();
+        storeRepository.deleteAll();
         bookRepository.deleteAll();
         authorRepository.deleteAll();
         genreRepository.deleteAll();
@@ -150,4 +165,163 @@ public class BookControllerTest {
                 .andExpect(jsonPath("$.booksByGenre['Роман'][1].title").value("Война и мир"))
                 .andExpect(jsonPath("$.booksByGenre['Повесть'][0].title").value("Преступление и наказание"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Группировка по жанру листает жанры и отдаёт ограниченное число книг каждого жанра")
+    public void findAll_WithGroupByGenre_PagesGenresAndLimitsBooksPerGenre() throws Exception {
+        Author author = authorRepository.save(Author.builder().fullName("Михаил Булгаков").build());
+        Genre novel = genreRepository.save(Genre.builder().name("Роман").build());
+        Genre story = genreRepository.save(Genre.builder().name("Повесть").build());
+        bookRepository.save(Book.builder().title("Мастер и Маргарита").author(author).genre(novel).price(BigDecimal.valueOf(40)).build());
+        bookRepository.save(Book.builder().title("Белая гвардия").author(author).genre(novel).price(BigDecimal.valueOf(20)).build());
+        bookRepository.save(Book.builder().title("Театральный роман").author(author).genre(novel).price(BigDecimal.valueOf(30)).build());
+        bookRepository.save(Book.builder().title("Собачье сердце").author(author).genre(story).price(BigDecimal.valueOf(10)).build());
+
+        mockMvc.perform(get("/api/books?groupByGenre=true&booksPerGenre=2&size=1&sort=price,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booksByGenre.length()").value(1))
+                .andExpect(jsonPath("$.booksByGenre['Повесть'][0].title").value("Собачье сердце"))
+                .andExpect(jsonPath("$.hasMoreBooksByGenre['Повесть']").value(false))
+                .andExpect(jsonPath("$.totalPages").value(2))
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        mockMvc.perform(get("/api/books?groupByGenre=true&booksPerGenre=2&size=1&page=1&sort=price,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booksByGenre['Роман'].length()").value(2))
+                .andExpect(jsonPath("$.booksByGenre['Роман'][0].title").value("Мастер и Маргарита"))
+                .andExpect(jsonPath("$.booksByGenre['Роман'][1].title").value("Театральный роман"))
+                .andExpect(jsonPath("$.hasMoreBooksByGenre['Роман']").value(true))
+                .andExpect(jsonPath("$.currentPage").value(1));
+    }
+
+    @Test
+    @DisplayName("Поиск по подстроке названия и автора находит только что созданные книги")
+    public void findAll_WithTitleAndAuthorSubstring_ReturnsCreatedBooks() throws Exception {
+        Author author1 = authorRepository.save(Author.builder().fullName("Михаил Булгаков").build());
+        Author author2 = authorRepository.save(Author.builder().fullName("Федор Достоевский").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        for (BookRequestDto bookRequestDto : new BookRequestDto[]{
+                new BookRequestDto("Мастер и Маргарита", author1.getId(), genre.getId(), BigDecimal.valueOf(10.0)),
+                new BookRequestDto("Собачье сердце", author1.getId(), genre.getId(), BigDecimal.valueOf(15.0)),
+                new BookRequestDto("Бедные люди", author2.getId(), genre.getId(), BigDecimal.valueOf(20.0))}) {
+            mockMvc.perform(post("/api/books")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(bookRequestDto))
+                            .header("Authorization", "Bearer " + managerToken))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/api/books?title=МАРГАР"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Мастер и Маргарита"));
+
+        mockMvc.perform(get("/api/books?title=е&authorFullName=булгак&maxPrice=12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Мастер и Маргарита"));
+    }
+
+    @Test
+    @DisplayName("Постраничный обход по курсору проходит все книги без пропусков и повторов при равных ключах")
+    public void findAllByCursor_SortByPriceDesc_WalksAllBooks() throws Exception {
+        Author author = authorRepository.save(Author.builder().fullName("Михаил Булгаков").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        Book cheap1 = bookRepository.save(Book.builder().title("Морфий").author(author).genre(genre).price(BigDecimal.valueOf(10)).build());
+        bookRepository.save(Book.builder().title("Бег").author(author).genre(genre).price(BigDecimal.valueOf(30)).build());
+        Book cheap2 = bookRepository.save(Book.builder().title("Роковые яйца").author(author).genre(genre).price(BigDecimal.valueOf(10)).build());
+        bookRepository.save(Book.builder().title("Белая гвардия").author(author).genre(genre).price(BigDecimal.valueOf(20)).build());
+        bookRepository.save(Book.builder().title("Мастер и Маргарита").author(author).genre(genre).price(BigDecimal.valueOf(40)).build());
+
+        String firstPage = mockMvc.perform(get("/api/books?cursor=&size=2&sort=price,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Мастер и Маргарита"))
+                .andExpect(jsonPath("$.content[1].title").value("Бег"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        String secondPage = mockMvc.perform(get("/api/books")
+                        .param("cursor", objectMapper.readTree(firstPage).get("nextCursor").asText())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Белая гвардия"))
+                .andExpect(jsonPath("$.content[1].id").value(cheap2.getId()))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/books")
+                        .param("cursor", objectMapper.readTree(secondPage).get("nextCursor").asText())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(cheap1.getId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Повреждённый курсор и неподдерживаемая сортировка отклоняются")
+    public void findAllByCursor_InvalidCursorOrSort_BadRequest() throws Exception {
+        mockMvc.perform(get("/api/books?cursor=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/books?cursor=&sort=genre"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Срез страницы сообщает о следующей странице без общего числа книг")
+    public void findSlice_FullPage_ReturnsHasNextWithoutTotals() throws Exception {
+        Author author = authorRepository.save(Author.builder().fullName("Михаил Булгаков").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        bookRepository.save(Book.builder().title("Морфий").author(author).genre(genre).price(BigDecimal.valueOf(10)).build());
+        bookRepository.save(Book.builder().title("Бег").author(author).genre(genre).price(BigDecimal.valueOf(30)).build());
+        bookRepository.save(Book.builder().title("Белая гвардия").author(author).genre(genre).price(BigDecimal.valueOf(20)).build());
+
+        mockMvc.perform(get("/api/books?slice=true&size=2&sort=price,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Морфий"))
+                .andExpect(jsonPath("$.content[1].title").value("Белая гвардия"))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        mockMvc.perform(get("/api/books?slice=true&size=2&page=1&sort=price,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Бег"))
+                .andExpect(jsonPath("$.last").value(true));
+    }
+
+    @Test
+    @DisplayName("Показывает склады и магазины, где есть книга, и убирает место после полного списания")
+    public void getAvailability_StockedLocations_ReturnsLocations() throws Exception {
+        Author author = authorRepository.save(Author.builder().fullName("Михаил Булгаков").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Мастер и Маргарита")
+                .author(author)
+                .genre(genre)
+                .price(BigDecimal.valueOf(10.0))
+                .build());
+        Warehouse warehouse = warehouseRepository.save(Warehouse.builder().address("Склад, Садовая 302").build());
+        Store store = storeRepository.save(Store.builder().address("Магазин, Патриаршие 1").build());
+
+        warehouseService.addBookToWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 10));
+        storeService.addBookToStore(store.getId(), new BookBulkDto(book.getId(), 3));
+
+        mockMvc.perform(get("/api/books/" + book.getId() + "/availability"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].locationType").value("WAREHOUSE"))
+                .andExpect(jsonPath("$[0].locationId").value(warehouse.getId()))
+                .andExpect(jsonPath("$[0].quantity").value(10))
+                .andExpect(jsonPath("$[1].locationType").value("STORE"))
+                .andExpect(jsonPath("$[1].locationId").value(store.getId()))
+                .andExpect(jsonPath("$[1].quantity").value(3));
+
+        storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), 3));
+
+        mockMvc.perform(get("/api/books/" + book.getId() + "/availability"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].locationType").value("WAREHOUSE"));
+    }
+}
@@ -0,0 +1,491 @@
+package integration.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.dto.request.BookOrderDto;
+import com.ifellow.bookstore.dto.request.BookRequestDto;
+import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.dto.request.OrderBulkRequestDto;
+import com.ifellow.bookstore.dto.request.SaleUploadLineDto;
+import com.ifellow.bookstore.dto.request.StockThresholdRequestDto;
+import com.ifellow.bookstore.dto.request.TransferRequestDto;
+import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.model.*;
+import com.ifellow.bookstore.repository.*;
+import com.ifellow.bookstore.service.api.*;
+import com.ifellow.bookstore.util.JwtUtils;
+import integration.StatementCountingConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureMockMvc
+@SpringBootTest(classes = {RootConfiguration.class, StatementCountingConfiguration.class})
+public class EndpointQueryCountTest {
+
+    private static final int LARGE_WORLD = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtUtils jwtUtils;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private WarehouseService warehouseService;
+    @Autowired
+    private StockAlertService stockAlertService;
+    @Autowired
+    private StoreStockSplitService storeStockSplitService;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    @Autowired
+    private StoreBookAmountRepository storeBookAmountRepository;
+    @Autowired
+    private StoreBookAmountSlotRepository storeBookAmountSlotRepository;
+    @Autowired
+    private WarehouseBookAmountRepository warehouseBookAmountRepository;
+    @Autowired
+    private StoreStockThresholdRepository storeStockThresholdRepository;
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+    @Autowired
+    private SaleRepository saleRepository;
+
+    private World small;
+    private World large;
+
+    @BeforeEach
+    public void setUp() {
+        small = seed("manager", "Малый", 1);
+        large = seed("admin", "Большой", LARGE_WORLD);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        setSplitEnabled(false);
+        storeBookAmountSlotRepository.deleteAll();
+        stockSnapshotRepository.deleteAll();
+        stockMovementRepository.deleteAll();
+        stockReservationRepository.deleteAll();
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        saleItemRepository.deleteAll();
+        saleRepository.deleteAll();
+        storeStockThresholdRepository.deleteAll();
+        storeBookAmountRepository.deleteAll();
+        warehouseBookAmountRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+        storeRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/books/{book}",
+            "/api/books?title={title}&size=20",
+            "/api/books?title={title}&groupByGenre=true&size=20",
+            "/api/books/{book}/availability",
+            "/api/authors/{author}",
+            "/api/genres/{genre}",
+            "/api/stores/{store}",
+            "/api/stores/{store}/stock?size=20",
+            "/api/stores/{store}/stock/history?asOf=2100-01-01T00:00:00",
+            "/api/stores/{store}/stock/alerts",
+            "/api/warehouses/{warehouse}",
+            "/api/warehouses/{warehouse}/stock?size=20",
+            "/api/warehouses/{warehouse}/stock/history?asOf=2100-01-01T00:00:00",
+            "/api/orders/{order}",
+            "/api/orders/{order}/items",
+            "/api/orders?warehouseId={warehouse}&size=20",
+            "/api/sales/{sale}",
+            "/api/sales/{sale}/items",
+            "/api/sales?storeId={store}&size=20",
+            "/api/profile",
+            "/api/profile/my-orders?size=20",
+            "/api/profile/my-sales?size=20"
+    })
+    @DisplayName("Число запросов при чтении не зависит от объёма данных")
+    public void get_LargeWorld_ConstantQueryCount(String template) throws Exception {
+        List<String> single = perform(get(small.resolve(template)).header("Authorization", small.token()));
+        List<String> many = perform(get(large.resolve(template)).header("Authorization", large.token()));
+
+        assertEquals(single.size(), many.size(), () -> template + "\n" + String.join("\n", many));
+    }
+
+    @Test
+    @DisplayName("Число запросов при массовом пополнении и списании магазина не зависит от числа книг")
+    public void storeBulkStock_LargeWorld_ConstantQueryCount() throws Exception {
+        assertSameWriteCount("/api/stores/{store}/stock/bulk-add");
+        assertSameWriteCount("/api/stores/{store}/stock/bulk-remove");
+    }
+
+    @Test
+    @DisplayName("Число запросов при массовом пополнении и списании склада не зависит от числа книг")
+    public void warehouseBulkStock_LargeWorld_ConstantQueryCount() throws Exception {
+        assertSameWriteCount("/api/warehouses/{warehouse}/stock/bulk-add");
+        assertSameWriteCount("/api/warehouses/{warehouse}/stock/bulk-remove");
+    }
+
+    @Test
+    @DisplayName("Число запросов при массовом завершении заказов не зависит от их числа")
+    public void completeAll_LargeWorld_ConstantQueryCount() throws Exception {
+        assertSameBulkOrderCount("/api/orders/complete");
+    }
+
+    @Test
+    @DisplayName("Число запросов при массовой отмене заказов не зависит от их числа")
+    public void cancelAll_LargeWorld_ConstantQueryCount() throws Exception {
+        assertSameBulkOrderCount("/api/orders/cancel");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/stores/{store}/stock/add",
+            "/api/stores/{store}/stock/remove",
+            "/api/warehouses/{warehouse}/stock/add",
+            "/api/warehouses/{warehouse}/stock/remove"
+    })
+    @DisplayName("Число запросов при пополнении и списании одной книги не зависит от объёма данных")
+    public void singleStock_LargeWorld_ConstantQueryCount(String template) throws Exception {
+        assertSameWriteCount(template, world -> post(world.resolve(template))
+                .header("Authorization", token("manager"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(world.stock(1).getFirst())));
+    }
+
+    @Test
+    @DisplayName("Число запросов при перемещении книги не зависит от объёма данных")
+    public void transfer_LargeWorld_ConstantQueryCount() throws Exception {
+        assertSameWriteCount("/api/transfer/from-warehouse-to-store", world -> post("/api/transfer/from-warehouse-to-store")
+                .header("Authorization", token("manager"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new TransferRequestDto(world.warehouseId(), world.storeId(), world.stock(1).getFirst()))));
+        assertSameWriteCount("/api/transfer/from-store-to-store", world -> post("/api/transfer/from-store-to-store")
+                .header("Authorization", token("manager"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new TransferRequestDto(world.storeId(), world.storeId(), world.stock(1).getFirst()))));
+    }
+
+    @Test
+    @DisplayName("Число запросов при установке порогов остатка не зависит от объёма данных")
+    public void setThreshold_LargeWorld_ConstantQueryCount() throws Exception {
+        String template = "/api/stores/{store}/stock/thresholds";
+
+        assertSameWriteCount(template, world -> post(world.resolve(template))
+                .header("Authorization", token("manager"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new StockThresholdRequestDto(world.books().getFirst().id(), 5))));
+        assertSameWriteCount(template, world -> post(world.resolve(template))
+                .header("Authorization", token("manager"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new StockThresholdRequestDto(null, 5))));
+    }
+
+    @Test
+    @DisplayName("Число запросов при разделении и объединении остатка книги не зависит от объёма данных")
+    public void splitAndMerge_LargeWorld_ConstantQueryCount() throws Exception {
+        setSplitEnabled(true);
+        String template = "/api/adminpanel/stock/stores/{store}/books/{book}/split";
+
+        assertSameWriteCount(template, world -> post(world.resolve(template) + "?slots=4")
+                .header("Authorization", token("admin")));
+        assertSameWriteCount(template, world -> delete(world.resolve(template))
+                .header("Authorization", token("admin")));
+    }
+
+    @Test
+    @DisplayName("Число запросов при завершении одного заказа не зависит от объёма данных")
+    public void completeById_LargeWorld_ConstantQueryCount() throws Exception {
+        String template = "/api/orders/{order}/complete";
+
+        assertSameWriteCount(template, world -> post(world.resolve(template)).header("Authorization", token("manager")));
+    }
+
+    @Test
+    @DisplayName("Число запросов при отмене одного заказа не зависит от объёма данных")
+    public void cancelById_LargeWorld_ConstantQueryCount() throws Exception {
+        String template = "/api/orders/{order}/cancel";
+
+        assertSameWriteCount(template, world -> post(world.resolve(template)).header("Authorization", token("manager")));
+    }
+
+    @Test
+    @DisplayName("Число запросов при продаже и выгрузке продаж не зависит от числа книг")
+    public void sales_LargeWorld_ConstantQueryCount() throws Exception {
+        assertSameWriteCount("/api/stores/{store}/sales", world -> post(world.resolve("/api/stores/{store}/sales"))
+                .header("Authorization", token("client"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(world.sale())));
+        assertSameWriteCount("/api/stores/{store}/sales/upload", world -> post(world.resolve("/api/stores/{store}/sales/upload"))
+                .header("Authorization", token("client"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT)
+                        .writeValueAsString(new SaleUploadLineDto("r-1", world.sale())) + "\n"));
+    }
+
+    @Test
+    @DisplayName("Число запросов при приёме заказа в очередь не зависит от числа книг")
+    public void submitOrder_LargeWorld_ConstantQueryCount() throws Exception {
+        String template = "/api/warehouses/{warehouse}/orders/async";
+        long orders = orderRepository.count();
+
+        List<String> single = perform(post(small.resolve(template))
+                .header("Authorization", token("client"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(small.order())), status().isAccepted());
+        awaitOrderCount(orders + 1);
+        List<String> many = perform(post(large.resolve(template))
+                .header("Authorization", token("client"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(large.order())), status().isAccepted());
+        awaitOrderCount(orders + 2);
+
+        assertEquals(single.size(), many.size(), () -> template + "\n" + String.join("\n", many));
+    }
+
+    @Test
+    @DisplayName("Срез страницы заказов не подсчитывает общее число заказов")
+    public void ordersSlice_FullPage_SkipsCount() throws Exception {
+        List<String> statements = perform(get(large.resolve("/api/orders?warehouseId={warehouse}&size=2&slice=true"))
+                .header("Authorization", large.token()));
+
+        assertEquals(0, countQueries(statements), () -> String.join("\n", statements));
+    }
+
+    @Test
+    @DisplayName("Переход по страницам заказов с тем же фильтром подсчитывает общее число один раз до изменения заказов")
+    public void ordersPage_SameFilter_CountsOnceUntilOrdersChange() throws Exception {
+        String url = large.resolve("/api/orders?warehouseId={warehouse}&size=2&page=");
+
+        assertEquals(1, countQueries(perform(get(url + 0).header("Authorization", large.token()))));
+        assertEquals(0, countQueries(perform(get(url + 1).header("Authorization", large.token()))));
+
+        User principal = new User("admin", "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        orderService.create(large.warehouseId(), List.of(new BookOrderDto(large.books().getFirst().id(), 1)));
+        SecurityContextHolder.clearContext();
+
+        assertEquals(1, countQueries(perform(get(url + 2).header("Authorization", large.token()))));
+        mockMvc.perform(get(url + 3).header("Authorization", large.token()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(LARGE_WORLD + 1));
+    }
+
+    @Test
+    @DisplayName("Повторный поиск книги по ID берётся из кеша книг без запроса к таблице книг")
+    public void getBook_RepeatedLookup_SkipsBookQueries() throws Exception {
+        String url = large.resolve("/api/books/{book}");
+        perform(get(url).header("Authorization", large.token()));
+
+        List<String> statements = perform(get(url).header("Authorization", large.token()));
+
+        assertEquals(0, bookQueries(statements), () -> String.join("\n", statements));
+    }
+
+    private void assertSameWriteCount(String template) throws Exception {
+        assertSameWriteCount(template, world -> post(world.resolve(template))
+                .header("Authorization", token("manager"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(world.stock(1))));
+    }
+
+    private void assertSameWriteCount(String label, WorldRequest request) throws Exception {
+        assertSameWriteCount(label, request, status().isOk());
+    }
+
+    private void assertSameWriteCount(String label, WorldRequest request, ResultMatcher expectedStatus) throws Exception {
+        List<String> single = perform(request.build(small), expectedStatus);
+        List<String> many = perform(request.build(large), expectedStatus);
+
+        assertEquals(withoutSequenceCalls(single), withoutSequenceCalls(many), () -> label + "\n" + String.join("\n", many));
+    }
+
+    private void assertSameBulkOrderCount(String url) throws Exception {
+        String managerToken = "Bearer " + jwtUtils.generateAccessTokenFromUsername("manager");
+
+        List<String> single = perform(post(url)
+                .header("Authorization", managerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new OrderBulkRequestDto(small.orderIds(), null))));
+        List<String> many = perform(post(url)
+                .header("Authorization", managerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new OrderBulkRequestDto(large.orderIds(), null))));
+
+        assertEquals(withoutSequenceCalls(single), withoutSequenceCalls(many), () -> url + "\n" + String.join("\n", many));
+    }
+
+    private List<String> perform(RequestBuilder request) throws Exception {
+        return perform(request, status().isOk());
+    }
+
+    private List<String> perform(RequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        StatementCountingConfiguration.start();
+        try {
+            mockMvc.perform(request).andExpect(expectedStatus);
+        } finally {
+            StatementCountingConfiguration.stop();
+        }
+        return StatementCountingConfiguration.statements();
+    }
+
+    private String token(String username) {
+        return "Bearer " + jwtUtils.generateAccessTokenFromUsername(username);
+    }
+
+    private void awaitOrderCount(long expected) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && orderRepository.count() < expected; attempt++) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, orderRepository.count());
+    }
+
+    private void setSplitEnabled(boolean enabled) {
+        Object target = AopTestUtils.getTargetObject(storeStockSplitService);
+        ReflectionTestUtils.setField(target, "enabled", enabled);
+    }
+
+    private long countQueries(List<String> statements) {
+        return statements.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).contains("count("))
+                .count();
+    }
+
+    private long bookQueries(List<String> statements) {
+        return statements.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).contains("from books"))
+                .count();
+    }
+
+    private long withoutSequenceCalls(List<String> statements) {
+        return statements.stream()
+                .filter(sql -> !sql.toLowerCase(Locale.ROOT).contains("next value for"))
+                .count();
+    }
+
+    private World seed(String username, String prefix, int size) {
+        Store store = storeRepository.save(Store.builder().address(prefix + " магазин").build());
+        Warehouse warehouse = warehouseRepository.save(Warehouse.builder().address(prefix + " склад").build());
+
+        List<BookResponseDto> books = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Author author = authorRepository.save(Author.builder().fullName(prefix + " автор " + i).build());
+            Genre genre = genreRepository.save(Genre.builder().name(prefix + " жанр " + i).build());
+            books.add(bookService.save(new BookRequestDto(prefix + " книга " + i, author.getId(), genre.getId(), BigDecimal.valueOf(100))));
+        }
+
+        World world = new World("Bearer " + jwtUtils.generateAccessTokenFromUsername(username), prefix,
+                store.getId(), warehouse.getId(), books, new ArrayList<>(), new ArrayList<>());
+        storeService.addBooksToStore(store.getId(), world.stock(100));
+        warehouseService.addBooksToWarehouse(warehouse.getId(), world.stock(100));
+        books.forEach(book -> stockAlertService.setThreshold(store.getId(), new StockThresholdRequestDto(book.id(), 1000)));
+
+        User principal = new User(username, "", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        for (int i = 0; i < size; i++) {
+            world.orderIds().add(orderService.create(warehouse.getId(), books.stream()
+                    .map(book -> new BookOrderDto(book.id(), 1))
+                    .toList()).id());
+            world.saleIds().add(saleService.processSale(store.getId(), books.stream()
+                    .map(book -> new BookSaleDto(book.id(), 1))
+                    .toList()).id());
+        }
+        SecurityContextHolder.clearContext();
+
+        return world;
+    }
+
+    @FunctionalInterface
+    private interface WorldRequest {
+        RequestBuilder build(World world) throws Exception;
+    }
+
+    private record World(String token, String title, Long storeId, Long warehouseId,
+                         List<BookResponseDto> books, List<Long> orderIds, List<Long> saleIds) {
+
+        List<BookBulkDto> stock(int quantity) {
+            return books.stream().map(book -> new BookBulkDto(book.id(), quantity)).toList();
+        }
+
+        List<BookOrderDto> order() {
+            return books.stream().map(book -> new BookOrderDto(book.id(), 1)).toList();
+        }
+
+        List<BookSaleDto> sale() {
+            return books.stream().map(book -> new BookSaleDto(book.id(), 1)).toList();
+        }
+
+        String resolve(String template) {
+            BookResponseDto book = books.getFirst();
+            return template
+                    .replace("{book}", book.id().toString())
+                    .replace("{author}", book.authorId().toString())
+                    .replace("{genre}", book.genreId().toString())
+                    .replace("{title}", title)
+                    .replace("{store}", storeId.toString())
+                    .replace("{warehouse}", warehouseId.toString())
+                    .replace("{order}", orderIds.getFirst().toString())
+                    .replace("{sale}", saleIds.getFirst().toString());
+        }
+    }
+}
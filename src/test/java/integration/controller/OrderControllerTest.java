@@ -47,6 +47,8 @@ public class OrderControllerTest {
     private JwtUtils jwtUtils;
     @Autowired
     private OrderItemRepository orderItemRepository;
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
 
     private String clientToken;
     private String managerToken;
@@ -59,6 +61,7 @@ public class OrderControllerTest {
 
     @AfterEach
     public void tearDown() {
+        stockReservationRepository.deleteAll();
         orderItemRepository.deleteAll();
         orderRepository.deleteAll();
         warehouseBookAmountRepository.deleteAll();
@@ -269,4 +272,49 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.content[0].warehouseId").value(warehouse.getId()))
                 .andExpect(jsonPath("$.content[0].orderStatus").value("CREATED"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Асинхронный приём заказа возвращает 202 и заявку, по которой можно получить созданный заказ")
+    public void submit_ValidDataClientRole_AcceptsAndCompletesTicket() throws Exception {
+        Author author = authorRepository.save(Author.builder().fullName("Михаил Булгаков").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Мастер и Маргарита")
+                .author(author)
+                .genre(genre)
+                .price(BigDecimal.valueOf(10.0))
+                .build());
+        Warehouse warehouse = warehouseRepository.save(Warehouse.builder().address("Москва, ул. Складская, 1").build());
+        warehouseBookAmountRepository.saveAndFlush(WarehouseBookAmount.builder()
+                .warehouse(warehouse)
+                .book(book)
+                .amount(10)
+                .build());
+        List<BookOrderDto> bookOrderDtos = List.of(new BookOrderDto(book.getId(), 5));
+
+        String ticket = mockMvc.perform(post("/api/warehouses/" + warehouse.getId() + "/orders/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookOrderDtos))
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andReturn().getResponse().getContentAsString();
+        String ticketId = objectMapper.readTree(ticket).get("id").asText();
+
+        String status = "QUEUED";
+        for (int attempt = 0; attempt < 100 && status.equals("QUEUED"); attempt++) {
+            Thread.sleep(20);
+            status = objectMapper.readTree(mockMvc.perform(get("/api/orders/tickets/" + ticketId)
+                            .header("Authorization", "Bearer " + clientToken))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).get("status").asText();
+        }
+
+        mockMvc.perform(get("/api/orders/tickets/" + ticketId)
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.order.warehouseId").value(warehouse.getId()))
+                .andExpect(jsonPath("$.order.totalPrice").value(50.0));
+    }
+}
@@ -1,5 +1,7 @@
 package integration.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ifellow.bookstore.configuration.RootConfiguration;
 import com.ifellow.bookstore.dto.request.BookSaleDto;
@@ -13,6 +15,7 @@ import com.ifellow.bookstore.model.User;
 import com.ifellow.bookstore.repository.AuthorRepository;
 import com.ifellow.bookstore.repository.BookRepository;
 import com.ifellow.bookstore.repository.GenreRepository;
+import com.ifellow.bookstore.repository.IdempotencyKeyRepository;
 import com.ifellow.bookstore.repository.SaleItemRepository;
 import com.ifellow.bookstore.repository.SaleRepository;
 import com.ifellow.bookstore.repository.StoreBookAmountRepository;
@@ -32,6 +35,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -60,6 +64,8 @@ public class SaleControllerTest {
     @Autowired
     private SaleItemRepository saleItemRepository;
     @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Autowired
     private JwtUtils jwtUtils;
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -75,6 +81,7 @@ public class SaleControllerTest {
 
     @AfterEach
     public void tearDown() {
+        idempotencyKeyRepository.deleteAll();
         saleItemRepository.deleteAll();
         saleRepository.deleteAll();
         storeBookAmountRepository.deleteAll();
@@ -242,4 +249,140 @@ public class SaleControllerTest {
                 .andExpect(jsonPath("$.content[0].storeId").value(store.getId()))
                 .andExpect(jsonPath("$.content[0].totalPrice").value(50.0));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Повтор продажи с тем же Idempotency-Key возвращает тот же ответ и не списывает книги повторно")
+    public void processSale_RepeatedIdempotencyKey_SellsOnce() throws Exception {
+        Author author = authorRepository.save(Author.builder().fullName("Михаил Булгаков").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Мастер и Маргарита")
+                .author(author)
+                .genre(genre)
+                .price(BigDecimal.valueOf(10.0))
+                .build());
+        Store store = storeRepository.save(Store.builder().address("Москва, ул. Тверская, 1").build());
+        storeBookAmountRepository.saveAndFlush(StoreBookAmount.builder()
+                .store(store)
+                .book(book)
+                .amount(10)
+                .build());
+        String content = objectMapper.writeValueAsString(List.of(new BookSaleDto(book.getId(), 3)));
+
+        String first = mockMvc.perform(post("/api/stores/" + store.getId() + "/sales")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(content)
+                        .header("Idempotency-Key", "pos-1-receipt-7")
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post("/api/stores/" + store.getId() + "/sales")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(content)
+                        .header("Idempotency-Key", "pos-1-receipt-7")
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(objectMapper.readTree(first).get("id").asLong()));
+
+        mockMvc.perform(post("/api/stores/" + store.getId() + "/sales")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(new BookSaleDto(book.getId(), 1))))
+                        .header("Idempotency-Key", "pos-1-receipt-7")
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isConflict());
+
+        assertEquals(7, storeBookAmountRepository.findByStoreIdAndBookId(store.getId(), book.getId()).orElseThrow().getAmount());
+        assertEquals(1, saleRepository.count());
+    }
+
+    @Test
+    @DisplayName("Потоковая выгрузка продаж возвращает результат по каждой строке и списывает только успешные продажи")
+    public void uploadSales_MixedLines_StreamsResultPerLine() throws Exception {
+        Author author = authorRepository.save(Author.builder().fullName("Михаил Булгаков").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Мастер и Маргарита")
+                .author(author)
+                .genre(genre)
+                .price(BigDecimal.valueOf(10.0))
+                .build());
+        Store store = storeRepository.save(Store.builder().address("Москва, ул. Тверская, 1").build());
+        storeBookAmountRepository.saveAndFlush(StoreBookAmount.builder()
+                .store(store)
+                .book(book)
+                .amount(10)
+                .build());
+        String upload = String.join("\n",
+                "{\"reference\":\"r-1\",\"bookSaleDtoList\":[{\"bookId\":" + book.getId() + ",\"quantity\":2}]}",
+                "{\"reference\":",
+                "{\"reference\":\"r-3\",\"bookSaleDtoList\":[{\"bookId\":" + book.getId() + ",\"quantity\":3}]}",
+                "{\"reference\":\"r-4\",\"bookSaleDtoList\":[{\"bookId\":" + book.getId() + ",\"quantity\":100}]}");
+
+        String response = mockMvc.perform(post("/api/stores/" + store.getId() + "/sales/upload")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(upload)
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = response.lines().toList();
+        assertEquals(4, lines.size());
+        assertEquals(List.of("PROCESSED", "FAILED", "PROCESSED", "FAILED"), lines.stream()
+                .map(line -> readTree(line).get("status").asText())
+                .toList());
+        assertEquals("r-3", readTree(lines.get(2)).get("reference").asText());
+        assertEquals(5, storeBookAmountRepository.findByStoreIdAndBookId(store.getId(), book.getId()).orElseThrow().getAmount());
+        assertEquals(2, saleRepository.count());
+    }
+
+    @Test
+    @DisplayName("Повторная выгрузка уже обработанных чеков магазина отмечает их как дубликаты и не списывает книги")
+    public void uploadSales_RepeatedReferences_ReportsDuplicates() throws Exception {
+        Author author = authorRepository.save(Author.builder().fullName("Михаил Булгаков").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Мастер и Маргарита")
+                .author(author)
+                .genre(genre)
+                .price(BigDecimal.valueOf(10.0))
+                .build());
+        Store store = storeRepository.save(Store.builder().address("Москва, ул. Тверская, 1").build());
+        storeBookAmountRepository.saveAndFlush(StoreBookAmount.builder()
+                .store(store)
+                .book(book)
+                .amount(10)
+                .build());
+        String upload = String.join("\n",
+                "{\"reference\":\"r-1\",\"bookSaleDtoList\":[{\"bookId\":" + book.getId() + ",\"quantity\":2}]}",
+                "{\"reference\":\"r-1\",\"bookSaleDtoList\":[{\"bookId\":" + book.getId() + ",\"quantity\":2}]}",
+                "{\"reference\":\"r-2\",\"bookSaleDtoList\":[{\"bookId\":" + book.getId() + ",\"quantity\":3}]}");
+        uploadSales(store.getId(), upload);
+
+        List<String> lines = uploadSales(store.getId(), upload);
+
+        assertEquals(List.of("DUPLICATE", "DUPLICATE", "DUPLICATE"), lines.stream()
+                .map(line -> readTree(line).get("status").asText())
+                .toList());
+        assertEquals(5, storeBookAmountRepository.findByStoreIdAndBookId(store.getId(), book.getId()).orElseThrow().getAmount());
+        assertEquals(2, saleRepository.count());
+    }
+
+    private List<String> uploadSales(Long storeId, String upload) throws Exception {
+        return mockMvc.perform(post("/api/stores/" + storeId + "/sales/upload")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(upload)
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().lines().toList();
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
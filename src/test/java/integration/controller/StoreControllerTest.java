@@ -3,6 +3,7 @@ package integration.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ifellow.bookstore.configuration.RootConfiguration;
 import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.dto.request.StockThresholdRequestDto;
 import com.ifellow.bookstore.dto.request.StoreRequestDto;
 import com.ifellow.bookstore.model.*;
 import com.ifellow.bookstore.repository.AuthorRepository;
@@ -10,6 +11,7 @@ import com.ifellow.bookstore.repository.BookRepository;
 import com.ifellow.bookstore.repository.GenreRepository;
 import com.ifellow.bookstore.repository.StoreBookAmountRepository;
 import com.ifellow.bookstore.repository.StoreRepository;
+import com.ifellow.bookstore.repository.StoreStockThresholdRepository;
 import com.ifellow.bookstore.util.JwtUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,8 +22,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -29,6 +35,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest(classes = RootConfiguration.class)
 public class StoreControllerTest {
 
+    private static final int THREADS = 8;
+
     @Autowired
     private MockMvc mockMvc;
     @Autowired
@@ -44,6 +52,8 @@ public class StoreControllerTest {
     @Autowired
     private StoreBookAmountRepository storeBookAmountRepository;
     @Autowired
+    private StoreStockThresholdRepository storeStockThresholdRepository;
+    @Autowired
     private JwtUtils jwtUtils;
 
     private String adminToken;
@@ -59,6 +69,7 @@ public class StoreControllerTest {
 
     @AfterEach
     public void tearDown() {
+        storeStockThresholdRepository.deleteAll();
         storeBookAmountRepository.deleteAll();
         bookRepository.deleteAll();
         authorRepository.deleteAll();
@@ -256,4 +267,98 @@ public class StoreControllerTest {
                         .header("Authorization", "Bearer " + managerToken))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Параллельная установка порога магазина оставляет одну запись")
+    public void setStockThreshold_ConcurrentStoreLevelRequests_KeepsSingleRow() throws Exception {
+        Store store = storeRepository.save(Store.builder().address("Москва, ул. Ленина, 7").build());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int threshold = i + 1;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return mockMvc.perform(post("/api/stores/" + store.getId() + "/stock/thresholds")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new StockThresholdRequestDto(null, threshold)))
+                                .header("Authorization", "Bearer " + managerToken))
+                        .andExpect(status().isOk());
+            }));
+        }
+
+
+
+        start.countDown();
+        for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+
+
+        assertEquals(1, storeStockThresholdRepository.count());
+    }
+
+    @Test
+    @DisplayName("Лента оповещений фиксирует падение остатка до порога и пополнение")
+    public void getStockAlerts_ThresholdCrossed_ReturnsAlerts() throws Exception {
+        Store store = storeRepository.save(Store.builder().address("Москва, ул. Ленина, 5").build());
+        Author author = authorRepository.save(Author.builder().fullName("Антон Чехов").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Рассказ").build());
+        Book book = bookRepository.save(Book.builder().title("Каштанка").author(author).genre(genre).price(BigDecimal.valueOf(150)).build());
+
+        mockMvc.perform(post("/api/stores/" + store.getId() + "/stock/add")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookBulkDto(book.getId(), 10)))
+                        .header("Authorization", "Bearer " + managerToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/stores/" + store.getId() + "/stock/thresholds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StockThresholdRequestDto(book.getId(), 5)))
+                        .header("Authorization", "Bearer " + managerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.threshold").value(5));
+
+        mockMvc.perform(post("/api/stores/" + store.getId() + "/stock/remove")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookBulkDto(book.getId(), 6)))
+                        .header("Authorization", "Bearer " + managerToken))
+                .andExpect(status().isOk());
+
+        awaitAlerts(store.getId(), 1)
+                .andExpect(jsonPath("$[0].bookId").value(book.getId()))
+                .andExpect(jsonPath("$[0].type").value("LOW_STOCK"))
+                .andExpect(jsonPath("$[0].quantity").value(4));
+
+        mockMvc.perform(post("/api/stores/" + store.getId() + "/stock/add")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BookBulkDto(book.getId(), 10)))
+                        .header("Authorization", "Bearer " + managerToken))
+                .andExpect(status().isOk());
+
+        awaitAlerts(store.getId(), 2)
+                .andExpect(jsonPath("$[0].type").value("RESTOCKED"))
+                .andExpect(jsonPath("$[0].quantity").value(14));
+    }
+
+    @Test
+    @DisplayName("Лента оповещений с ролью CLIENT - запрещено")
+    public void getStockAlerts_ClientRole_Forbidden() throws Exception {
+        Store store = storeRepository.save(Store.builder().address("Москва, ул. Ленина, 7").build());
+
+        mockMvc.perform(get("/api/stores/" + store.getId() + "/stock/alerts")
+                        .header("Authorization", "Bearer " + clientToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private ResultActions awaitAlerts(Long storeId, int count) throws Exception {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            ResultActions result = mockMvc.perform(get("/api/stores/" + storeId + "/stock/alerts")
+                    .header("Authorization", "Bearer " + managerToken));
+            List<?> alerts = objectMapper.readValue(result.andReturn().getResponse().getContentAsString(), List.class);
+            if (alerts.size() >= count) return result.andExpect(jsonPath("$.length()").value(count));
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Expected " + count + " stock alerts for store " + storeId);
+    }
+}
@@ -1,12 +1,14 @@
 package integration.repository;
 
 import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.filter.BookFilter;
 import com.ifellow.bookstore.model.Author;
 import com.ifellow.bookstore.model.Book;
 import com.ifellow.bookstore.model.Genre;
 import com.ifellow.bookstore.repository.AuthorRepository;
 import com.ifellow.bookstore.repository.BookRepository;
 import com.ifellow.bookstore.repository.GenreRepository;
+import com.ifellow.bookstore.specification.BookSpecification;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,8 +18,11 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.*;
 
 @Transactional
@@ -149,4 +154,26 @@ public class BookRepositoryTest {
         assertEquals(1, books.size());
         assertEquals("Мастер и Маргарита", books.get(0).getTitle());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Спецификация по найденным индексом книгам разбивает идентификаторы на диапазоны и пачки IN")
+    public void findAll_SpecificationByManyIds_ReturnsExactlyMatchingBooks() {
+        Author author = authorRepository.save(Author.builder().fullName("Лев Толстой").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Book book = Book.builder().title("Том " + i).author(author).genre(genre).price(BigDecimal.TEN).build();
+            entityManager.persist(book);
+            ids.add(book.getId());
+        }
+        Set<Long> bookIds = Set.of(ids.get(0), ids.get(1), ids.get(2), ids.get(4), ids.get(5));
+
+
+
+        List<Book> books = bookRepository.findAll(BookSpecification.withFilter(new BookFilter(), bookIds, 1));
+
+
+
+        assertEquals(bookIds, books.stream().map(Book::getId).collect(Collectors.toSet()));
+    }
+}
@@ -15,6 +15,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -95,4 +97,83 @@ class WarehouseBookAmountRepositoryTest {
 
         assertThat(exists).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("decrementAmount уменьшает количество, если на складе достаточно книг")
+    void decrementAmount_EnoughStock_DecrementsAndReturnsOne() {
+        WarehouseBookAmount amount = persistAmount(10);
+
+        int updated = repository.decrementAmount(amount.getWarehouse().getId(), amount.getBook().getId(), 4);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(repository.findById(amount.getId()).orElseThrow().getAmount()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("decrementAmount не изменяет количество, если на складе недостаточно книг")
+    void decrementAmount_NotEnoughStock_ReturnsZero() {
+        WarehouseBookAmount amount = persistAmount(3);
+
+        int updated = repository.decrementAmount(amount.getWarehouse().getId(), amount.getBook().getId(), 4);
+
+        assertThat(updated).isZero();
+        assertThat(repository.findById(amount.getId()).orElseThrow().getAmount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("incrementAmount возвращает 0, если книги нет на складе")
+    void incrementAmount_MissingRow_ReturnsZero() {
+        WarehouseBookAmount amount = persistAmount(3);
+
+        int updated = repository.incrementAmount(amount.getWarehouse().getId(), amount.getBook().getId() + 1, 4);
+
+        assertThat(updated).isZero();
+    }
+
+    @Test
+    @DisplayName("upsertAmounts увеличивает существующие строки и вставляет недостающие")
+    void upsertAmounts_ExistingAndNewBooks_UpdatesAndInserts() {
+        WarehouseBookAmount amount = persistAmount(10);
+        Book newBook = Book.builder()
+                .title("Новая книга")
+                .price(BigDecimal.TEN)
+                .build();
+        entityManager.persist(newBook);
+        Long warehouseId = amount.getWarehouse().getId();
+
+        repository.upsertAmounts(warehouseId, Map.of(amount.getBook().getId(), 5, newBook.getId(), 7));
+
+        assertThat(repository.findByWarehouseIdAndBookId(warehouseId, amount.getBook().getId()).orElseThrow().getAmount()).isEqualTo(15);
+        assertThat(repository.findByWarehouseIdAndBookId(warehouseId, newBook.getId()).orElseThrow().getAmount()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("decrementAmounts возвращает id книг, которые не удалось списать")
+    void decrementAmounts_NotEnoughStock_ReturnsFailedBookIds() {
+        WarehouseBookAmount amount = persistAmount(10);
+        Long warehouseId = amount.getWarehouse().getId();
+        Long bookId = amount.getBook().getId();
+
+        List<Long> failed = repository.decrementAmounts(warehouseId, Map.of(bookId, 11, bookId + 100, 1));
+
+        assertThat(failed).containsExactlyInAnyOrder(bookId, bookId + 100);
+        assertThat(repository.findByWarehouseIdAndBookId(warehouseId, bookId).orElseThrow().getAmount()).isEqualTo(10);
+    }
+
+    private WarehouseBookAmount persistAmount(int quantity) {
+        Warehouse warehouse = Warehouse.builder().address("Warehouse 1").build();
+        entityManager.persist(warehouse);
+        Book book = Book.builder()
+                .title("Книга")
+                .price(BigDecimal.ONE)
+                .build();
+        entityManager.persist(book);
+        WarehouseBookAmount amount = WarehouseBookAmount.builder()
+                .warehouse(warehouse)
+                .book(book)
+                .amount(quantity)
+                .build();
+        entityManager.persist(amount);
+        return amount;
+    }
+}
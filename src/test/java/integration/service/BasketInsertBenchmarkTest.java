@@ -0,0 +1,176 @@
+package integration.service;
+
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.dto.request.BookOrderDto;
+import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.model.*;
+import com.ifellow.bookstore.repository.*;
+import com.ifellow.bookstore.service.api.OrderService;
+import com.ifellow.bookstore.service.api.SaleService;
+import com.ifellow.bookstore.service.api.StoreService;
+import com.ifellow.bookstore.service.api.WarehouseService;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("benchmark")
+@SpringBootTest(classes = RootConfiguration.class)
+@TestPropertySource(properties = "hibernate.show_sql=false")
+class BasketInsertBenchmarkTest {
+
+    private static final int BASKET_LINES = 20;
+    private static final int WARMUP = 50;
+    private static final int OPERATIONS = 500;
+
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private WarehouseService warehouseService;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private StoreBookAmountRepository storeBookAmountRepository;
+    @Autowired
+    private WarehouseBookAmountRepository warehouseBookAmountRepository;
+    @Autowired
+    private SaleRepository saleRepository;
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    private static Server server;
+
+    private Store store;
+    private Warehouse warehouse;
+    private List<Book> books;
+
+    @DynamicPropertySource
+    static void overTcp(DynamicPropertyRegistry registry) throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        registry.add("datasource.url", () -> "jdbc:h2:" + server.getURL() + "/mem:basket-benchmark;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder().fullName("Лев Толстой").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        store = storeRepository.save(Store.builder().address("Магазин, Пакетная 1").build());
+        warehouse = warehouseRepository.save(Warehouse.builder().address("Склад, Пакетная 2").build());
+
+        books = new ArrayList<>();
+        for (int i = 0; i < BASKET_LINES; i++) {
+            books.add(bookRepository.save(Book.builder()
+                    .title("Книга " + i)
+                    .author(author)
+                    .genre(genre)
+                    .price(BigDecimal.valueOf(100))
+                    .build()));
+        }
+
+        List<BookBulkDto> stock = books.stream()
+                .map(book -> new BookBulkDto(book.getId(), WARMUP + OPERATIONS))
+                .toList();
+        storeService.addBooksToStore(store.getId(), stock);
+        warehouseService.addBooksToWarehouse(warehouse.getId(), stock);
+
+        UserDetails userDetails = new org.springframework.security.core.userdetails.User(
+                "client", "", List.of(new SimpleGrantedAuthority("ROLE_CLIENT")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        stockReservationRepository.deleteAll();
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        saleItemRepository.deleteAll();
+        saleRepository.deleteAll();
+        storeBookAmountRepository.deleteAll();
+        warehouseBookAmountRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+        storeRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Пропускная способность продаж с корзиной из 20 позиций")
+    void processSale_LargeBaskets() {
+        List<BookSaleDto> basket = books.stream().map(book -> new BookSaleDto(book.getId(), 1)).toList();
+        run("sale", () -> saleService.processSale(store.getId(), basket));
+
+        assertEquals((long) (WARMUP + OPERATIONS) * BASKET_LINES, saleItemRepository.count());
+    }
+
+    @Test
+    @DisplayName("Пропускная способность создания заказов с корзиной из 20 позиций")
+    void createOrder_LargeBaskets() {
+        List<BookOrderDto> basket = books.stream().map(book -> new BookOrderDto(book.getId(), 1)).toList();
+        run("order", () -> orderService.create(warehouse.getId(), basket));
+
+        assertEquals((long) (WARMUP + OPERATIONS) * BASKET_LINES, orderItemRepository.count());
+    }
+
+    private void run(String scenario, Runnable operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            operation.run();
+        }
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+
+        System.out.printf("[basket-insert] scenario=%s lines=%d ops=%d elapsed=%dms throughput=%d ops/s rows=%d rows/s%n",
+                scenario, BASKET_LINES, OPERATIONS, elapsedMillis,
+                OPERATIONS * 1000L / elapsedMillis, OPERATIONS * BASKET_LINES * 1000L / elapsedMillis);
+    }
+}
@@ -0,0 +1,184 @@
+package integration.service;
+
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.dto.request.BookOrderDto;
+import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.model.*;
+import com.ifellow.bookstore.repository.*;
+import com.ifellow.bookstore.service.api.OrderService;
+import com.ifellow.bookstore.service.api.SaleService;
+import com.ifellow.bookstore.service.api.StoreService;
+import com.ifellow.bookstore.service.api.WarehouseService;
+import integration.StatementCountingConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {RootConfiguration.class, StatementCountingConfiguration.class})
+class BasketQueryCountTest {
+
+    private static final int LARGE_BASKET = 20;
+
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private WarehouseService warehouseService;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private StoreBookAmountRepository storeBookAmountRepository;
+    @Autowired
+    private WarehouseBookAmountRepository warehouseBookAmountRepository;
+    @Autowired
+    private SaleRepository saleRepository;
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    private Store store;
+    private Warehouse warehouse;
+    private List<Book> books;
+
+    @BeforeEach
+    void setUp() {
+        store = storeRepository.save(Store.builder().address("Магазин, Счётная 1").build());
+        warehouse = warehouseRepository.save(Warehouse.builder().address("Склад, Счётная 2").build());
+
+        books = new ArrayList<>();
+        for (int i = 0; i < LARGE_BASKET; i++) {
+            Author author = authorRepository.save(Author.builder().fullName("Автор " + i).build());
+            Genre genre = genreRepository.save(Genre.builder().name("Жанр " + i).build());
+            books.add(bookRepository.save(Book.builder()
+                    .title("Книга " + i)
+                    .author(author)
+                    .genre(genre)
+                    .price(BigDecimal.valueOf(100))
+                    .build()));
+        }
+
+        List<BookBulkDto> stock = books.stream().map(book -> new BookBulkDto(book.getId(), 10)).toList();
+        storeService.addBooksToStore(store.getId(), stock);
+        warehouseService.addBooksToWarehouse(warehouse.getId(), stock);
+
+        UserDetails userDetails = new org.springframework.security.core.userdetails.User(
+                "client", "", List.of(new SimpleGrantedAuthority("ROLE_CLIENT")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        stockReservationRepository.deleteAll();
+        orderItemRepository.deleteAll();
+        orderRepository.deleteAll();
+        saleItemRepository.deleteAll();
+        saleRepository.deleteAll();
+        storeBookAmountRepository.deleteAll();
+        warehouseBookAmountRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+        storeRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Число запросов при продаже не зависит от размера корзины")
+    void processSale_LargeBasket_ConstantQueryCount() {
+        List<String> single = capture(() -> saleService.processSale(store.getId(),
+                List.of(new BookSaleDto(books.getFirst().getId(), 1))));
+        List<String> large = capture(() -> saleService.processSale(store.getId(), books.stream()
+                .map(book -> new BookSaleDto(book.getId(), 1))
+                .toList()));
+
+        assertEquals(withoutSequenceCalls(single), withoutSequenceCalls(large), () -> String.join("\n", large));
+    }
+
+    @Test
+    @DisplayName("Число запросов при создании заказа не зависит от размера корзины")
+    void create_LargeBasket_ConstantQueryCount() {
+        List<String> single = capture(() -> orderService.create(warehouse.getId(),
+                List.of(new BookOrderDto(books.getFirst().getId(), 1))));
+        List<String> large = capture(() -> orderService.create(warehouse.getId(), books.stream()
+                .map(book -> new BookOrderDto(book.getId(), 1))
+                .toList()));
+
+        assertEquals(withoutSequenceCalls(single), withoutSequenceCalls(large), () -> String.join("\n", large));
+    }
+
+    @Test
+    @DisplayName("Позиции заказа с книгами, авторами и жанрами читаются одним запросом")
+    void findOrderItems_LargeOrder_SingleQuery() {
+        Long orderId = orderService.create(warehouse.getId(), books.stream()
+                .map(book -> new BookOrderDto(book.getId(), 1))
+                .toList()).id();
+
+        List<String> statements = capture(() -> orderService.findItemsById(orderId));
+
+        assertEquals(LARGE_BASKET, orderService.findItemsById(orderId).size());
+        assertEquals(1, statements.size(), () -> String.join("\n", statements));
+    }
+
+    @Test
+    @DisplayName("Позиции продажи с книгами, авторами и жанрами читаются одним запросом")
+    void findSaleItems_LargeSale_SingleQuery() {
+        Long saleId = saleService.processSale(store.getId(), books.stream()
+                .map(book -> new BookSaleDto(book.getId(), 1))
+                .toList()).id();
+
+        List<String> statements = capture(() -> saleService.findItemsById(saleId));
+
+        assertEquals(LARGE_BASKET, saleService.findItemsById(saleId).size());
+        assertEquals(1, statements.size(), () -> String.join("\n", statements));
+    }
+
+    private List<String> capture(Supplier<?> action) {
+        StatementCountingConfiguration.start();
+        try {
+            action.get();
+        } finally {
+            StatementCountingConfiguration.stop();
+        }
+        return StatementCountingConfiguration.statements();
+    }
+
+    private long withoutSequenceCalls(List<String> statements) {
+        return statements.stream()
+                .filter(sql -> !sql.toLowerCase(Locale.ROOT).contains("next value for"))
+                .count();
+    }
+}
@@ -0,0 +1,169 @@
+package integration.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.filter.BookFilter;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
+import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
+import com.ifellow.bookstore.dto.response.GroupedBookResponse;
+import com.ifellow.bookstore.model.Author;
+import com.ifellow.bookstore.model.Genre;
+import com.ifellow.bookstore.repository.AuthorRepository;
+import com.ifellow.bookstore.repository.BookRepository;
+import com.ifellow.bookstore.repository.GenreRepository;
+import com.ifellow.bookstore.service.api.BookService;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("benchmark")
+@SpringBootTest(classes = RootConfiguration.class)
+@TestPropertySource(properties = "hibernate.show_sql=false")
+class BookPaginationBenchmarkTest {
+
+    private static final int CATALOG_SIZE = 200_000;
+    private static final int PAGE_SIZE = 10;
+    private static final int[] PAGES = {0, 1_000, 10_000, 19_990};
+    private static final int REPEATS = 20;
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static Server server;
+
+    @DynamicPropertySource
+    static void overTcp(DynamicPropertyRegistry registry) throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        registry.add("datasource.url", () -> "jdbc:h2:" + server.getURL() + "/mem:pagination-benchmark;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllInBatch();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Задержка глубоких страниц каталога по смещению и по курсору")
+    void findAll_DeepPages_OffsetVersusCursor() {
+        Author author = authorRepository.save(Author.builder().fullName("Лев Толстой").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        List<Object[]> rows = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            rows.add(new Object[]{"Книга " + i, author.getId(), genre.getId(), BigDecimal.valueOf(i % 997)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books (title, author_id, genre_id, price) VALUES (?, ?, ?, ?)", rows);
+
+        BookFilter filter = new BookFilter();
+        Sort sort = Sort.by("price", "id");
+        for (int pageNumber : PAGES) {
+            CursorPageRequest cursor = cursorBefore(pageNumber);
+
+            Page<BookResponseDto> offsetPage = null;
+            long startedAt = System.nanoTime();
+            for (int i = 0; i < REPEATS; i++) {
+                offsetPage = findPage(filter, PageRequest.of(pageNumber, PAGE_SIZE, sort));
+            }
+            double offsetMillis = (System.nanoTime() - startedAt) / 1_000_000.0 / REPEATS;
+
+            CursorPageResponseDto<BookResponseDto> cursorPage = null;
+            startedAt = System.nanoTime();
+            for (int i = 0; i < REPEATS; i++) {
+                cursorPage = bookService.findAll(filter, cursor);
+            }
+            double cursorMillis = (System.nanoTime() - startedAt) / 1_000_000.0 / REPEATS;
+
+            assertEquals(offsetPage.getContent(), cursorPage.content());
+            System.out.printf("page=%d offset=%.2f ms cursor=%.2f ms%n", pageNumber, offsetMillis, cursorMillis);
+        }
+    }
+
+    @Test
+    @DisplayName("Задержка и размер ответа группировки по жанру при росте самого большого жанра")
+    void findAll_GroupByGenre_BoundedAsGenreGrows() throws Exception {
+        Author author = authorRepository.save(Author.builder().fullName("Лев Толстой").build());
+        Genre large = genreRepository.save(Genre.builder().name("Роман").build());
+        List<Object[]> rows = new ArrayList<>();
+        for (int g = 0; g < 9; g++) {
+            Genre small = genreRepository.save(Genre.builder().name("Жанр " + g).build());
+            for (int i = 0; i < 10; i++) {
+                rows.add(new Object[]{"Книга " + g + "-" + i, author.getId(), small.getId(), BigDecimal.valueOf(i)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books (title, author_id, genre_id, price) VALUES (?, ?, ?, ?)", rows);
+
+        BookFilter filter = BookFilter.builder().groupByGenre(true).build();
+        int genreSize = 0;
+        for (int targetSize : new int[]{20_000, CATALOG_SIZE}) {
+            rows = new ArrayList<>(targetSize - genreSize);
+            for (int i = genreSize; i < targetSize; i++) {
+                rows.add(new Object[]{"Книга " + i, author.getId(), large.getId(), BigDecimal.valueOf(i % 997)});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO books (title, author_id, genre_id, price) VALUES (?, ?, ?, ?)", rows);
+            genreSize = targetSize;
+
+            GroupedBookResponse response = null;
+            long startedAt = System.nanoTime();
+            for (int i = 0; i < REPEATS; i++) {
+                response = (GroupedBookResponse) bookService.findAll(filter, PageRequest.of(0, 20));
+            }
+            double millis = (System.nanoTime() - startedAt) / 1_000_000.0 / REPEATS;
+
+            assertEquals(10, response.getBooksByGenre().get("Роман").size());
+            assertTrue(response.getHasMoreBooksByGenre().get("Роман"));
+            System.out.printf("genre=%d grouped=%.2f ms payload=%d bytes%n",
+                    genreSize, millis, objectMapper.writeValueAsBytes(response).length);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<BookResponseDto> findPage(BookFilter filter, PageRequest pageRequest) {
+        return (Page<BookResponseDto>) bookService.findAll(filter, pageRequest);
+    }
+
+    private CursorPageRequest cursorBefore(int pageNumber) {
+        if (pageNumber == 0) return new CursorPageRequest(PAGE_SIZE, "price", Sort.Direction.ASC, null, null);
+
+        Map<String, Object> last = jdbcTemplate.queryForMap(
+                "SELECT id, price FROM books ORDER BY price, id LIMIT 1 OFFSET ?", pageNumber * PAGE_SIZE - 1);
+        return new CursorPageRequest(PAGE_SIZE, "price", Sort.Direction.ASC,
+                last.get("price").toString(), ((Number) last.get("id")).longValue());
+    }
+}
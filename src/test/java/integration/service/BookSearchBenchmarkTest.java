@@ -0,0 +1,139 @@
+package integration.service;
+
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.filter.BookFilter;
+import com.ifellow.bookstore.dto.projection.BookSearchEntry;
+import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.event.BookSavedEvent;
+import com.ifellow.bookstore.model.Author;
+import com.ifellow.bookstore.model.Genre;
+import com.ifellow.bookstore.repository.AuthorRepository;
+import com.ifellow.bookstore.repository.BookRepository;
+import com.ifellow.bookstore.repository.GenreRepository;
+import com.ifellow.bookstore.service.api.BookSearchService;
+import com.ifellow.bookstore.service.api.BookService;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("benchmark")
+@SpringBootTest(classes = RootConfiguration.class)
+@TestPropertySource(properties = "hibernate.show_sql=false")
+class BookSearchBenchmarkTest {
+
+    private static final int[] CATALOG_SIZES = {20_000, 200_000};
+    private static final int QUERIES = 50;
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookSearchService bookSearchService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static Server server;
+
+    @DynamicPropertySource
+    static void overTcp(DynamicPropertyRegistry registry) throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        registry.add("datasource.url", () -> "jdbc:h2:" + server.getURL() + "/mem:book-search-benchmark;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @AfterEach
+    void tearDown() {
+        setIndexEnabled(true);
+        bookRepository.deleteAllInBatch();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Задержка поиска по подстроке названия через LIKE и через n-граммный индекс при росте каталога")
+    void findAll_TitleSubstring_LikeVersusIndex() {
+        Author author = authorRepository.save(Author.builder().fullName("Лев Толстой").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+
+        int catalogSize = 0;
+        for (int targetSize : CATALOG_SIZES) {
+            insertBooks(author, genre, catalogSize, targetSize);
+            catalogSize = targetSize;
+
+            List<String> queries = queries(catalogSize);
+            double likeMillis = run(queries, false);
+            double indexMillis = run(queries, true);
+
+            System.out.printf("books=%d like=%.2f ms/query index=%.2f ms/query%n", catalogSize, likeMillis, indexMillis);
+        }
+    }
+
+    private double run(List<String> queries, boolean indexEnabled) {
+        setIndexEnabled(indexEnabled);
+        long startedAt = System.nanoTime();
+        for (String query : queries) {
+            Page<BookResponseDto> page = search(query);
+            assertEquals(1, page.getTotalElements(), query);
+        }
+        return (System.nanoTime() - startedAt) / 1_000_000.0 / queries.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<BookResponseDto> search(String title) {
+        return (Page<BookResponseDto>) bookService.findAll(BookFilter.builder().title(title).build(), PageRequest.of(0, 10));
+    }
+
+    private List<String> queries(int catalogSize) {
+        Random random = new Random(catalogSize);
+        List<String> queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add("выпуск " + random.nextInt(catalogSize) + ".");
+        }
+        return queries;
+    }
+
+    private void insertBooks(Author author, Genre genre, int from, int to) {
+        List<Object[]> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            rows.add(new Object[]{"Собрание сочинений, выпуск " + i + ".", author.getId(), genre.getId(), 100});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books (title, author_id, genre_id, price) VALUES (?, ?, ?, ?)", rows);
+
+        for (BookSearchEntry entry : bookRepository.findAllSearchEntries().subList(from, to)) {
+            bookSearchService.onBookSaved(new BookSavedEvent(entry.bookId(), entry.title(), entry.authorFullName()));
+        }
+    }
+
+    private void setIndexEnabled(boolean enabled) {
+        ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(bookSearchService), "enabled", enabled);
+    }
+}
@@ -0,0 +1,97 @@
+package integration.service;
+
+import com.ifellow.bookstore.dto.request.*;
+import com.ifellow.bookstore.dto.response.*;
+import com.ifellow.bookstore.enumeration.OrderStatus;
+import com.ifellow.bookstore.model.Order;
+import com.ifellow.bookstore.repository.OrderRepository;
+import com.ifellow.bookstore.repository.StockReservationRepository;
+import com.ifellow.bookstore.service.api.*;
+import integration.AbstractIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderExpiryServiceImplTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private OrderExpiryService orderExpiryService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private WarehouseService warehouseService;
+    @Autowired
+    private GenreService genreService;
+    @Autowired
+    private AuthorService authorService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @BeforeEach
+    void setUp() {
+        UserDetails userDetails = new User("client", "", List.of(new SimpleGrantedAuthority("ROLE_CLIENT")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+        ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(orderExpiryService), "chunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(orderExpiryService), "chunkSize", 500);
+    }
+
+    @Test
+    @DisplayName("Созданные заказы с истёкшим резервом отменяются порциями, а их резервы снимаются")
+    public void expireStaleOrders_ExpiredOrders_CancelsInChunks() {
+        AuthorResponseDto authorResponseDto = authorService.save(new AuthorRequestDto("Федор Достоевский"));
+        GenreResponseDto genreResponseDto = genreService.save(new GenreRequestDto("Роман"));
+        BookResponseDto bookResponseDto = bookService.save(new BookRequestDto("Преступление и наказание", authorResponseDto.id(), genreResponseDto.id(), BigDecimal.valueOf(250L)));
+        WarehouseResponseDto warehouseResponseDto = warehouseService.save(new WarehouseRequestDto("Ул. Арбат"));
+        warehouseService.addBookToWarehouse(warehouseResponseDto.id(), new BookBulkDto(bookResponseDto.id(), 20));
+
+        List<BookOrderDto> basket = List.of(new BookOrderDto(bookResponseDto.id(), 4));
+        List<Long> staleIds = List.of(
+                orderService.create(warehouseResponseDto.id(), basket).id(),
+                orderService.create(warehouseResponseDto.id(), basket).id(),
+                orderService.create(warehouseResponseDto.id(), basket).id());
+        Long completedId = orderService.create(warehouseResponseDto.id(), basket).id();
+        orderService.completeById(completedId);
+        Long freshId = orderService.create(warehouseResponseDto.id(), basket).id();
+
+        List<Order> stale = orderRepository.findAllById(List.of(staleIds.get(0), staleIds.get(1), staleIds.get(2), completedId));
+        stale.forEach(order -> order.setOrderDateTime(LocalDateTime.now().minusHours(1)));
+        orderRepository.saveAllAndFlush(stale);
+
+
+
+        int expired = orderExpiryService.expireStaleOrders();
+
+
+
+        assertEquals(3, expired);
+        staleIds.forEach(id -> assertEquals(OrderStatus.CANCELLED, orderService.findById(id).orderStatus()));
+        assertEquals(OrderStatus.COMPLETED, orderService.findById(completedId).orderStatus());
+        assertEquals(OrderStatus.CREATED, orderService.findById(freshId).orderStatus());
+        assertEquals(1, stockReservationRepository.findAll().size());
+        assertEquals(freshId, stockReservationRepository.findAll().getFirst().getOrder().getId());
+    }
+}
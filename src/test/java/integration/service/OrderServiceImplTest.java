@@ -1,27 +1,39 @@
 package integration.service;
 
+import com.ifellow.bookstore.dto.filter.OrderFilter;
 import com.ifellow.bookstore.dto.request.*;
 import com.ifellow.bookstore.dto.response.*;
+import com.ifellow.bookstore.enumeration.OrderBulkOutcome;
 import com.ifellow.bookstore.enumeration.OrderStatus;
+import com.ifellow.bookstore.exception.NotEnoughStockException;
 import com.ifellow.bookstore.exception.OrderStatusException;
 import com.ifellow.bookstore.model.OrderItem;
+import com.ifellow.bookstore.model.StockReservation;
 import com.ifellow.bookstore.repository.OrderItemRepository;
+import com.ifellow.bookstore.repository.StockReservationRepository;
 import com.ifellow.bookstore.service.api.*;
+import com.ifellow.bookstore.util.CursorUtils;
 import integration.AbstractIntegrationTest;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,6 +51,12 @@ public class OrderServiceImplTest extends AbstractIntegrationTest {
     private AuthorService authorService;
     @Autowired
     private OrderItemRepository orderItemRepository;
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private EntityManager entityManager;
 
     @BeforeEach
     void setUp() {
@@ -177,4 +195,261 @@ public class OrderServiceImplTest extends AbstractIntegrationTest {
         assertThrows(OrderStatusException.class, () -> orderService.cancelById(orderCanceledDto.id()));
 
     }
+
+    @Test
+    @DisplayName("Создание заказа резервирует книги, не списывая их со склада, и не даёт зарезервировать больше свободного остатка")
+    public void create_ReservedStock_LeavesOnHandAndRejectsOverbooking() {
+        AuthorResponseDto authorResponseDto = authorService.save(new AuthorRequestDto("Федор Достоевский"));
+        GenreResponseDto genreResponseDto = genreService.save(new GenreRequestDto("Роман"));
+        BookResponseDto bookResponseDto = bookService.save(new BookRequestDto("Преступление и наказание", authorResponseDto.id(), genreResponseDto.id(), BigDecimal.valueOf(250L)));
+        WarehouseResponseDto warehouseResponseDto = warehouseService.save(new WarehouseRequestDto("Ул. Арбат"));
+        warehouseService.addBookToWarehouse(warehouseResponseDto.id(), new BookBulkDto(bookResponseDto.id(), 20));
+
+
+
+        orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 15)));
+
+
+
+        assertEquals(20, warehouseService.getWarehouseStock(warehouseResponseDto.id(), PageRequest.of(0, 1)).getContent().getFirst().quantity());
+        assertThrows(NotEnoughStockException.class,
+                () -> orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 10))));
+    }
+
+    @Test
+    @DisplayName("Планировщик снимает просроченные резервы, освобождая остаток для новых заказов")
+    public void releaseExpired_ExpiredReservation_FreesStock() {
+        AuthorResponseDto authorResponseDto = authorService.save(new AuthorRequestDto("Федор Достоевский"));
+        GenreResponseDto genreResponseDto = genreService.save(new GenreRequestDto("Роман"));
+        BookResponseDto bookResponseDto = bookService.save(new BookRequestDto("Преступление и наказание", authorResponseDto.id(), genreResponseDto.id(), BigDecimal.valueOf(250L)));
+        WarehouseResponseDto warehouseResponseDto = warehouseService.save(new WarehouseRequestDto("Ул. Арбат"));
+        warehouseService.addBookToWarehouse(warehouseResponseDto.id(), new BookBulkDto(bookResponseDto.id(), 20));
+        OrderResponseDto orderResponseDto = orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 20)));
+
+        List<StockReservation> reservations = stockReservationRepository.findAll();
+        reservations.forEach(reservation -> reservation.setExpiresAt(LocalDateTime.now().minusMinutes(1)));
+        stockReservationRepository.saveAllAndFlush(reservations);
+
+
+
+        stockReservationService.releaseExpired();
+
+
+
+        assertTrue(stockReservationRepository.findAll().isEmpty());
+        assertNotNull(orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 20))));
+        assertEquals(OrderStatus.CREATED, orderService.findById(orderResponseDto.id()).orderStatus());
+    }
+
+    @Test
+    @DisplayName("Списание со склада не затрагивает книги, зарезервированные заказами")
+    public void removeBookFromWarehouse_ReservedStock_ThrowsException() {
+        AuthorResponseDto authorResponseDto = authorService.save(new AuthorRequestDto("Федор Достоевский"));
+        GenreResponseDto genreResponseDto = genreService.save(new GenreRequestDto("Роман"));
+        BookResponseDto bookResponseDto = bookService.save(new BookRequestDto("Преступление и наказание", authorResponseDto.id(), genreResponseDto.id(), BigDecimal.valueOf(250L)));
+        WarehouseResponseDto warehouseResponseDto = warehouseService.save(new WarehouseRequestDto("Ул. Арбат"));
+        warehouseService.addBookToWarehouse(warehouseResponseDto.id(), new BookBulkDto(bookResponseDto.id(), 20));
+        orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 15)));
+
+
+
+        warehouseService.removeBookFromWarehouse(warehouseResponseDto.id(), new BookBulkDto(bookResponseDto.id(), 5));
+
+
+
+        assertEquals(15, warehouseService.getWarehouseStock(warehouseResponseDto.id(), PageRequest.of(0, 1)).getContent().getFirst().quantity());
+        assertThrows(NotEnoughStockException.class, () -> warehouseService.removeBooksFromWarehouse(
+                warehouseResponseDto.id(), List.of(new BookBulkDto(bookResponseDto.id(), 1))));
+    }
+
+    @Test
+    @DisplayName("Выполнение заказа с истёкшим резервом не забирает книги, зарезервированные другим заказом")
+    public void completeById_ExpiredHoldStockReservedByOtherOrder_ThrowsException() {
+        AuthorResponseDto authorResponseDto = authorService.save(new AuthorRequestDto("Федор Достоевский"));
+        GenreResponseDto genreResponseDto = genreService.save(new GenreRequestDto("Роман"));
+        BookResponseDto bookResponseDto = bookService.save(new BookRequestDto("Преступление и наказание", authorResponseDto.id(), genreResponseDto.id(), BigDecimal.valueOf(250L)));
+        WarehouseResponseDto warehouseResponseDto = warehouseService.save(new WarehouseRequestDto("Ул. Арбат"));
+        warehouseService.addBookToWarehouse(warehouseResponseDto.id(), new BookBulkDto(bookResponseDto.id(), 20));
+        OrderResponseDto late = orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 20)));
+
+        List<StockReservation> reservations = stockReservationRepository.findAll();
+        reservations.forEach(reservation -> reservation.setExpiresAt(LocalDateTime.now().minusMinutes(1)));
+        stockReservationRepository.saveAllAndFlush(reservations);
+        orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 20)));
+
+
+
+        assertThrows(NotEnoughStockException.class, () -> orderService.completeById(late.id()));
+    }
+
+    @Test
+    @DisplayName("Массовое выполнение списывает книги одним обновлением на книгу и возвращает итог по каждому id")
+    public void completeAll_MixedIds_CompletesCreatedOrdersOnly() {
+        AuthorResponseDto authorResponseDto = authorService.save(new AuthorRequestDto("Федор Достоевский"));
+        GenreResponseDto genreResponseDto = genreService.save(new GenreRequestDto("Роман"));
+        BookResponseDto bookResponseDto = bookService.save(new BookRequestDto("Преступление и наказание", authorResponseDto.id(), genreResponseDto.id(), BigDecimal.valueOf(250L)));
+        WarehouseResponseDto warehouseResponseDto = warehouseService.save(new WarehouseRequestDto("Ул. Арбат"));
+        warehouseService.addBookToWarehouse(warehouseResponseDto.id(), new BookBulkDto(bookResponseDto.id(), 20));
+
+        OrderResponseDto first = orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 5)));
+        OrderResponseDto second = orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 7)));
+        OrderResponseDto cancelled = orderService.cancelById(
+                orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 1))).id());
+
+
+
+        OrderBulkResponseDto result = orderService.completeAll(
+                new OrderBulkRequestDto(List.of(first.id(), second.id(), cancelled.id(), -1L), null));
+
+
+
+        assertEquals(2, result.applied());
+        assertEquals(2, result.skipped());
+        assertEquals(Map.of(first.id(), OrderBulkOutcome.APPLIED, second.id(), OrderBulkOutcome.APPLIED,
+                cancelled.id(), OrderBulkOutcome.NOT_CREATED, -1L, OrderBulkOutcome.NOT_FOUND), result.outcomes());
+        assertEquals(OrderStatus.COMPLETED, orderService.findById(first.id()).orderStatus());
+        assertEquals(OrderStatus.CANCELLED, orderService.findById(cancelled.id()).orderStatus());
+        assertEquals(8, warehouseService.getWarehouseStock(warehouseResponseDto.id(), PageRequest.of(0, 1)).getContent().getFirst().quantity());
+        assertTrue(stockReservationRepository.findAll().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Массовое выполнение помечает заказ без остатка и проводит остальные")
+    public void completeAll_ExpiredHoldStockTaken_ReportsInsufficientStockAndAppliesRest() {
+        AuthorResponseDto authorResponseDto = authorService.save(new AuthorRequestDto("Федор Достоевский"));
+        GenreResponseDto genreResponseDto = genreService.save(new GenreRequestDto("Роман"));
+        BookResponseDto bookResponseDto = bookService.save(new BookRequestDto("Преступление и наказание", authorResponseDto.id(), genreResponseDto.id(), BigDecimal.valueOf(250L)));
+        WarehouseResponseDto warehouseResponseDto = warehouseService.save(new WarehouseRequestDto("Ул. Арбат"));
+        warehouseService.addBookToWarehouse(warehouseResponseDto.id(), new BookBulkDto(bookResponseDto.id(), 20));
+        OrderResponseDto late = orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 15)));
+
+        List<StockReservation> reservations = stockReservationRepository.findAll();
+        reservations.forEach(reservation -> reservation.setExpiresAt(LocalDateTime.now().minusMinutes(1)));
+        stockReservationRepository.saveAllAndFlush(reservations);
+        OrderResponseDto held = orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 10)));
+
+
+
+        OrderBulkResponseDto result = orderService.completeAll(new OrderBulkRequestDto(List.of(late.id(), held.id()), null));
+
+
+
+        assertEquals(1, result.applied());
+        assertEquals(Map.of(late.id(), OrderBulkOutcome.INSUFFICIENT_STOCK, held.id(), OrderBulkOutcome.APPLIED), result.outcomes());
+        assertEquals(OrderStatus.CREATED, orderService.findById(late.id()).orderStatus());
+        assertEquals(OrderStatus.COMPLETED, orderService.findById(held.id()).orderStatus());
+        assertEquals(10, warehouseService.getWarehouseStock(warehouseResponseDto.id(), PageRequest.of(0, 1)).getContent().getFirst().quantity());
+    }
+
+    @Test
+    @DisplayName("Массовая отмена по фильтру снимает резервы всех созданных заказов склада")
+    public void cancelAll_ByFilter_ReleasesReservations() {
+        AuthorResponseDto authorResponseDto = authorService.save(new AuthorRequestDto("Федор Достоевский"));
+        GenreResponseDto genreResponseDto = genreService.save(new GenreRequestDto("Роман"));
+        BookResponseDto bookResponseDto = bookService.save(new BookRequestDto("Преступление и наказание", authorResponseDto.id(), genreResponseDto.id(), BigDecimal.valueOf(250L)));
+        WarehouseResponseDto warehouseResponseDto = warehouseService.save(new WarehouseRequestDto("Ул. Арбат"));
+        warehouseService.addBookToWarehouse(warehouseResponseDto.id(), new BookBulkDto(bookResponseDto.id(), 20));
+
+        OrderResponseDto first = orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 10)));
+        OrderResponseDto second = orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 10)));
+
+
+
+        OrderBulkResponseDto result = orderService.cancelAll(new OrderBulkRequestDto(null,
+                OrderFilter.builder().warehouseId(warehouseResponseDto.id()).status(OrderStatus.CREATED).build()));
+
+
+
+        assertEquals(2, result.applied());
+        assertEquals(OrderStatus.CANCELLED, orderService.findById(first.id()).orderStatus());
+        assertEquals(OrderStatus.CANCELLED, orderService.findById(second.id()).orderStatus());
+        assertTrue(stockReservationRepository.findAll().isEmpty());
+        assertEquals(20, warehouseService.getWarehouseStock(warehouseResponseDto.id(), PageRequest.of(0, 1)).getContent().getFirst().quantity());
+    }
+
+    @Test
+    @DisplayName("Массовая отмена по фильтру обрабатывает заказы частями и отклоняет фильтр, совпавший со слишком многими заказами")
+    public void cancelAll_ByFilter_ProcessesChunksAndRejectsTooManyMatches() {
+        AuthorResponseDto authorResponseDto = authorService.save(new AuthorRequestDto("Федор Достоевский"));
+        GenreResponseDto genreResponseDto = genreService.save(new GenreRequestDto("Роман"));
+        BookResponseDto bookResponseDto = bookService.save(new BookRequestDto("Преступление и наказание", authorResponseDto.id(), genreResponseDto.id(), BigDecimal.valueOf(250L)));
+        WarehouseResponseDto warehouseResponseDto = warehouseService.save(new WarehouseRequestDto("Ул. Арбат"));
+        warehouseService.addBookToWarehouse(warehouseResponseDto.id(), new BookBulkDto(bookResponseDto.id(), 30));
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            orderIds.add(orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 10))).id());
+        }
+        OrderBulkRequestDto request = new OrderBulkRequestDto(null,
+                OrderFilter.builder().warehouseId(warehouseResponseDto.id()).status(OrderStatus.CREATED).build());
+        Object target = AopTestUtils.getTargetObject(orderService);
+        Object chunkSize = ReflectionTestUtils.getField(target, "chunkSize");
+        Object maxOrders = ReflectionTestUtils.getField(target, "maxOrders");
+        ReflectionTestUtils.setField(target, "chunkSize", 2);
+        ReflectionTestUtils.setField(target, "maxOrders", 2);
+
+        try {
+
+
+
+            assertThrows(IllegalArgumentException.class, () -> orderService.cancelAll(request));
+            ReflectionTestUtils.setField(target, "maxOrders", 3);
+            OrderBulkResponseDto result = orderService.cancelAll(request);
+
+
+
+            assertEquals(3, result.applied());
+            assertEquals(orderIds, List.copyOf(result.outcomes().keySet()));
+            assertTrue(stockReservationRepository.findAll().isEmpty());
+        } finally {
+            ReflectionTestUtils.setField(target, "chunkSize", chunkSize);
+            ReflectionTestUtils.setField(target, "maxOrders", maxOrders);
+        }
+    }
+
+    @Test
+    @DisplayName("Массовая операция без id и фильтра отклоняется")
+    public void completeAll_NoIdsNoFilter_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.completeAll(new OrderBulkRequestDto(null, null)));
+    }
+
+    @Test
+    @DisplayName("Массовая операция с пустым фильтром отклоняется")
+    public void cancelAll_EmptyFilter_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.cancelAll(new OrderBulkRequestDto(null, new OrderFilter())));
+    }
+
+    @Test
+    @DisplayName("Обход заказов по курсору совпадает со смещением и не зависит от равных дат")
+    public void findAll_Cursor_MatchesOffsetOrder() {
+        AuthorResponseDto authorResponseDto = authorService.save(new AuthorRequestDto("Федор Достоевский"));
+        GenreResponseDto genreResponseDto = genreService.save(new GenreRequestDto("Роман"));
+        BookResponseDto bookResponseDto = bookService.save(new BookRequestDto("Преступление и наказание", authorResponseDto.id(), genreResponseDto.id(), BigDecimal.valueOf(250L)));
+        WarehouseResponseDto warehouseResponseDto = warehouseService.save(new WarehouseRequestDto("Ул. Арбат"));
+        warehouseService.addBookToWarehouse(warehouseResponseDto.id(), new BookBulkDto(bookResponseDto.id(), 20));
+        for (int i = 0; i < 5; i++) {
+            orderService.create(warehouseResponseDto.id(), List.of(new BookOrderDto(bookResponseDto.id(), 1)));
+        }
+        OrderFilter filter = OrderFilter.builder().warehouseId(warehouseResponseDto.id()).build();
+        entityManager.flush();
+        entityManager.clear();
+
+
+
+        List<Long> walked = new ArrayList<>();
+        CursorPageRequest cursorPageRequest = new CursorPageRequest(2, "orderDateTime", Sort.Direction.DESC, null, null);
+        CursorPageResponseDto<OrderResponseDto> page;
+        do {
+            page = orderService.findAll(filter, cursorPageRequest);
+            page.content().forEach(order -> walked.add(order.id()));
+            if (page.nextCursor() != null) cursorPageRequest = CursorUtils.decode(page.nextCursor(), 2);
+        } while (page.nextCursor() != null);
+
+
+
+        List<Long> expected = orderService.findAll(filter, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "orderDateTime", "id")))
+                .map(OrderResponseDto::id)
+                .getContent();
+        assertEquals(expected, walked);
+    }
 }
@@ -0,0 +1,162 @@
+package integration.service;
+
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.model.*;
+import com.ifellow.bookstore.repository.*;
+import com.ifellow.bookstore.service.api.SaleGroupCommitService;
+import com.ifellow.bookstore.service.api.StoreService;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("benchmark")
+@SpringBootTest(classes = RootConfiguration.class)
+@TestPropertySource(properties = "hibernate.show_sql=false")
+class SaleGroupCommitBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int SALES_PER_THREAD = 100;
+
+    @Autowired
+    private SaleGroupCommitService saleGroupCommitService;
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private StoreBookAmountRepository storeBookAmountRepository;
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    @Autowired
+    private SaleRepository saleRepository;
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+
+    private static Server server;
+
+    private Store store;
+    private Book book;
+
+    @DynamicPropertySource
+    static void overTcp(DynamicPropertyRegistry registry) throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        registry.add("datasource.url", () -> "jdbc:h2:" + server.getURL() + "/mem:group-commit-benchmark;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder().fullName("Лев Толстой").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        store = storeRepository.save(Store.builder().address("Магазин, Групповая 1").build());
+        book = bookRepository.save(Book.builder()
+                .title("Война и мир")
+                .author(author)
+                .genre(genre)
+                .price(BigDecimal.valueOf(100))
+                .build());
+
+        storeService.addBooksToStore(store.getId(), List.of(new BookBulkDto(book.getId(), 2 * THREADS * SALES_PER_THREAD)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(saleGroupCommitService), "enabled", false);
+        saleItemRepository.deleteAll();
+        saleRepository.deleteAll();
+        stockMovementRepository.deleteAll();
+        storeBookAmountRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Пропускная способность параллельных продаж одной книги с групповой фиксацией и без неё")
+    void processSale_HotBook_GroupCommitVersusPerSale() throws Exception {
+        run("per-sale", false);
+        run("group-commit", true);
+
+        assertEquals(2L * THREADS * SALES_PER_THREAD, saleRepository.count());
+        assertEquals(0, storeBookAmountRepository.findByStoreIdAndBookId(store.getId(), book.getId()).orElseThrow().getAmount());
+    }
+
+    private void run(String scenario, boolean groupCommit) throws Exception {
+        ReflectionTestUtils.setField((Object) AopTestUtils.getTargetObject(saleGroupCommitService), "enabled", groupCommit);
+        List<BookSaleDto> basket = List.of(new BookSaleDto(book.getId(), 1));
+        long movementsBefore = stockMovementRepository.count();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    authenticateAsClient();
+                    start.await();
+                    for (int sale = 0; sale < SALES_PER_THREAD; sale++) {
+                        saleGroupCommitService.processSale(store.getId(), basket);
+                    }
+                    return null;
+                }));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+
+            int sales = THREADS * SALES_PER_THREAD;
+            long commits = stockMovementRepository.count() - movementsBefore;
+            System.out.printf("[sale-group-commit] scenario=%s threads=%d sales=%d elapsed=%dms throughput=%d sales/s commits=%d sales/commit=%.1f%n",
+                    scenario, THREADS, sales, elapsedMillis, sales * 1000L / elapsedMillis, commits, (double) sales / commits);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void authenticateAsClient() {
+        UserDetails userDetails = new org.springframework.security.core.userdetails.User(
+                "client", "", List.of(new SimpleGrantedAuthority("ROLE_CLIENT")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+}
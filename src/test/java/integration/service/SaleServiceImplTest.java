@@ -83,7 +83,8 @@ class SaleServiceImplTest extends AbstractIntegrationTest {
 
 
         assertNotNull(saleResponseDto);
-        assertEquals(BigDecimal.valueOf(bookSaleDtoList.getFirst().quantity()).multiply(bookResponseDto.price()), saleResponseDto.totalPrice());
+        BigDecimal expectedTotalPrice = BigDecimal.valueOf(bookSaleDtoList.getFirst().quantity()).multiply(bookResponseDto.price());
+        assertEquals(0, expectedTotalPrice.compareTo(saleResponseDto.totalPrice()));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package integration.service;
+
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.enumeration.StockLockingMode;
+import com.ifellow.bookstore.exception.NotEnoughStockException;
+import com.ifellow.bookstore.exception.StockConflictException;
+import com.ifellow.bookstore.model.*;
+import com.ifellow.bookstore.repository.*;
+import com.ifellow.bookstore.service.api.StoreService;
+import com.ifellow.bookstore.service.api.WarehouseService;
+import com.ifellow.bookstore.util.StockConcurrencyControl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = RootConfiguration.class)
+class StockConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int STOCK = 50;
+
+    @Autowired
+    private WarehouseService warehouseService;
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private WarehouseBookAmountRepository warehouseBookAmountRepository;
+    @Autowired
+    private StoreBookAmountRepository storeBookAmountRepository;
+    @Autowired
+    private StockConcurrencyControl stockConcurrencyControl;
+
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder().fullName("Лев Толстой").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        book = bookRepository.save(Book.builder()
+                .title("Война и мир")
+                .author(author)
+                .genre(genre)
+                .price(BigDecimal.valueOf(500))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockConcurrencyControl.setMode(StockLockingMode.ATOMIC);
+        warehouseBookAmountRepository.deleteAll();
+        storeBookAmountRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+        warehouseRepository.deleteAll();
+        storeRepository.deleteAll();
+    }
+
+    @ParameterizedTest
+    @EnumSource(StockLockingMode.class)
+    @DisplayName("Параллельное списание со склада в 64 потока не уводит остаток в минус")
+    void removeBookFromWarehouse_64Threads_NoOverselling(StockLockingMode mode) throws Exception {
+        stockConcurrencyControl.setMode(mode);
+        Warehouse warehouse = warehouseRepository.save(Warehouse.builder().address("Склад, Конкурентная 1").build());
+        warehouseService.addBookToWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), STOCK));
+
+        int sold = runConcurrently(() -> warehouseService.removeBookFromWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 1)));
+
+        assertSoldWithoutOverselling(mode, sold, warehouseBookAmountRepository.findByWarehouseIdAndBookId(warehouse.getId(), book.getId()).orElseThrow().getAmount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(StockLockingMode.class)
+    @DisplayName("Параллельное списание из магазина в 64 потока не уводит остаток в минус")
+    void removeBookFromStore_64Threads_NoOverselling(StockLockingMode mode) throws Exception {
+        stockConcurrencyControl.setMode(mode);
+        Store store = storeRepository.save(Store.builder().address("Магазин, Конкурентная 1").build());
+        storeService.addBookToStore(store.getId(), new BookBulkDto(book.getId(), STOCK));
+
+        int sold = runConcurrently(() -> storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), 1)));
+
+        assertSoldWithoutOverselling(mode, sold, storeBookAmountRepository.findByStoreIdAndBookId(store.getId(), book.getId()).orElseThrow().getAmount());
+    }
+
+    private void assertSoldWithoutOverselling(StockLockingMode mode, int sold, int remaining) {
+        assertEquals(STOCK - sold, remaining);
+        if (mode != StockLockingMode.OPTIMISTIC) assertEquals(STOCK, sold);
+    }
+
+    private int runConcurrently(Runnable removal) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        removal.run();
+                        succeeded.incrementAndGet();
+                    } catch (NotEnoughStockException | StockConflictException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS, succeeded.get() + rejected.get());
+        return succeeded.get();
+    }
+}
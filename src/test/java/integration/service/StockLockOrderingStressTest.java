@@ -0,0 +1,146 @@
+package integration.service;
+
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.model.*;
+import com.ifellow.bookstore.repository.*;
+import com.ifellow.bookstore.service.api.SaleService;
+import com.ifellow.bookstore.service.api.StoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = RootConfiguration.class)
+class StockLockOrderingStressTest {
+
+    private static final int THREADS = 16;
+    private static final int SALES_PER_THREAD = 40;
+    private static final int BOOKS = 6;
+    private static final int MAX_LINES = 5;
+    private static final int STOCK = THREADS * SALES_PER_THREAD * MAX_LINES * 3;
+
+    @Autowired
+    private SaleService saleService;
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private StoreBookAmountRepository storeBookAmountRepository;
+    @Autowired
+    private SaleRepository saleRepository;
+    @Autowired
+    private SaleItemRepository saleItemRepository;
+
+    private Store store;
+    private List<Book> books;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder().fullName("Лев Толстой").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        store = storeRepository.save(Store.builder().address("Магазин, Стрессовая 1").build());
+
+        books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(bookRepository.save(Book.builder()
+                    .title("Книга " + i)
+                    .author(author)
+                    .genre(genre)
+                    .price(BigDecimal.valueOf(100))
+                    .build()));
+        }
+        storeService.addBooksToStore(store.getId(), books.stream()
+                .map(book -> new BookBulkDto(book.getId(), STOCK))
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        saleItemRepository.deleteAll();
+        saleRepository.deleteAll();
+        storeBookAmountRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Параллельные продажи со случайным порядком книг в корзине не взаимоблокируются и не теряют списания")
+    void processSale_RandomizedBaskets_NoDeadlocks() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicIntegerArray soldByBook = new AtomicIntegerArray(BOOKS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    authenticateAsClient();
+                    start.await();
+
+                    for (int sale = 0; sale < SALES_PER_THREAD; sale++) {
+                        saleService.processSale(store.getId(), randomBasket(soldByBook));
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = books.get(i);
+            assertEquals(STOCK - soldByBook.get(i),
+                    storeBookAmountRepository.findByStoreIdAndBookId(store.getId(), book.getId()).orElseThrow().getAmount());
+        }
+    }
+
+    private List<BookSaleDto> randomBasket(AtomicIntegerArray soldByBook) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<BookSaleDto> basket = new ArrayList<>();
+
+        int lines = 2 + random.nextInt(MAX_LINES - 1);
+        for (int line = 0; line < lines; line++) {
+            int bookIndex = random.nextInt(BOOKS);
+            int quantity = 1 + random.nextInt(3);
+            basket.add(new BookSaleDto(books.get(bookIndex).getId(), quantity));
+            soldByBook.addAndGet(bookIndex, quantity);
+        }
+        return basket;
+    }
+
+    private void authenticateAsClient() {
+        UserDetails userDetails = new org.springframework.security.core.userdetails.User(
+                "client", "", List.of(new SimpleGrantedAuthority("ROLE_CLIENT")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+}
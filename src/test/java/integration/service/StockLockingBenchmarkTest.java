@@ -0,0 +1,144 @@
+package integration.service;
+
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.dto.response.StockLockingMetricsResponseDto;
+import com.ifellow.bookstore.enumeration.StockLockingMode;
+import com.ifellow.bookstore.exception.StockConflictException;
+import com.ifellow.bookstore.model.*;
+import com.ifellow.bookstore.repository.*;
+import com.ifellow.bookstore.service.api.WarehouseService;
+import com.ifellow.bookstore.util.StockConcurrencyControl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("benchmark")
+@SpringBootTest(classes = RootConfiguration.class)
+class StockLockingBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 200;
+    private static final int SPREAD_BOOKS = 64;
+
+    @Autowired
+    private WarehouseService warehouseService;
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private WarehouseBookAmountRepository warehouseBookAmountRepository;
+    @Autowired
+    private StockConcurrencyControl stockConcurrencyControl;
+
+    private Warehouse warehouse;
+    private List<Book> books;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder().fullName("Лев Толстой").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        warehouse = warehouseRepository.save(Warehouse.builder().address("Склад, Нагрузочная 1").build());
+
+        books = new ArrayList<>();
+        for (int i = 0; i < SPREAD_BOOKS; i++) {
+            Book book = bookRepository.save(Book.builder()
+                    .title("Книга " + i)
+                    .author(author)
+                    .genre(genre)
+                    .price(BigDecimal.valueOf(100))
+                    .build());
+            warehouseService.addBookToWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), THREADS * OPERATIONS_PER_THREAD));
+            books.add(book);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockConcurrencyControl.setMode(StockLockingMode.ATOMIC);
+        stockConcurrencyControl.resetMetrics();
+        warehouseBookAmountRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @ParameterizedTest
+    @EnumSource(StockLockingMode.class)
+    @DisplayName("Пропускная способность списания одной горячей книги")
+    void removeBookFromWarehouse_HotBook(StockLockingMode mode) throws Exception {
+        run(mode, "hot", 1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(StockLockingMode.class)
+    @DisplayName("Пропускная способность списания равномерно распределённых книг")
+    void removeBookFromWarehouse_SpreadBooks(StockLockingMode mode) throws Exception {
+        run(mode, "spread", SPREAD_BOOKS);
+    }
+
+    private void run(StockLockingMode mode, String scenario, int bookCount) throws Exception {
+        stockConcurrencyControl.setMode(mode);
+        stockConcurrencyControl.resetMetrics();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger conflicted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int op = 0; op < OPERATIONS_PER_THREAD; op++) {
+                        Book book = books.get(ThreadLocalRandom.current().nextInt(bookCount));
+                        try {
+                            warehouseService.removeBookFromWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 1));
+                            succeeded.incrementAndGet();
+                        } catch (StockConflictException e) {
+                            conflicted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+
+            StockLockingMetricsResponseDto metrics = stockConcurrencyControl.getMetrics();
+            System.out.printf("[stock-locking] mode=%s scenario=%s ops=%d failed=%d elapsed=%dms throughput=%d ops/s retries=%d conflicts=%d lockWaits=%d lockWaitMs=%d%n",
+                    mode, scenario, succeeded.get(), conflicted.get(), elapsedMillis,
+                    succeeded.get() * 1000L / elapsedMillis,
+                    metrics.retries(), metrics.conflicts(), metrics.lockWaits(), metrics.lockWaitMillis());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, succeeded.get() + conflicted.get());
+    }
+}
@@ -0,0 +1,276 @@
+package integration.service;
+
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.dto.response.StockAsOfResponseDto;
+import com.ifellow.bookstore.enumeration.StockLocationType;
+import com.ifellow.bookstore.enumeration.StockMovementType;
+import com.ifellow.bookstore.model.*;
+import com.ifellow.bookstore.repository.*;
+import com.ifellow.bookstore.service.api.StockMovementService;
+import com.ifellow.bookstore.service.api.StoreService;
+import com.ifellow.bookstore.service.api.TransferService;
+import com.ifellow.bookstore.service.api.WarehouseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = RootConfiguration.class)
+class StockMovementServiceImplTest {
+
+    @Autowired
+    private StockMovementService stockMovementService;
+    @Autowired
+    private WarehouseService warehouseService;
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private TransferService transferService;
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private WarehouseBookAmountRepository warehouseBookAmountRepository;
+    @Autowired
+    private StoreBookAmountRepository storeBookAmountRepository;
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    private Warehouse warehouse;
+    private Store store;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder().fullName("Федор Достоевский").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        warehouse = warehouseRepository.save(Warehouse.builder().address("Варшавская").build());
+        store = storeRepository.save(Store.builder().address("Фрунзенская").build());
+        book = bookRepository.save(Book.builder()
+                .title("Преступление и наказание")
+                .author(author)
+                .genre(genre)
+                .price(BigDecimal.valueOf(250L))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockSnapshotRepository.deleteAll();
+        stockMovementRepository.deleteAll();
+        warehouseBookAmountRepository.deleteAll();
+        storeBookAmountRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+        storeRepository.deleteAll();
+        warehouseRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Записывает движения остатков с типом операции")
+    void recordMovements_Transfer_StoresMovementTypes() {
+        warehouseService.addBookToWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 10));
+        transferService.transferBookFromWarehouseToStore(warehouse.getId(), store.getId(), new BookBulkDto(book.getId(), 4));
+
+        List<StockMovement> movements = stockMovementRepository.findAll().stream()
+                .filter(movement -> movement.getBookId().equals(book.getId()))
+                .toList();
+
+        assertEquals(3, movements.size());
+        assertTrue(movements.stream().anyMatch(movement -> movement.getLocationType() == StockLocationType.WAREHOUSE
+                && movement.getMovementType() == StockMovementType.ADD && movement.getDelta() == 10));
+        assertTrue(movements.stream().anyMatch(movement -> movement.getLocationType() == StockLocationType.WAREHOUSE
+                && movement.getMovementType() == StockMovementType.TRANSFER && movement.getDelta() == -4));
+        assertTrue(movements.stream().anyMatch(movement -> movement.getLocationType() == StockLocationType.STORE
+                && movement.getMovementType() == StockMovementType.TRANSFER && movement.getDelta() == 4));
+    }
+
+    @Test
+    @DisplayName("Восстанавливает остатки на момент времени по снимку и последующим движениям")
+    void getStockAsOf_SnapshotAndLaterMovements_ReturnsHistoricalAmounts() throws InterruptedException {
+        LocalDateTime beforeAll = LocalDateTime.now();
+        Thread.sleep(5);
+
+        warehouseService.addBookToWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 10));
+        transferService.transferBookFromWarehouseToStore(warehouse.getId(), store.getId(), new BookBulkDto(book.getId(), 4));
+        Thread.sleep(5);
+        LocalDateTime afterTransfer = LocalDateTime.now();
+        Thread.sleep(5);
+
+        stockMovementService.compact();
+        Thread.sleep(5);
+        warehouseService.removeBookFromWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 3));
+
+        assertEquals(1, stockSnapshotRepository.findAll().stream()
+                .filter(snapshot -> snapshot.getLocationType() == StockLocationType.WAREHOUSE
+                        && snapshot.getLocationId().equals(warehouse.getId()))
+                .count());
+        assertTrue(warehouseService.getWarehouseStockAsOf(warehouse.getId(), beforeAll).isEmpty());
+        assertEquals(List.of(new StockAsOfResponseDto(book.getId(), 6)),
+                warehouseService.getWarehouseStockAsOf(warehouse.getId(), afterTransfer));
+        assertEquals(List.of(new StockAsOfResponseDto(book.getId(), 3)),
+                warehouseService.getWarehouseStockAsOf(warehouse.getId(), LocalDateTime.now()));
+        assertEquals(List.of(new StockAsOfResponseDto(book.getId(), 4)),
+                storeService.getStoreStockAsOf(store.getId(), LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Повторное сжатие переносит снимок вперёд с учётом новых движений")
+    void compact_SecondRun_CarriesSnapshotForward() throws InterruptedException {
+        warehouseService.addBookToWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 10));
+        Thread.sleep(5);
+        stockMovementService.compact();
+        Thread.sleep(5);
+
+        warehouseService.removeBookFromWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 2));
+        Thread.sleep(5);
+        stockMovementService.compact();
+
+        LocalDateTime latest = stockSnapshotRepository.findLatestTakenAt().orElseThrow();
+        List<StockSnapshot> snapshots = stockSnapshotRepository.findLatestForLocation(
+                StockLocationType.WAREHOUSE, warehouse.getId(), latest);
+
+        assertEquals(1, snapshots.size());
+        assertEquals(8, snapshots.getFirst().getAmount());
+    }
+
+    @Test
+    @DisplayName("Сжатие пишет снимок только для изменившихся остатков, неизменные берутся из их последнего снимка")
+    void compact_UnchangedLocation_WritesNoNewSnapshotRows() throws InterruptedException {
+        warehouseService.addBookToWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 10));
+        transferService.transferBookFromWarehouseToStore(warehouse.getId(), store.getId(), new BookBulkDto(book.getId(), 4));
+        Thread.sleep(5);
+        stockMovementService.compact();
+        Thread.sleep(5);
+
+        storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), 1));
+        Thread.sleep(5);
+        stockMovementService.compact();
+
+        List<StockSnapshot> warehouseSnapshots = stockSnapshotRepository.findAll().stream()
+                .filter(snapshot -> snapshot.getLocationType() == StockLocationType.WAREHOUSE)
+                .toList();
+        assertEquals(1, warehouseSnapshots.size());
+        assertEquals(2, stockSnapshotRepository.findAll().stream()
+                .filter(snapshot -> snapshot.getLocationType() == StockLocationType.STORE)
+                .count());
+        assertEquals(List.of(new StockAsOfResponseDto(book.getId(), 6)),
+                warehouseService.getWarehouseStockAsOf(warehouse.getId(), LocalDateTime.now()));
+        assertEquals(List.of(new StockAsOfResponseDto(book.getId(), 3)),
+                storeService.getStoreStockAsOf(store.getId(), LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Движение, зафиксированное после сжатия с более ранним временем записи, попадает в следующий снимок")
+    void compact_MovementCommittedLate_FoldsIntoNextSnapshot() throws InterruptedException {
+        warehouseService.addBookToWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 10));
+        LocalDateTime recordedBeforeSnapshot = LocalDateTime.now();
+        Thread.sleep(5);
+        stockMovementService.compact();
+
+        stockMovementRepository.insertAll(List.of(StockMovement.builder()
+                .locationType(StockLocationType.WAREHOUSE)
+                .locationId(warehouse.getId())
+                .bookId(book.getId())
+                .delta(-4)
+                .movementType(StockMovementType.REMOVE)
+                .createdAt(recordedBeforeSnapshot)
+                .build()));
+        assertEquals(List.of(new StockAsOfResponseDto(book.getId(), 6)),
+                warehouseService.getWarehouseStockAsOf(warehouse.getId(), LocalDateTime.now()));
+
+        Thread.sleep(5);
+        stockMovementService.compact();
+
+        LocalDateTime latest = stockSnapshotRepository.findLatestTakenAt().orElseThrow();
+        assertEquals(6, stockSnapshotRepository.findLatestForLocation(
+                StockLocationType.WAREHOUSE, warehouse.getId(), latest).getFirst().getAmount());
+        assertEquals(List.of(new StockAsOfResponseDto(book.getId(), 6)),
+                warehouseService.getWarehouseStockAsOf(warehouse.getId(), LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Сжатие удаляет снимки и свёрнутые движения старше срока хранения истории")
+    void compact_BeyondRetention_PrunesSupersededSnapshotsAndMovements() throws InterruptedException {
+        warehouseService.addBookToWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 10));
+        stockMovementService.compact();
+        Thread.sleep(5);
+        warehouseService.addBookToWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 5));
+        stockMovementService.compact();
+        ageHistory(100);
+
+        Thread.sleep(5);
+        warehouseService.removeBookFromWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 3));
+        stockMovementService.compact();
+
+        assertEquals(2, stockSnapshotRepository.findAll().stream()
+                .filter(snapshot -> snapshot.getLocationType() == StockLocationType.WAREHOUSE
+                        && snapshot.getLocationId().equals(warehouse.getId()))
+                .map(StockSnapshot::getTakenAt)
+                .distinct()
+                .count());
+        assertEquals(List.of(-3), stockMovementRepository.findAll().stream()
+                .filter(movement -> movement.getLocationType() == StockLocationType.WAREHOUSE
+                        && movement.getLocationId().equals(warehouse.getId()))
+                .map(StockMovement::getDelta)
+                .toList());
+        assertEquals(List.of(new StockAsOfResponseDto(book.getId(), 12)),
+                warehouseService.getWarehouseStockAsOf(warehouse.getId(), LocalDateTime.now()));
+        assertThrows(IllegalArgumentException.class,
+                () -> warehouseService.getWarehouseStockAsOf(warehouse.getId(), LocalDateTime.now().minusHours(100)));
+    }
+
+    @Test
+    @DisplayName("Очистка истории сохраняет последний снимок остатка, который давно не менялся")
+    void compact_BeyondRetention_KeepsLatestSnapshotOfUnchangedStock() throws InterruptedException {
+        storeService.addBookToStore(store.getId(), new BookBulkDto(book.getId(), 7));
+        stockMovementService.compact();
+        ageHistory(100);
+
+        Thread.sleep(5);
+        warehouseService.addBookToWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 10));
+        stockMovementService.compact();
+        ageHistory(100);
+
+        Thread.sleep(5);
+        warehouseService.removeBookFromWarehouse(warehouse.getId(), new BookBulkDto(book.getId(), 3));
+        stockMovementService.compact();
+
+        assertEquals(List.of(new StockAsOfResponseDto(book.getId(), 7)),
+                storeService.getStoreStockAsOf(store.getId(), LocalDateTime.now()));
+        assertEquals(List.of(new StockAsOfResponseDto(book.getId(), 7)),
+                warehouseService.getWarehouseStockAsOf(warehouse.getId(), LocalDateTime.now()));
+    }
+
+    private void ageHistory(long hours) {
+        List<StockSnapshot> snapshots = stockSnapshotRepository.findAll();
+        snapshots.forEach(snapshot -> snapshot.setTakenAt(snapshot.getTakenAt().minusHours(hours)));
+        stockSnapshotRepository.saveAll(snapshots);
+
+        List<StockMovement> movements = stockMovementRepository.findAll();
+        movements.forEach(movement -> {
+            movement.setCreatedAt(movement.getCreatedAt().minusHours(hours));
+            movement.setCompactedAt(movement.getCompactedAt().minusHours(hours));
+        });
+        stockMovementRepository.saveAll(movements);
+    }
+}
@@ -0,0 +1,129 @@
+package integration.service;
+
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.model.*;
+import com.ifellow.bookstore.repository.*;
+import com.ifellow.bookstore.service.api.StoreService;
+import com.ifellow.bookstore.service.api.StoreStockSplitService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("benchmark")
+@SpringBootTest(classes = RootConfiguration.class)
+@TestPropertySource(properties = "stock.split.enabled=true")
+class StoreStockSplitBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 200;
+    private static final int STOCK = THREADS * OPERATIONS_PER_THREAD * 2;
+
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private StoreStockSplitService storeStockSplitService;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private StoreBookAmountRepository storeBookAmountRepository;
+    @Autowired
+    private StoreBookAmountSlotRepository storeBookAmountSlotRepository;
+
+    private Store store;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder().fullName("Лев Толстой").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        store = storeRepository.save(Store.builder().address("Магазин, Премьерная 1").build());
+        book = bookRepository.save(Book.builder()
+                .title("Новинка")
+                .author(author)
+                .genre(genre)
+                .price(BigDecimal.valueOf(900))
+                .build());
+        storeService.addBookToStore(store.getId(), new BookBulkDto(book.getId(), STOCK));
+    }
+
+    @AfterEach
+    void tearDown() {
+        storeBookAmountSlotRepository.deleteAll();
+        storeBookAmountRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+        storeRepository.deleteAll();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 16})
+    @DisplayName("Пропускная способность продаж горячей книги с разным числом слотов")
+    void removeBookFromStore_HotBook(int slots) throws Exception {
+        if (slots > 1) storeStockSplitService.split(store.getId(), book.getId(), slots);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+
+        long elapsedMillis;
+        long[] latencies = new long[THREADS * OPERATIONS_PER_THREAD];
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long[] threadLatencies = new long[OPERATIONS_PER_THREAD];
+                    for (int op = 0; op < OPERATIONS_PER_THREAD; op++) {
+                        long startedAt = System.nanoTime();
+                        storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), 1));
+                        threadLatencies[op] = System.nanoTime() - startedAt;
+                    }
+                    return threadLatencies;
+                }));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            int index = 0;
+            for (Future<long[]> future : futures) {
+                for (long latency : future.get(5, TimeUnit.MINUTES)) {
+                    latencies[index++] = latency;
+                }
+            }
+            elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("[stock-split] slots=%d ops=%d elapsed=%dms throughput=%d ops/s p50=%dus p99=%dus%n",
+                slots, latencies.length, elapsedMillis, latencies.length * 1000L / elapsedMillis,
+                TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[(int) Math.ceil(latencies.length * 0.99) - 1]));
+
+        assertEquals(STOCK - latencies.length,
+                storeService.getStoreStock(store.getId(), PageRequest.of(0, 1)).getContent().getFirst().quantity());
+    }
+}
@@ -0,0 +1,245 @@
+package integration.service;
+
+import com.ifellow.bookstore.configuration.RootConfiguration;
+import com.ifellow.bookstore.dto.request.BookBulkDto;
+import com.ifellow.bookstore.exception.NotEnoughStockException;
+import com.ifellow.bookstore.exception.StockConflictException;
+import com.ifellow.bookstore.model.*;
+import com.ifellow.bookstore.repository.*;
+import com.ifellow.bookstore.service.api.StoreService;
+import com.ifellow.bookstore.service.api.StoreStockSplitService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = RootConfiguration.class)
+@TestPropertySource(properties = "stock.split.enabled=true")
+class StoreStockSplitTest {
+
+    private static final int THREADS = 32;
+    private static final int STOCK = 50;
+    private static final int SLOTS = 8;
+
+    @Autowired
+    private StoreService storeService;
+    @Autowired
+    private StoreStockSplitService storeStockSplitService;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private GenreRepository genreRepository;
+    @Autowired
+    private StoreBookAmountRepository storeBookAmountRepository;
+    @Autowired
+    private StoreBookAmountSlotRepository storeBookAmountSlotRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Store store;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder().fullName("Лев Толстой").build());
+        Genre genre = genreRepository.save(Genre.builder().name("Роман").build());
+        store = storeRepository.save(Store.builder().address("Магазин, Новинок 1").build());
+        book = bookRepository.save(Book.builder()
+                .title("Война и мир")
+                .author(author)
+                .genre(genre)
+                .price(BigDecimal.valueOf(500))
+                .build());
+        storeService.addBookToStore(store.getId(), new BookBulkDto(book.getId(), STOCK));
+    }
+
+    @AfterEach
+    void tearDown() {
+        setSplitEnabled(true);
+        storeBookAmountSlotRepository.deleteAll();
+        storeBookAmountRepository.deleteAll();
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        genreRepository.deleteAll();
+        storeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Разделение переносит остаток в слоты, объединение возвращает его в основную строку")
+    void splitAndMerge_MovesStockBetweenRowAndSlots() {
+        storeStockSplitService.split(store.getId(), book.getId(), SLOTS);
+
+        assertEquals(SLOTS, storeBookAmountSlotRepository.findAll().size());
+        assertEquals(0, mainAmount());
+        assertEquals(STOCK, storeStock());
+
+        storeService.addBookToStore(store.getId(), new BookBulkDto(book.getId(), 5));
+        storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), 3));
+        assertEquals(STOCK + 2, storeStock());
+
+        storeStockSplitService.merge(store.getId(), book.getId());
+
+        assertTrue(storeBookAmountSlotRepository.findAll().isEmpty());
+        assertEquals(STOCK + 2, mainAmount());
+    }
+
+    @Test
+    @DisplayName("После выключения разделения остаток в слотах продолжает читаться и списываться")
+    void removeBookFromStore_SplitDisabledAfterSplit_KeepsSlotStock() {
+        storeStockSplitService.split(store.getId(), book.getId(), SLOTS);
+        setSplitEnabled(false);
+
+        storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), 10));
+
+        assertEquals(STOCK - 10, storeStock());
+        assertEquals(SLOTS, storeBookAmountSlotRepository.findAll().size());
+    }
+
+    @Test
+    @DisplayName("Списывает больше, чем лежит в одном слоте, собирая остаток по нескольким слотам")
+    void removeBookFromStore_QuantityAboveSlot_DrainsSeveralSlots() {
+        storeStockSplitService.split(store.getId(), book.getId(), SLOTS);
+
+        storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), STOCK - 1));
+
+        assertEquals(1, storeStock());
+        assertThrows(NotEnoughStockException.class,
+                () -> storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), 2)));
+    }
+
+    @Test
+    @DisplayName("Ребалансировщик выравнивает остатки по слотам")
+    void rebalance_UnevenSlots_SpreadsStockEvenly() {
+        storeStockSplitService.split(store.getId(), book.getId(), SLOTS);
+        storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), 6));
+        storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), 4));
+
+        storeStockSplitService.rebalance();
+
+        List<Integer> amounts = storeBookAmountSlotRepository.findAll().stream()
+                .map(StoreBookAmountSlot::getAmount)
+                .toList();
+        assertEquals(STOCK - 10, amounts.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(amounts.stream().allMatch(amount -> amount == 5));
+    }
+
+    @Test
+    @DisplayName("Ребалансировщик не ждёт занятые слоты, пропускает книгу и выравнивает её при следующем запуске")
+    void rebalance_SlotLockedByAnotherTransaction_SkipsBookWithoutWaiting() throws Exception {
+        storeStockSplitService.split(store.getId(), book.getId(), SLOTS);
+        storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), 6));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(_ -> {
+            jdbcTemplate.queryForList("SELECT id FROM store_books_amount_slots WHERE store_id = ? AND book_id = ? AND slot = 0 FOR UPDATE",
+                    store.getId(), book.getId());
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        int skipped;
+        try {
+            locked.await();
+            skipped = assertTimeoutPreemptively(Duration.ofMillis(500), () -> storeStockSplitService.rebalance());
+        } finally {
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+            executor.shutdown();
+        }
+
+        assertEquals(1, skipped);
+        assertFalse(slotAmounts().stream().allMatch(amount -> amount >= 5 && amount <= 6));
+        assertEquals(0, storeStockSplitService.rebalance());
+        assertTrue(slotAmounts().stream().allMatch(amount -> amount >= 5 && amount <= 6));
+        assertEquals(0, storeStockSplitService.rebalance());
+    }
+
+    @Test
+    @DisplayName("Параллельные списания с разделённого счётчика не уходят в минус и не теряют списания")
+    void removeBookFromStore_ConcurrentSplitRemovals_NeverOversells() throws Exception {
+        storeStockSplitService.split(store.getId(), book.getId(), SLOTS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int op = 0; op < 3; op++) {
+                        try {
+                            storeService.removeBookFromStore(store.getId(), new BookBulkDto(book.getId(), 1));
+                            succeeded.incrementAndGet();
+                        } catch (NotEnoughStockException | StockConflictException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * 3, succeeded.get() + rejected.get());
+        assertTrue(succeeded.get() <= STOCK);
+        assertEquals(STOCK - succeeded.get(), storeStock());
+    }
+
+    private int mainAmount() {
+        return storeBookAmountRepository.findByStoreIdAndBookId(store.getId(), book.getId()).orElseThrow().getAmount();
+    }
+
+    private int storeStock() {
+        return storeService.getStoreStock(store.getId(), PageRequest.of(0, 10)).getContent().getFirst().quantity();
+    }
+
+    private List<Integer> slotAmounts() {
+        return storeBookAmountSlotRepository.findAll().stream()
+                .map(StoreBookAmountSlot::getAmount)
+                .toList();
+    }
+
+    private void setSplitEnabled(boolean enabled) {
+        Object target = AopTestUtils.getTargetObject(storeStockSplitService);
+        ReflectionTestUtils.setField(target, "enabled", enabled);
+    }
+}
@@ -6,10 +6,19 @@ import com.ifellow.bookstore.advice.GlobalExceptionHandler;
 import com.ifellow.bookstore.configuration.WebConfiguration;
 import com.ifellow.bookstore.controller.OrderController;
 import com.ifellow.bookstore.dto.request.BookOrderDto;
+import com.ifellow.bookstore.dto.request.OrderBulkRequestDto;
+import com.ifellow.bookstore.dto.response.OrderBulkResponseDto;
+import com.ifellow.bookstore.dto.response.OrderItemResponseDto;
 import com.ifellow.bookstore.dto.response.OrderResponseDto;
+import com.ifellow.bookstore.dto.response.OrderTicketResponseDto;
+import com.ifellow.bookstore.enumeration.OrderBulkOutcome;
 import com.ifellow.bookstore.enumeration.OrderStatus;
+import com.ifellow.bookstore.enumeration.OrderTicketStatus;
+import com.ifellow.bookstore.exception.OrderIntakeOverloadedException;
 import com.ifellow.bookstore.exception.OrderStatusException;
 import com.ifellow.bookstore.exception.OrderException;
+import com.ifellow.bookstore.service.api.IdempotencyService;
+import com.ifellow.bookstore.service.api.OrderIntakeService;
 import com.ifellow.bookstore.service.api.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +26,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
@@ -28,8 +38,12 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -46,6 +60,12 @@ class OrderControllerTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private OrderIntakeService orderIntakeService;
+
     @InjectMocks
     private OrderController orderController;
 
@@ -58,6 +78,9 @@ class OrderControllerTest {
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
 
+        Mockito.lenient().when(idempotencyService.execute(any(), isNull(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+
         mockMvc = MockMvcBuilders.standaloneSetup(orderController)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
@@ -91,6 +114,34 @@ class OrderControllerTest {
         response.andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("POST /api/warehouses/{warehouseId}/orders/async - заказ принят в очередь")
+    void submitOrder_ValidRequest_ReturnsAcceptedTicket() throws Exception {
+        UUID ticketId = UUID.randomUUID();
+        when(orderIntakeService.submit(1L, List.of(validBookOrder))).thenReturn(
+                new OrderTicketResponseDto(ticketId, 1L, OrderTicketStatus.QUEUED, null, null, testDateTime));
+
+        ResultActions response = mockMvc.perform(post("/api/warehouses/{warehouseId}/orders/async", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(validBookOrder))));
+
+        response.andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(ticketId.toString()))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @DisplayName("POST /api/warehouses/{warehouseId}/orders/async - очередь переполнена")
+    void submitOrder_QueueFull_ReturnsTooManyRequests() throws Exception {
+        when(orderIntakeService.submit(anyLong(), any())).thenThrow(new OrderIntakeOverloadedException("Queue is full"));
+
+        ResultActions response = mockMvc.perform(post("/api/warehouses/{warehouseId}/orders/async", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(validBookOrder))));
+
+        response.andExpect(status().isTooManyRequests());
+    }
+
     @Test
     @DisplayName("POST /api/orders/{orderId}/complete - успешное завершение заказа")
     void completeOrder_ValidId_ReturnsCompletedOrder() throws Exception {
@@ -164,4 +215,43 @@ class OrderControllerTest {
 
         response.andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST /api/orders/complete - итог массового выполнения по каждому id")
+    void completeAll_ValidRequest_ReturnsOutcomes() throws Exception {
+        OrderBulkRequestDto request = new OrderBulkRequestDto(List.of(1L, 2L), null);
+        when(orderService.completeAll(request)).thenReturn(new OrderBulkResponseDto(OrderStatus.COMPLETED, 1, 1,
+                Map.of(1L, OrderBulkOutcome.APPLIED, 2L, OrderBulkOutcome.NOT_CREATED)));
+
+        ResultActions response = mockMvc.perform(post("/api/orders/complete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(1))
+                .andExpect(jsonPath("$.outcomes.1").value("APPLIED"))
+                .andExpect(jsonPath("$.outcomes.2").value("NOT_CREATED"));
+    }
+
+    @Test
+    @DisplayName("GET /api/orders/{orderId}/items - возвращает позиции заказа с данными книг")
+    void findItemsById_ValidId_ReturnsItems() throws Exception {
+        when(orderService.findItemsById(1L)).thenReturn(List.of(
+                new OrderItemResponseDto(10L, 5L, "Война и мир", "Лев Толстой", "Роман", 2, BigDecimal.valueOf(100))));
+
+        ResultActions response = mockMvc.perform(get("/api/orders/{orderId}/items", 1L));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Война и мир"))
+                .andExpect(jsonPath("$[0].genreName").value("Роман"));
+    }
+
+    @Test
+    @DisplayName("GET /api/orders/{orderId}/items - 404 при отсутствии заказа")
+    void findItemsById_InvalidId_ReturnsNotFound() throws Exception {
+        when(orderService.findItemsById(1L)).thenThrow(new OrderException("Order not found with id: 1"));
+
+        mockMvc.perform(get("/api/orders/{orderId}/items", 1L))
+                .andExpect(status().isNotFound());
+    }
+}
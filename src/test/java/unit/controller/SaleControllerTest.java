@@ -3,15 +3,21 @@ package unit.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.ifellow.bookstore.advice.GlobalExceptionHandler;
+import com.ifellow.bookstore.configuration.CursorPageRequestArgumentResolver;
 import com.ifellow.bookstore.configuration.WebConfiguration;
 import com.ifellow.bookstore.controller.SaleController;
 import com.ifellow.bookstore.dto.filter.SaleFilter;
 import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.dto.request.CursorPageRequest;
+import com.ifellow.bookstore.dto.response.CursorPageResponseDto;
+import com.ifellow.bookstore.dto.response.SaleItemResponseDto;
 import com.ifellow.bookstore.dto.response.SaleResponseDto;
 import com.ifellow.bookstore.exception.BookException;
 import com.ifellow.bookstore.exception.NotEnoughStockException;
 import com.ifellow.bookstore.exception.SaleException;
 import com.ifellow.bookstore.exception.StoreException;
+import com.ifellow.bookstore.service.api.IdempotencyService;
+import com.ifellow.bookstore.service.api.SaleGroupCommitService;
 import com.ifellow.bookstore.service.api.SaleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,11 +25,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
@@ -36,8 +44,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -53,6 +63,12 @@ class SaleControllerTest {
     @Mock
     private SaleService saleService;
 
+    @Mock
+    private SaleGroupCommitService saleGroupCommitService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @InjectMocks
     private SaleController saleController;
 
@@ -70,7 +86,7 @@ class SaleControllerTest {
         mockMvc = MockMvcBuilders
                 .standaloneSetup(saleController)
                 .setControllerAdvice(globalExceptionHandler)
-                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver(), new CursorPageRequestArgumentResolver())
                 .build();
 
         bookSaleDtoList = Arrays.asList(
@@ -91,7 +107,7 @@ class SaleControllerTest {
     @DisplayName("POST /api/stores/{storeId}/sales - успешная обработка продажи")
     public void processSale_ValidRequest_ReturnsProcessedSale() throws Exception {
         Long storeId = 1L;
-        when(saleService.processSale(storeId, bookSaleDtoList)).thenReturn(saleResponseDto);
+        when(saleGroupCommitService.processSale(storeId, bookSaleDtoList)).thenReturn(saleResponseDto);
 
         ResultActions response = mockMvc.perform(post("/api/stores/{storeId}/sales", storeId)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -104,10 +120,28 @@ class SaleControllerTest {
                 .andExpect(jsonPath("$.storeId").value(saleResponseDto.storeId()));
     }
 
+    @Test
+    @DisplayName("POST /api/stores/{storeId}/sales - продажа с Idempotency-Key проводится в транзакции ключа, минуя групповой коммит")
+    public void processSale_IdempotencyKey_BypassesGroupCommit() throws Exception {
+        Long storeId = 1L;
+        when(idempotencyService.execute(any(), eq("key-1"), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+        when(saleService.processSale(storeId, bookSaleDtoList)).thenReturn(saleResponseDto);
+
+        ResultActions response = mockMvc.perform(post("/api/stores/{storeId}/sales", storeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "key-1")
+                .content(objectMapper.writeValueAsString(bookSaleDtoList)));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(saleResponseDto.id()));
+        Mockito.verifyNoInteractions(saleGroupCommitService);
+    }
+
     @Test
     @DisplayName("POST /api/stores/{storeId}/sales - возвращает ошибку при отсутствии магазина")
     public void processSale_StoreNotFound_ReturnsNotFound() throws Exception {
-        when(saleService.processSale(any(), any())).thenThrow(new StoreException("Store not found"));
+        when(saleGroupCommitService.processSale(any(), any())).thenThrow(new StoreException("Store not found"));
         Long storeId = 999L;
 
         ResultActions response = mockMvc.perform(post("/api/stores/{storeId}/sales", storeId)
@@ -121,7 +155,7 @@ class SaleControllerTest {
     @DisplayName("POST /api/stores/{storeId}/sales - возвращает ошибку при отсутствии книги")
     public void processSale_BookNotFound_ReturnsNotFound() throws Exception {
         Long storeId = 1L;
-        when(saleService.processSale(storeId, bookSaleDtoList))
+        when(saleGroupCommitService.processSale(storeId, bookSaleDtoList))
                 .thenThrow(new BookException("Book not found"));
 
         ResultActions response = mockMvc.perform(post("/api/stores/{storeId}/sales", storeId)
@@ -135,7 +169,7 @@ class SaleControllerTest {
     @DisplayName("POST /api/stores/{storeId}/sales - возвращает ошибку при недостаточном количестве книг")
     public void processSale_NotEnoughStock_ReturnsBadRequest() throws Exception {
         Long storeId = 1L;
-        when(saleService.processSale(storeId, bookSaleDtoList))
+        when(saleGroupCommitService.processSale(storeId, bookSaleDtoList))
                 .thenThrow(new NotEnoughStockException("Not enough stock"));
 
         ResultActions response = mockMvc.perform(post("/api/stores/{storeId}/sales", storeId)
@@ -200,4 +234,39 @@ class SaleControllerTest {
                 .andExpect(jsonPath("$.totalElements").value(1))
                 .andExpect(jsonPath("$.totalPages").value(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("GET /api/sales?cursor - постраничный обход по курсору")
+    public void findAllByCursor_FirstPage_ReturnsNextCursor() throws Exception {
+        CursorPageRequest cursorPageRequest = new CursorPageRequest(5, "saleDateTime", Sort.Direction.DESC, null, null);
+        when(saleService.findAll(any(SaleFilter.class), Mockito.eq(cursorPageRequest)))
+                .thenReturn(new CursorPageResponseDto<>(List.of(saleResponseDto), 5, "next"));
+
+        ResultActions response = mockMvc.perform(get("/api/sales")
+                .param("storeId", "1")
+                .param("cursor", "")
+                .param("sort", "saleDateTime,desc")
+                .param("size", "5"));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(saleResponseDto.id()))
+                .andExpect(jsonPath("$.size").value(5))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+        Mockito.verify(saleService, Mockito.never()).findAll(any(SaleFilter.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("GET /api/sales/{id}/items - возвращает позиции продажи с данными книг")
+    public void findItemsById_ValidId_ReturnsItems() throws Exception {
+        Long saleId = 1L;
+        when(saleService.findItemsById(saleId)).thenReturn(List.of(
+                new SaleItemResponseDto(10L, 5L, "Война и мир", "Лев Толстой", "Роман", 2, BigDecimal.valueOf(100))));
+
+        ResultActions response = mockMvc.perform(get("/api/sales/{id}/items", saleId));
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookId").value(5L))
+                .andExpect(jsonPath("$[0].authorFullName").value("Лев Толстой"))
+                .andExpect(jsonPath("$[0].quantity").value(2));
+    }
+}
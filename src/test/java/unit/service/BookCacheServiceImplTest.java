@@ -0,0 +1,139 @@
+package unit.service;
+
+import com.ifellow.bookstore.dto.response.BookCacheMetricsResponseDto;
+import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.event.BookSavedEvent;
+import com.ifellow.bookstore.mapper.BookMapper;
+import com.ifellow.bookstore.model.Book;
+import com.ifellow.bookstore.repository.BookRepository;
+import com.ifellow.bookstore.service.impl.BookCacheServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookCacheServiceImplTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookMapper bookMapper;
+
+    @InjectMocks
+    private BookCacheServiceImpl bookCacheService;
+
+    private Book book;
+    private Book otherBook;
+    private BookResponseDto dto;
+    private BookResponseDto otherDto;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bookCacheService, "enabled", true);
+        ReflectionTestUtils.setField(bookCacheService, "capacity", 2);
+        ReflectionTestUtils.setField(bookCacheService, "segmentCount", 1);
+        bookCacheService.init();
+
+        book = Book.builder().id(1L).title("Мастер и Маргарита").price(BigDecimal.TEN).build();
+        otherBook = Book.builder().id(2L).title("Белая гвардия").price(BigDecimal.ONE).build();
+        dto = new BookResponseDto(1L, "Мастер и Маргарита", 1L, 1L, BigDecimal.TEN);
+        otherDto = new BookResponseDto(2L, "Белая гвардия", 1L, 1L, BigDecimal.ONE);
+
+        Mockito.lenient().when(bookMapper.toDto(book)).thenReturn(dto);
+        Mockito.lenient().when(bookMapper.toDto(otherBook)).thenReturn(otherDto);
+    }
+
+    @Test
+    @DisplayName("Повторный поиск DTO книги берётся из кеша")
+    void findDto_CachedBook_LoadsOnce() {
+        Mockito.when(bookRepository.findWithAuthorAndGenreById(1L)).thenReturn(Optional.of(book));
+
+        assertEquals(Optional.of(dto), bookCacheService.findDto(1L));
+        assertEquals(Optional.of(dto), bookCacheService.findDto(1L));
+        assertEquals(Optional.of(dto), bookCacheService.findDto(1L));
+
+        Mockito.verify(bookRepository, Mockito.times(1)).findWithAuthorAndGenreById(1L);
+        assertEquals(new BookCacheMetricsResponseDto(2, 1, 0, 1, 2), bookCacheService.getMetrics());
+    }
+
+    @Test
+    @DisplayName("Отсутствующая книга не кешируется")
+    void findDto_MissingBook_ReturnsEmpty() {
+        Mockito.when(bookRepository.findWithAuthorAndGenreById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(bookCacheService.findDto(1L).isEmpty());
+        assertTrue(bookCacheService.findDto(1L).isEmpty());
+
+        Mockito.verify(bookRepository, Mockito.times(2)).findWithAuthorAndGenreById(1L);
+    }
+
+    @Test
+    @DisplayName("Пакетный поиск догружает одним запросом только отсутствующие в кеше книги")
+    void findDtos_PartlyCached_LoadsOnlyMissing() {
+        Mockito.when(bookRepository.findWithAuthorAndGenreById(1L)).thenReturn(Optional.of(book));
+        Mockito.when(bookRepository.findAllWithAuthorAndGenreByIdIn(List.of(2L, 3L))).thenReturn(List.of(otherBook));
+        bookCacheService.findDto(1L);
+
+        assertEquals(Map.of(1L, dto, 2L, otherDto), bookCacheService.findDtos(List.of(1L, 2L, 3L)));
+        assertEquals(Map.of(1L, dto, 2L, otherDto), bookCacheService.findDtos(List.of(1L, 2L)));
+
+        Mockito.verify(bookRepository, Mockito.times(1)).findAllWithAuthorAndGenreByIdIn(Mockito.anyCollection());
+    }
+
+    @Test
+    @DisplayName("Сохранение книги сбрасывает её запись в кеше")
+    void onBookSaved_CachedBook_Evicts() {
+        Mockito.when(bookRepository.findWithAuthorAndGenreById(1L)).thenReturn(Optional.of(book));
+        bookCacheService.findDto(1L);
+
+        bookCacheService.onBookSaved(new BookSavedEvent(1L, book.getTitle(), null));
+        bookCacheService.findDto(1L);
+
+        Mockito.verify(bookRepository, Mockito.times(2)).findWithAuthorAndGenreById(1L);
+    }
+
+    @Test
+    @DisplayName("Кеш ограничен по размеру и вытесняет давно не использованные книги")
+    void findDtos_CacheFull_EvictsLeastRecentlyUsed() {
+        Book thirdBook = Book.builder().id(3L).title("Собачье сердце").price(BigDecimal.ONE).build();
+        Mockito.when(bookMapper.toDto(thirdBook)).thenReturn(new BookResponseDto(3L, "Собачье сердце", 1L, 1L, BigDecimal.ONE));
+        Mockito.when(bookRepository.findAllWithAuthorAndGenreByIdIn(List.of(1L, 2L))).thenReturn(List.of(book, otherBook));
+        Mockito.when(bookRepository.findAllWithAuthorAndGenreByIdIn(List.of(3L))).thenReturn(List.of(thirdBook));
+        Mockito.when(bookRepository.findAllWithAuthorAndGenreByIdIn(List.of(2L))).thenReturn(List.of(otherBook));
+
+        bookCacheService.findDtos(List.of(1L, 2L));
+        bookCacheService.findDtos(List.of(1L));
+        bookCacheService.findDtos(List.of(3L));
+        bookCacheService.findDtos(List.of(1L, 2L));
+
+        Mockito.verify(bookRepository).findAllWithAuthorAndGenreByIdIn(List.of(2L));
+        assertEquals(2, bookCacheService.getMetrics().evictions());
+    }
+
+    @Test
+    @DisplayName("Выключенный кеш загружает книгу каждый раз")
+    void findDto_Disabled_AlwaysLoads() {
+        ReflectionTestUtils.setField(bookCacheService, "enabled", false);
+        Mockito.when(bookRepository.findWithAuthorAndGenreById(1L)).thenReturn(Optional.of(book));
+
+        bookCacheService.findDto(1L);
+        bookCacheService.findDto(1L);
+
+        Mockito.verify(bookRepository, Mockito.times(2)).findWithAuthorAndGenreById(1L);
+        assertEquals(0, bookCacheService.getMetrics().size());
+    }
+}
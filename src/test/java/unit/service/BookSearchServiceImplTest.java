@@ -0,0 +1,89 @@
+package unit.service;
+
+import com.ifellow.bookstore.dto.projection.BookSearchEntry;
+import com.ifellow.bookstore.event.BookSavedEvent;
+import com.ifellow.bookstore.repository.BookRepository;
+import com.ifellow.bookstore.service.impl.BookSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchServiceImplTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private BookSearchServiceImpl bookSearchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bookSearchService, "enabled", true);
+        Mockito.lenient().when(bookRepository.findAllSearchEntries()).thenReturn(List.of(
+                new BookSearchEntry(1L, "Преступление и наказание", "Федор Достоевский"),
+                new BookSearchEntry(2L, "Война и мир", "Лев Толстой"),
+                new BookSearchEntry(3L, "Анна Каренина", "Лев Толстой"),
+                new BookSearchEntry(4L, "Идиот", "Федор Достоевский")));
+        bookSearchService.init();
+    }
+
+    @Test
+    @DisplayName("Подстрока названия ищется без учёта регистра")
+    void findBookIds_TitleSubstring_ReturnsMatchingBooks() {
+        assertEquals(Optional.of(Set.of(1L)), bookSearchService.findBookIds("НАКАЗ", null));
+        assertEquals(Optional.of(Set.of(3L)), bookSearchService.findBookIds("каренина", null));
+        assertEquals(Optional.of(Set.of()), bookSearchService.findBookIds("каренин мир", null));
+    }
+
+    @Test
+    @DisplayName("Запросы длиной в n-грамму находят все вхождения, включая конец строки, а более короткие минуют индекс")
+    void findBookIds_ShortQuery_SkipsIndexBelowGramLength() {
+        assertEquals(Optional.of(Set.of(2L)), bookSearchService.findBookIds("мир", null));
+        assertEquals(Optional.of(Set.of(4L)), bookSearchService.findBookIds("иот", null));
+        assertEquals(Optional.empty(), bookSearchService.findBookIds("ир", null));
+        assertEquals(Optional.empty(), bookSearchService.findBookIds("мир", "ле"));
+    }
+
+    @Test
+    @DisplayName("Совпадение всех n-грамм без общей подстроки не считается найденным")
+    void findBookIds_GramsWithoutSubstring_ReturnsNothing() {
+        assertEquals(Optional.of(Set.of()), bookSearchService.findBookIds("наказание и", null));
+        assertEquals(Optional.of(Set.of(1L)), bookSearchService.findBookIds("и наказание", null));
+    }
+
+    @Test
+    @DisplayName("Условия по названию и автору пересекаются")
+    void findBookIds_TitleAndAuthor_ReturnsIntersection() {
+        assertEquals(Optional.of(Set.of(2L, 3L)), bookSearchService.findBookIds(null, "толст"));
+        assertEquals(Optional.of(Set.of(2L)), bookSearchService.findBookIds("мир", "толст"));
+        assertEquals(Optional.of(Set.of()), bookSearchService.findBookIds("идиот", "толст"));
+    }
+
+    @Test
+    @DisplayName("Сохранённая книга сразу попадает в индекс")
+    void onBookSaved_NewBook_BecomesSearchable() {
+        bookSearchService.onBookSaved(new BookSavedEvent(5L, "Бесы", "Федор Достоевский"));
+
+        assertEquals(Optional.of(Set.of(5L)), bookSearchService.findBookIds("бесы", null));
+        assertEquals(Optional.of(Set.of(1L, 4L, 5L)), bookSearchService.findBookIds(null, "достоев"));
+    }
+
+    @Test
+    @DisplayName("Поиск без текстовых условий отклоняется")
+    void findBookIds_NoQuery_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> bookSearchService.findBookIds(" ", null));
+    }
+}
@@ -1,7 +1,11 @@
 package unit.service;
 
+import com.ifellow.bookstore.dto.filter.BookFilter;
 import com.ifellow.bookstore.dto.request.BookRequestDto;
 import com.ifellow.bookstore.dto.response.BookResponseDto;
+import com.ifellow.bookstore.dto.response.GroupedBookResponse;
+import com.ifellow.bookstore.event.BookSavedEvent;
+import com.ifellow.bookstore.event.EntityChangedEvent;
 import com.ifellow.bookstore.exception.BookException;
 import com.ifellow.bookstore.mapper.BookMapper;
 import com.ifellow.bookstore.model.Author;
@@ -9,7 +13,10 @@ import com.ifellow.bookstore.model.Book;
 import com.ifellow.bookstore.model.Genre;
 import com.ifellow.bookstore.repository.BookRepository;
 import com.ifellow.bookstore.service.api.AuthorService;
+import com.ifellow.bookstore.service.api.BookCacheService;
+import com.ifellow.bookstore.service.api.BookSearchService;
 import com.ifellow.bookstore.service.api.GenreService;
+import com.ifellow.bookstore.service.api.PageCountService;
 import com.ifellow.bookstore.service.impl.BookServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,9 +26,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -37,9 +57,21 @@ class BookServiceImplTest {
     @Mock
     private GenreService genreService;
 
+    @Mock
+    private BookSearchService bookSearchService;
+
+    @Mock
+    private BookCacheService bookCacheService;
+
+    @Mock
+    private PageCountService pageCountService;
+
     @Mock
     private BookMapper bookMapper;
 
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -75,6 +107,10 @@ class BookServiceImplTest {
 
         bookRequestDto = new BookRequestDto("Преступление и наказание", authorId, genreId, BigDecimal.valueOf(100));
         bookResponseDto = new BookResponseDto(bookId, "Преступление и наказание", authorId, genreId, BigDecimal.valueOf(100));
+
+        ReflectionTestUtils.setField(bookService, "idChunkSize", 1000);
+        ReflectionTestUtils.setField(bookService, "defaultBooksPerGenre", 10);
+        ReflectionTestUtils.setField(bookService, "maxBooksPerGenre", 100);
     }
 
     @Test
@@ -95,50 +131,185 @@ class BookServiceImplTest {
         Mockito.verify(bookMapper).toEntity(bookRequestDto);
         Mockito.verify(bookRepository).save(book);
         Mockito.verify(bookMapper).toDto(book);
+        Mockito.verify(applicationEventPublisher)
+                .publishEvent(new BookSavedEvent(bookId, "Преступление и наказание", "Федор Достоевский"));
+        Mockito.verify(applicationEventPublisher).publishEvent(new EntityChangedEvent(Book.class));
+    }
+
+    @Test
+    @DisplayName("Поиск по названию сначала сужается индексом, а затем уходит в базу")
+    @SuppressWarnings("unchecked")
+    void findAll_TitleFilter_UsesSearchIndex() {
+        BookFilter filter = BookFilter.builder().title("наказ").build();
+        Pageable pageable = PageRequest.of(0, 10);
+        Mockito.when(bookSearchService.isEnabled()).thenReturn(true);
+        Mockito.when(bookSearchService.findBookIds("наказ", null)).thenReturn(Optional.of(Set.of(bookId)));
+        Mockito.when(bookRepository.findBy(Mockito.any(Specification.class), Mockito.any()))
+                .thenReturn(Window.from(List.of(book), ScrollPosition::offset));
+        Mockito.when(bookMapper.toDto(book)).thenReturn(bookResponseDto);
+
+        Page<BookResponseDto> result = (Page<BookResponseDto>) bookService.findAll(filter, pageable);
+
+        assertEquals(List.of(bookResponseDto), result.getContent());
+        Mockito.verify(bookSearchService).findBookIds("наказ", null);
+    }
+
+    @Test
+    @DisplayName("Общее число книг для полной страницы берётся через кеш подсчёта по фильтру")
+    @SuppressWarnings("unchecked")
+    void findAll_FullPage_TakesTotalFromCountCache() {
+        BookFilter filter = BookFilter.builder().genreId(genreId).build();
+        Pageable pageable = PageRequest.of(0, 1);
+        Mockito.when(bookRepository.findBy(Mockito.any(Specification.class), Mockito.any()))
+                .thenReturn(Window.from(List.of(book), ScrollPosition::offset, true));
+        Mockito.when(bookMapper.toDto(book)).thenReturn(bookResponseDto);
+        Mockito.when(pageCountService.count(Mockito.eq(Book.class), Mockito.eq(filter), Mockito.any())).thenReturn(42L);
+
+        Page<BookResponseDto> result = (Page<BookResponseDto>) bookService.findAll(filter, pageable);
+
+        assertEquals(42, result.getTotalElements());
+        Mockito.verify(bookRepository, Mockito.never()).count(Mockito.any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Срез страницы не запрашивает общее число книг")
+    @SuppressWarnings("unchecked")
+    void findSlice_FullPage_SkipsCount() {
+        BookFilter filter = BookFilter.builder().genreId(genreId).build();
+        Pageable pageable = PageRequest.of(0, 1);
+        Mockito.when(bookRepository.findBy(Mockito.any(Specification.class), Mockito.any()))
+                .thenReturn(Window.from(List.of(book), ScrollPosition::offset, true));
+        Mockito.when(bookMapper.toDto(book)).thenReturn(bookResponseDto);
+
+        Slice<BookResponseDto> result = bookService.findSlice(filter, pageable);
+
+        assertEquals(List.of(bookResponseDto), result.getContent());
+        assertTrue(result.hasNext());
+        Mockito.verifyNoInteractions(pageCountService);
+    }
+
+    @Test
+    @DisplayName("Группировка по жанру собирает страницу жанров из лучших книг каждого жанра с ограничением их числа")
+    @SuppressWarnings("unchecked")
+    void findAll_GroupByGenre_GroupsTopBooksOfGenrePage() {
+        BookFilter filter = BookFilter.builder().groupByGenre(true).booksPerGenre(500).build();
+        Pageable pageable = PageRequest.of(0, 10);
+        Mockito.when(bookRepository.findGenresWithBooks(Mockito.any(Specification.class), Mockito.eq(pageable)))
+                .thenReturn(List.of(genre));
+        Mockito.when(bookRepository.findTopBookIdsByGenre(Mockito.any(Specification.class), Mockito.eq(List.of(genreId)),
+                        Mockito.eq(Sort.unsorted()), Mockito.eq(101)))
+                .thenReturn(List.of(bookId));
+        Mockito.when(bookRepository.findAllById(List.of(bookId))).thenReturn(List.of(book));
+        Mockito.when(bookMapper.toDto(book)).thenReturn(bookResponseDto);
+
+        GroupedBookResponse result = (GroupedBookResponse) bookService.findAll(filter, pageable);
+
+        assertEquals(Map.of("Роман", List.of(bookResponseDto)), result.getBooksByGenre());
+        assertEquals(Map.of("Роман", false), result.getHasMoreBooksByGenre());
+        assertEquals(1, result.getTotalElements());
+        Mockito.verifyNoInteractions(pageCountService);
+    }
+
+    @Test
+    @DisplayName("Срез страницы не поддерживает группировку по жанрам")
+    void findSlice_GroupByGenre_ThrowsException() {
+        BookFilter filter = BookFilter.builder().groupByGenre(true).build();
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.findSlice(filter, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    @DisplayName("Без текстовых условий индекс поиска не используется")
+    @SuppressWarnings("unchecked")
+    void findAll_NoTextFilter_SkipsSearchIndex() {
+        BookFilter filter = BookFilter.builder().genreId(genreId).build();
+        Pageable pageable = PageRequest.of(0, 10);
+        Mockito.when(bookRepository.findBy(Mockito.any(Specification.class), Mockito.any()))
+                .thenReturn(Window.from(List.of(), ScrollPosition::offset));
+
+        bookService.findAll(filter, pageable);
+
+        Mockito.verifyNoInteractions(bookSearchService);
     }
 
     @Test
     @DisplayName("Успешный поиск книги по ID с возвратом DTO")
     void findById_ExistingId_ReturnsBookResponseDto() {
-        Mockito.when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
-        Mockito.when(bookMapper.toDto(book)).thenReturn(bookResponseDto);
+        Mockito.when(bookCacheService.findDto(bookId)).thenReturn(Optional.of(bookResponseDto));
 
         BookResponseDto result = bookService.findById(bookId);
 
         assertNotNull(result);
         assertEquals(bookResponseDto, result);
-        Mockito.verify(bookRepository).findById(bookId);
-        Mockito.verify(bookMapper).toDto(book);
+        Mockito.verify(bookCacheService).findDto(bookId);
+        Mockito.verifyNoInteractions(bookRepository);
     }
 
     @Test
     @DisplayName("Исключение при поиске несуществующей книги с возвратом DTO")
     void findById_NotExistingId_ThrowsException() {
-        Mockito.when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+        Mockito.when(bookCacheService.findDto(bookId)).thenReturn(Optional.empty());
 
         assertThrows(BookException.class, () -> bookService.findById(bookId));
-        Mockito.verify(bookRepository).findById(bookId);
-        Mockito.verify(bookMapper, Mockito.never()).toDto(Mockito.any(Book.class));
+        Mockito.verify(bookCacheService).findDto(bookId);
     }
 
     @Test
     @DisplayName("Успешный поиск книги по ID")
     void findBookById_ExistingId_ReturnsBook() {
-        Mockito.when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        Mockito.when(bookCacheService.findDto(bookId)).thenReturn(Optional.of(bookResponseDto));
+        Mockito.when(bookRepository.getReferenceById(bookId)).thenReturn(book);
 
         Book result = bookService.findBookById(bookId);
 
         assertNotNull(result);
         assertEquals(book, result);
-        Mockito.verify(bookRepository).findById(bookId);
+        Mockito.verify(bookCacheService).findDto(bookId);
+        Mockito.verify(bookRepository, Mockito.never()).findById(Mockito.anyLong());
     }
 
     @Test
     @DisplayName("Исключение при поиске несуществующей книги")
     void findBookById_NotExistingId_ThrowsException() {
-        Mockito.when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+        Mockito.when(bookCacheService.findDto(bookId)).thenReturn(Optional.empty());
 
         assertThrows(BookException.class, () -> bookService.findBookById(bookId));
-        Mockito.verify(bookRepository).findById(bookId);
+        Mockito.verify(bookRepository, Mockito.never()).getReferenceById(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("checkBooksExistence проверяет все id одним обращением к кешу книг")
+    void checkBooksExistence_AllExist_DoesNotThrow() {
+        Mockito.when(bookCacheService.findDtos(List.of(1L, 2L))).thenReturn(Map.of(1L, bookResponseDto, 2L, bookResponseDto));
+
+        assertDoesNotThrow(() -> bookService.checkBooksExistence(List.of(1L, 2L)));
+        Mockito.verify(bookCacheService, Mockito.times(1)).findDtos(List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("checkBooksExistence выбрасывает BookException, если хотя бы одной книги нет")
+    void checkBooksExistence_MissingBook_ThrowsException() {
+        Mockito.when(bookCacheService.findDtos(List.of(1L, 2L))).thenReturn(Map.of(1L, bookResponseDto));
+
+        BookException exception = assertThrows(BookException.class, () -> bookService.checkBooksExistence(List.of(1L, 2L)));
+        assertEquals("Book not found with id: 2", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("findBooksByIds загружает все книги корзины одним обращением к кешу книг")
+    void findBooksByIds_AllExist_ReturnsBooksById() {
+        Mockito.when(bookCacheService.findDtos(List.of(bookId))).thenReturn(Map.of(bookId, bookResponseDto));
+
+        assertEquals(Map.of(bookId, bookResponseDto), bookService.findBooksByIds(List.of(bookId)));
+        Mockito.verify(bookCacheService, Mockito.never()).findDto(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("findBooksByIds выбрасывает BookException, если хотя бы одной книги нет")
+    void findBooksByIds_MissingBook_ThrowsException() {
+        Mockito.when(bookCacheService.findDtos(List.of(bookId, 2L))).thenReturn(Map.of(bookId, bookResponseDto));
+
+        BookException exception = assertThrows(BookException.class, () -> bookService.findBooksByIds(List.of(bookId, 2L)));
+        assertEquals("Book not found with id: 2", exception.getMessage());
     }
-}
\ No newline at end of file
+}
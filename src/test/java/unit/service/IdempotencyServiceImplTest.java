@@ -0,0 +1,171 @@
+package unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifellow.bookstore.enumeration.IdempotencyScope;
+import com.ifellow.bookstore.exception.IdempotencyException;
+import com.ifellow.bookstore.model.IdempotencyKey;
+import com.ifellow.bookstore.repository.IdempotencyKeyRepository;
+import com.ifellow.bookstore.service.api.AuthenticationService;
+import com.ifellow.bookstore.service.impl.IdempotencyKeyWriter;
+import com.ifellow.bookstore.service.impl.IdempotencyServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private IdempotencyKeyWriter idempotencyKeyWriter;
+
+    @Mock
+    private AuthenticationService authenticationService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private IdempotencyServiceImpl idempotencyService;
+
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyService, "cacheSize", 100);
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "inFlightTimeoutMillis", 5000L);
+        idempotencyService.init();
+
+        executions = new AtomicInteger();
+        Mockito.lenient().when(authenticationService.getCurrentPrincipal())
+                .thenReturn(new User("client", "", List.of()));
+        Mockito.lenient().when(idempotencyKeyWriter.runAndRecord(Mockito.any(), Mockito.any(), Mockito.any(),
+                        Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+    }
+
+    @Test
+    @DisplayName("Без ключа запрос выполняется как обычно")
+    void execute_NoKey_RunsAction() {
+        assertEquals(1L, execute(null, "basket"));
+        assertEquals(2L, execute(null, "basket"));
+        Mockito.verifyNoInteractions(idempotencyKeyRepository, idempotencyKeyWriter);
+    }
+
+    @Test
+    @DisplayName("Повтор с тем же ключом возвращает сохранённый ответ из кэша без повторного выполнения")
+    void execute_RepeatedKey_ReturnsCachedResponse() {
+        assertEquals(1L, execute("key-1", "basket"));
+        assertEquals(1L, execute("key-1", "basket"));
+
+        assertEquals(1, executions.get());
+        Mockito.verify(idempotencyKeyRepository, Mockito.times(1))
+                .findByScopeAndUsernameAndIdempotencyKey(IdempotencyScope.SALE, "client", "key-1");
+    }
+
+    @Test
+    @DisplayName("Ключ из таблицы возвращает ранее созданный ресурс без повторного выполнения")
+    void execute_StoredKey_LoadsResult() throws NoSuchAlgorithmException {
+        Mockito.when(idempotencyKeyRepository.findByScopeAndUsernameAndIdempotencyKey(IdempotencyScope.SALE, "client", "key-1"))
+                .thenReturn(Optional.of(IdempotencyKey.builder()
+                        .requestHash(sha256("\"basket\""))
+                        .resultId(42L)
+                        .createdAt(LocalDateTime.now())
+                        .build()));
+
+        assertEquals(42L, execute("key-1", "basket"));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    @DisplayName("Повтор ключа с другим телом запроса отклоняется")
+    void execute_SameKeyDifferentRequest_ThrowsException() {
+        execute("key-1", "basket");
+
+        assertThrows(IdempotencyException.class, () -> execute("key-1", "another basket"));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Запросы с совпадающим hashCode, но разным телом, различаются")
+    void execute_SameKeyCollidingHashCode_ThrowsException() {
+        execute("key-1", "Aa");
+
+        assertThrows(IdempotencyException.class, () -> execute("key-1", "BB"));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Одновременные запросы с одним ключом ждут первый и получают его ответ")
+    void execute_ConcurrentDuplicates_SingleFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<Long> first = executor.submit(() -> idempotencyService.execute(IdempotencyScope.SALE, "key-1", "basket",
+                    () -> {
+                        started.countDown();
+                        await(release);
+                        return (long) executions.incrementAndGet();
+                    }, Function.identity(), Function.identity()));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<Future<Long>> duplicates = List.of(
+                    executor.submit(() -> execute("key-1", "basket")),
+                    executor.submit(() -> execute("key-1", "basket")));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(1L, first.get(5, TimeUnit.SECONDS));
+            for (Future<Long> duplicate : duplicates) {
+                assertEquals(1L, duplicate.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Long execute(String key, Object request) {
+        return idempotencyService.execute(IdempotencyScope.SALE, key, request,
+                () -> (long) executions.incrementAndGet(), Function.identity(), Function.identity());
+    }
+
+    private String sha256(String json) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package unit.service;
+
+import com.ifellow.bookstore.dto.request.BookOrderDto;
+import com.ifellow.bookstore.dto.response.OrderResponseDto;
+import com.ifellow.bookstore.dto.response.OrderTicketResponseDto;
+import com.ifellow.bookstore.enumeration.OrderStatus;
+import com.ifellow.bookstore.enumeration.OrderTicketStatus;
+import com.ifellow.bookstore.exception.NotEnoughStockException;
+import com.ifellow.bookstore.exception.OrderException;
+import com.ifellow.bookstore.exception.OrderIntakeOverloadedException;
+import com.ifellow.bookstore.service.api.BookService;
+import com.ifellow.bookstore.service.api.OrderService;
+import com.ifellow.bookstore.service.api.WarehouseService;
+import com.ifellow.bookstore.service.impl.OrderIntakeServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIntakeServiceImplTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private WarehouseService warehouseService;
+
+    @Mock
+    private BookService bookService;
+
+    @InjectMocks
+    private OrderIntakeServiceImpl orderIntakeService;
+
+    private final Long warehouseId = 1L;
+    private final List<BookOrderDto> basket = List.of(new BookOrderDto(1L, 2));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderIntakeService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(orderIntakeService, "batchSize", 10);
+        ReflectionTestUtils.setField(orderIntakeService, "ticketTtlMinutes", 60L);
+        ReflectionTestUtils.setField(orderIntakeService, "ticketCapacity", 100);
+        ReflectionTestUtils.setField(orderIntakeService, "shutdownTimeoutMillis", 1000L);
+        authenticate("client");
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderIntakeService.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Заказ из очереди создаётся рабочим потоком от имени отправителя")
+    void submit_ValidBasket_CompletesTicket() throws InterruptedException {
+        OrderResponseDto order = new OrderResponseDto(5L, 1L, LocalDateTime.now(), OrderStatus.CREATED,
+                warehouseId, BigDecimal.valueOf(200));
+        Mockito.when(orderService.create(warehouseId, basket)).thenAnswer(_ -> {
+            assertEquals("client", SecurityContextHolder.getContext().getAuthentication().getName());
+            return order;
+        });
+        start(1);
+
+        OrderTicketResponseDto ticket = orderIntakeService.submit(warehouseId, basket);
+
+        assertEquals(OrderTicketStatus.COMPLETED, awaitFinished(ticket.id()).status());
+        assertEquals(order, orderIntakeService.getTicket(ticket.id()).order());
+    }
+
+    @Test
+    @DisplayName("Ошибка создания заказа попадает в статус заявки")
+    void submit_NotEnoughStock_FailsTicket() throws InterruptedException {
+        Mockito.when(orderService.create(warehouseId, basket)).thenThrow(new NotEnoughStockException("Not enough stock"));
+        start(1);
+
+        OrderTicketResponseDto ticket = orderIntakeService.submit(warehouseId, basket);
+        OrderTicketResponseDto finished = awaitFinished(ticket.id());
+
+        assertEquals(OrderTicketStatus.FAILED, finished.status());
+        assertEquals("Not enough stock", finished.error());
+    }
+
+    @Test
+    @DisplayName("Текст непредвиденного исключения не попадает в заявку")
+    void submit_UnexpectedException_HidesMessage() throws InterruptedException {
+        Mockito.when(orderService.create(warehouseId, basket))
+                .thenThrow(new IllegalStateException("could not execute statement [ORDERS_PK]"));
+        start(1);
+
+        OrderTicketResponseDto ticket = orderIntakeService.submit(warehouseId, basket);
+        OrderTicketResponseDto finished = awaitFinished(ticket.id());
+
+        assertEquals(OrderTicketStatus.FAILED, finished.status());
+        assertEquals("Order could not be processed", finished.error());
+    }
+
+    @Test
+    @DisplayName("Ошибка уровня Error проваливает заявку, но рабочий поток продолжает разбирать очередь")
+    void submit_ErrorThrown_FailsTicketAndKeepsWorking() throws InterruptedException {
+        OrderResponseDto order = new OrderResponseDto(5L, 1L, LocalDateTime.now(), OrderStatus.CREATED,
+                warehouseId, BigDecimal.valueOf(200));
+        Mockito.when(orderService.create(warehouseId, basket))
+                .thenThrow(new LinkageError("Broken class"))
+                .thenReturn(order);
+        start(1);
+
+        OrderTicketResponseDto failed = awaitFinished(orderIntakeService.submit(warehouseId, basket).id());
+        OrderTicketResponseDto completed = awaitFinished(orderIntakeService.submit(warehouseId, basket).id());
+
+        assertEquals(OrderTicketStatus.FAILED, failed.status());
+        assertEquals("Order could not be processed", failed.error());
+        assertEquals(OrderTicketStatus.COMPLETED, completed.status());
+    }
+
+    @Test
+    @DisplayName("При заполнении реестра заявок вытесняются завершённые, а при их отсутствии новые отклоняются")
+    void submit_TicketCapacityReached_EvictsFinishedOrRejects() throws InterruptedException {
+        ReflectionTestUtils.setField(orderIntakeService, "ticketCapacity", 1);
+        Mockito.when(orderService.create(warehouseId, basket)).thenThrow(new NotEnoughStockException("Not enough stock"));
+        start(1);
+        UUID finishedId = awaitFinished(orderIntakeService.submit(warehouseId, basket).id()).id();
+        orderIntakeService.shutdown();
+
+        UUID queuedId = orderIntakeService.submit(2L, basket).id();
+
+        assertThrows(OrderException.class, () -> orderIntakeService.getTicket(finishedId));
+        assertEquals(OrderTicketStatus.QUEUED, orderIntakeService.getTicket(queuedId).status());
+        assertThrows(OrderIntakeOverloadedException.class, () -> orderIntakeService.submit(3L, basket));
+    }
+
+    @Test
+    @DisplayName("Переполненная очередь склада отклоняет новые заявки")
+    void submit_QueueFull_ThrowsException() {
+        start(0);
+
+        orderIntakeService.submit(warehouseId, basket);
+
+        assertThrows(OrderIntakeOverloadedException.class, () -> orderIntakeService.submit(warehouseId, basket));
+        assertDoesNotThrow(() -> orderIntakeService.submit(2L, basket));
+    }
+
+    @Test
+    @DisplayName("Заявка другого пользователя не видна")
+    void getTicket_OtherUser_ThrowsException() {
+        start(0);
+        UUID ticketId = orderIntakeService.submit(warehouseId, basket).id();
+
+        authenticate("another");
+
+        assertThrows(OrderException.class, () -> orderIntakeService.getTicket(ticketId));
+    }
+
+    private void start(int workers) {
+        ReflectionTestUtils.setField(orderIntakeService, "workerCount", workers);
+        orderIntakeService.init();
+    }
+
+    private OrderTicketResponseDto awaitFinished(UUID ticketId) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            OrderTicketResponseDto ticket = orderIntakeService.getTicket(ticketId);
+            if (ticket.status() != OrderTicketStatus.QUEUED) return ticket;
+            Thread.sleep(20);
+        }
+        return fail("Order ticket was not processed");
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
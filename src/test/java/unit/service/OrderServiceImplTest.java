@@ -1,9 +1,10 @@
 package unit.service;
 
-import com.ifellow.bookstore.dto.request.BookBulkDto;
 import com.ifellow.bookstore.dto.request.BookOrderDto;
+import com.ifellow.bookstore.dto.response.BookResponseDto;
 import com.ifellow.bookstore.dto.response.OrderResponseDto;
 import com.ifellow.bookstore.enumeration.OrderStatus;
+import com.ifellow.bookstore.event.EntityChangedEvent;
 import com.ifellow.bookstore.exception.OrderStatusException;
 import com.ifellow.bookstore.exception.NotEnoughStockException;
 import com.ifellow.bookstore.exception.OrderException;
@@ -12,6 +13,8 @@ import com.ifellow.bookstore.model.*;
 import com.ifellow.bookstore.repository.OrderRepository;
 import com.ifellow.bookstore.service.api.AuthenticationService;
 import com.ifellow.bookstore.service.api.BookService;
+import com.ifellow.bookstore.service.api.PageCountService;
+import com.ifellow.bookstore.service.api.StockReservationService;
 import com.ifellow.bookstore.service.api.WarehouseService;
 import com.ifellow.bookstore.service.impl.OrderServiceImpl;
 import com.ifellow.bookstore.util.OrderUtils;
@@ -19,14 +22,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -47,12 +53,21 @@ class OrderServiceImplTest {
     @Mock
     private AuthenticationService authenticationService;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private PageCountService pageCountService;
+
     @Mock
     private OrderMapper orderMapper;
 
     @Mock
     private OrderUtils orderUtils;
 
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -106,7 +121,7 @@ class OrderServiceImplTest {
     @DisplayName("Успешное создание заказа")
     void create_ValidData_CreatesOrder() {
         Mockito.when(warehouseService.findWarehouseById(warehouseId)).thenReturn(warehouse);
-        Mockito.when(bookService.findBookById(bookId)).thenReturn(book);
+        Mockito.when(bookService.findBooksByIds(Set.of(bookId))).thenReturn(Map.of(bookId, toDto(book)));
         Mockito.when(orderRepository.save(Mockito.any(Order.class))).thenReturn(order);
         Mockito.when(orderMapper.toDto(Mockito.any(Order.class))).thenReturn(orderResponseDto);
         Mockito.when(authenticationService.getUserInCurrentContext()).thenReturn(new User(1L, "username", "password", Set.of(), List.of(), List.of()));
@@ -115,33 +130,52 @@ class OrderServiceImplTest {
 
         assertNotNull(result);
         assertEquals(orderResponseDto, result);
-        Mockito.verify(warehouseService).removeBookFromWarehouse(warehouseId, new BookBulkDto(bookId, quantity));
         Mockito.verify(orderRepository).save(Mockito.any(Order.class));
+        Mockito.verify(stockReservationService).reserve(Mockito.any(Order.class));
+        Mockito.verify(warehouseService, Mockito.never()).removeBookFromWarehouse(Mockito.anyLong(), Mockito.any());
+        Mockito.verify(applicationEventPublisher).publishEvent(new EntityChangedEvent(Order.class));
     }
 
     @Test
-    @DisplayName("Исключение при недостатке книг на складе")
+    @DisplayName("Объединяет повторяющиеся книги в заказе в одну позицию")
+    void create_DuplicateBooks_MergesBasket() {
+        Mockito.when(warehouseService.findWarehouseById(warehouseId)).thenReturn(warehouse);
+        Mockito.when(bookService.findBooksByIds(Set.of(bookId))).thenReturn(Map.of(bookId, toDto(book)));
+        Mockito.when(orderMapper.toDto(Mockito.any(Order.class))).thenReturn(orderResponseDto);
+
+        orderService.create(warehouseId, List.of(bookOrderDto, new BookOrderDto(bookId, 3)));
+
+        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
+        Mockito.verify(orderRepository).save(orderCaptor.capture());
+        assertEquals(1, orderCaptor.getValue().getOrderItemList().size());
+        assertEquals(quantity + 3, orderCaptor.getValue().getOrderItemList().getFirst().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Исключение при недостатке свободных книг на складе для резервирования")
     void create_NotEnoughStock_ThrowsException() {
         Mockito.when(warehouseService.findWarehouseById(warehouseId)).thenReturn(warehouse);
-        Mockito.doThrow(new NotEnoughStockException("Not enough stock")).when(warehouseService).removeBookFromWarehouse(warehouseId, new BookBulkDto(bookId, quantity));
+        Mockito.when(bookService.findBooksByIds(Set.of(bookId))).thenReturn(Map.of(bookId, toDto(book)));
+        Mockito.doThrow(new NotEnoughStockException("Not enough stock")).when(stockReservationService).reserve(Mockito.any(Order.class));
 
         assertThrows(NotEnoughStockException.class, () -> orderService.create(warehouseId, List.of(bookOrderDto)));
-        Mockito.verify(warehouseService).removeBookFromWarehouse(warehouseId, new BookBulkDto(bookId, quantity));
-        Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any(Order.class));
+        Mockito.verify(stockReservationService).reserve(Mockito.any(Order.class));
+        Mockito.verify(orderMapper, Mockito.never()).toDto(Mockito.any(Order.class));
     }
 
     @Test
     @DisplayName("Успешное завершение заказа")
     void completeById_ValidOrderId_CompletesOrder() {
         Mockito.when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
-        Mockito.when(orderRepository.save(order)).thenReturn(order);
+        Mockito.when(orderRepository.updateStatus(List.of(orderId), OrderStatus.CREATED, OrderStatus.COMPLETED)).thenReturn(1);
         Mockito.when(orderMapper.toDto(order)).thenReturn(orderResponseDto);
 
         OrderResponseDto result = orderService.completeById(orderId);
 
         assertNotNull(result);
         assertEquals(OrderStatus.COMPLETED, order.getOrderStatus());
-        Mockito.verify(orderRepository).save(order);
+        Mockito.verify(stockReservationService).commit(order);
+        Mockito.verify(orderRepository).updateStatus(List.of(orderId), OrderStatus.CREATED, OrderStatus.COMPLETED);
     }
 
     @Test
@@ -167,15 +201,27 @@ class OrderServiceImplTest {
     @DisplayName("Успешная отмена заказа")
     void cancelById_ValidOrderId_CancelsOrder() {
         Mockito.when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
-        Mockito.when(orderRepository.save(order)).thenReturn(order);
+        Mockito.when(orderRepository.updateStatus(List.of(orderId), OrderStatus.CREATED, OrderStatus.CANCELLED)).thenReturn(1);
         Mockito.when(orderMapper.toDto(order)).thenReturn(orderResponseDto);
 
         OrderResponseDto result = orderService.cancelById(orderId);
 
         assertNotNull(result);
         assertEquals(OrderStatus.CANCELLED, order.getOrderStatus());
-        Mockito.verify(warehouseService).addBookToWarehouse(warehouseId, new BookBulkDto(bookId, quantity));
-        Mockito.verify(orderRepository).save(order);
+        Mockito.verify(stockReservationService).release(order);
+        Mockito.verify(warehouseService, Mockito.never()).addBookToWarehouse(Mockito.anyLong(), Mockito.any());
+        Mockito.verify(orderRepository).updateStatus(List.of(orderId), OrderStatus.CREATED, OrderStatus.CANCELLED);
+        Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any(Order.class));
+    }
+
+    @Test
+    @DisplayName("Исключение при отмене заказа, статус которого успели изменить параллельно")
+    void cancelById_StatusChangedConcurrently_ThrowsException() {
+        Mockito.when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        Mockito.when(orderRepository.updateStatus(List.of(orderId), OrderStatus.CREATED, OrderStatus.CANCELLED)).thenReturn(0);
+
+        assertThrows(OrderStatusException.class, () -> orderService.cancelById(orderId));
+        Mockito.verify(applicationEventPublisher, Mockito.never()).publishEvent(Mockito.any());
     }
 
     @Test
@@ -217,4 +263,8 @@ class OrderServiceImplTest {
 
         assertThrows(OrderException.class, () -> orderService.findById(orderId));
     }
-}
\ No newline at end of file
+
+    private BookResponseDto toDto(Book book) {
+        return new BookResponseDto(book.getId(), book.getTitle(), null, null, book.getPrice());
+    }
+}
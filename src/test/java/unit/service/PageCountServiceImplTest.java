@@ -0,0 +1,105 @@
+package unit.service;
+
+import com.ifellow.bookstore.dto.filter.OrderFilter;
+import com.ifellow.bookstore.enumeration.OrderStatus;
+import com.ifellow.bookstore.event.EntityChangedEvent;
+import com.ifellow.bookstore.model.Order;
+import com.ifellow.bookstore.model.Sale;
+import com.ifellow.bookstore.service.impl.PageCountServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCountServiceImplTest {
+
+    private PageCountServiceImpl pageCountService;
+    private AtomicInteger counts;
+
+    @BeforeEach
+    void setUp() {
+        pageCountService = new PageCountServiceImpl();
+        ReflectionTestUtils.setField(pageCountService, "enabled", true);
+        ReflectionTestUtils.setField(pageCountService, "cacheSize", 2);
+        ReflectionTestUtils.setField(pageCountService, "ttlSeconds", 60L);
+        pageCountService.init();
+
+        counts = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Повторный подсчёт с равным фильтром берётся из кеша")
+    void count_EqualFilter_CountsOnce() {
+        assertEquals(1, count(Order.class, OrderFilter.builder().status(OrderStatus.CREATED).build()));
+        assertEquals(1, count(Order.class, OrderFilter.builder().status(OrderStatus.CREATED).build()));
+
+        assertEquals(1, counts.get());
+    }
+
+    @Test
+    @DisplayName("Разные фильтры и разные сущности считаются отдельно")
+    void count_DifferentFilterOrEntity_CountsAgain() {
+        OrderFilter filter = OrderFilter.builder().status(OrderStatus.CREATED).build();
+
+        assertEquals(1, count(Order.class, filter));
+        assertEquals(2, count(Order.class, OrderFilter.builder().status(OrderStatus.COMPLETED).build()));
+        assertEquals(3, count(Sale.class, filter));
+    }
+
+    @Test
+    @DisplayName("Изменение сущности сбрасывает только её подсчёты")
+    void onEntityChanged_ResetsCountsOfThatEntity() {
+        OrderFilter filter = new OrderFilter();
+        count(Order.class, filter);
+        count(Sale.class, filter);
+
+        pageCountService.onEntityChanged(new EntityChangedEvent(Order.class));
+
+        assertEquals(3, count(Order.class, filter));
+        assertEquals(2, count(Sale.class, filter));
+    }
+
+    @Test
+    @DisplayName("Устаревший подсчёт пересчитывается по истечении срока жизни")
+    void count_Expired_CountsAgain() {
+        ReflectionTestUtils.setField(pageCountService, "ttlSeconds", 0L);
+        OrderFilter filter = new OrderFilter();
+
+        assertEquals(1, count(Order.class, filter));
+        assertEquals(2, count(Order.class, filter));
+    }
+
+    @Test
+    @DisplayName("Кеш ограничен по размеру и вытесняет давно не использованные фильтры")
+    void count_CacheFull_EvictsLeastRecentlyUsed() {
+        OrderFilter created = OrderFilter.builder().status(OrderStatus.CREATED).build();
+        OrderFilter completed = OrderFilter.builder().status(OrderStatus.COMPLETED).build();
+        OrderFilter cancelled = OrderFilter.builder().status(OrderStatus.CANCELLED).build();
+
+        count(Order.class, created);
+        count(Order.class, completed);
+        count(Order.class, created);
+        count(Order.class, cancelled);
+
+        assertEquals(1, count(Order.class, created));
+        assertEquals(4, count(Order.class, completed));
+    }
+
+    @Test
+    @DisplayName("Выключенный кеш считает каждый раз")
+    void count_Disabled_AlwaysCounts() {
+        ReflectionTestUtils.setField(pageCountService, "enabled", false);
+        OrderFilter filter = new OrderFilter();
+
+        assertEquals(1, count(Order.class, filter));
+        assertEquals(2, count(Order.class, filter));
+    }
+
+    private long count(Class<?> entityType, OrderFilter filter) {
+        return pageCountService.count(entityType, filter, counts::incrementAndGet);
+    }
+}
@@ -0,0 +1,158 @@
+package unit.service;
+
+import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.dto.request.SaleBatchEntryDto;
+import com.ifellow.bookstore.dto.response.SaleResponseDto;
+import com.ifellow.bookstore.exception.NotEnoughStockException;
+import com.ifellow.bookstore.service.api.AuthenticationService;
+import com.ifellow.bookstore.service.api.SaleService;
+import com.ifellow.bookstore.service.impl.SaleGroupCommitServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class SaleGroupCommitServiceImplTest {
+
+    @Mock
+    private SaleService saleService;
+
+    @Mock
+    private AuthenticationService authenticationService;
+
+    @InjectMocks
+    private SaleGroupCommitServiceImpl saleGroupCommitService;
+
+    private final Long storeId = 1L;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(saleGroupCommitService, "enabled", true);
+        ReflectionTestUtils.setField(saleGroupCommitService, "windowMillis", 5000L);
+        ReflectionTestUtils.setField(saleGroupCommitService, "awaitTimeoutMillis", 10000L);
+        executor = Executors.newFixedThreadPool(4);
+
+        Mockito.lenient().when(authenticationService.getCurrentPrincipal())
+                .thenReturn(new User("client", "", List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Без группировки продажа выполняется напрямую")
+    void processSale_Disabled_DelegatesToSaleService() {
+        ReflectionTestUtils.setField(saleGroupCommitService, "enabled", false);
+        List<BookSaleDto> basket = List.of(new BookSaleDto(1L, 1));
+        Mockito.when(saleService.processSale(storeId, basket)).thenReturn(sale(1L));
+
+        assertEquals(sale(1L), saleGroupCommitService.processSale(storeId, basket));
+        Mockito.verify(saleService, Mockito.never()).processSales(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Одновременные продажи одного магазина фиксируются одной транзакцией")
+    void processSale_ConcurrentSales_CommittedTogether() throws Exception {
+        ReflectionTestUtils.setField(saleGroupCommitService, "maxBatch", 4);
+        Mockito.when(saleService.processSales(Mockito.eq(storeId), Mockito.anyList()))
+                .thenAnswer(invocation -> invocation.<List<SaleBatchEntryDto>>getArgument(1).stream()
+                        .map(entry -> sale(entry.bookSaleDtoList().getFirst().bookId()))
+                        .toList());
+
+        List<Future<SaleResponseDto>> results = new ArrayList<>();
+        for (long bookId = 1; bookId <= 4; bookId++) {
+            List<BookSaleDto> basket = List.of(new BookSaleDto(bookId, 1));
+            results.add(executor.submit(() -> saleGroupCommitService.processSale(storeId, basket)));
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1L, results.get(i).get(5, TimeUnit.SECONDS).id());
+        }
+        Mockito.verify(saleService, Mockito.times(1)).processSales(Mockito.eq(storeId), Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Ошибка в пакете не отменяет остальные продажи — они повторяются по одной")
+    void processSale_FailedBatch_RetriesSalesSeparately() throws Exception {
+        ReflectionTestUtils.setField(saleGroupCommitService, "maxBatch", 2);
+        List<BookSaleDto> available = List.of(new BookSaleDto(1L, 1));
+        List<BookSaleDto> missing = List.of(new BookSaleDto(2L, 100));
+        Mockito.when(saleService.processSales(Mockito.eq(storeId), Mockito.argThat(entries -> entries.size() == 2)))
+                .thenThrow(new NotEnoughStockException("Not enough stock"));
+        Mockito.when(saleService.processSales(storeId, List.of(new SaleBatchEntryDto("client", available))))
+                .thenReturn(List.of(sale(1L)));
+        Mockito.when(saleService.processSales(storeId, List.of(new SaleBatchEntryDto("client", missing))))
+                .thenThrow(new NotEnoughStockException("Not enough stock"));
+
+        Future<SaleResponseDto> succeeded = executor.submit(() -> saleGroupCommitService.processSale(storeId, available));
+        Future<SaleResponseDto> failed = executor.submit(() -> saleGroupCommitService.processSale(storeId, missing));
+
+        assertEquals(1L, succeeded.get(5, TimeUnit.SECONDS).id());
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NotEnoughStockException.class, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("Ошибка лидера пакета завершает ожидание всех продаж пакета")
+    void processSale_LeaderFailsWithError_FailsWholeBatch() throws Exception {
+        ReflectionTestUtils.setField(saleGroupCommitService, "maxBatch", 2);
+        Mockito.when(saleService.processSales(Mockito.eq(storeId), Mockito.anyList()))
+                .thenThrow(new OutOfMemoryError("Java heap space"));
+
+        Future<SaleResponseDto> first = executor.submit(() -> saleGroupCommitService.processSale(storeId, List.of(new BookSaleDto(1L, 1))));
+        Future<SaleResponseDto> second = executor.submit(() -> saleGroupCommitService.processSale(storeId, List.of(new BookSaleDto(2L, 1))));
+
+        assertInstanceOf(OutOfMemoryError.class, assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS)).getCause());
+        assertInstanceOf(OutOfMemoryError.class, assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS)).getCause());
+    }
+
+    @Test
+    @DisplayName("Продажа не ждёт фиксацию пакета дольше заданного времени")
+    void processSale_CommitTooSlow_ThrowsAfterTimeout() throws Exception {
+        ReflectionTestUtils.setField(saleGroupCommitService, "maxBatch", 2);
+        ReflectionTestUtils.setField(saleGroupCommitService, "awaitTimeoutMillis", 100L);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(saleService.processSales(Mockito.eq(storeId), Mockito.anyList())).thenAnswer(invocation -> {
+            release.await();
+            return List.of(sale(1L), sale(2L));
+        });
+
+        CompletionService<SaleResponseDto> results = new ExecutorCompletionService<>(executor);
+        results.submit(() -> saleGroupCommitService.processSale(storeId, List.of(new BookSaleDto(1L, 1))));
+        results.submit(() -> saleGroupCommitService.processSale(storeId, List.of(new BookSaleDto(2L, 1))));
+
+        Future<SaleResponseDto> follower;
+        try {
+            follower = results.poll(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+        }
+
+        assertNotNull(follower);
+        assertInstanceOf(IllegalStateException.class, assertThrows(ExecutionException.class, follower::get).getCause());
+        assertNotNull(results.poll(5, TimeUnit.SECONDS).get());
+    }
+
+    private SaleResponseDto sale(Long id) {
+        return new SaleResponseDto(id, 1L, LocalDateTime.MIN, storeId, BigDecimal.TEN);
+    }
+}
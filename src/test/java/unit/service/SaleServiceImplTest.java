@@ -1,8 +1,10 @@
 package unit.service;
 
-import com.ifellow.bookstore.dto.request.BookBulkDto;
 import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.dto.request.SaleBatchEntryDto;
+import com.ifellow.bookstore.dto.response.BookResponseDto;
 import com.ifellow.bookstore.dto.response.SaleResponseDto;
+import com.ifellow.bookstore.event.EntityChangedEvent;
 import com.ifellow.bookstore.exception.NotEnoughStockException;
 import com.ifellow.bookstore.mapper.SaleMapper;
 import com.ifellow.bookstore.model.*;
@@ -10,21 +12,26 @@ import com.ifellow.bookstore.repository.SaleItemRepository;
 import com.ifellow.bookstore.repository.SaleRepository;
 import com.ifellow.bookstore.service.api.AuthenticationService;
 import com.ifellow.bookstore.service.api.BookService;
+import com.ifellow.bookstore.service.api.PageCountService;
 import com.ifellow.bookstore.service.api.StoreService;
+import com.ifellow.bookstore.service.api.UserService;
 import com.ifellow.bookstore.service.impl.SaleServiceImpl;
 import com.ifellow.bookstore.util.SaleUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -48,12 +55,21 @@ class SaleServiceImplTest {
     @Mock
     private AuthenticationService authenticationService;
 
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PageCountService pageCountService;
+
     @Mock
     private SaleMapper saleMapper;
 
     @Mock
     private SaleUtils saleUtils;
 
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @InjectMocks
     private SaleServiceImpl saleService;
 
@@ -105,7 +121,7 @@ class SaleServiceImplTest {
     @DisplayName("Успешная продажа книг")
     void processSale_ValidData_ProcessesSale() {
         Mockito.when(storeService.findStoreById(storeId)).thenReturn(store);
-        Mockito.when(bookService.findBookById(bookId)).thenReturn(book);
+        Mockito.when(bookService.findBooksByIds(Set.of(bookId))).thenReturn(Map.of(bookId, toDto(book)));
         Mockito.when(saleRepository.save(Mockito.any(Sale.class))).thenReturn(sale);
         Mockito.when(saleMapper.toDto(Mockito.any(Sale.class))).thenReturn(saleResponseDto);
         Mockito.when(authenticationService.getUserInCurrentContext()).thenReturn(new User(1L, "username", "password", Set.of(), List.of(), List.of()));
@@ -114,10 +130,71 @@ class SaleServiceImplTest {
 
         assertNotNull(result);
         assertEquals(saleResponseDto, result);
-        Mockito.verify(storeService).removeBookFromStore(storeId, new BookBulkDto(bookId, quantity));
+        Mockito.verify(storeService).removeBooksFromStore(store, Map.of(bookId, quantity));
         Mockito.verify(saleRepository).save(Mockito.any(Sale.class));
+        Mockito.verify(applicationEventPublisher).publishEvent(new EntityChangedEvent(Sale.class));
+        Mockito.verify(bookService).getBookReference(bookId);
     }
 
+    @Test
+    @DisplayName("Объединяет повторяющиеся книги в корзине в одну позицию и списывает их одним упорядоченным вызовом")
+    void processSale_DuplicateBooks_MergesBasket() {
+        Book secondBook = new Book();
+        secondBook.setId(2L);
+        secondBook.setPrice(BigDecimal.valueOf(50));
+
+        Mockito.when(storeService.findStoreById(storeId)).thenReturn(store);
+        Mockito.when(bookService.findBooksByIds(Set.of(bookId, 2L))).thenReturn(Map.of(bookId, toDto(book), 2L, toDto(secondBook)));
+        Mockito.when(saleMapper.toDto(Mockito.any(Sale.class))).thenReturn(saleResponseDto);
+
+        saleService.processSale(storeId, List.of(
+                new BookSaleDto(2L, 1),
+                new BookSaleDto(bookId, 1),
+                new BookSaleDto(2L, 3)));
+
+        ArgumentCaptor<Sale> saleCaptor = ArgumentCaptor.forClass(Sale.class);
+        Mockito.verify(storeService).removeBooksFromStore(store, Map.of(bookId, 1, 2L, 4));
+        Mockito.verify(saleRepository).save(saleCaptor.capture());
+        assertEquals(2, saleCaptor.getValue().getSaleItemList().size());
+    }
+
+    @Test
+    @DisplayName("Пакет продаж списывает суммарный остаток одним вызовом и сохраняет продажи вместе")
+    void processSales_SeveralBaskets_RemovesStockOnce() {
+        Book secondBook = new Book();
+        secondBook.setId(2L);
+        secondBook.setPrice(BigDecimal.valueOf(50));
+        User client = new User(1L, "client", "password", Set.of(), List.of(), List.of());
+
+        Mockito.when(storeService.findStoreById(storeId)).thenReturn(store);
+        Mockito.when(bookService.findBooksByIds(Set.of(bookId, 2L))).thenReturn(Map.of(bookId, toDto(book), 2L, toDto(secondBook)));
+        Mockito.when(userService.findUserByUsername("client")).thenReturn(client);
+        Mockito.when(saleMapper.toDto(Mockito.any(Sale.class))).thenReturn(saleResponseDto);
+
+        List<SaleResponseDto> result = saleService.processSales(storeId, List.of(
+                new SaleBatchEntryDto("client", List.of(new BookSaleDto(bookId, 1))),
+                new SaleBatchEntryDto("client", List.of(new BookSaleDto(bookId, 2), new BookSaleDto(2L, 3)))));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Sale>> salesCaptor = ArgumentCaptor.forClass(List.class);
+        assertEquals(2, result.size());
+        Mockito.verify(storeService).removeBooksFromStore(store, Map.of(bookId, 3, 2L, 3));
+        Mockito.verify(userService).findUserByUsername("client");
+        Mockito.verify(saleRepository).saveAll(salesCaptor.capture());
+        assertEquals(List.of(1, 2), salesCaptor.getValue().stream().map(s -> s.getSaleItemList().size()).toList());
+    }
+
+    @Test
+    @DisplayName("Исключение, если суммарное количество книги в пакете продаж не помещается в int")
+    void processSales_TotalQuantityOverflows_ThrowsException() {
+        Mockito.when(storeService.findStoreById(storeId)).thenReturn(store);
+
+        assertThrows(IllegalArgumentException.class, () -> saleService.processSales(storeId, List.of(
+                new SaleBatchEntryDto("client", List.of(new BookSaleDto(bookId, Integer.MAX_VALUE))),
+                new SaleBatchEntryDto("client", List.of(new BookSaleDto(bookId, 1))))));
+        Mockito.verify(storeService, Mockito.never()).removeBooksFromStore(Mockito.any(Store.class), Mockito.anyMap());
+        Mockito.verify(saleRepository, Mockito.never()).saveAll(Mockito.any());
+    }
 
     @Test
     @DisplayName("Получение продажи по ID")
@@ -137,10 +214,15 @@ class SaleServiceImplTest {
     @DisplayName("Исключение при недостатке книг на складе")
     void processSale_NotEnoughStock_ThrowsException() {
         Mockito.when(storeService.findStoreById(storeId)).thenReturn(store);
-        Mockito.doThrow(new NotEnoughStockException("Not enough stock")).when(storeService).removeBookFromStore(storeId, new BookBulkDto(bookId, quantity));
+        Mockito.when(bookService.findBooksByIds(Set.of(bookId))).thenReturn(Map.of(bookId, toDto(book)));
+        Mockito.doThrow(new NotEnoughStockException("Not enough stock")).when(storeService).removeBooksFromStore(store, Map.of(bookId, quantity));
 
         assertThrows(NotEnoughStockException.class, () -> saleService.processSale(storeId, List.of(bookSaleDto)));
-        Mockito.verify(storeService).removeBookFromStore(storeId, new BookBulkDto(bookId, quantity));
+        Mockito.verify(storeService).removeBooksFromStore(store, Map.of(bookId, quantity));
         Mockito.verify(saleRepository, Mockito.never()).save(Mockito.any(Sale.class));
     }
-}
\ No newline at end of file
+
+    private BookResponseDto toDto(Book book) {
+        return new BookResponseDto(book.getId(), book.getTitle(), null, null, book.getPrice());
+    }
+}
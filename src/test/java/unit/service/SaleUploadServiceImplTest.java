@@ -0,0 +1,215 @@
+package unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifellow.bookstore.dto.request.BookSaleDto;
+import com.ifellow.bookstore.dto.request.SaleBatchEntryDto;
+import com.ifellow.bookstore.dto.response.SaleResponseDto;
+import com.ifellow.bookstore.dto.response.SaleUploadResultDto;
+import com.ifellow.bookstore.enumeration.IdempotencyScope;
+import com.ifellow.bookstore.enumeration.SaleUploadStatus;
+import com.ifellow.bookstore.exception.NotEnoughStockException;
+import com.ifellow.bookstore.exception.StoreException;
+import com.ifellow.bookstore.model.IdempotencyKey;
+import com.ifellow.bookstore.repository.IdempotencyKeyRepository;
+import com.ifellow.bookstore.service.api.AuthenticationService;
+import com.ifellow.bookstore.service.api.IdempotencyService;
+import com.ifellow.bookstore.service.api.SaleService;
+import com.ifellow.bookstore.service.api.StoreService;
+import com.ifellow.bookstore.service.impl.IdempotencyKeyWriter;
+import com.ifellow.bookstore.service.impl.SaleUploadServiceImpl;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class SaleUploadServiceImplTest {
+
+    @Mock
+    private SaleService saleService;
+
+    @Mock
+    private StoreService storeService;
+
+    @Mock
+    private AuthenticationService authenticationService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private IdempotencyKeyWriter idempotencyKeyWriter;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private SaleUploadServiceImpl saleUploadService;
+
+    private final Long storeId = 1L;
+    private final List<List<SaleUploadResultDto>> chunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(saleUploadService, "chunkSize", 2);
+        ReflectionTestUtils.setField(saleUploadService, "maxLineLength", 200);
+        Mockito.lenient().when(authenticationService.getCurrentPrincipal())
+                .thenReturn(new User("client", "", List.of()));
+        Mockito.lenient().when(idempotencyService.fingerprint(Mockito.any()))
+                .thenAnswer(invocation -> invocation.getArgument(0).toString());
+        Mockito.lenient().when(idempotencyKeyWriter.runAndRecordAll(Mockito.eq(IdempotencyScope.SALE_UPLOAD),
+                        Mockito.eq("client"), Mockito.anyList(), Mockito.anyList(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<SaleResponseDto>>>getArgument(4).get());
+    }
+
+    @Test
+    @DisplayName("Продажи обрабатываются порциями, результаты приходят в порядке строк")
+    void upload_ValidLines_ProcessesInChunks() throws IOException {
+        Mockito.when(saleService.processSales(Mockito.eq(storeId), Mockito.anyList()))
+                .thenAnswer(invocation -> invocation.<List<SaleBatchEntryDto>>getArgument(1).stream()
+                        .map(entry -> sale(entry.bookSaleDtoList().getFirst().bookId()))
+                        .toList());
+
+        upload(line("r-1", 1L), "", line("r-2", 2L), line("r-3", 3L));
+
+        assertEquals(List.of(2, 1), chunks.stream().map(List::size).toList());
+        List<SaleUploadResultDto> results = chunks.stream().flatMap(List::stream).toList();
+        assertEquals(List.of(1, 3, 4), results.stream().map(SaleUploadResultDto::line).toList());
+        assertEquals(List.of(1L, 2L, 3L), results.stream().map(result -> result.sale().id()).toList());
+        Mockito.verify(saleService, Mockito.times(2)).processSales(Mockito.eq(storeId), Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Некорректная строка и строка без книг отклоняются, не мешая остальным")
+    void upload_InvalidLines_FailsOnlyThoseLines() throws IOException {
+        Mockito.when(saleService.processSales(storeId, List.of(
+                        new SaleBatchEntryDto("client", List.of(new BookSaleDto(1L, 1))))))
+                .thenReturn(List.of(sale(1L)));
+
+        upload("{\"reference\":", line("r-2", 1L), "{\"reference\":\"r-3\",\"bookSaleDtoList\":[]}");
+
+        List<SaleUploadResultDto> results = chunks.stream().flatMap(List::stream).toList();
+        assertEquals(List.of(SaleUploadStatus.FAILED, SaleUploadStatus.PROCESSED, SaleUploadStatus.FAILED),
+                results.stream().map(SaleUploadResultDto::status).toList());
+        assertEquals("r-3", results.get(2).reference());
+    }
+
+    @Test
+    @DisplayName("Строка с нарушением ограничений и слишком длинная строка отклоняются, не мешая остальным")
+    void upload_ConstraintViolationAndOverlongLine_FailsOnlyThoseLines() throws IOException {
+        Mockito.when(saleService.processSales(storeId, List.of(
+                        new SaleBatchEntryDto("client", List.of(new BookSaleDto(1L, 1))))))
+                .thenReturn(List.of(sale(1L)));
+
+        upload("{\"reference\":\"r-1\",\"bookSaleDtoList\":[{\"bookId\":1,\"quantity\":2000000}]}",
+                "{\"reference\":\"" + "r".repeat(300) + "\"}",
+                line("r-3", 1L));
+
+        List<SaleUploadResultDto> results = chunks.stream().flatMap(List::stream).toList();
+        assertEquals(List.of(SaleUploadStatus.FAILED, SaleUploadStatus.FAILED, SaleUploadStatus.PROCESSED),
+                results.stream().map(SaleUploadResultDto::status).toList());
+        assertEquals("The quantity should not be more than 1,000,000", results.get(0).error());
+        assertEquals("Sale line must not be longer than 200 characters", results.get(1).error());
+        assertEquals(3, results.get(2).line());
+    }
+
+    @Test
+    @DisplayName("Ошибка порции повторяется по одной продаже, чтобы изолировать неудачную")
+    void upload_FailedChunk_RetriesSalesSeparately() throws IOException {
+        Mockito.when(saleService.processSales(Mockito.eq(storeId), Mockito.argThat(entries -> entries.size() == 2)))
+                .thenThrow(new NotEnoughStockException("Not enough stock"));
+        Mockito.when(saleService.processSales(storeId, List.of(
+                        new SaleBatchEntryDto("client", List.of(new BookSaleDto(1L, 1))))))
+                .thenReturn(List.of(sale(1L)));
+        Mockito.when(saleService.processSales(storeId, List.of(
+                        new SaleBatchEntryDto("client", List.of(new BookSaleDto(2L, 1))))))
+                .thenThrow(new NotEnoughStockException("Not enough stock"));
+
+        upload(line("r-1", 1L), line("r-2", 2L));
+
+        List<SaleUploadResultDto> results = chunks.getFirst();
+        assertEquals(SaleUploadStatus.PROCESSED, results.get(0).status());
+        assertEquals(SaleUploadStatus.FAILED, results.get(1).status());
+        assertEquals("Not enough stock", results.get(1).error());
+    }
+
+    @Test
+    @DisplayName("Уже обработанный чек магазина отмечается дубликатом, а тот же номер с другим составом отклоняется")
+    void upload_RecordedReferences_ReportsDuplicates() throws IOException {
+        ReflectionTestUtils.setField(saleUploadService, "chunkSize", 3);
+        Mockito.when(idempotencyKeyRepository.findByScopeAndIdempotencyKeyIn(IdempotencyScope.SALE_UPLOAD,
+                        List.of("1:r-1", "1:r-2", "1:r-3")))
+                .thenReturn(List.of(recorded("1:r-1", List.of(new BookSaleDto(1L, 1)), 7L),
+                        recorded("1:r-3", List.of(new BookSaleDto(9L, 1)), 8L)));
+        Mockito.when(saleService.findById(7L)).thenReturn(sale(7L));
+        Mockito.when(saleService.processSales(storeId, List.of(
+                        new SaleBatchEntryDto("client", List.of(new BookSaleDto(2L, 1))))))
+                .thenReturn(List.of(sale(2L)));
+
+        upload(line("r-1", 1L), line("r-2", 2L), line("r-3", 3L));
+
+        List<SaleUploadResultDto> results = chunks.getFirst();
+        assertEquals(List.of(SaleUploadStatus.DUPLICATE, SaleUploadStatus.PROCESSED, SaleUploadStatus.FAILED),
+                results.stream().map(SaleUploadResultDto::status).toList());
+        assertEquals(7L, results.get(0).sale().id());
+        assertEquals("Sale reference r-3 was already used for a different sale", results.get(2).error());
+        Mockito.verify(saleService).processSales(Mockito.eq(storeId), Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Выгрузка в несуществующий магазин отклоняется до чтения строк")
+    void upload_UnknownStore_ThrowsException() {
+        Mockito.when(storeService.findStoreById(storeId)).thenThrow(new StoreException("Store not found"));
+
+        assertThrows(StoreException.class, () -> upload(line("r-1", 1L)));
+        Mockito.verifyNoInteractions(saleService);
+    }
+
+    private void upload(String... lines) throws IOException {
+        saleUploadService.upload(storeId, new BufferedReader(new StringReader(String.join("\n", lines))), chunks::add);
+    }
+
+    private String line(String reference, Long bookId) {
+        return "{\"reference\":\"" + reference + "\",\"bookSaleDtoList\":[{\"bookId\":" + bookId + ",\"quantity\":1}]}";
+    }
+
+    private IdempotencyKey recorded(String key, List<BookSaleDto> bookSaleDtoList, Long saleId) {
+        return IdempotencyKey.builder()
+                .scope(IdempotencyScope.SALE_UPLOAD)
+                .username("client")
+                .idempotencyKey(key)
+                .requestHash(bookSaleDtoList.toString())
+                .resultId(saleId)
+                .build();
+    }
+
+    private SaleResponseDto sale(Long id) {
+        return new SaleResponseDto(id, 1L, LocalDateTime.MIN, storeId, BigDecimal.TEN);
+    }
+}
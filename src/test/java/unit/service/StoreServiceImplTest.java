@@ -15,6 +15,9 @@ import com.ifellow.bookstore.model.StoreBookAmount;
 import com.ifellow.bookstore.repository.StoreBookAmountRepository;
 import com.ifellow.bookstore.repository.StoreRepository;
 import com.ifellow.bookstore.service.api.BookService;
+import com.ifellow.bookstore.service.api.StockMovementService;
+import com.ifellow.bookstore.service.api.StoreStockLedgerService;
+import com.ifellow.bookstore.service.api.StoreStockSplitService;
 import com.ifellow.bookstore.service.impl.StoreServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -29,7 +32,9 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,6 +56,15 @@ class StoreServiceImplTest {
     @Mock
     private StoreBookAmountMapper storeBookAmountMapper;
 
+    @Mock
+    private StoreStockLedgerService storeStockLedgerService;
+
+    @Mock
+    private StockMovementService stockMovementService;
+
+    @Mock
+    private StoreStockSplitService storeStockSplitService;
+
     @InjectMocks
     private StoreServiceImpl storeService;
 
@@ -124,67 +138,51 @@ class StoreServiceImplTest {
         sba.setBook(book);
         sba.setAmount(quantity);
 
+        Mockito.when(storeBookAmountRepository.incrementAmount(storeId, bookId, quantity)).thenReturn(0);
         Mockito.when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
         Mockito.when(bookService.findBookById(bookId)).thenReturn(book);
-        Mockito.when(storeBookAmountRepository.findByStoreIdAndBookId(storeId, bookId)).thenReturn(Optional.empty());
         Mockito.when(storeBookAmountRepository.save(Mockito.any(StoreBookAmount.class))).thenReturn(sba);
 
         storeService.addBookToStore(storeId, new BookBulkDto(bookId, quantity));
 
+        Mockito.verify(storeBookAmountRepository).incrementAmount(storeId, bookId, quantity);
         Mockito.verify(storeRepository).findById(storeId);
         Mockito.verify(bookService).findBookById(bookId);
-        Mockito.verify(storeBookAmountRepository).findByStoreIdAndBookId(storeId, bookId);
         Mockito.verify(storeBookAmountRepository).save(Mockito.any(StoreBookAmount.class));
     }
 
     @Test
     @DisplayName("Обновляет количество книги в магазине")
     void addBookToStore_ExistingBook_UpdatesQuantity() {
-        int initialAmount = 5;
-        StoreBookAmount sba = new StoreBookAmount();
-        sba.setStore(store);
-        sba.setBook(book);
-        sba.setAmount(initialAmount);
-
-        Mockito.when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
-        Mockito.when(bookService.findBookById(bookId)).thenReturn(book);
-        Mockito.when(storeBookAmountRepository.findByStoreIdAndBookId(storeId, bookId)).thenReturn(Optional.of(sba));
-        Mockito.when(storeBookAmountRepository.save(sba)).thenReturn(sba);
+        Mockito.when(storeBookAmountRepository.incrementAmount(storeId, bookId, quantity)).thenReturn(1);
 
         storeService.addBookToStore(storeId, new BookBulkDto(bookId, quantity));
 
-        assertEquals(initialAmount + quantity, sba.getAmount());
-        Mockito.verify(storeBookAmountRepository).save(sba);
+        Mockito.verify(storeBookAmountRepository).incrementAmount(storeId, bookId, quantity);
+        Mockito.verify(storeRepository, Mockito.never()).findById(Mockito.anyLong());
+        Mockito.verify(storeBookAmountRepository, Mockito.never()).save(Mockito.any());
     }
 
     @Test
     @DisplayName("Удаляет книгу с магазина")
     void removeBookFromStore_ValidData_RemovesBook() {
-        int initialAmount = 10;
         int quantityToRemove = 5;
-        StoreBookAmount sba = new StoreBookAmount();
-        sba.setStore(store);
-        sba.setBook(book);
-        sba.setAmount(initialAmount);
 
-        Mockito.when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
-        Mockito.when(storeBookAmountRepository.findByStoreIdAndBookId(storeId, bookId)).thenReturn(Optional.of(sba));
-        Mockito.when(storeBookAmountRepository.save(sba)).thenReturn(sba);
+        Mockito.when(storeBookAmountRepository.decrementAmount(storeId, bookId, quantityToRemove)).thenReturn(1);
 
         storeService.removeBookFromStore(storeId, new BookBulkDto(bookId, quantityToRemove));
 
-        assertEquals(initialAmount - quantityToRemove, sba.getAmount());
-        Mockito.verify(storeBookAmountRepository).save(sba);
+        Mockito.verify(storeBookAmountRepository).decrementAmount(storeId, bookId, quantityToRemove);
+        Mockito.verify(storeRepository, Mockito.never()).findById(Mockito.anyLong());
+        Mockito.verify(storeBookAmountRepository, Mockito.never()).save(Mockito.any());
     }
 
     @Test
     @DisplayName("Выбрасывает NotEnoughStockException когда происходит попытка удалить большее кол-во книги чем есть в магазине")
     void removeBookFromStore_NotEnoughStock_ThrowsException() {
-        StoreBookAmount sba = new StoreBookAmount();
-        sba.setAmount(5);
-
+        Mockito.when(storeBookAmountRepository.decrementAmount(storeId, bookId, 10)).thenReturn(0);
         Mockito.when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
-        Mockito.when(storeBookAmountRepository.findByStoreIdAndBookId(storeId, bookId)).thenReturn(Optional.of(sba));
+        Mockito.when(storeBookAmountRepository.existsByStoreIdAndBookId(storeId, bookId)).thenReturn(true);
 
         assertThrows(NotEnoughStockException.class, () -> storeService.removeBookFromStore(storeId, new BookBulkDto(bookId, 10)));
         Mockito.verify(storeBookAmountRepository, Mockito.never()).save(Mockito.any());
@@ -193,8 +191,9 @@ class StoreServiceImplTest {
     @Test
     @DisplayName("Выбрасывает BookNotFoundException когда книга не найдена в магазине")
     void removeBookFromStore_BookNotFound_ThrowsException() {
+        Mockito.when(storeBookAmountRepository.decrementAmount(storeId, bookId, quantity)).thenReturn(0);
         Mockito.when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
-        Mockito.when(storeBookAmountRepository.findByStoreIdAndBookId(storeId, bookId)).thenReturn(Optional.empty());
+        Mockito.when(storeBookAmountRepository.existsByStoreIdAndBookId(storeId, bookId)).thenReturn(false);
 
         assertThrows(BookException.class, () -> storeService.removeBookFromStore(storeId, new BookBulkDto(bookId, quantity)));
         Mockito.verify(storeBookAmountRepository, Mockito.never()).save(Mockito.any());
@@ -223,4 +222,104 @@ class StoreServiceImplTest {
         Mockito.verify(storeBookAmountRepository).findByStoreId(storeId, pageable);
         Mockito.verify(storeBookAmountMapper).toDto(sba);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Добавляет несколько книг в магазин одной пакетной операцией, объединяя повторяющиеся id")
+    void addBooksToStore_DuplicateBookIds_MergesAndUpserts() {
+        List<BookBulkDto> bookBulkDtos = List.of(
+                new BookBulkDto(bookId, 3),
+                new BookBulkDto(2L, 4),
+                new BookBulkDto(bookId, 7)
+        );
+        Mockito.when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
+
+        storeService.addBooksToStore(storeId, bookBulkDtos);
+
+        Mockito.verify(bookService).checkBooksExistence(Set.of(bookId, 2L));
+        Mockito.verify(storeBookAmountRepository).upsertAmounts(storeId, Map.of(bookId, 10, 2L, 4));
+    }
+
+    @Test
+    @DisplayName("Выбрасывает BookException при пакетном удалении, если книги нет в магазине")
+    void removeBooksFromStore_BookNotInStore_ThrowsException() {
+        List<BookBulkDto> bookBulkDtos = List.of(new BookBulkDto(bookId, quantity));
+        Mockito.when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
+        Mockito.when(storeBookAmountRepository.decrementAmounts(storeId, Map.of(bookId, quantity))).thenReturn(List.of(bookId));
+        Mockito.when(storeBookAmountRepository.existsByStoreIdAndBookId(storeId, bookId)).thenReturn(false);
+
+        assertThrows(BookException.class, () -> storeService.removeBooksFromStore(storeId, bookBulkDtos));
+    }
+
+    @Test
+    @DisplayName("Выбрасывает IllegalArgumentException при пакетном удалении с неположительным количеством")
+    void removeBooksFromStore_InvalidQuantity_ThrowsException() {
+        List<BookBulkDto> bookBulkDtos = List.of(new BookBulkDto(bookId, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> storeService.removeBooksFromStore(storeId, bookBulkDtos));
+        Mockito.verify(storeBookAmountRepository, Mockito.never()).decrementAmounts(Mockito.anyLong(), Mockito.anyMap());
+    }
+
+    @Test
+    @DisplayName("При включённом журнале остатков списывает книгу в памяти, не обращаясь к БД")
+    void removeBookFromStore_LedgerEnabled_RemovesFromLedger() {
+        Mockito.when(storeStockLedgerService.isEnabled()).thenReturn(true);
+        Mockito.when(storeStockLedgerService.remove(storeId, Map.of(bookId, quantity))).thenReturn(List.of());
+
+        storeService.removeBookFromStore(storeId, new BookBulkDto(bookId, quantity));
+
+        Mockito.verifyNoInteractions(storeBookAmountRepository, storeRepository, bookService);
+    }
+
+    @Test
+    @DisplayName("При включённом журнале остатков выбрасывает NotEnoughStockException, если в памяти недостаточно книг")
+    void removeBookFromStore_LedgerNotEnoughStock_ThrowsException() {
+        Mockito.when(storeStockLedgerService.isEnabled()).thenReturn(true);
+        Mockito.when(storeStockLedgerService.remove(storeId, Map.of(bookId, quantity))).thenReturn(List.of(bookId));
+        Mockito.when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
+        Mockito.when(storeStockLedgerService.contains(storeId, bookId)).thenReturn(true);
+
+        assertThrows(NotEnoughStockException.class, () -> storeService.removeBookFromStore(storeId, new BookBulkDto(bookId, quantity)));
+        Mockito.verifyNoInteractions(storeBookAmountRepository);
+    }
+
+    @Test
+    @DisplayName("При включённом журнале остатков проверяет магазин и книги только для новых позиций")
+    void addBooksToStore_LedgerEnabled_ValidatesOnlyUnknownBooks() {
+        Mockito.when(storeStockLedgerService.isEnabled()).thenReturn(true);
+        Mockito.when(storeStockLedgerService.contains(storeId, bookId)).thenReturn(true);
+        Mockito.when(storeStockLedgerService.contains(storeId, 2L)).thenReturn(false);
+        Mockito.when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
+
+        storeService.addBooksToStore(storeId, List.of(new BookBulkDto(bookId, 3), new BookBulkDto(2L, 4)));
+
+        Mockito.verify(bookService).checkBooksExistence(Set.of(2L));
+        Mockito.verify(storeStockLedgerService).add(storeId, Map.of(bookId, 3, 2L, 4));
+        Mockito.verifyNoInteractions(storeBookAmountRepository);
+    }
+
+    @Test
+    @DisplayName("Списывает книги с разделёнными счётчиками через слоты, остальные — через основную строку")
+    void removeBooksFromStore_SplitBook_RemovesFromSlots() {
+        Mockito.when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
+        Mockito.when(storeStockSplitService.findSplitQuantities(storeId, Map.of(bookId, 3, 2L, 4))).thenReturn(Map.of(2L, 4));
+        Mockito.when(storeBookAmountRepository.decrementAmounts(storeId, Map.of(bookId, 3))).thenReturn(List.of());
+        Mockito.when(storeStockSplitService.remove(storeId, Map.of(2L, 4))).thenReturn(List.of());
+
+        storeService.removeBooksFromStore(storeId, List.of(new BookBulkDto(bookId, 3), new BookBulkDto(2L, 4)));
+
+        Mockito.verify(storeBookAmountRepository).findAllForUpdate(storeId, Set.of(bookId));
+        Mockito.verify(storeStockSplitService).remove(storeId, Map.of(2L, 4));
+    }
+
+    @Test
+    @DisplayName("Выбрасывает NotEnoughStockException, если в слотах разделённого счётчика недостаточно книг")
+    void removeBookFromStore_SplitNotEnoughStock_ThrowsException() {
+        Mockito.when(storeStockSplitService.findSplitQuantities(storeId, Map.of(bookId, quantity))).thenReturn(Map.of(bookId, quantity));
+        Mockito.when(storeStockSplitService.remove(storeId, Map.of(bookId, quantity))).thenReturn(List.of(bookId));
+        Mockito.when(storeRepository.findById(storeId)).thenReturn(Optional.of(store));
+        Mockito.when(storeBookAmountRepository.existsByStoreIdAndBookId(storeId, bookId)).thenReturn(true);
+
+        assertThrows(NotEnoughStockException.class, () -> storeService.removeBookFromStore(storeId, new BookBulkDto(bookId, quantity)));
+        Mockito.verify(storeBookAmountRepository, Mockito.never()).decrementAmount(storeId, bookId, quantity);
+    }
+}
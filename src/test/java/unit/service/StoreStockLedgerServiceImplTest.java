@@ -0,0 +1,213 @@
+package unit.service;
+
+import com.ifellow.bookstore.dto.projection.StockLevel;
+import com.ifellow.bookstore.model.StockLedgerCheckpoint;
+import com.ifellow.bookstore.repository.StockLedgerCheckpointRepository;
+import com.ifellow.bookstore.repository.StoreBookAmountRepository;
+import com.ifellow.bookstore.service.impl.StoreStockLedgerServiceImpl;
+import com.ifellow.bookstore.service.impl.StoreStockLedgerWriter;
+import com.ifellow.bookstore.util.StockLedgerJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class StoreStockLedgerServiceImplTest {
+
+    @Mock
+    private StoreBookAmountRepository storeBookAmountRepository;
+
+    @Mock
+    private StockLedgerCheckpointRepository stockLedgerCheckpointRepository;
+
+    @Mock
+    private StoreStockLedgerWriter storeStockLedgerWriter;
+
+    @TempDir
+    private Path journalDirectory;
+
+    private StoreStockLedgerServiceImpl ledger;
+    private Long storeId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storeId = 1L;
+
+        Mockito.when(storeBookAmountRepository.findAllStockLevels())
+                .thenReturn(List.of(new StockLevel(storeId, 1L, 10), new StockLevel(storeId, 2L, 5)));
+        Mockito.when(stockLedgerCheckpointRepository.findById(StoreStockLedgerWriter.CHECKPOINT_ID))
+                .thenReturn(Optional.empty());
+
+        ledger = createLedger();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ledger.shutdown();
+    }
+
+    @Test
+    @DisplayName("Загружает остатки магазинов из БД при старте")
+    void init_LoadsStockLevels() {
+        assertEquals(Optional.of(10), ledger.getAmount(storeId, 1L));
+        assertEquals(Optional.of(5), ledger.getAmount(storeId, 2L));
+        assertFalse(ledger.contains(storeId, 3L));
+    }
+
+    @Test
+    @DisplayName("Перед загрузкой остатков возвращает разделённые слоты в основные строки")
+    void init_MergesSplitSlotsBeforeLoadingStockLevels() {
+        InOrder inOrder = Mockito.inOrder(storeStockLedgerWriter, storeBookAmountRepository);
+
+        inOrder.verify(storeStockLedgerWriter).mergeSlots();
+        inOrder.verify(storeBookAmountRepository).findAllStockLevels();
+    }
+
+    @Test
+    @DisplayName("Списывает книги только если остатка хватает по всем позициям")
+    void remove_NotEnoughStockForOneBook_RemovesNothing() {
+        List<Long> failedBookIds = ledger.remove(storeId, Map.of(1L, 4, 2L, 6));
+
+        assertEquals(List.of(2L), failedBookIds);
+        assertEquals(Optional.of(10), ledger.getAmount(storeId, 1L));
+        assertEquals(Optional.of(5), ledger.getAmount(storeId, 2L));
+    }
+
+    @Test
+    @DisplayName("Сбрасывает накопленные изменения в БД одной пачкой и сдвигает контрольную точку")
+    void flush_PendingChanges_WritesDeltasAndCheckpoint() {
+        ledger.remove(storeId, Map.of(1L, 4));
+        ledger.add(storeId, Map.of(1L, 1, 3L, 7));
+
+        ledger.flush();
+
+        Mockito.verify(storeStockLedgerWriter).write(Map.of(storeId, Map.of(1L, -3, 3L, 7)), 5L);
+        assertEquals(Optional.of(7), ledger.getAmount(storeId, 1L));
+        assertEquals(Optional.of(7), ledger.getAmount(storeId, 3L));
+    }
+
+    @Test
+    @DisplayName("Повторяет при старте записи журнала, не сброшенные в БД")
+    void init_JournalAfterCheckpoint_ReplaysEntries() throws IOException {
+        ledger.remove(storeId, Map.of(1L, 4));
+        ledger.flush();
+        ledger.add(storeId, Map.of(2L, 3));
+        ((StockLedgerJournal) ReflectionTestUtils.getField(ledger, "journal")).close();
+
+        Mockito.when(storeBookAmountRepository.findAllStockLevels())
+                .thenReturn(List.of(new StockLevel(storeId, 1L, 6), new StockLevel(storeId, 2L, 5)));
+        Mockito.when(stockLedgerCheckpointRepository.findById(StoreStockLedgerWriter.CHECKPOINT_ID))
+                .thenReturn(Optional.of(new StockLedgerCheckpoint(StoreStockLedgerWriter.CHECKPOINT_ID, 2L)));
+
+        ledger = createLedger();
+
+        assertEquals(Optional.of(6), ledger.getAmount(storeId, 1L));
+        assertEquals(Optional.of(8), ledger.getAmount(storeId, 2L));
+    }
+
+    @Test
+    @DisplayName("Пишет в журнал только зафиксированные транзакции и в порядке их фиксации")
+    void remove_InTransaction_JournalsOnlyAfterCommit() throws IOException {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ledger.remove(storeId, Map.of(1L, 4));
+            ledger.add(storeId, Map.of(2L, 3));
+            ledger.flush();
+
+            Mockito.verify(storeStockLedgerWriter, Mockito.never()).write(Mockito.anyMap(), Mockito.anyLong());
+            assertEquals(Optional.of(6), ledger.getAmount(storeId, 1L));
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.getLast().afterCommit();
+            synchronizations.getLast().afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            synchronizations.getFirst().afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ((StockLedgerJournal) ReflectionTestUtils.getField(ledger, "journal")).close();
+        Mockito.when(stockLedgerCheckpointRepository.findById(StoreStockLedgerWriter.CHECKPOINT_ID))
+                .thenReturn(Optional.of(new StockLedgerCheckpoint(StoreStockLedgerWriter.CHECKPOINT_ID, 0L)));
+
+        ledger = createLedger();
+
+        assertEquals(Optional.of(10), ledger.getAmount(storeId, 1L));
+        assertEquals(Optional.of(8), ledger.getAmount(storeId, 2L));
+    }
+
+    @Test
+    @DisplayName("При повторе журнала пропускает изменения без отметки о фиксации")
+    void init_JournalEntriesWithoutCommitMarker_SkipsThem() throws IOException {
+        ledger.add(storeId, Map.of(2L, 3));
+        ((StockLedgerJournal) ReflectionTestUtils.getField(ledger, "journal")).close();
+        try (Stream<Path> segments = Files.list(journalDirectory)) {
+            for (Path segment : segments.toList()) {
+                byte[] bytes = Files.readAllBytes(segment);
+                if (bytes.length > 0) Files.write(segment, Arrays.copyOf(bytes, bytes.length - 1));
+            }
+        }
+        Mockito.when(stockLedgerCheckpointRepository.findById(StoreStockLedgerWriter.CHECKPOINT_ID))
+                .thenReturn(Optional.of(new StockLedgerCheckpoint(StoreStockLedgerWriter.CHECKPOINT_ID, 0L)));
+
+        ledger = createLedger();
+
+        assertEquals(Optional.of(5), ledger.getAmount(storeId, 2L));
+    }
+
+    @Test
+    @DisplayName("Ведёт остатки для идентификаторов, не помещающихся в int")
+    void add_IdsBeyondIntRange_KeepsSeparateStockLevels() {
+        Long largeStoreId = Integer.MAX_VALUE + 1L;
+        Long largeBookId = 1L << 40;
+
+        ledger.add(largeStoreId, Map.of(largeBookId, 4, 1L, 2));
+        ledger.flush();
+
+        assertEquals(Optional.of(4), ledger.getAmount(largeStoreId, largeBookId));
+        assertEquals(Optional.of(2), ledger.getAmount(largeStoreId, 1L));
+        assertEquals(Optional.of(10), ledger.getAmount(storeId, 1L));
+        assertTrue(ledger.getStockLevels().contains(new StockLevel(largeStoreId, largeBookId, 4)));
+        Mockito.verify(storeStockLedgerWriter).write(Map.of(largeStoreId, Map.of(largeBookId, 4, 1L, 2)), 3L);
+    }
+
+    @Test
+    @DisplayName("Не запускается без явно заданного каталога журнала")
+    void init_NoJournalPath_ThrowsException() {
+        StoreStockLedgerServiceImpl storeStockLedgerService = new StoreStockLedgerServiceImpl(
+                storeBookAmountRepository, stockLedgerCheckpointRepository, storeStockLedgerWriter);
+        ReflectionTestUtils.setField(storeStockLedgerService, "enabled", true);
+        ReflectionTestUtils.setField(storeStockLedgerService, "journalPath", "");
+
+        assertThrows(IllegalStateException.class, storeStockLedgerService::init);
+    }
+
+    private StoreStockLedgerServiceImpl createLedger() throws IOException {
+        StoreStockLedgerServiceImpl storeStockLedgerService = new StoreStockLedgerServiceImpl(
+                storeBookAmountRepository, stockLedgerCheckpointRepository, storeStockLedgerWriter);
+        ReflectionTestUtils.setField(storeStockLedgerService, "enabled", true);
+        ReflectionTestUtils.setField(storeStockLedgerService, "journalPath", journalDirectory.toString());
+        ReflectionTestUtils.setField(storeStockLedgerService, "fsync", false);
+        storeStockLedgerService.init();
+        return storeStockLedgerService;
+    }
+}
@@ -1,5 +1,6 @@
 package unit.service;
 
+import com.ifellow.bookstore.dto.projection.StockLevel;
 import com.ifellow.bookstore.dto.request.BookBulkDto;
 import com.ifellow.bookstore.dto.request.WarehouseRequestDto;
 import com.ifellow.bookstore.dto.response.WarehouseBookResponseDto;
@@ -12,9 +13,11 @@ import com.ifellow.bookstore.mapper.WarehouseMapper;
 import com.ifellow.bookstore.model.Book;
 import com.ifellow.bookstore.model.Warehouse;
 import com.ifellow.bookstore.model.WarehouseBookAmount;
+import com.ifellow.bookstore.repository.StockReservationRepository;
 import com.ifellow.bookstore.repository.WarehouseBookAmountRepository;
 import com.ifellow.bookstore.repository.WarehouseRepository;
 import com.ifellow.bookstore.service.api.BookService;
+import com.ifellow.bookstore.service.api.StockMovementService;
 import com.ifellow.bookstore.service.impl.WarehouseServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -29,7 +32,9 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,6 +56,12 @@ class WarehouseServiceImplTest {
     @Mock
     private WarehouseBookAmountMapper warehouseBookAmountMapper;
 
+    @Mock
+    private StockMovementService stockMovementService;
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
     @InjectMocks
     private WarehouseServiceImpl warehouseService;
 
@@ -116,19 +127,31 @@ class WarehouseServiceImplTest {
         wba.setWarehouse(warehouse);
         wba.setBook(book);
         wba.setAmount(quantity);
+        Mockito.when(warehouseBookAmountRepository.incrementAmount(1L, 1L, quantity)).thenReturn(0);
         Mockito.when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
         Mockito.when(bookService.findBookById(1L)).thenReturn(book);
-        Mockito.when(warehouseBookAmountRepository.findByWarehouseIdAndBookId(1L, 1L)).thenReturn(Optional.empty());
         Mockito.when(warehouseBookAmountRepository.save(Mockito.any(WarehouseBookAmount.class))).thenReturn(wba);
 
         warehouseService.addBookToWarehouse(1L, new BookBulkDto(1L, quantity));
 
+        Mockito.verify(warehouseBookAmountRepository, Mockito.times(1)).incrementAmount(1L, 1L, quantity);
         Mockito.verify(warehouseRepository, Mockito.times(1)).findById(1L);
         Mockito.verify(bookService, Mockito.times(1)).findBookById(1L);
-        Mockito.verify(warehouseBookAmountRepository, Mockito.times(1)).findByWarehouseIdAndBookId(1L, 1L);
         Mockito.verify(warehouseBookAmountRepository, Mockito.times(1)).save(Mockito.any(WarehouseBookAmount.class));
     }
 
+    @Test
+    @DisplayName("WarehouseServiceImpl увеличивает количество книги одним запросом, если она уже есть на складе")
+    void addBookToWarehouse_ExistingBook_IncrementsAmount() {
+        Mockito.when(warehouseBookAmountRepository.incrementAmount(1L, 1L, 10)).thenReturn(1);
+
+        warehouseService.addBookToWarehouse(1L, new BookBulkDto(1L, 10));
+
+        Mockito.verify(warehouseRepository, Mockito.never()).findById(Mockito.anyLong());
+        Mockito.verify(bookService, Mockito.never()).findBookById(Mockito.anyLong());
+        Mockito.verify(warehouseBookAmountRepository, Mockito.never()).save(Mockito.any());
+    }
+
     @Test
     @DisplayName("WarehouseServiceImpl выбрасывает исключение, если quantity <= 0")
     void addBookToWarehouse_InvalidQuantity_ThrowsException() {
@@ -139,41 +162,60 @@ class WarehouseServiceImplTest {
     @Test
     @DisplayName("WarehouseServiceImpl успешно удаляет книги со склада")
     void removeBookFromWarehouse_ValidData_RemoveBook() {
-        int initialAmount = 10;
-        int quantityToRemove = 5;
-        WarehouseBookAmount wba = new WarehouseBookAmount();
-        wba.setWarehouse(warehouse);
-        wba.setBook(book);
-        wba.setAmount(initialAmount);
-        Mockito.when(warehouseRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(warehouseBookAmountRepository.findByWarehouseIdAndBookId(1L, 1L)).thenReturn(Optional.of(wba));
+        Mockito.when(warehouseBookAmountRepository.decrementAmount(1L, 1L, 5)).thenReturn(1);
 
-        warehouseService.removeBookFromWarehouse(1L, new BookBulkDto(1L, quantityToRemove));
+        warehouseService.removeBookFromWarehouse(1L, new BookBulkDto(1L, 5));
 
-        assertEquals(initialAmount - quantityToRemove, wba.getAmount());
-        Mockito.verify(warehouseBookAmountRepository, Mockito.times(1)).save(wba);
+        Mockito.verify(warehouseBookAmountRepository, Mockito.times(1)).decrementAmount(1L, 1L, 5);
+        Mockito.verify(warehouseRepository, Mockito.never()).existsById(Mockito.anyLong());
+        Mockito.verify(warehouseBookAmountRepository, Mockito.never()).save(Mockito.any());
     }
 
     @Test
     @DisplayName("WarehouseServiceImpl выбрасывает исключение, если недостаточно книг")
     void removeBookFromWarehouse_NotEnoughStock_ThrowsException() {
-        WarehouseBookAmount wba = new WarehouseBookAmount();
-        wba.setAmount(5);
+        Mockito.when(warehouseBookAmountRepository.decrementAmount(1L, 1L, 10)).thenReturn(0);
         Mockito.when(warehouseRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(warehouseBookAmountRepository.findByWarehouseIdAndBookId(1L, 1L)).thenReturn(Optional.of(wba));
+        Mockito.when(warehouseBookAmountRepository.existsByWarehouseIdAndBookId(1L, 1L)).thenReturn(true);
 
         assertThrows(NotEnoughStockException.class, () -> warehouseService.removeBookFromWarehouse(1L, new BookBulkDto(1L, 10)));
     }
 
+    @Test
+    @DisplayName("WarehouseServiceImpl не списывает книги, зарезервированные заказами")
+    @SuppressWarnings("unchecked")
+    void removeBookFromWarehouse_StockReserved_ThrowsException() {
+        WarehouseBookAmount warehouseBookAmount = new WarehouseBookAmount();
+        warehouseBookAmount.setBook(book);
+        warehouseBookAmount.setAmount(10);
+        Mockito.when(warehouseBookAmountRepository.findAllForUpdate(Mockito.eq(1L), Mockito.anyCollection()))
+                .thenReturn(List.of(warehouseBookAmount));
+        Mockito.when(stockReservationRepository.sumActiveByWarehouseIdAndBookIds(Mockito.eq(1L), Mockito.anyCollection(), Mockito.any()))
+                .thenReturn(List.of(new StockLevel(1L, 1L, 8)));
+
+        assertThrows(NotEnoughStockException.class, () -> warehouseService.removeBookFromWarehouse(1L, new BookBulkDto(1L, 5)));
+        Mockito.verify(warehouseBookAmountRepository, Mockito.never()).decrementAmount(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt());
+    }
+
     @Test
     @DisplayName("WarehouseServiceImpl выбрасывает исключение, если книга не найдена на складе")
     void removeBookFromWarehouse_BookNotFound_ThrowsException() {
+        Mockito.when(warehouseBookAmountRepository.decrementAmount(1L, 1L, 5)).thenReturn(0);
         Mockito.when(warehouseRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(warehouseBookAmountRepository.findByWarehouseIdAndBookId(1L, 1L)).thenReturn(Optional.empty());
+        Mockito.when(warehouseBookAmountRepository.existsByWarehouseIdAndBookId(1L, 1L)).thenReturn(false);
 
         assertThrows(BookException.class, () -> warehouseService.removeBookFromWarehouse(1L, new BookBulkDto(1L, 5)));
     }
 
+    @Test
+    @DisplayName("WarehouseServiceImpl выбрасывает исключение, если склад не найден при удалении книг")
+    void removeBookFromWarehouse_WarehouseNotFound_ThrowsException() {
+        Mockito.when(warehouseBookAmountRepository.decrementAmount(1L, 1L, 5)).thenReturn(0);
+        Mockito.when(warehouseRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(WarehouseException.class, () -> warehouseService.removeBookFromWarehouse(1L, new BookBulkDto(1L, 5)));
+    }
+
     @Test
     @DisplayName("WarehouseServiceImpl возвращает запасы склада")
     void getWarehouseStock_ValidId_ReturnStock() {
@@ -197,24 +239,59 @@ class WarehouseServiceImplTest {
     }
 
     @Test
-    @DisplayName("WarehouseServiceImpl успешно добавляет несколько книг")
+    @DisplayName("WarehouseServiceImpl успешно добавляет несколько книг одной пакетной операцией")
     void bulkAddBooks_ValidData_AddBooks() {
         List<BookBulkDto> booksToAdd = List.of(
+                new BookBulkDto(2L, 10),
                 new BookBulkDto(1L, 5),
-                new BookBulkDto(2L, 10)
+                new BookBulkDto(2L, 3)
         );
-        Mockito.when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
-        Mockito.when(bookService.findBookById(1L)).thenReturn(book);
-        Mockito.when(warehouseBookAmountRepository.findByWarehouseIdAndBookId(1L, 1L)).thenReturn(Optional.empty());
-        Mockito.when(warehouseBookAmountRepository.save(Mockito.any(WarehouseBookAmount.class))).thenReturn(new WarehouseBookAmount());
-        Mockito.when(bookService.findBookById(2L)).thenReturn(new Book());
-        Mockito.when(warehouseBookAmountRepository.findByWarehouseIdAndBookId(1L, 2L)).thenReturn(Optional.empty());
+        Mockito.when(warehouseRepository.existsById(1L)).thenReturn(true);
 
         warehouseService.addBooksToWarehouse(1L, booksToAdd);
 
-        Mockito.verify(warehouseBookAmountRepository, Mockito.times(2)).save(Mockito.any(WarehouseBookAmount.class));
-        Mockito.verify(warehouseRepository, Mockito.times(2)).findById(1L);
-        Mockito.verify(bookService, Mockito.times(1)).findBookById(1L);
-        Mockito.verify(bookService, Mockito.times(1)).findBookById(2L);
+        Mockito.verify(bookService, Mockito.times(1)).checkBooksExistence(Set.of(1L, 2L));
+        Mockito.verify(warehouseBookAmountRepository, Mockito.times(1)).upsertAmounts(1L, Map.of(1L, 5, 2L, 13));
+        Mockito.verify(bookService, Mockito.never()).findBookById(Mockito.anyLong());
+        Mockito.verify(warehouseBookAmountRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("WarehouseServiceImpl выбрасывает исключение при пакетном добавлении на несуществующий склад")
+    void bulkAddBooks_WarehouseNotFound_ThrowsException() {
+        Mockito.when(warehouseRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(WarehouseException.class, () -> warehouseService.addBooksToWarehouse(1L, List.of(new BookBulkDto(1L, 5))));
+        Mockito.verify(warehouseBookAmountRepository, Mockito.never()).upsertAmounts(Mockito.anyLong(), Mockito.anyMap());
+    }
+
+    @Test
+    @DisplayName("WarehouseServiceImpl успешно удаляет несколько книг одной пакетной операцией")
+    void bulkRemoveBooks_ValidData_RemovesBooks() {
+        List<BookBulkDto> booksToRemove = List.of(
+                new BookBulkDto(1L, 5),
+                new BookBulkDto(1L, 5)
+        );
+        Mockito.when(warehouseRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(warehouseBookAmountRepository.decrementAmounts(1L, Map.of(1L, 10))).thenReturn(List.of());
+
+        warehouseService.removeBooksFromWarehouse(1L, booksToRemove);
+
+        Mockito.verify(bookService, Mockito.times(1)).checkBooksExistence(Set.of(1L));
+        Mockito.verify(warehouseBookAmountRepository, Mockito.times(1)).decrementAmounts(1L, Map.of(1L, 10));
+    }
+
+    @Test
+    @DisplayName("WarehouseServiceImpl выбрасывает исключение, если при пакетном удалении недостаточно книг")
+    void bulkRemoveBooks_NotEnoughStock_ThrowsException() {
+        List<BookBulkDto> booksToRemove = List.of(
+                new BookBulkDto(1L, 5),
+                new BookBulkDto(2L, 5)
+        );
+        Mockito.when(warehouseRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(warehouseBookAmountRepository.decrementAmounts(1L, Map.of(1L, 5, 2L, 5))).thenReturn(List.of(2L));
+        Mockito.when(warehouseBookAmountRepository.existsByWarehouseIdAndBookId(1L, 2L)).thenReturn(true);
+
+        assertThrows(NotEnoughStockException.class, () -> warehouseService.removeBooksFromWarehouse(1L, booksToRemove));
     }
-}
\ No newline at end of file
+}